@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.commons.datacarrier;
 
+import java.util.function.Supplier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumeDriver;
@@ -26,6 +27,8 @@ import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IDriver;
 import org.apache.skywalking.apm.commons.datacarrier.partition.IDataPartitioner;
 import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
 
 /**
  * DataCarrier main class. use this instance to set Producer/Consumer Model.
@@ -34,6 +37,7 @@ public class DataCarrier<T> {
     private Channels<T> channels;
     private IDriver driver;
     private String name;
+    private Supplier<WaitStrategy> waitStrategySupplier = WaitStrategyType.SLEEPING;
 
     public DataCarrier(int channelSize, int bufferSize) {
         this("DEFAULT", channelSize, bufferSize);
@@ -70,6 +74,19 @@ public class DataCarrier<T> {
         return this;
     }
 
+    /**
+     * set the {@link WaitStrategy} of the consumer threads, which are created by the following {@link
+     * DataCarrier#consume}. The consumer pool decides the wait strategy by itself, see {@link
+     * org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool.Creator}.
+     *
+     * @param waitStrategySupplier to create one wait strategy for each consumer thread.
+     * @return DataCarrier instance for chain
+     */
+    public DataCarrier setWaitStrategy(Supplier<WaitStrategy> waitStrategySupplier) {
+        this.waitStrategySupplier = waitStrategySupplier;
+        return this;
+    }
+
     /**
      * produce data to buffer, using the given {@link BufferStrategy}.
      *
@@ -95,7 +112,7 @@ public class DataCarrier<T> {
         if (driver != null) {
             driver.close(channels);
         }
-        driver = new ConsumeDriver<T>(this.name, this.channels, consumerClass, num, consumeCycle);
+        driver = new ConsumeDriver<T>(this.name, this.channels, consumerClass, num, consumeCycle, waitStrategySupplier);
         driver.begin(channels);
         return this;
     }
@@ -121,7 +138,7 @@ public class DataCarrier<T> {
         if (driver != null) {
             driver.close(channels);
         }
-        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle);
+        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle, waitStrategySupplier);
         driver.begin(channels);
         return this;
     }
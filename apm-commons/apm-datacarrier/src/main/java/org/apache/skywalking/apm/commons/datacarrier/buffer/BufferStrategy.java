@@ -19,5 +19,30 @@
 package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
 public enum BufferStrategy {
-    BLOCKING, IF_POSSIBLE
+    BLOCKING(false, false),
+    IF_POSSIBLE(false, true),
+    /**
+     * Use {@link RingBuffer}, the producer waits for the free slot when the buffer is full.
+     */
+    RING_BLOCKING(true, false),
+    /**
+     * Use {@link RingBuffer}, the data is abandoned when the buffer is full.
+     */
+    RING_IF_POSSIBLE(true, true);
+
+    private final boolean ring;
+    private final boolean dropWhenFull;
+
+    BufferStrategy(boolean ring, boolean dropWhenFull) {
+        this.ring = ring;
+        this.dropWhenFull = dropWhenFull;
+    }
+
+    public boolean isRing() {
+        return ring;
+    }
+
+    public boolean isDropWhenFull() {
+        return dropWhenFull;
+    }
 }
@@ -37,6 +37,8 @@ public class Channels<T> {
         for (int i = 0; i < channelSize; i++) {
             if (BufferStrategy.BLOCKING.equals(strategy)) {
                 bufferChannels[i] = new ArrayBlockingQueueBuffer<>(bufferSize, strategy);
+            } else if (strategy.isRing()) {
+                bufferChannels[i] = new RingBuffer<>(bufferSize, strategy);
             } else {
                 bufferChannels[i] = new Buffer<>(bufferSize, strategy);
             }
@@ -48,7 +50,7 @@ public class Channels<T> {
     public boolean save(T data) {
         int index = dataPartitioner.partition(bufferChannels.length, data);
         int retryCountDown = 1;
-        if (BufferStrategy.IF_POSSIBLE.equals(strategy)) {
+        if (strategy.isDropWhenFull()) {
             int maxRetryCount = dataPartitioner.maxRetryCount();
             if (maxRetryCount > 1) {
                 retryCountDown = maxRetryCount;
@@ -19,6 +19,7 @@
 package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
 import java.util.List;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategy;
 
 /**
  * Queue buffer interface.
@@ -37,6 +38,13 @@ public interface QueueBuffer<T> {
      */
     void setStrategy(BufferStrategy strategy);
 
+    /**
+     * Bind the wait strategy of the consumer thread, which should be signaled after new data saved. The buffers which
+     * can't notify the consumer ignore it, and the consumer waits for the whole consume cycle.
+     */
+    default void setWaitStrategy(WaitStrategy waitStrategy) {
+    }
+
     /**
      * Obtain the existing data from the queue
      */
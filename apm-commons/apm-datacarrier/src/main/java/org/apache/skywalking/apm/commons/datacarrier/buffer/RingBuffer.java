@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.skywalking.apm.commons.datacarrier.common.Sequence;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategy;
+
+/**
+ * Sequence based multi-producer single-consumer ring queue.
+ * <p>
+ * Producers claim a sequence by CAS on the padded claim cursor, write the slot, then publish the sequence into the
+ * availability array. The consumer only drains the continuous published range between its own cursor and the claim
+ * cursor, rather than scanning the whole array like {@link Buffer}. After publishing, the producer signals the {@link
+ * WaitStrategy} of the consumer thread, so the consumer doesn't need to wait a full consume cycle.
+ * <p>
+ * The capacity is rounded up to the power of 2. Only one consumer thread should obtain from one ring buffer, which is
+ * guaranteed by the consume drivers, as every channel is assigned to one consumer thread.
+ */
+public class RingBuffer<T> implements QueueBuffer<T> {
+    private final Object[] slots;
+    private final int mask;
+    /**
+     * The published sequence of each slot, -1 means never published.
+     */
+    private final AtomicLongArray available;
+    /**
+     * The last claimed sequence by the producers.
+     */
+    private final Sequence claimed = new Sequence(-1);
+    /**
+     * The last consumed sequence by the consumer.
+     */
+    private final Sequence consumed = new Sequence(-1);
+    private volatile BufferStrategy strategy;
+    private volatile WaitStrategy waitStrategy;
+
+    RingBuffer(int bufferSize, BufferStrategy strategy) {
+        int capacity = 1;
+        while (capacity < bufferSize) {
+            capacity <<= 1;
+        }
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+        this.available = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            available.set(i, -1);
+        }
+        this.strategy = strategy;
+    }
+
+    @Override
+    public boolean save(T data) {
+        long sequence;
+        while (true) {
+            long current = claimed.get();
+            sequence = current + 1;
+            if (sequence - slots.length > consumed.get()) {
+                if (strategy.isDropWhenFull()) {
+                    return false;
+                }
+                LockSupport.parkNanos(1);
+                continue;
+            }
+            if (claimed.compareAndSet(current, sequence)) {
+                break;
+            }
+        }
+
+        int index = (int) sequence & mask;
+        slots[index] = data;
+        available.lazySet(index, sequence);
+
+        WaitStrategy waitStrategy = this.waitStrategy;
+        if (waitStrategy != null) {
+            waitStrategy.signal();
+        }
+        return true;
+    }
+
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void obtain(List<T> consumeList) {
+        long last = consumed.get();
+        long end = claimed.get();
+        long sequence = last + 1;
+        for (; sequence <= end; sequence++) {
+            int index = (int) sequence & mask;
+            if (available.get(index) != sequence) {
+                // Claimed but not published yet, keep the order and stop here.
+                break;
+            }
+            consumeList.add((T) slots[index]);
+            slots[index] = null;
+        }
+        if (sequence - 1 != last) {
+            consumed.lazySet(sequence - 1);
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A padded long cursor, used by the ring buffer to track the claimed and consumed positions. Same as {@link
+ * AtomicRangeInteger}, the value lives in the middle of an array to avoid false sharing with the neighbour fields.
+ */
+public class Sequence {
+    private static final int VALUE_OFFSET = 7;
+
+    private final AtomicLongArray values;
+
+    public Sequence(long initialValue) {
+        this.values = new AtomicLongArray(15);
+        this.values.set(VALUE_OFFSET, initialValue);
+    }
+
+    public final long get() {
+        return values.get(VALUE_OFFSET);
+    }
+
+    /**
+     * Ordered write, it is visible to other threads eventually, but cheaper than the volatile set.
+     */
+    public final void lazySet(long value) {
+        values.lazySet(VALUE_OFFSET, value);
+    }
+
+    public final boolean compareAndSet(long expected, long value) {
+        return values.compareAndSet(VALUE_OFFSET, expected, value);
+    }
+}
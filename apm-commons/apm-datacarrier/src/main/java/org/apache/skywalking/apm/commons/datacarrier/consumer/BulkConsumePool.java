@@ -21,8 +21,11 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 import org.apache.skywalking.apm.commons.datacarrier.EnvUtil;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
 
 /**
  * BulkConsumePool works for consuming data from multiple channels(DataCarrier instances), with multiple {@link
@@ -35,10 +38,15 @@ public class BulkConsumePool implements ConsumerPool {
     private volatile boolean isStarted = false;
 
     public BulkConsumePool(String name, int size, long consumeCycle) {
+        this(name, size, consumeCycle, WaitStrategyType.SLEEPING);
+    }
+
+    public BulkConsumePool(String name, int size, long consumeCycle, Supplier<WaitStrategy> waitStrategySupplier) {
         size = EnvUtil.getInt(name + "_THREAD", size);
         allConsumers = new ArrayList<MultipleChannelsConsumer>(size);
         for (int i = 0; i < size; i++) {
-            MultipleChannelsConsumer multipleChannelsConsumer = new MultipleChannelsConsumer("DataCarrier." + name + ".BulkConsumePool." + i + ".Thread", consumeCycle);
+            MultipleChannelsConsumer multipleChannelsConsumer = new MultipleChannelsConsumer(
+                "DataCarrier." + name + ".BulkConsumePool." + i + ".Thread", consumeCycle, waitStrategySupplier.get());
             multipleChannelsConsumer.setDaemon(true);
             allConsumers.add(multipleChannelsConsumer);
         }
@@ -99,16 +107,22 @@ public class BulkConsumePool implements ConsumerPool {
         private String name;
         private int size;
         private long consumeCycle;
+        private Supplier<WaitStrategy> waitStrategySupplier;
 
         public Creator(String name, int poolSize, long consumeCycle) {
+            this(name, poolSize, consumeCycle, WaitStrategyType.SLEEPING);
+        }
+
+        public Creator(String name, int poolSize, long consumeCycle, Supplier<WaitStrategy> waitStrategySupplier) {
             this.name = name;
             this.size = poolSize;
             this.consumeCycle = consumeCycle;
+            this.waitStrategySupplier = waitStrategySupplier;
         }
 
         @Override
         public ConsumerPool call() {
-            return new BulkConsumePool(name, size, consumeCycle);
+            return new BulkConsumePool(name, size, consumeCycle, waitStrategySupplier);
         }
 
         public static int recommendMaxSize() {
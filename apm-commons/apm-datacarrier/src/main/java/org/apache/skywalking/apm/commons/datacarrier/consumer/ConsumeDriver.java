@@ -20,7 +20,10 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
 
 /**
  * Pool of consumers <p> Created by wusheng on 2016/10/25.
@@ -33,18 +36,34 @@ public class ConsumeDriver<T> implements IDriver {
 
     public ConsumeDriver(String name, Channels<T> channels, Class<? extends IConsumer<T>> consumerClass, int num,
         long consumeCycle) {
+        this(name, channels, consumerClass, num, consumeCycle, WaitStrategyType.SLEEPING);
+    }
+
+    public ConsumeDriver(String name, Channels<T> channels, Class<? extends IConsumer<T>> consumerClass, int num,
+        long consumeCycle, Supplier<WaitStrategy> waitStrategySupplier) {
         this(channels, num);
         for (int i = 0; i < num; i++) {
-            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumer." + i + ".Thread", getNewConsumerInstance(consumerClass), consumeCycle);
+            consumerThreads[i] = new ConsumerThread(
+                "DataCarrier." + name + ".Consumer." + i + ".Thread", getNewConsumerInstance(consumerClass),
+                consumeCycle, waitStrategySupplier.get()
+            );
             consumerThreads[i].setDaemon(true);
         }
     }
 
     public ConsumeDriver(String name, Channels<T> channels, IConsumer<T> prototype, int num, long consumeCycle) {
+        this(name, channels, prototype, num, consumeCycle, WaitStrategyType.SLEEPING);
+    }
+
+    public ConsumeDriver(String name, Channels<T> channels, IConsumer<T> prototype, int num, long consumeCycle,
+        Supplier<WaitStrategy> waitStrategySupplier) {
         this(channels, num);
         prototype.init();
         for (int i = 0; i < num; i++) {
-            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumer." + i + ".Thread", prototype, consumeCycle);
+            consumerThreads[i] = new ConsumerThread(
+                "DataCarrier." + name + ".Consumer." + i + ".Thread", prototype, consumeCycle,
+                waitStrategySupplier.get()
+            );
             consumerThreads[i].setDaemon(true);
         }
 
@@ -22,25 +22,34 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Buffer;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.apm.commons.datacarrier.wait.SleepingWaitStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategy;
 
 public class ConsumerThread<T> extends Thread {
     private volatile boolean running;
     private IConsumer<T> consumer;
     private List<DataSource> dataSources;
     private long consumeCycle;
+    private final WaitStrategy waitStrategy;
 
     ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle) {
+        this(threadName, consumer, consumeCycle, new SleepingWaitStrategy());
+    }
+
+    ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumer = consumer;
         running = false;
         dataSources = new ArrayList<DataSource>(1);
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
     }
 
     /**
      * add whole buffer to consume
      */
     void addDataSource(QueueBuffer<T> sourceBuffer) {
+        sourceBuffer.setWaitStrategy(waitStrategy);
         this.dataSources.add(new DataSource(sourceBuffer));
     }
 
@@ -51,10 +60,7 @@ public class ConsumerThread<T> extends Thread {
         final List<T> consumeList = new ArrayList<T>(1500);
         while (running) {
             if (!consume(consumeList)) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
-                }
+                waitStrategy.waitFor(consumeCycle);
             }
         }
 
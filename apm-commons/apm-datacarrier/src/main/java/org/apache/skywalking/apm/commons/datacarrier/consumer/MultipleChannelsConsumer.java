@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.apm.commons.datacarrier.wait.SleepingWaitStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategy;
 
 /**
  * MultipleChannelsConsumer represent a single consumer thread, but support multiple channels with their {@link
@@ -33,11 +35,17 @@ public class MultipleChannelsConsumer extends Thread {
     @SuppressWarnings("NonAtomicVolatileUpdate")
     private volatile long size;
     private final long consumeCycle;
+    private final WaitStrategy waitStrategy;
 
     public MultipleChannelsConsumer(String threadName, long consumeCycle) {
+        this(threadName, consumeCycle, new SleepingWaitStrategy());
+    }
+
+    public MultipleChannelsConsumer(String threadName, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumeTargets = new ArrayList<Group>();
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
     }
 
     @Override
@@ -53,10 +61,7 @@ public class MultipleChannelsConsumer extends Thread {
             }
 
             if (!hasData) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
-                }
+                waitStrategy.waitFor(consumeCycle);
             }
         }
 
@@ -94,6 +99,9 @@ public class MultipleChannelsConsumer extends Thread {
      */
     public void addNewTarget(Channels channels, IConsumer consumer) {
         Group group = new Group(channels, consumer);
+        for (int i = 0; i < channels.getChannelSize(); i++) {
+            channels.getBuffer(i).setWaitStrategy(waitStrategy);
+        }
         // Recreate the new list to avoid change list while the list is used in consuming.
         ArrayList<Group> newList = new ArrayList<Group>();
         for (Group target : consumeTargets) {
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.wait;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Park the consumer thread for at most one consume cycle, and unpark it as soon as a producer publishes new data. The
+ * producers only pay the cost of {@link LockSupport#unpark(Thread)} when the consumer is really parked.
+ */
+public class ParkingWaitStrategy implements WaitStrategy {
+    private volatile Thread waiter;
+
+    @Override
+    public void waitFor(long consumeCycle) {
+        waiter = Thread.currentThread();
+        try {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(consumeCycle));
+        } finally {
+            waiter = null;
+        }
+        // Clear the flag, otherwise the following parks return immediately.
+        Thread.interrupted();
+    }
+
+    @Override
+    public void signal() {
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
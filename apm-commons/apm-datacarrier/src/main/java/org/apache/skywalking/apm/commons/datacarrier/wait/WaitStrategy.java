@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.wait;
+
+/**
+ * WaitStrategy decides how a consumer thread waits when it has nothing to consume, and how the producers wake it up.
+ * Each consumer thread owns its own instance, and every buffer consumed by this thread signals it after publishing.
+ */
+public interface WaitStrategy {
+    /**
+     * Called by the consumer thread, when the last loop obtained nothing from the buffers.
+     *
+     * @param consumeCycle the max time to wait, unit is millisecond.
+     */
+    void waitFor(long consumeCycle);
+
+    /**
+     * Called by the producer thread, after the data has been published into the buffer. The implementation should be
+     * cheap when no consumer is waiting.
+     */
+    void signal();
+}
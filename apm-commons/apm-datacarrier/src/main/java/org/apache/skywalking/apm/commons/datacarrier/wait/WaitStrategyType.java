@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.wait;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * The built-in {@link WaitStrategy}s, which could be chosen by name in the agent and OAP configurations. Each call of
+ * {@link #get()} creates a new instance, as every consumer thread requires its own.
+ */
+public enum WaitStrategyType implements Supplier<WaitStrategy> {
+    SLEEPING {
+        @Override
+        public WaitStrategy get() {
+            return new SleepingWaitStrategy();
+        }
+    },
+    BUSY_SPIN {
+        @Override
+        public WaitStrategy get() {
+            return new BusySpinWaitStrategy();
+        }
+    },
+    YIELDING {
+        @Override
+        public WaitStrategy get() {
+            return new YieldingWaitStrategy();
+        }
+    },
+    PARKING {
+        @Override
+        public WaitStrategy get() {
+            return new ParkingWaitStrategy();
+        }
+    },
+    BLOCKING {
+        @Override
+        public WaitStrategy get() {
+            return new BlockingWaitStrategy();
+        }
+    };
+
+    /**
+     * @return the type matching the name ignoring the case, or {@link #SLEEPING} if the name is empty.
+     * @throws IllegalArgumentException if the name matches none of the types.
+     */
+    public static WaitStrategyType fromName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return SLEEPING;
+        }
+        for (WaitStrategyType type : WaitStrategyType.values()) {
+            if (type.name().equalsIgnoreCase(name.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException(
+            "Unknown wait strategy " + name + ", the valid ones are " + Arrays.toString(WaitStrategyType.values()));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RingBufferTest {
+
+    @Test
+    public void testCapacityRoundUp() {
+        RingBuffer<SampleData> buffer = new RingBuffer<>(100, BufferStrategy.RING_IF_POSSIBLE);
+        Assert.assertEquals(128, buffer.getBufferSize());
+    }
+
+    @Test
+    public void testIfPossibleWhenFull() {
+        RingBuffer<SampleData> buffer = new RingBuffer<>(8, BufferStrategy.RING_IF_POSSIBLE);
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(buffer.save(new SampleData().setIntValue(i)));
+        }
+        Assert.assertFalse(buffer.save(new SampleData().setIntValue(8)));
+
+        List<SampleData> consumeList = new ArrayList<>();
+        buffer.obtain(consumeList);
+        Assert.assertEquals(8, consumeList.size());
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals(i, consumeList.get(i).getIntValue());
+        }
+
+        Assert.assertTrue(buffer.save(new SampleData().setIntValue(9)));
+        consumeList.clear();
+        buffer.obtain(consumeList);
+        Assert.assertEquals(1, consumeList.size());
+        Assert.assertEquals(9, consumeList.get(0).getIntValue());
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        final RingBuffer<SampleData> buffer = new RingBuffer<>(64, BufferStrategy.RING_BLOCKING);
+        final int producers = 4;
+        final int perProducer = 10000;
+        final CountDownLatch latch = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.save(new SampleData().setIntValue(base + i));
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        Set<Integer> received = new HashSet<>();
+        List<SampleData> consumeList = new ArrayList<>();
+        while (received.size() < producers * perProducer) {
+            buffer.obtain(consumeList);
+            for (SampleData data : consumeList) {
+                Assert.assertTrue(received.add(data.getIntValue()));
+            }
+            consumeList.clear();
+        }
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        buffer.obtain(consumeList);
+        Assert.assertTrue(consumeList.isEmpty());
+    }
+
+    @Test
+    public void testConsumerSignaled() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        DataCarrier<SampleData> carrier = new DataCarrier<>(
+            "RingBufferTest", "RingBufferTest", 1, 16, BufferStrategy.RING_IF_POSSIBLE);
+        carrier.setWaitStrategy(WaitStrategyType.PARKING).consume(new IConsumer<SampleData>() {
+            @Override
+            public void init() {
+            }
+
+            @Override
+            public void consume(List<SampleData> data) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(List<SampleData> data, Throwable t) {
+            }
+
+            @Override
+            public void onExit() {
+            }
+        }, 1, 60_000);
+
+        // Make sure the consumer has parked, the signal should wake it up far before the consume cycle.
+        Thread.sleep(200);
+        Assert.assertTrue(carrier.produce(new SampleData().setIntValue(1)));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        carrier.shutdownConsumers();
+    }
+}
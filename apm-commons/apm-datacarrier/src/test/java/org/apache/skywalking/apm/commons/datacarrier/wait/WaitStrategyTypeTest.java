@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.wait;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WaitStrategyTypeTest {
+
+    @Test
+    public void testFromName() {
+        Assert.assertEquals(WaitStrategyType.PARKING, WaitStrategyType.fromName("parking"));
+        Assert.assertEquals(WaitStrategyType.BUSY_SPIN, WaitStrategyType.fromName(" BUSY_SPIN "));
+    }
+
+    @Test
+    public void testEmptyNameDefaultsToSleeping() {
+        Assert.assertEquals(WaitStrategyType.SLEEPING, WaitStrategyType.fromName(null));
+        Assert.assertEquals(WaitStrategyType.SLEEPING, WaitStrategyType.fromName(""));
+    }
+
+    @Test
+    public void testUnknownName() {
+        try {
+            WaitStrategyType.fromName("PARKIN");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("PARKIN"));
+            Assert.assertTrue(e.getMessage().contains("BLOCKING"));
+        }
+    }
+}
@@ -22,12 +22,15 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.apache.skywalking.apm.agent.core.context.ids.GlobalIdFormat;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.core.LogLevel;
 import org.apache.skywalking.apm.agent.core.logging.core.LogOutput;
 import org.apache.skywalking.apm.agent.core.logging.core.ResolverType;
 import org.apache.skywalking.apm.agent.core.logging.core.WriterFactory;
 import org.apache.skywalking.apm.agent.core.plugin.bytebuddy.ClassCacheMode;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
 import org.apache.skywalking.apm.util.Length;
 
 /**
@@ -60,6 +63,24 @@ public class Config {
          */
         public static int SAMPLE_N_PER_3_SECS = -1;
 
+        /**
+         * How to spend the budget of {@code #SAMPLE_N_PER_3_SECS}. GLOBAL samples the first N traces of the service in
+         * every 3 seconds. ENDPOINT shares the budget by the endpoints(the first operation names) active in the last 3
+         * seconds, and every endpoint samples at least {@code #SAMPLE_MIN_PER_ENDPOINT_PER_3_SECS} traces.
+         */
+        public static SamplingStrategy SAMPLING_STRATEGY = SamplingStrategy.GLOBAL;
+
+        /**
+         * The guaranteed samples of every endpoint in 3 seconds, when {@code #SAMPLING_STRATEGY} is ENDPOINT.
+         */
+        public static int SAMPLE_MIN_PER_ENDPOINT_PER_3_SECS = 1;
+
+        /**
+         * The max number of the endpoints sampled separately, when {@code #SAMPLING_STRATEGY} is ENDPOINT. The other
+         * endpoints share one budget.
+         */
+        public static int SAMPLE_ENDPOINT_LIMIT = 1000;
+
         /**
          * If the operation name of the first span is included in this set, this segment should be ignored.
          * Multiple values should be separated by `,`.
@@ -71,6 +92,13 @@ public class Config {
          */
         public static int TRACE_SEGMENT_REF_LIMIT_PER_SPAN = 500;
 
+        /**
+         * The format of the trace and segment IDs. DEFAULT is `{instance UUID}.{thread ID}.{timestamp * 10000 +
+         * sequence}`. COMPACT packs the same parts into 128 bits, rendered as 32 hex chars, which is cheaper to
+         * generate and shorter on the wire and in the storage. The OAP accepts both.
+         */
+        public static GlobalIdFormat ID_FORMAT = GlobalIdFormat.DEFAULT;
+
         /**
          * The max number of spans in a single segment. Through this config item, SkyWalking keep your application
          * memory cost estimated.
@@ -96,6 +124,18 @@ public class Config {
          */
         public static ClassCacheMode CLASS_CACHE_MODE = ClassCacheMode.MEMORY;
 
+        /**
+         * If true, SkyWalking agent persists the fingerprints of the classes not enhanced by any plugin in the
+         * `/class-cache` folder. These classes skip the transformation in the next start, if the agent, plugins,
+         * agent settings and application classpath are not changed.
+         */
+        public static boolean IS_CACHE_UNENHANCED_CLASS = false;
+
+        /**
+         * The max number of the persisted unenhanced classes.
+         */
+        public static int UNENHANCED_CLASS_CACHE_MAX_SIZE = 200000;
+
         /**
          * The identifier of the instance
          */
@@ -165,6 +205,20 @@ public class Config {
          * How long grpc client will timeout in sending data to upstream.
          */
         public static int GRPC_UPSTREAM_TIMEOUT = 30;
+        /**
+         * If greater than 0, the trace segments are sent in batches through the unary `collectInSync` RPC. A batch is
+         * sent once its serialized segments reach this number of bytes, or it has waited for {@link
+         * #SEGMENT_UPLINK_FLUSH_INTERVAL}. Otherwise, the segments of every consumed batch are streamed one by one.
+         */
+        public static int SEGMENT_UPLINK_BATCH_BYTES = 0;
+        /**
+         * The max time in milliseconds a segment waits in the batch before being sent.
+         */
+        public static long SEGMENT_UPLINK_FLUSH_INTERVAL = 1000;
+        /**
+         * The gRPC compression of the trace segment uplink, `gzip` or empty for none.
+         */
+        public static String SEGMENT_UPLINK_COMPRESSION = "";
         /**
          * Get profile task list interval
          */
@@ -201,6 +255,11 @@ public class Config {
          */
         public static int DUMP_MAX_STACK_DEPTH = 500;
 
+        /**
+         * The max number of the stack frames interned per profile task, whose code signatures are built once.
+         */
+        public static int FRAME_DICTIONARY_SIZE = 10000;
+
         /**
          * Snapshot transport to backend buffer size
          */
@@ -235,6 +294,35 @@ public class Config {
         public static int CHANNEL_SIZE = 5;
 
         public static int BUFFER_SIZE = 300;
+
+        /**
+         * If true, the trace segments are carried by the lock-free MPSC ring buffer, rather than the array buffer.
+         */
+        public static boolean RING_BUFFER = false;
+
+        /**
+         * How the consumer thread waits when there is no segment to send. SLEEPING keeps the old 20ms polling. PARKING
+         * and BLOCKING wake up the consumer as soon as a segment is finished, which works with {@link #RING_BUFFER}
+         * only. YIELDING and BUSY_SPIN keep the consumer thread running.
+         */
+        public static WaitStrategyType WAIT_STRATEGY = WaitStrategyType.SLEEPING;
+
+        /**
+         * If true, the trace segments, logs and meters which can't be sent, because the backend is disconnected or
+         * the buffer is full, are appended into the memory-mapped spill files in the `/spill` folder, and replayed after
+         * the backend is connected again.
+         */
+        public static boolean SPILL_ACTIVE = false;
+
+        /**
+         * The max size in bytes of every spill file, the data is abandoned when the file is full.
+         */
+        public static int SPILL_FILE_SIZE = 64 * 1024 * 1024;
+
+        /**
+         * The max number of the spilled records replayed per second, one record is a segment, a log or a meter report.
+         */
+        public static int SPILL_REPLAY_RATE = 500;
     }
 
     public static class Logging {
@@ -174,6 +174,17 @@ public class SnifferConfigInitializer {
         return IS_INIT_COMPLETED;
     }
 
+    /**
+     * @return a copy of the effective agent settings.
+     */
+    public static Properties getAgentSettings() {
+        Properties settings = new Properties();
+        if (AGENT_SETTINGS != null) {
+            settings.putAll(AGENT_SETTINGS);
+        }
+        return settings;
+    }
+
     /**
      * Override the config by system properties. The property key must start with `skywalking`, the result should be as
      * same as in `agent.config`
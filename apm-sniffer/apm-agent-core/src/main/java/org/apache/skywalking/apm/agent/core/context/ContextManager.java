@@ -99,7 +99,7 @@ public class ContextManager implements BootService {
         operationName = StringUtil.cut(operationName, OPERATION_NAME_THRESHOLD);
         if (carrier != null && carrier.isValid()) {
             SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
-            samplingService.forceSampled();
+            samplingService.forceSampled(operationName);
             context = getOrCreate(operationName, true);
             span = context.createEntrySpan(operationName);
             context.extract(carrier);
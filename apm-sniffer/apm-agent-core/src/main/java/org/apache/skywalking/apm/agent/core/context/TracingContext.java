@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
@@ -71,11 +72,11 @@ public class TracingContext implements AbstractTracerContext {
     private TraceSegment segment;
 
     /**
-     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This {@link LinkedList} is the in-memory
-     * storage-structure. <p> I use {@link LinkedList#removeLast()}, {@link LinkedList#addLast(Object)} and {@link
-     * LinkedList#getLast()} instead of {@link #pop()}, {@link #push(AbstractSpan)}, {@link #peek()}
+     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This array backed {@link ArrayList} is the
+     * in-memory storage-structure, pushing and popping at its tail don't allocate a node per span as a linked list
+     * does. <p> See {@link #pop()}, {@link #push(AbstractSpan)}, {@link #peek()}
      */
-    private LinkedList<AbstractSpan> activeSpanStack = new LinkedList<>();
+    private final ArrayList<AbstractSpan> activeSpanStack = new ArrayList<>();
     /**
      * @since 7.0.0 SkyWalking support lazy injection through {@link ExitTypeSpan#inject(ContextCarrier)}. Due to that,
      * the {@link #activeSpanStack} could be blank by then, this is a pointer forever to the first span, even the main
@@ -514,7 +515,7 @@ public class TracingContext implements AbstractTracerContext {
      * @return the top element of 'ActiveSpanStack', and remove it.
      */
     private AbstractSpan pop() {
-        return activeSpanStack.removeLast();
+        return activeSpanStack.remove(activeSpanStack.size() - 1);
     }
 
     /**
@@ -526,7 +527,7 @@ public class TracingContext implements AbstractTracerContext {
         if (firstSpan == null) {
             firstSpan = span;
         }
-        activeSpanStack.addLast(span);
+        activeSpanStack.add(span);
         this.extensionContext.handle(span);
         return span;
     }
@@ -538,7 +539,7 @@ public class TracingContext implements AbstractTracerContext {
         if (activeSpanStack.isEmpty()) {
             return null;
         }
-        return activeSpanStack.getLast();
+        return activeSpanStack.get(activeSpanStack.size() - 1);
     }
 
     private AbstractSpan first() {
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context.ids;
+
+/**
+ * The text format of the trace and segment IDs generated by {@link GlobalIdGenerator}. The OAP takes both of them as
+ * opaque strings.
+ */
+public enum GlobalIdFormat {
+    /**
+     * {instance UUID}.{thread ID}.{timestamp * 10000 + sequence}, about 50 chars.
+     */
+    DEFAULT,
+    /**
+     * A 128 bits ID, rendered as 32 hex chars. The first long has 40 random bits of the instance and the low 24 bits of
+     * the thread ID, and the second one has the timestamp in the high 48 bits and the sequence in the low 16 bits.
+     */
+    COMPACT
+}
@@ -20,10 +20,16 @@ package org.apache.skywalking.apm.agent.core.context.ids;
 
 import java.util.UUID;
 
+import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.util.StringUtil;
 
 public final class GlobalIdGenerator {
     private static final String PROCESS_ID = UUID.randomUUID().toString().replaceAll("-", "");
+    /**
+     * The random high 40 bits of an UUID, the version and variant bits of which are all in the lower bits.
+     */
+    private static final long COMPACT_PROCESS_PREFIX = UUID.randomUUID().getMostSignificantBits() & 0xFFFFFFFFFF000000L;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
     private static final ThreadLocal<IDContext> THREAD_ID_SEQUENCE = ThreadLocal.withInitial(
         () -> new IDContext(System.currentTimeMillis(), (short) 0));
 
@@ -39,16 +45,42 @@ public final class GlobalIdGenerator {
      * <p>
      * The third one also has two parts, 1) a timestamp, measured in milliseconds 2) a seq, in current thread, between
      * 0(included) and 9999(included)
+     * <p>
+     * The parts are joined in the text or packed into 128 bits, according to {@link Config.Agent#ID_FORMAT}.
      *
      * @return unique id to represent a trace or segment
      */
     public static String generate() {
-        return StringUtil.join(
-            '.',
-            PROCESS_ID,
-            String.valueOf(Thread.currentThread().getId()),
-            String.valueOf(THREAD_ID_SEQUENCE.get().nextSeq())
-        );
+        GlobalIdFormat format = Config.Agent.ID_FORMAT;
+        return render(format, Thread.currentThread().getId(), nextSeq(format));
+    }
+
+    /**
+     * @return the timestamp and sequence part of a new id in the given format.
+     */
+    static long nextSeq(GlobalIdFormat format) {
+        IDContext context = THREAD_ID_SEQUENCE.get();
+        return format == GlobalIdFormat.COMPACT ? context.nextCompactSeq() : context.nextSeq();
+    }
+
+    /**
+     * Render the id parts into the text, which is the only form sent to the OAP and propagated in the headers.
+     */
+    static String render(GlobalIdFormat format, long threadId, long seq) {
+        if (format == GlobalIdFormat.COMPACT) {
+            char[] chars = new char[32];
+            fillHex(chars, 0, COMPACT_PROCESS_PREFIX | (threadId & 0xFFFFFFL));
+            fillHex(chars, 16, seq);
+            return new String(chars);
+        }
+        return StringUtil.join('.', PROCESS_ID, String.valueOf(threadId), String.valueOf(seq));
+    }
+
+    private static void fillHex(char[] chars, int offset, long value) {
+        for (int i = offset + 15; i >= offset; i--) {
+            chars[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
     }
 
     private static class IDContext {
@@ -68,6 +100,10 @@ public final class GlobalIdGenerator {
             return timestamp() * 10000 + nextThreadSeq();
         }
 
+        private long nextCompactSeq() {
+            return timestamp() << 16 | nextThreadSeq();
+        }
+
         private long timestamp() {
             long currentTimeMillis = System.currentTimeMillis();
 
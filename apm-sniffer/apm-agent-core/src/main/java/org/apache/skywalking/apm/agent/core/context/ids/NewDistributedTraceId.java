@@ -18,11 +18,33 @@
 
 package org.apache.skywalking.apm.agent.core.context.ids;
 
+import org.apache.skywalking.apm.agent.core.conf.Config;
+
 /**
- * The <code>NewDistributedTraceId</code> is a {@link DistributedTraceId} with a new generated id.
+ * The <code>NewDistributedTraceId</code> is a {@link DistributedTraceId} with a new generated id. The id parts are
+ * generated at once, but they are rendered into the text at the first {@link #getId()} only, most new trace ids are
+ * replaced by the propagated ones before then.
  */
 public class NewDistributedTraceId extends DistributedTraceId {
+    private final GlobalIdFormat format;
+    private final long threadId;
+    private final long seq;
+    private String id;
+
     public NewDistributedTraceId() {
-        super(GlobalIdGenerator.generate());
+        this.format = Config.Agent.ID_FORMAT;
+        this.threadId = Thread.currentThread().getId();
+        this.seq = GlobalIdGenerator.nextSeq(format);
+    }
+
+    @Override
+    public String getId() {
+        // Racing threads render the same text, no need to synchronize.
+        String renderedId = id;
+        if (renderedId == null) {
+            renderedId = GlobalIdGenerator.render(format, threadId, seq);
+            id = renderedId;
+        }
+        return renderedId;
     }
 }
@@ -18,11 +18,14 @@
 
 package org.apache.skywalking.apm.agent.core.context.ids;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
 /**
  * The <code>PropagatedTraceId</code> represents a {@link DistributedTraceId}, which is propagated from the peer.
  */
+@RequiredArgsConstructor
 public class PropagatedTraceId extends DistributedTraceId {
-    public PropagatedTraceId(String id) {
-        super(id);
-    }
+    @Getter
+    private final String id;
 }
@@ -19,7 +19,6 @@
 package org.apache.skywalking.apm.agent.core.context.trace;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
@@ -42,6 +41,11 @@ import org.apache.skywalking.apm.network.trace.component.Component;
  * distributed trace.
  */
 public abstract class AbstractTracingSpan implements AbstractSpan {
+    /**
+     * Most of the plugins tag a span with less than 4 tags, the list grows on demand for the others.
+     */
+    private static final int INITIAL_TAG_CAPACITY = 4;
+
     /**
      * Span id starts from 0.
      */
@@ -121,7 +125,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan tag(AbstractTag<?> tag, String value) {
         if (tags == null) {
-            tags = new ArrayList<>(8);
+            tags = new ArrayList<>(INITIAL_TAG_CAPACITY);
         }
 
         if (tag.isCanOverwrite()) {
@@ -164,7 +168,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(Throwable t) {
         if (logs == null) {
-            logs = new LinkedList<>();
+            logs = new ArrayList<>(1);
         }
         if (!errorOccurred && ServiceManager.INSTANCE.findService(StatusCheckService.class).isError(t)) {
             errorOccurred();
@@ -188,7 +192,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(long timestampMicroseconds, Map<String, ?> fields) {
         if (logs == null) {
-            logs = new LinkedList<>();
+            logs = new ArrayList<>(1);
         }
         LogDataEntity.Builder builder = new LogDataEntity.Builder();
         for (Map.Entry<String, ?> entry : fields.entrySet()) {
@@ -300,7 +304,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public void ref(TraceSegmentRef ref) {
         if (refs == null) {
-            refs = new LinkedList<>();
+            refs = new ArrayList<>(1);
         }
         /*
          * Provide the OOM protection if the entry span hosts too many references.
@@ -18,8 +18,8 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.context.util.KeyValuePair;
 import org.apache.skywalking.apm.network.language.agent.v3.Log;
@@ -45,7 +45,7 @@ public class LogDataEntity {
         protected List<KeyValuePair> logs;
 
         public Builder() {
-            logs = new LinkedList<>();
+            logs = new ArrayList<>(4);
         }
 
         public Builder add(KeyValuePair... fields) {
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.meter;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.Channel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
@@ -31,12 +32,14 @@ import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.remote.DiskSpillBuffer;
 import org.apache.skywalking.apm.agent.core.remote.GRPCChannelListener;
 import org.apache.skywalking.apm.agent.core.remote.GRPCChannelManager;
 import org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus;
 import org.apache.skywalking.apm.agent.core.remote.GRPCStreamServiceStatus;
 import org.apache.skywalking.apm.network.common.v3.Commands;
 import org.apache.skywalking.apm.network.language.agent.v3.MeterData;
+import org.apache.skywalking.apm.network.language.agent.v3.MeterDataCollection;
 import org.apache.skywalking.apm.network.language.agent.v3.MeterReportServiceGrpc;
 
 import static org.apache.skywalking.apm.agent.core.conf.Config.Collector.GRPC_UPSTREAM_TIMEOUT;
@@ -50,6 +53,7 @@ public class MeterSender implements BootService, GRPCChannelListener {
 
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
     private volatile MeterReportServiceGrpc.MeterReportServiceStub meterReportServiceStub;
+    private volatile DiskSpillBuffer spillBuffer;
 
     @Override
     public void prepare() {
@@ -58,55 +62,83 @@ public class MeterSender implements BootService, GRPCChannelListener {
 
     @Override
     public void boot() {
-
+        spillBuffer = DiskSpillBuffer.create("meter");
     }
 
     public void send(Map<MeterId, BaseMeter> meterMap, MeterService meterService) {
         if (status == GRPCChannelStatus.CONNECTED) {
-            StreamObserver<MeterData> reportStreamObserver = null;
-            final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
+            replaySpilled(meterService);
+            report(consumer -> transform(meterMap, consumer), meterService);
+        } else if (spillBuffer != null) {
+            final MeterDataCollection.Builder collection = MeterDataCollection.newBuilder();
+            transform(meterMap, collection::addMeterData);
+            if (collection.getMeterDataCount() > 0 && !spillBuffer.append(collection.build().toByteArray())) {
+                LOGGER.debug("One meter report has been abandoned, cause by the spill file is full.");
+            }
+        }
+    }
+
+    /**
+     * Send the spilled meter reports, at the rate limited by {@link DiskSpillBuffer}, one stream per report.
+     */
+    private void replaySpilled(MeterService meterService) {
+        if (spillBuffer == null || spillBuffer.isEmpty()) {
+            return;
+        }
+        for (byte[] record : spillBuffer.replay(Integer.MAX_VALUE)) {
             try {
-                reportStreamObserver = meterReportServiceStub.withDeadlineAfter(
-                    GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
-                ).collect(new StreamObserver<Commands>() {
-                    @Override
-                    public void onNext(Commands commands) {
-                    }
+                final MeterDataCollection collection = MeterDataCollection.parseFrom(record);
+                report(consumer -> collection.getMeterDataList().forEach(consumer), meterService);
+            } catch (InvalidProtocolBufferException e) {
+                LOGGER.error(e, "Parse the spilled meter report fail.");
+            }
+        }
+    }
 
-                    @Override
-                    public void onError(Throwable throwable) {
-                        status.finished();
-                        if (LOGGER.isErrorEnable()) {
-                            LOGGER.error(throwable, "Send meters to collector fail with a grpc internal exception.");
-                        }
-                        ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(throwable);
-                    }
+    private void report(Consumer<Consumer<MeterData>> meterDataProducer, MeterService meterService) {
+        StreamObserver<MeterData> reportStreamObserver = null;
+        final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
+        try {
+            reportStreamObserver = meterReportServiceStub.withDeadlineAfter(
+                GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
+            ).collect(new StreamObserver<Commands>() {
+                @Override
+                public void onNext(Commands commands) {
+                }
 
-                    @Override
-                    public void onCompleted() {
-                        status.finished();
+                @Override
+                public void onError(Throwable throwable) {
+                    status.finished();
+                    if (LOGGER.isErrorEnable()) {
+                        LOGGER.error(throwable, "Send meters to collector fail with a grpc internal exception.");
                     }
-                });
-
-                final StreamObserver<MeterData> reporter = reportStreamObserver;
-                transform(meterMap, meterData -> reporter.onNext(meterData));
-            } catch (Throwable e) {
-                if (!(e instanceof StatusRuntimeException)) {
-                    LOGGER.error(e, "Report meters to backend fail.");
-                    return;
+                    ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(throwable);
                 }
-                final StatusRuntimeException statusRuntimeException = (StatusRuntimeException) e;
-                if (statusRuntimeException.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
-                    LOGGER.warn("Backend doesn't support meter, it will be disabled");
 
-                    meterService.shutdown();
+                @Override
+                public void onCompleted() {
+                    status.finished();
                 }
-            } finally {
-                if (reportStreamObserver != null) {
-                    reportStreamObserver.onCompleted();
-                }
-                status.wait4Finish();
+            });
+
+            final StreamObserver<MeterData> reporter = reportStreamObserver;
+            meterDataProducer.accept(reporter::onNext);
+        } catch (Throwable e) {
+            if (!(e instanceof StatusRuntimeException)) {
+                LOGGER.error(e, "Report meters to backend fail.");
+                return;
             }
+            final StatusRuntimeException statusRuntimeException = (StatusRuntimeException) e;
+            if (statusRuntimeException.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                LOGGER.warn("Backend doesn't support meter, it will be disabled");
+
+                meterService.shutdown();
+            }
+        } finally {
+            if (reportStreamObserver != null) {
+                reportStreamObserver.onCompleted();
+            }
+            status.wait4Finish();
         }
     }
 
@@ -139,7 +171,9 @@ public class MeterSender implements BootService, GRPCChannelListener {
 
     @Override
     public void shutdown() {
-
+        if (spillBuffer != null) {
+            spillBuffer.close();
+        }
     }
 
     @Override
@@ -19,31 +19,50 @@
 package org.apache.skywalking.apm.agent.core.plugin;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import net.bytebuddy.description.NamedElement;
+import java.util.Set;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.type.TypeDefinition;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import org.apache.skywalking.apm.agent.core.plugin.bytebuddy.AbstractJunction;
+import org.apache.skywalking.apm.agent.core.plugin.match.ClassAnnotationMatch;
 import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.HierarchyMatch;
 import org.apache.skywalking.apm.agent.core.plugin.match.IndirectMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.MultiClassNameMatch;
 import org.apache.skywalking.apm.agent.core.plugin.match.NameMatch;
 import org.apache.skywalking.apm.agent.core.plugin.match.ProtectiveShieldMatcher;
 
-import static net.bytebuddy.matcher.ElementMatchers.isInterface;
-import static net.bytebuddy.matcher.ElementMatchers.not;
-
 /**
  * The <code>PluginFinder</code> represents a finder , which assist to find the one from the given {@link
  * AbstractClassEnhancePluginDefine} list.
+ * <p>
+ * The matches of the plugins are indexed, rather than evaluated one by one for every loaded class. The class names of
+ * {@link NameMatch} and {@link MultiClassNameMatch}, the annotations of {@link ClassAnnotationMatch}, and the parent
+ * types of {@link HierarchyMatch} are the keys to find the candidate plugins, and the super types of a class are
+ * resolved once for all hierarchy matches. Other {@link IndirectMatch}es are evaluated one by one.
+ * <p>
+ * The plugins matched by {@link #buildMatch()} are kept for the following {@link #find(TypeDescription)} of the same
+ * type in the same thread, as the transformation always follows the matching. {@link #clearMatched()} must be called
+ * once the transformation finished, so the thread doesn't hold the type and its class loader.
  */
 public class PluginFinder {
     private final Map<String, LinkedList<AbstractClassEnhancePluginDefine>> nameMatchDefine = new HashMap<String, LinkedList<AbstractClassEnhancePluginDefine>>();
     private final List<AbstractClassEnhancePluginDefine> signatureMatchDefine = new ArrayList<AbstractClassEnhancePluginDefine>();
     private final List<AbstractClassEnhancePluginDefine> bootstrapClassMatchDefine = new ArrayList<AbstractClassEnhancePluginDefine>();
 
+    private final Map<String, List<IndexedMatch>> classNameIndex = new HashMap<String, List<IndexedMatch>>();
+    private final Map<String, List<IndexedMatch>> annotationIndex = new HashMap<String, List<IndexedMatch>>();
+    private final Map<String, List<IndexedMatch>> superTypeIndex = new HashMap<String, List<IndexedMatch>>();
+    private final List<IndexedMatch> unindexedMatches = new ArrayList<IndexedMatch>();
+    private final ThreadLocal<MatchedPlugins> lastMatched = new ThreadLocal<MatchedPlugins>();
+
     public PluginFinder(List<AbstractClassEnhancePluginDefine> plugins) {
         for (AbstractClassEnhancePluginDefine plugin : plugins) {
             ClassMatch match = plugin.enhanceClass();
@@ -62,6 +81,9 @@ public class PluginFinder {
                 pluginDefines.add(plugin);
             } else {
                 signatureMatchDefine.add(plugin);
+                if (match instanceof IndirectMatch) {
+                    index(new IndexedMatch(signatureMatchDefine.size(), plugin, (IndirectMatch) match));
+                }
             }
 
             if (plugin.isBootstrapInstrumentation()) {
@@ -70,7 +92,41 @@ public class PluginFinder {
         }
     }
 
+    private void index(IndexedMatch indexedMatch) {
+        IndirectMatch match = indexedMatch.match;
+        if (match instanceof MultiClassNameMatch) {
+            for (String className : ((MultiClassNameMatch) match).getMatchClassNames()) {
+                addToIndex(classNameIndex, className, indexedMatch);
+            }
+        } else if (match instanceof ClassAnnotationMatch) {
+            // All annotations are required, the first one is enough to find the candidates.
+            addToIndex(annotationIndex, ((ClassAnnotationMatch) match).getAnnotations()[0], indexedMatch);
+        } else if (match instanceof HierarchyMatch) {
+            // All parent types are required, the first one is enough to find the candidates.
+            addToIndex(superTypeIndex, ((HierarchyMatch) match).getParentTypes()[0], indexedMatch);
+        } else {
+            unindexedMatches.add(indexedMatch);
+        }
+    }
+
+    private static void addToIndex(Map<String, List<IndexedMatch>> index, String key, IndexedMatch indexedMatch) {
+        List<IndexedMatch> matches = index.get(key);
+        if (matches == null) {
+            matches = new ArrayList<IndexedMatch>(1);
+            index.put(key, matches);
+        }
+        if (!matches.contains(indexedMatch)) {
+            matches.add(indexedMatch);
+        }
+    }
+
     public List<AbstractClassEnhancePluginDefine> find(TypeDescription typeDescription) {
+        MatchedPlugins matched = lastMatched.get();
+        if (matched != null && matched.typeDescription == typeDescription) {
+            lastMatched.remove();
+            return new LinkedList<AbstractClassEnhancePluginDefine>(matched.plugins);
+        }
+
         List<AbstractClassEnhancePluginDefine> matchedPlugins = new LinkedList<AbstractClassEnhancePluginDefine>();
         String typeName = typeDescription.getTypeName();
         if (nameMatchDefine.containsKey(typeName)) {
@@ -87,24 +143,144 @@ public class PluginFinder {
         return matchedPlugins;
     }
 
+    /**
+     * Clear the plugins kept by the last matching of the current thread.
+     */
+    public void clearMatched() {
+        lastMatched.remove();
+    }
+
     public ElementMatcher<? super TypeDescription> buildMatch() {
-        ElementMatcher.Junction judge = new AbstractJunction<NamedElement>() {
+        ElementMatcher.Junction judge = new AbstractJunction<TypeDescription>() {
             @Override
-            public boolean matches(NamedElement target) {
-                return nameMatchDefine.containsKey(target.getActualName());
+            public boolean matches(TypeDescription target) {
+                List<AbstractClassEnhancePluginDefine> plugins = match(target);
+                if (plugins.isEmpty()) {
+                    return false;
+                }
+                lastMatched.set(new MatchedPlugins(target, plugins));
+                return true;
             }
         };
-        judge = judge.and(not(isInterface()));
-        for (AbstractClassEnhancePluginDefine define : signatureMatchDefine) {
-            ClassMatch match = define.enhanceClass();
-            if (match instanceof IndirectMatch) {
-                judge = judge.or(((IndirectMatch) match).buildJunction());
+        return new ProtectiveShieldMatcher(judge);
+    }
+
+    /**
+     * Find the plugins of the given type through the indices. An indirect match is accepted only when both of its
+     * junction and {@link IndirectMatch#isMatch(TypeDescription)} pass, as the junction used to decide the
+     * transformation and the latter used to decide the plugins.
+     */
+    private List<AbstractClassEnhancePluginDefine> match(TypeDescription typeDescription) {
+        List<AbstractClassEnhancePluginDefine> plugins = Collections.emptyList();
+        boolean isInterface = typeDescription.isInterface();
+
+        if (!isInterface) {
+            LinkedList<AbstractClassEnhancePluginDefine> pluginDefines = nameMatchDefine.get(typeDescription.getActualName());
+            if (pluginDefines != null) {
+                plugins = new ArrayList<AbstractClassEnhancePluginDefine>(pluginDefines);
             }
         }
-        return new ProtectiveShieldMatcher(judge);
+
+        List<IndexedMatch> candidates = new ArrayList<IndexedMatch>();
+        addCandidates(candidates, classNameIndex.get(typeDescription.getActualName()));
+        if (!isInterface) {
+            if (!annotationIndex.isEmpty()) {
+                for (AnnotationDescription annotation : typeDescription.getDeclaredAnnotations()) {
+                    addCandidates(candidates, annotationIndex.get(annotation.getAnnotationType().getActualName()));
+                }
+            }
+            if (!superTypeIndex.isEmpty()) {
+                for (String superType : superTypes(typeDescription)) {
+                    addCandidates(candidates, superTypeIndex.get(superType));
+                }
+            }
+        }
+        candidates.addAll(unindexedMatches);
+
+        List<IndexedMatch> accepted = null;
+        for (IndexedMatch candidate : candidates) {
+            if (candidate.junction.matches(typeDescription) && candidate.match.isMatch(typeDescription)) {
+                if (accepted == null) {
+                    accepted = new ArrayList<IndexedMatch>(1);
+                }
+                if (!accepted.contains(candidate)) {
+                    accepted.add(candidate);
+                }
+            }
+        }
+        if (accepted == null) {
+            return plugins;
+        }
+
+        // Keep the order of the plugin definitions.
+        Collections.sort(accepted);
+        if (plugins.isEmpty()) {
+            plugins = new ArrayList<AbstractClassEnhancePluginDefine>(accepted.size());
+        }
+        for (IndexedMatch indexedMatch : accepted) {
+            plugins.add(indexedMatch.plugin);
+        }
+        return plugins;
+    }
+
+    private static void addCandidates(List<IndexedMatch> candidates, List<IndexedMatch> matches) {
+        if (matches != null) {
+            candidates.addAll(matches);
+        }
+    }
+
+    /**
+     * @return the raw names of the type itself, and all its super classes and interfaces.
+     */
+    private static Set<String> superTypes(TypeDescription typeDescription) {
+        Set<String> superTypes = new HashSet<String>();
+        collectSuperTypes(typeDescription, superTypes);
+        return superTypes;
+    }
+
+    private static void collectSuperTypes(TypeDefinition typeDefinition, Set<String> superTypes) {
+        if (!superTypes.add(typeDefinition.asErasure().getActualName())) {
+            return;
+        }
+        for (TypeDescription.Generic implInterface : typeDefinition.getInterfaces()) {
+            collectSuperTypes(implInterface, superTypes);
+        }
+        TypeDescription.Generic superClass = typeDefinition.getSuperClass();
+        if (superClass != null) {
+            collectSuperTypes(superClass, superTypes);
+        }
     }
 
     public List<AbstractClassEnhancePluginDefine> getBootstrapClassMatchDefine() {
         return bootstrapClassMatchDefine;
     }
+
+    private static class IndexedMatch implements Comparable<IndexedMatch> {
+        private final int order;
+        private final AbstractClassEnhancePluginDefine plugin;
+        private final IndirectMatch match;
+        private final ElementMatcher.Junction junction;
+
+        private IndexedMatch(int order, AbstractClassEnhancePluginDefine plugin, IndirectMatch match) {
+            this.order = order;
+            this.plugin = plugin;
+            this.match = match;
+            this.junction = match.buildJunction();
+        }
+
+        @Override
+        public int compareTo(IndexedMatch o) {
+            return Integer.compare(order, o.order);
+        }
+    }
+
+    private static class MatchedPlugins {
+        private final TypeDescription typeDescription;
+        private final List<AbstractClassEnhancePluginDefine> plugins;
+
+        private MatchedPlugins(TypeDescription typeDescription, List<AbstractClassEnhancePluginDefine> plugins) {
+            this.typeDescription = typeDescription;
+            this.plugins = plugins;
+        }
+    }
 }
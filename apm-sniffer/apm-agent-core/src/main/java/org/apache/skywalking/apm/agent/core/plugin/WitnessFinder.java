@@ -18,27 +18,102 @@
 
 package org.apache.skywalking.apm.agent.core.plugin;
 
-import net.bytebuddy.pool.TypePool;
-
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.pool.TypePool;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
 
 /**
  * The <code>WitnessFinder</code> represents a pool of {@link TypePool}s, each {@link TypePool} matches a {@link
  * ClassLoader}, which helps to find the class declaration existed or not.
+ * <p>
+ * Class loaders are weakly referenced, so the pools and the cached witness results go away together with the
+ * redeployed or discarded loaders. The results are cached per loader in a bounded map, and a witness class found
+ * through the parent loader is shared by all its children, so sibling loaders don't parse the same witness again.
  */
 public enum WitnessFinder {
     INSTANCE;
 
-    private final Map<ClassLoader, TypePool> poolMap = new HashMap<ClassLoader, TypePool>();
+    private static final ILog LOGGER = LogManager.getLogger(WitnessFinder.class);
+
+    /**
+     * The max number of the witness results cached per class loader.
+     */
+    private static final int MAX_CACHED_WITNESSES = 512;
+
+    /**
+     * The max number of the type resolutions cached by the {@link TypePool} of a class loader.
+     */
+    private static final int MAX_CACHED_TYPES = 256;
+
+    /**
+     * Log the statistics once every this number of witness evaluations.
+     */
+    private static final int STATISTICS_LOG_INTERVAL = 1024;
+
+    private final Map<ClassLoader, LoaderWitnesses> loaderWitnesses = Collections.synchronizedMap(
+        new WeakHashMap<ClassLoader, LoaderWitnesses>());
+
+    private final AtomicLong evaluationCount = new AtomicLong();
+    private final AtomicLong cacheHitCount = new AtomicLong();
 
     /**
      * @param classLoader for finding the witnessClass
      * @return true, if the given witnessClass exists, through the given classLoader.
      */
     public boolean exist(String witnessClass, ClassLoader classLoader) {
-        return getResolution(witnessClass, classLoader)
-                .isResolved();
+        LoaderWitnesses witnesses = getLoaderWitnesses(classLoader);
+        Boolean cached = witnesses.getResult(witnessClass);
+        if (cached != null) {
+            cacheHitCount.incrementAndGet();
+            return cached;
+        }
+        // The classes visible to the parent are visible to the children as well, resolving them through the parent
+        // lets the sibling loaders share one evaluation.
+        boolean existed = classLoader != null && exist(witnessClass, classLoader.getParent())
+            || evaluate(witnessClass, classLoader, witnesses).isResolved();
+        witnesses.putResult(witnessClass, existed);
+        return existed;
+    }
+
+    /**
+     * @param classLoader for finding the witness method
+     * @return true, if the given witness method exists, through the given classLoader.
+     */
+    public boolean exist(WitnessMethod witnessMethod, ClassLoader classLoader) {
+        LoaderWitnesses witnesses = getLoaderWitnesses(classLoader);
+        String key = witnessMethod.getDeclaringClassName() + "#" + witnessMethod.getElementMatcher();
+        Boolean cached = witnesses.getResult(key);
+        if (cached != null) {
+            cacheHitCount.incrementAndGet();
+            return cached;
+        }
+        TypePool.Resolution resolution = evaluate(witnessMethod.getDeclaringClassName(), classLoader, witnesses);
+        boolean existed = resolution.isResolved() && !resolution.resolve()
+                                                                 .getDeclaredMethods()
+                                                                 .filter(witnessMethod.getElementMatcher())
+                                                                 .isEmpty();
+        witnesses.putResult(key, existed);
+        return existed;
+    }
+
+    /**
+     * @return the number of the witnesses resolved through the type pools.
+     */
+    public long getEvaluationCount() {
+        return evaluationCount.get();
+    }
+
+    /**
+     * @return the number of the witnesses answered by the cached results.
+     */
+    public long getCacheHitCount() {
+        return cacheHitCount.get();
     }
 
     /**
@@ -47,35 +122,95 @@ public enum WitnessFinder {
      * @param classLoader classLoader for finding the witnessClass
      * @return TypePool.Resolution
      */
-    private TypePool.Resolution getResolution(String witnessClass, ClassLoader classLoader) {
+    private TypePool.Resolution evaluate(String witnessClass, ClassLoader classLoader, LoaderWitnesses witnesses) {
+        long evaluations = evaluationCount.incrementAndGet();
+        if (evaluations % STATISTICS_LOG_INTERVAL == 0) {
+            LOGGER.info(
+                "Witness finder has evaluated {} witnesses with {} cache hits, across {} class loaders.",
+                evaluations, cacheHitCount.get(), loaderWitnesses.size()
+            );
+        }
+        return witnesses.typePool.describe(witnessClass);
+    }
+
+    private LoaderWitnesses getLoaderWitnesses(ClassLoader classLoader) {
         ClassLoader mappingKey = classLoader == null ? NullClassLoader.INSTANCE : classLoader;
-        if (!poolMap.containsKey(mappingKey)) {
-            synchronized (poolMap) {
-                if (!poolMap.containsKey(mappingKey)) {
-                    TypePool classTypePool = classLoader == null ? TypePool.Default.ofBootLoader() : TypePool.Default.of(classLoader);
-                    poolMap.put(mappingKey, classTypePool);
-                }
+        synchronized (loaderWitnesses) {
+            LoaderWitnesses witnesses = loaderWitnesses.get(mappingKey);
+            if (witnesses == null) {
+                witnesses = new LoaderWitnesses(classLoader);
+                loaderWitnesses.put(mappingKey, witnesses);
             }
+            return witnesses;
         }
-        TypePool typePool = poolMap.get(mappingKey);
-        return typePool.describe(witnessClass);
     }
 
     /**
-     * @param classLoader for finding the witness method
-     * @return true, if the given witness method exists, through the given classLoader.
+     * The witness results and the type pool of one class loader. It must not refer to the class loader strongly,
+     * otherwise the weak key of {@link #loaderWitnesses} would never be cleared.
      */
-    public boolean exist(WitnessMethod witnessMethod, ClassLoader classLoader) {
-        TypePool.Resolution resolution = getResolution(witnessMethod.getDeclaringClassName(), classLoader);
-        if (!resolution.isResolved()) {
-            return false;
+    private static class LoaderWitnesses {
+        private final TypePool typePool;
+        private final Map<String, Boolean> results = Collections.synchronizedMap(
+            new BoundedMap<String, Boolean>(MAX_CACHED_WITNESSES));
+
+        private LoaderWitnesses(ClassLoader classLoader) {
+            ClassFileLocator locator = classLoader == null
+                ? ClassFileLocator.ForClassLoader.ofBootLoader()
+                : ClassFileLocator.ForClassLoader.WeaklyReferenced.of(classLoader);
+            typePool = new TypePool.Default(new BoundedCacheProvider(), locator, TypePool.Default.ReaderMode.FAST);
+        }
+
+        private Boolean getResult(String witness) {
+            return results.get(witness);
+        }
+
+        private void putResult(String witness, boolean existed) {
+            results.put(witness, existed);
         }
-        return !resolution.resolve()
-                .getDeclaredMethods()
-                .filter(witnessMethod.getElementMatcher())
-                .isEmpty();
     }
 
+    /**
+     * The {@link TypePool.CacheProvider} keeping the most recently used resolutions only.
+     */
+    private static class BoundedCacheProvider implements TypePool.CacheProvider {
+        private final Map<String, TypePool.Resolution> cache = new BoundedMap<String, TypePool.Resolution>(
+            MAX_CACHED_TYPES);
+
+        @Override
+        public synchronized TypePool.Resolution find(String name) {
+            return cache.get(name);
+        }
+
+        @Override
+        public synchronized TypePool.Resolution register(String name, TypePool.Resolution resolution) {
+            TypePool.Resolution cached = cache.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            cache.put(name, resolution);
+            return resolution;
+        }
+
+        @Override
+        public synchronized void clear() {
+            cache.clear();
+        }
+    }
+
+    private static class BoundedMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxSize;
+
+        private BoundedMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
 }
 
 final class NullClassLoader extends ClassLoader {
@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.bytebuddy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.instrument.IllegalClassFormatException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.utility.JavaModule;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.util.FileUtils;
+
+/**
+ * Wrapper classFileTransformer of ByteBuddy, persists the fingerprints of the classes which are loaded but not
+ * enhanced by any plugin, in the `/class-cache` folder. In the next start, these classes are returned untouched
+ * without parsing and matching by ByteBuddy. Most of the loaded classes are not enhanced, so the startup is faster.
+ * <p>
+ * The fingerprint of a class is the hash of its name and original bytes, along with the identity of its class loader,
+ * which is the class name and the URLs of the loader and the code source of the class. The cache belongs to the
+ * fingerprint of the agent environment, including the agent and plugin jars, the agent settings, and the application
+ * classpath. Any change of them invalidates the whole cache. The caches of the other fingerprints are kept, as several
+ * applications could share one agent. A cache not used for {@link #CACHE_DIR_MAX_AGE_DAYS} days, or beyond the
+ * {@link #MAX_CACHE_DIRS} most recently used ones, is removed. The enhanced classes are always transformed, as the
+ * interceptors and auxiliary classes of ByteBuddy are set up by the transformation.
+ * <p>
+ * Only the classes ignored by ByteBuddy, reported through {@link #listener()}, are persisted, rather than the ones
+ * failed in the transformation. A class enhanced by any class loader in this run isn't persisted. Every run
+ * re-verifies 1/{@link #VERIFY_INTERVAL} of the persisted classes by the transformation, so a stale fingerprint can't
+ * live forever.
+ */
+public class UnenhancedClassCacheDecorator implements AgentBuilder.TransformerDecorator {
+    private static final ILog LOGGER = LogManager.getLogger(UnenhancedClassCacheDecorator.class);
+
+    private static final String CACHE_DIR_PREFIX = "unenhanced-";
+    private static final String CACHE_FILE_NAME = "classes.idx";
+    private static final int MAGIC = 0x53574343;
+    private static final int FORMAT_VERSION = 2;
+    private static final int VERIFY_INTERVAL = 16;
+    private static final int MAX_CACHE_DIRS = 16;
+    private static final long CACHE_DIR_MAX_AGE_DAYS = 7;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final File cacheFile;
+    private final int maxSize;
+    /**
+     * The sequence of this run, decides the persisted classes to be verified in this run.
+     */
+    private int run;
+    /**
+     * The fingerprints loaded from the last run, read only after the construction.
+     */
+    private Set<Long> unenhancedClasses = Collections.emptySet();
+    /**
+     * The fingerprints of the unenhanced classes in this run to the hashes of their names and bytes, persisted at the
+     * end of this run.
+     */
+    private final Map<Long, Long> currentUnenhancedClasses = new ConcurrentHashMap<>();
+    /**
+     * The hashes of the names and bytes of the classes enhanced by any class loader in this run.
+     */
+    private final Set<Long> enhancedClasses = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Map<ClassLoader, Long> loaderIdentities = Collections.synchronizedMap(new WeakHashMap<>());
+    /**
+     * The name of the class ignored by ByteBuddy in the current transformation of the thread.
+     */
+    private final ThreadLocal<String> ignoredClass = new ThreadLocal<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+
+    /**
+     * @param cacheBaseDir the `/class-cache` folder.
+     * @param fingerprint  of the agent environment.
+     * @param maxSize      the max number of the persisted classes.
+     */
+    public UnenhancedClassCacheDecorator(File cacheBaseDir, String fingerprint, int maxSize) throws IOException {
+        File cacheDir = new File(cacheBaseDir, CACHE_DIR_PREFIX + fingerprint);
+        if (!cacheDir.exists()) {
+            cacheDir.mkdirs();
+        }
+        if (!cacheDir.exists()) {
+            throw new IOException("Create unenhanced class cache dir failure");
+        }
+        // Mark the cache as recently used, so the other applications keep it.
+        cacheDir.setLastModified(System.currentTimeMillis());
+        removeStaleCaches(cacheBaseDir, cacheDir);
+
+        this.cacheFile = new File(cacheDir, CACHE_FILE_NAME);
+        this.maxSize = maxSize;
+        load();
+        LOGGER.info("{} unenhanced classes loaded from {}.", unenhancedClasses.size(), cacheFile);
+    }
+
+    @Override
+    public ResettableClassFileTransformer decorate(ResettableClassFileTransformer classFileTransformer) {
+        return new ResettableClassFileTransformer.WithDelegation(classFileTransformer) {
+
+            @Override
+            public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+                                    ProtectionDomain protectionDomain,
+                                    byte[] classfileBuffer) throws IllegalClassFormatException {
+                if (classBeingRedefined != null || className == null) {
+                    return classFileTransformer.transform(
+                        loader, className, classBeingRedefined, protectionDomain, classfileBuffer);
+                }
+
+                long classHash = fingerprint(className, classfileBuffer);
+                if (enhancedClasses.contains(classHash)) {
+                    return classFileTransformer.transform(
+                        loader, className, classBeingRedefined, protectionDomain, classfileBuffer);
+                }
+
+                long fingerprint = fingerprint(loader, protectionDomain, classHash);
+                if (unenhancedClasses.contains(fingerprint)) {
+                    if (Math.floorMod(fingerprint + run, VERIFY_INTERVAL) != 0) {
+                        hits.incrementAndGet();
+                        currentUnenhancedClasses.put(fingerprint, classHash);
+                        return null;
+                    }
+                    verified.incrementAndGet();
+                }
+
+                ignoredClass.remove();
+                try {
+                    byte[] transformed = classFileTransformer.transform(
+                        loader, className, classBeingRedefined, protectionDomain, classfileBuffer);
+                    if (transformed != null) {
+                        enhancedClasses.add(classHash);
+                    } else if (className.replace('/', '.').equals(ignoredClass.get())) {
+                        currentUnenhancedClasses.put(fingerprint, classHash);
+                    }
+                    return transformed;
+                } finally {
+                    ignoredClass.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the listener to be installed along with this decorator, which tells the classes ignored by ByteBuddy
+     * apart from the ones failed in the transformation.
+     */
+    public AgentBuilder.Listener listener() {
+        return new AgentBuilder.Listener.Adapter() {
+            @Override
+            public void onIgnored(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module,
+                                  boolean loaded) {
+                ignoredClass.set(typeDescription.getName());
+            }
+        };
+    }
+
+    /**
+     * Persist the unenhanced classes of this run, the classes not loaded in this run are evicted.
+     */
+    public void save() {
+        List<Long> fingerprints = new ArrayList<>(currentUnenhancedClasses.size());
+        for (Map.Entry<Long, Long> entry : currentUnenhancedClasses.entrySet()) {
+            if (fingerprints.size() == maxSize) {
+                break;
+            }
+            if (!enhancedClasses.contains(entry.getValue())) {
+                fingerprints.add(entry.getKey());
+            }
+        }
+        // The cache could be removed as stale by another application during this run.
+        cacheFile.getParentFile().mkdirs();
+        File tempFile = new File(cacheFile.getParentFile(), CACHE_FILE_NAME + ".tmp");
+        int size = fingerprints.size();
+        try (DataOutputStream output = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(run + 1);
+            output.writeInt(size);
+            for (Long fingerprint : fingerprints) {
+                output.writeLong(fingerprint);
+            }
+        } catch (IOException e) {
+            LOGGER.error(e, "save unenhanced classes to cache file failure");
+            tempFile.delete();
+            return;
+        }
+        if (!tempFile.renameTo(cacheFile)) {
+            cacheFile.delete();
+            if (!tempFile.renameTo(cacheFile)) {
+                LOGGER.error("replace the unenhanced class cache file " + cacheFile + " failure");
+                tempFile.delete();
+                return;
+            }
+        }
+        LOGGER.info(
+            "{} unenhanced classes saved to {}, {} classes skipped the transformation and {} cached classes were "
+                + "verified in this run.", size, cacheFile, hits.get(), verified.get()
+        );
+    }
+
+    /**
+     * Remove the caches not used for {@link #CACHE_DIR_MAX_AGE_DAYS} days, or beyond the {@link #MAX_CACHE_DIRS} most
+     * recently used ones. The cache of this run is always kept.
+     */
+    private static void removeStaleCaches(File cacheBaseDir, File cacheDir) {
+        File[] otherDirs = cacheBaseDir.listFiles(
+            file -> file.isDirectory() && file.getName().startsWith(CACHE_DIR_PREFIX) && !file.equals(cacheDir));
+        if (otherDirs == null) {
+            return;
+        }
+        Arrays.sort(otherDirs, Comparator.comparingLong(File::lastModified).reversed());
+        long expiredTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(CACHE_DIR_MAX_AGE_DAYS);
+        for (int i = 0; i < otherDirs.length; i++) {
+            if (i >= MAX_CACHE_DIRS - 1 || otherDirs[i].lastModified() < expiredTime) {
+                FileUtils.deleteDirectory(otherDirs[i]);
+            }
+        }
+    }
+
+    private void load() {
+        if (!cacheFile.exists()) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown unenhanced class cache format");
+            }
+            int lastRun = input.readInt();
+            int size = input.readInt();
+            Set<Long> fingerprints = new HashSet<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                fingerprints.add(input.readLong());
+            }
+            run = lastRun;
+            unenhancedClasses = fingerprints;
+        } catch (IOException e) {
+            LOGGER.error(e, "load unenhanced classes from cache file failure, the cache is dropped");
+            cacheFile.delete();
+        }
+    }
+
+    /**
+     * FNV-1a 64 bits hash of the class name and bytes.
+     */
+    static long fingerprint(String className, byte[] classfileBuffer) {
+        long hash = hash(FNV_OFFSET_BASIS, className);
+        for (byte b : classfileBuffer) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The fingerprint of the class in the given class loader, the identity of the loader is cached as the URLs of a
+     * loader rarely change.
+     */
+    private long fingerprint(ClassLoader loader, ProtectionDomain protectionDomain, long classHash) {
+        long hash = loader == null ? FNV_OFFSET_BASIS : loaderIdentities.computeIfAbsent(loader, l -> {
+            long identity = hash(FNV_OFFSET_BASIS, l.getClass().getName());
+            if (l instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) l).getURLs()) {
+                    identity = hash(identity, url.toString());
+                }
+            }
+            return identity;
+        });
+        CodeSource codeSource = protectionDomain == null ? null : protectionDomain.getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            hash = hash(hash, codeSource.getLocation().toString());
+        }
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (classHash >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Build the fingerprint of the agent environment. The jar files are identified by their paths, sizes and last
+     * modified time.
+     *
+     * @param agentFiles    the jar files and folders of the agent and plugins.
+     * @param agentSettings the effective agent settings.
+     * @param classpath     the classpath of the application.
+     */
+    public static String environmentFingerprint(List<File> agentFiles, Properties agentSettings, String classpath) {
+        StringBuilder environment = new StringBuilder();
+        for (File agentFile : agentFiles) {
+            appendFile(environment, agentFile);
+        }
+        Map<String, String> settings = new TreeMap<>();
+        for (String key : agentSettings.stringPropertyNames()) {
+            settings.put(key, agentSettings.getProperty(key));
+        }
+        environment.append(settings);
+        if (classpath != null) {
+            for (String path : classpath.split(File.pathSeparator)) {
+                appendFile(environment, new File(path));
+            }
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                                         .digest(environment.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : Arrays.copyOf(digest, 16)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void appendFile(StringBuilder environment, File file) {
+        environment.append(file.getAbsolutePath()).append(':');
+        if (file.isDirectory()) {
+            File[] children = file.listFiles((dir, name) -> name.endsWith(".jar"));
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    appendFile(environment, child);
+                }
+            }
+        }
+        environment.append(file.length()).append(':').append(file.lastModified()).append(';');
+    }
+}
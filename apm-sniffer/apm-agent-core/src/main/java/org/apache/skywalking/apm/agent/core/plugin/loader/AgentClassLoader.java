@@ -18,22 +18,32 @@
 
 package org.apache.skywalking.apm.agent.core.plugin.loader;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import lombok.RequiredArgsConstructor;
 import org.apache.skywalking.apm.agent.core.boot.AgentPackageNotFoundException;
 import org.apache.skywalking.apm.agent.core.boot.AgentPackagePath;
+import org.apache.skywalking.apm.agent.core.boot.DefaultNamedThreadFactory;
 import org.apache.skywalking.apm.agent.core.boot.PluginConfig;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.conf.SnifferConfigInitializer;
@@ -59,8 +69,13 @@ public class AgentClassLoader extends ClassLoader {
      */
     private static AgentClassLoader DEFAULT_LOADER;
 
-    private List<File> classpath;
-    private List<Jar> allJars;
+    /**
+     * The jar indices of the scanned classpath, keyed by the immutable classpath of the loaders.
+     */
+    private static final Map<List<File>, JarIndex> JAR_INDICES = new ConcurrentHashMap<>();
+
+    private final List<File> classpath;
+    private volatile JarIndex jarIndex;
     private ReentrantLock jarScanLock = new ReentrantLock();
 
     public static AgentClassLoader getDefault() {
@@ -83,29 +98,34 @@ public class AgentClassLoader extends ClassLoader {
     }
 
     public AgentClassLoader(ClassLoader parent) throws AgentPackageNotFoundException {
+        this(parent, mountFolders(AgentPackagePath.getPath()));
+    }
+
+    AgentClassLoader(ClassLoader parent, List<File> classpath) {
         super(parent);
-        File agentDictionary = AgentPackagePath.getPath();
-        classpath = new LinkedList<>();
+        this.classpath = Collections.unmodifiableList(new ArrayList<>(classpath));
+    }
+
+    private static List<File> mountFolders(File agentDictionary) {
+        List<File> classpath = new LinkedList<>();
         Config.Plugin.MOUNT.forEach(mountFolder -> classpath.add(new File(agentDictionary, mountFolder)));
+        return classpath;
     }
 
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
-        List<Jar> allJars = getAllJars();
         String path = name.replace('.', '/').concat(".class");
-        for (Jar jar : allJars) {
-            JarEntry entry = jar.jarFile.getJarEntry(path);
-            if (entry == null) {
-                continue;
-            }
+        Jar jar = getJarIndex().first(path);
+        if (jar != null) {
             try {
-                URL classFileUrl = new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + path);
+                JarEntry entry = jar.jarFile.getJarEntry(path);
                 byte[] data;
-                try (final BufferedInputStream is = new BufferedInputStream(
-                    classFileUrl.openStream()); final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                    int ch;
-                    while ((ch = is.read()) != -1) {
-                        baos.write(ch);
+                try (final InputStream is = jar.jarFile.getInputStream(entry);
+                     final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+                    byte[] buffer = new byte[4096];
+                    int length;
+                    while ((length = is.read(buffer)) != -1) {
+                        baos.write(buffer, 0, length);
                     }
                     data = baos.toByteArray();
                 }
@@ -119,14 +139,11 @@ public class AgentClassLoader extends ClassLoader {
 
     @Override
     protected URL findResource(String name) {
-        List<Jar> allJars = getAllJars();
-        for (Jar jar : allJars) {
-            JarEntry entry = jar.jarFile.getJarEntry(name);
-            if (entry != null) {
-                try {
-                    return new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name);
-                } catch (MalformedURLException ignored) {
-                }
+        Jar jar = getJarIndex().first(name);
+        if (jar != null) {
+            try {
+                return new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name);
+            } catch (MalformedURLException ignored) {
             }
         }
         return null;
@@ -135,12 +152,8 @@ public class AgentClassLoader extends ClassLoader {
     @Override
     protected Enumeration<URL> findResources(String name) throws IOException {
         List<URL> allResources = new LinkedList<>();
-        List<Jar> allJars = getAllJars();
-        for (Jar jar : allJars) {
-            JarEntry entry = jar.jarFile.getJarEntry(name);
-            if (entry != null) {
-                allResources.add(new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name));
-            }
+        for (Jar jar : getJarIndex().all(name)) {
+            allResources.add(new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name));
         }
 
         final Iterator<URL> iterator = allResources.iterator();
@@ -169,44 +182,119 @@ public class AgentClassLoader extends ClassLoader {
         return loadedClass;
     }
 
-    private List<Jar> getAllJars() {
-        if (allJars == null) {
+    /**
+     * The index is shared by all agent class loaders of the same classpath, as the plugin jars don't change after the
+     * agent started.
+     */
+    private JarIndex getJarIndex() {
+        if (jarIndex == null) {
             jarScanLock.lock();
             try {
-                if (allJars == null) {
-                    allJars = doGetJars();
+                if (jarIndex == null) {
+                    jarIndex = JAR_INDICES.computeIfAbsent(classpath, JarIndex::build);
                 }
             } finally {
                 jarScanLock.unlock();
             }
         }
 
-        return allJars;
+        return jarIndex;
     }
 
-    private LinkedList<Jar> doGetJars() {
-        LinkedList<Jar> jars = new LinkedList<>();
-        for (File path : classpath) {
-            if (path.exists() && path.isDirectory()) {
-                String[] jarFileNames = path.list((dir, name) -> name.endsWith(".jar"));
-                for (String fileName : jarFileNames) {
+    @RequiredArgsConstructor
+    private static class Jar {
+        private final JarFile jarFile;
+        private final File sourceFile;
+    }
+
+    /**
+     * JarIndex maps every entry name to the jars including it. The jars are opened and scanned in parallel, and the
+     * jars of every entry keep the order of the classpath, so the first jar wins as the sequential lookup did.
+     */
+    private static class JarIndex {
+        private final Map<String, List<Jar>> entries;
+
+        private JarIndex(Map<String, List<Jar>> entries) {
+            this.entries = entries;
+        }
+
+        private Jar first(String name) {
+            List<Jar> jars = all(name);
+            return jars.isEmpty() ? null : jars.get(0);
+        }
+
+        private List<Jar> all(String name) {
+            List<Jar> jars = entries.get(name);
+            if (jars == null && !name.endsWith("/")) {
+                // Same as JarFile#getJarEntry, the directory entry could be found without the ending slash.
+                jars = entries.get(name + "/");
+            }
+            return jars == null ? Collections.emptyList() : jars;
+        }
+
+        private static JarIndex build(List<File> classpath) {
+            long startTime = System.currentTimeMillis();
+            List<File> files = new ArrayList<>();
+            for (File path : classpath) {
+                if (path.exists() && path.isDirectory()) {
+                    String[] jarFileNames = path.list((dir, name) -> name.endsWith(".jar"));
+                    for (String fileName : jarFileNames) {
+                        files.add(new File(path, fileName));
+                    }
+                }
+            }
+
+            List<Future<ScannedJar>> futures = new ArrayList<>(files.size());
+            ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors())),
+                new DefaultNamedThreadFactory("AgentJarScanner")
+            );
+            try {
+                for (File file : files) {
+                    futures.add(executor.submit(() -> ScannedJar.scan(file)));
+                }
+
+                Map<String, List<Jar>> entries = new HashMap<>();
+                for (int i = 0; i < futures.size(); i++) {
+                    ScannedJar scannedJar;
                     try {
-                        File file = new File(path, fileName);
-                        Jar jar = new Jar(new JarFile(file), file);
-                        jars.add(jar);
-                        LOGGER.info("{} loaded.", file.toString());
-                    } catch (IOException e) {
-                        LOGGER.error(e, "{} jar file can't be resolved", fileName);
+                        scannedJar = futures.get(i).get();
+                    } catch (ExecutionException e) {
+                        LOGGER.error(e.getCause(), "{} jar file can't be resolved", files.get(i).getName());
+                        continue;
                     }
+                    for (String entryName : scannedJar.entryNames) {
+                        entries.computeIfAbsent(entryName, name -> new ArrayList<>(1)).add(scannedJar.jar);
+                    }
+                    LOGGER.info("{} loaded.", scannedJar.jar.sourceFile.toString());
                 }
+                LOGGER.info(
+                    "{} agent jars indexed with {} entries in {} ms.", futures.size(), entries.size(),
+                    System.currentTimeMillis() - startTime
+                );
+                return new JarIndex(entries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Scanning the agent jars is interrupted.", e);
+            } finally {
+                executor.shutdown();
             }
         }
-        return jars;
     }
 
     @RequiredArgsConstructor
-    private static class Jar {
-        private final JarFile jarFile;
-        private final File sourceFile;
+    private static class ScannedJar {
+        private final Jar jar;
+        private final List<String> entryNames;
+
+        private static ScannedJar scan(File file) throws IOException {
+            JarFile jarFile = new JarFile(file);
+            List<String> entryNames = new ArrayList<>();
+            Enumeration<JarEntry> jarEntries = jarFile.entries();
+            while (jarEntries.hasMoreElements()) {
+                entryNames.add(jarEntries.nextElement().getName());
+            }
+            return new ScannedJar(new Jar(jarFile, file), entryNames);
+        }
     }
 }
\ No newline at end of file
@@ -57,6 +57,10 @@ public class MultiClassNameMatch implements IndirectMatch {
         return matchClassNames.contains(typeDescription.getTypeName());
     }
 
+    public List<String> getMatchClassNames() {
+        return matchClassNames;
+    }
+
     public static IndirectMatch byMultiClassMatch(String... classNames) {
         return new MultiClassNameMatch(classNames);
     }
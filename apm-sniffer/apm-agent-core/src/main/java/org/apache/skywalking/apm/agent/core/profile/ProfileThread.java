@@ -19,13 +19,21 @@
 package org.apache.skywalking.apm.agent.core.profile;
 
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Profile task process thread, dump the executing thread stack.
+ * <p>
+ * All the profiling threads of the task are dumped by one {@link ThreadMXBean#getThreadInfo(long[], int)} call in
+ * every period, which takes one safepoint for all of them, rather than one {@link Thread#getStackTrace()} per thread.
+ * The code signatures of the frames are interned by the {@link StackFrameDictionary} of the task.
  */
 public class ProfileThread implements Runnable {
 
@@ -37,6 +45,11 @@ public class ProfileThread implements Runnable {
     private final ProfileTaskExecutionService profileTaskExecutionService;
     private final ProfileTaskChannelService profileTaskChannelService;
 
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final StackFrameDictionary frameDictionary = new StackFrameDictionary(Config.Profile.FRAME_DICTIONARY_SIZE);
+    // the profilers in PROFILING status of the current period
+    private ThreadProfiler[] dumpingProfilers;
+
     public ProfileThread(ProfileTaskExecutionContext taskExecutionContext) {
         this.taskExecutionContext = taskExecutionContext;
         profileTaskExecutionService = ServiceManager.INSTANCE.findService(ProfileTaskExecutionService.class);
@@ -75,6 +88,10 @@ public class ProfileThread implements Runnable {
             // each all slot
             AtomicReferenceArray<ThreadProfiler> profilers = executionContext.threadProfilerSlots();
             int profilerCount = profilers.length();
+            if (dumpingProfilers == null || dumpingProfilers.length != profilerCount) {
+                dumpingProfilers = new ThreadProfiler[profilerCount];
+            }
+            int dumpingCount = 0;
             for (int slot = 0; slot < profilerCount; slot++) {
                 ThreadProfiler currentProfiler = profilers.get(slot);
                 if (currentProfiler == null) {
@@ -89,19 +106,17 @@ public class ProfileThread implements Runnable {
                         break;
 
                     case PROFILING:
-                        // dump stack
-                        TracingThreadSnapshot snapshot = currentProfiler.buildSnapshot();
-                        if (snapshot != null) {
-                            profileTaskChannelService.addProfilingSnapshot(snapshot);
-                        } else {
-                            // tell execution context current tracing thread dump failed, stop it
-                            executionContext.stopTracingProfile(currentProfiler.tracingContext());
-                        }
+                        // dump stack later, together with the others
+                        dumpingProfilers[dumpingCount++] = currentProfiler;
                         break;
 
                 }
             }
 
+            if (dumpingCount > 0) {
+                dumpStacks(executionContext, dumpingCount);
+            }
+
             // sleep to next period
             // if out of period, sleep one period
             long needToSleep = (currentLoopStartTime + maxSleepPeriod) - System.currentTimeMillis();
@@ -110,4 +125,39 @@ public class ProfileThread implements Runnable {
         }
     }
 
+    /**
+     * dump the stacks of the first {@code dumpingCount} profilers of {@link #dumpingProfilers} in one call, and build
+     * their snapshots
+     */
+    private void dumpStacks(ProfileTaskExecutionContext executionContext, int dumpingCount) {
+        long[] threadIds = new long[dumpingCount];
+        for (int i = 0; i < dumpingCount; i++) {
+            threadIds[i] = dumpingProfilers[i].profilingThreadId();
+        }
+
+        ThreadInfo[] threadInfos;
+        try {
+            threadInfos = threadMXBean.getThreadInfo(threadIds, Config.Profile.DUMP_MAX_STACK_DEPTH);
+        } catch (Exception e) {
+            // dump error ignore and make these profilers stop
+            threadInfos = new ThreadInfo[dumpingCount];
+        }
+
+        for (int i = 0; i < dumpingCount; i++) {
+            ThreadProfiler currentProfiler = dumpingProfilers[i];
+            dumpingProfilers[i] = null;
+
+            // the thread info is null, if the thread is already run finished
+            ThreadInfo threadInfo = threadInfos[i];
+            TracingThreadSnapshot snapshot = currentProfiler.buildSnapshot(
+                threadInfo == null ? null : threadInfo.getStackTrace(), frameDictionary);
+            if (snapshot != null) {
+                profileTaskChannelService.addProfilingSnapshot(snapshot);
+            } else {
+                // tell execution context current tracing thread dump failed, stop it
+                executionContext.stopTracingProfile(currentProfiler.tracingContext());
+            }
+        }
+    }
+
 }
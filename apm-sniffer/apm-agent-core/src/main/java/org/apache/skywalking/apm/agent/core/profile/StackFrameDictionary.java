@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.profile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns the code signatures of the dumped stack frames, so the frames dumped again and again in a profile task are
+ * built into strings once, and the snapshots share the same string instances. Not thread safe, owned by the {@link
+ * ProfileThread} of the task.
+ */
+public class StackFrameDictionary {
+    private final Map<StackTraceElement, String> signatures = new HashMap<>();
+    private final int maxSize;
+
+    /**
+     * @param maxSize the max number of the frames kept, the frames out of it are built every time.
+     */
+    public StackFrameDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return code sign: className.methodName:lineNumber
+     */
+    public String signatureOf(StackTraceElement element) {
+        String signature = signatures.get(element);
+        if (signature == null) {
+            signature = element.getClassName() + "." + element.getMethodName() + ":" + element.getLineNumber();
+            if (signatures.size() < maxSize) {
+                signatures.put(element, signature);
+            }
+        }
+        return signature;
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+}
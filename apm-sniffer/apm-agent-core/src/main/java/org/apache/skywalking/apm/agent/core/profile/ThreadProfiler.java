@@ -78,27 +78,20 @@ public class ThreadProfiler {
     }
 
     /**
-     * dump tracing thread and build thread snapshot
+     * build thread snapshot from the stack dumped by {@link ProfileThread}, together with the other profiling threads
      *
+     * @param stackTrace the dumped stack of {@link #profilingThreadId()}, null or empty if the thread is finished
+     * @param dictionary the interned code signatures of the task, nullable
      * @return snapshot, if null means dump snapshot error, should stop it
      */
-    public TracingThreadSnapshot buildSnapshot() {
+    public TracingThreadSnapshot buildSnapshot(StackTraceElement[] stackTrace, StackFrameDictionary dictionary) {
         if (!isProfilingContinuable()) {
             return null;
         }
 
         long currentTime = System.currentTimeMillis();
-        // dump thread
-        StackTraceElement[] stackTrace;
-        try {
-            stackTrace = profilingThread.getStackTrace();
-
-            // stack depth is zero, means thread is already run finished
-            if (stackTrace.length == 0) {
-                return null;
-            }
-        } catch (Exception e) {
-            // dump error ignore and make this profiler stop
+        // stack depth is zero, means thread is already run finished
+        if (stackTrace == null || stackTrace.length == 0) {
             return null;
         }
 
@@ -112,7 +105,9 @@ public class ThreadProfiler {
         // use inverted order, because thread dump is start with bottom
         final ArrayList<String> stackList = new ArrayList<>(dumpElementCount);
         for (int i = dumpElementCount - 1; i >= 0; i--) {
-            stackList.add(buildStackElementCodeSignature(stackTrace[i]));
+            stackList.add(dictionary != null
+                              ? dictionary.signatureOf(stackTrace[i])
+                              : buildStackElementCodeSignature(stackTrace[i]));
         }
 
         String taskId = executionContext.getTask().getTaskId();
@@ -145,6 +140,10 @@ public class ThreadProfiler {
         return System.currentTimeMillis() - profilingStartTime < profilingMaxTimeMills;
     }
 
+    public long profilingThreadId() {
+        return profilingThread.getId();
+    }
+
     public TracingContext tracingContext() {
         return tracingContext;
     }
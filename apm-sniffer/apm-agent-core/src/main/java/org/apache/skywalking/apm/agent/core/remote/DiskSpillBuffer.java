@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.apache.skywalking.apm.agent.core.boot.AgentPackageNotFoundException;
+import org.apache.skywalking.apm.agent.core.boot.AgentPackagePath;
+import org.apache.skywalking.apm.agent.core.boot.DefaultNamedThreadFactory;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+
+/**
+ * A bounded FIFO of the serialized records, which can't be sent to the backend for now, backed by a memory-mapped file
+ * in the `/spill` folder of the agent. The records are length-prefixed in a ring over the mapped region, the appending
+ * fails once the ring is full. The records are taken out for replaying at most {@link Config.Buffer#SPILL_REPLAY_RATE}
+ * per second, to not flood the backend just recovered.
+ * <p>
+ * The threads producing the data use {@link #appendAsync(Supplier, Runnable)}, the records are serialized and appended
+ * by the spill thread of the buffer, through a small bounded queue, so the producing threads never wait for the
+ * serialization or the page faults of the file.
+ * <p>
+ * Every process has its own files, which are deleted at the exit, the records don't survive the restart.
+ */
+public class DiskSpillBuffer {
+    private static final ILog LOGGER = LogManager.getLogger(DiskSpillBuffer.class);
+
+    private static final int LENGTH_BYTES = 4;
+    static final int PENDING_RECORDS = 128;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int replayRate;
+    private final BlockingQueue<PendingRecord> pendingRecords = new ArrayBlockingQueue<>(PENDING_RECORDS);
+    private final AtomicBoolean spillThreadStarted = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private int readPosition;
+    private int writePosition;
+    private int usedBytes;
+    private int recordCount;
+    private long abandonedCount;
+
+    private double replayPermits;
+    private long lastReplayTime;
+
+    /**
+     * @return the spill buffer of the given data name, or null if the spilling is not active, or the file can't be
+     * created.
+     */
+    public static DiskSpillBuffer create(String name) {
+        if (!Config.Buffer.SPILL_ACTIVE) {
+            return null;
+        }
+        try {
+            File spillDir = new File(AgentPackagePath.getPath(), "spill");
+            if (!spillDir.exists() && !spillDir.mkdirs()) {
+                throw new IOException("Can't create the spill folder " + spillDir);
+            }
+            File file = new File(spillDir, name + "-" + UUID.randomUUID().toString().replaceAll("-", "") + ".spill");
+            file.deleteOnExit();
+            return new DiskSpillBuffer(file, Config.Buffer.SPILL_FILE_SIZE, Config.Buffer.SPILL_REPLAY_RATE);
+        } catch (IOException | AgentPackageNotFoundException e) {
+            LOGGER.error(e, "Can't create the spill file for {}, the data will be abandoned when it can't be sent.", name);
+            return null;
+        }
+    }
+
+    DiskSpillBuffer(File file, int capacity, int replayRate) throws IOException {
+        this.file = file;
+        this.capacity = capacity;
+        this.replayRate = replayRate;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.lastReplayTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return true if the record is appended, false if the buffer is full.
+     */
+    public synchronized boolean append(byte[] record) {
+        if (closed) {
+            return false;
+        }
+        if (usedBytes + LENGTH_BYTES + record.length > capacity) {
+            abandonedCount++;
+            return false;
+        }
+        byte[] length = new byte[] {
+            (byte) (record.length >>> 24),
+            (byte) (record.length >>> 16),
+            (byte) (record.length >>> 8),
+            (byte) record.length
+        };
+        write(length);
+        write(record);
+        usedBytes += LENGTH_BYTES + record.length;
+        recordCount++;
+        return true;
+    }
+
+    /**
+     * Append the record in the spill thread. The record is abandoned right away if the spill thread falls behind.
+     *
+     * @param record      serializes the record, called in the spill thread.
+     * @param onAbandoned called when the record is abandoned, as the queue or the buffer is full, or the serialization
+     *                    fails.
+     */
+    public void appendAsync(Supplier<byte[]> record, Runnable onAbandoned) {
+        if (closed || !pendingRecords.offer(new PendingRecord(record, onAbandoned))) {
+            onAbandoned.run();
+            return;
+        }
+        if (!spillThreadStarted.get() && spillThreadStarted.compareAndSet(false, true)) {
+            new DefaultNamedThreadFactory("DiskSpillBuffer").newThread(this::spillPendingRecords).start();
+        }
+    }
+
+    private void spillPendingRecords() {
+        while (!closed) {
+            PendingRecord pendingRecord;
+            try {
+                pendingRecord = pendingRecords.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (pendingRecord == null) {
+                continue;
+            }
+            byte[] record;
+            try {
+                record = pendingRecord.record.get();
+            } catch (Throwable t) {
+                LOGGER.error(t, "Serialize the record to spill fail.");
+                pendingRecord.onAbandoned.run();
+                continue;
+            }
+            if (!append(record)) {
+                pendingRecord.onAbandoned.run();
+            }
+        }
+    }
+
+    /**
+     * Take out the records in the order they are appended, limited by the replay rate and the given max number.
+     */
+    public synchronized List<byte[]> replay(int max) {
+        if (recordCount == 0 || closed) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        replayPermits = Math.min(replayRate, replayPermits + (now - lastReplayTime) * replayRate / 1000.0);
+        lastReplayTime = now;
+
+        int size = Math.min(Math.min(max, recordCount), (int) replayPermits);
+        List<byte[]> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] length = read(new byte[LENGTH_BYTES]);
+            int recordLength = (length[0] & 0xFF) << 24 | (length[1] & 0xFF) << 16 | (length[2] & 0xFF) << 8
+                | (length[3] & 0xFF);
+            records.add(read(new byte[recordLength]));
+            usedBytes -= LENGTH_BYTES + recordLength;
+            recordCount--;
+        }
+        replayPermits -= size;
+        if (recordCount == 0) {
+            LOGGER.info("All the spilled records of {} have been replayed, {} records were abandoned as it was full.",
+                        file.getName(), abandonedCount
+            );
+            readPosition = writePosition = 0;
+            abandonedCount = 0;
+        }
+        return records;
+    }
+
+    public synchronized boolean isEmpty() {
+        return recordCount == 0;
+    }
+
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pendingRecords.clear();
+        unmap(buffer);
+        try {
+            randomAccessFile.close();
+        } catch (IOException e) {
+            LOGGER.warn("Close the spill file {} failure, {}", file, e.getMessage());
+        }
+        if (!file.delete()) {
+            LOGGER.debug("The spill file {} will be deleted at the exit.", file);
+        }
+    }
+
+    /**
+     * Release the mapped region right away, rather than waiting for the GC, so the file could be deleted. The buffer
+     * must not be accessed anymore.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            try {
+                // JDK 9+
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                // JDK 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Throwable t) {
+            LOGGER.debug("Unmap the spill file failure, it is released by the GC, {}", t.getMessage());
+        }
+    }
+
+    private void write(byte[] bytes) {
+        int head = Math.min(bytes.length, capacity - writePosition);
+        buffer.position(writePosition);
+        buffer.put(bytes, 0, head);
+        if (head < bytes.length) {
+            buffer.position(0);
+            buffer.put(bytes, head, bytes.length - head);
+        }
+        writePosition = (writePosition + bytes.length) % capacity;
+    }
+
+    private byte[] read(byte[] bytes) {
+        int head = Math.min(bytes.length, capacity - readPosition);
+        buffer.position(readPosition);
+        buffer.get(bytes, 0, head);
+        if (head < bytes.length) {
+            buffer.position(0);
+            buffer.get(bytes, head, bytes.length - head);
+        }
+        readPosition = (readPosition + bytes.length) % capacity;
+        return bytes;
+    }
+
+    private static class PendingRecord {
+        private final Supplier<byte[]> record;
+        private final Runnable onAbandoned;
+
+        private PendingRecord(Supplier<byte[]> record, Runnable onAbandoned) {
+            this.record = record;
+            this.onAbandoned = onAbandoned;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.remote;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import org.apache.skywalking.apm.agent.core.meter.Counter;
+import org.apache.skywalking.apm.agent.core.meter.MeterFactory;
+
+/**
+ * The meters of the trace segment uplink, reported through the agent meter system. The sent bytes are counted on the
+ * wire, after the compression, by a {@link ClientStreamTracer} of the gRPC calls.
+ */
+class SegmentUplinkMeters implements ClientInterceptor {
+    private final Counter sentBytes;
+    private final Counter uncompressedBytes;
+    private final Counter droppedSegments;
+
+    private final ClientStreamTracer.Factory tracerFactory = new ClientStreamTracer.Factory() {
+        @Override
+        public ClientStreamTracer newClientStreamTracer(final ClientStreamTracer.StreamInfo info,
+                                                        final Metadata headers) {
+            return new ClientStreamTracer() {
+                @Override
+                public void outboundWireSize(final long bytes) {
+                    sentBytes.increment(bytes);
+                }
+
+                @Override
+                public void outboundUncompressedSize(final long bytes) {
+                    uncompressedBytes.increment(bytes);
+                }
+            };
+        }
+    };
+
+    SegmentUplinkMeters() {
+        sentBytes = MeterFactory.counter("segment_uplink_sent_bytes").build();
+        uncompressedBytes = MeterFactory.counter("segment_uplink_uncompressed_bytes").build();
+        droppedSegments = MeterFactory.counter("segment_uplink_dropped_segments").build();
+        MeterFactory.gauge("segment_uplink_compression_ratio", () -> {
+            double uncompressed = uncompressedBytes.get();
+            return uncompressed == 0 ? 1 : sentBytes.get() / uncompressed;
+        }).build();
+    }
+
+    @Override
+    public <REQ, RESP> ClientCall<REQ, RESP> interceptCall(final MethodDescriptor<REQ, RESP> method,
+                                                               final CallOptions callOptions,
+                                                               final Channel next) {
+        return next.newCall(method, callOptions.withStreamTracerFactory(tracerFactory));
+    }
+
+    void dropped(int segments) {
+        droppedSegments.increment(segments);
+    }
+}
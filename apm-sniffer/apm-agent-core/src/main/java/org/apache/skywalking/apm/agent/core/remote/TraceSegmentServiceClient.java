@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.apm.agent.core.remote;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.Channel;
 import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.apm.agent.core.boot.BootService;
@@ -36,11 +38,15 @@ import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.apm.network.common.v3.Commands;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.apm.network.language.agent.v3.TraceSegmentReportServiceGrpc;
+import org.apache.skywalking.apm.util.StringUtil;
 
 import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.BUFFER_SIZE;
 import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.CHANNEL_SIZE;
+import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.RING_BUFFER;
+import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.WAIT_STRATEGY;
 import static org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus.CONNECTED;
 
 @DefaultImplementor
@@ -53,10 +59,24 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     private volatile DataCarrier<TraceSegment> carrier;
     private volatile TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub serviceStub;
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
+    private volatile SegmentUplinkMeters meters;
+    private volatile DiskSpillBuffer spillBuffer;
+
+    /**
+     * The segments waiting for the next batch, only accessed by the consumer thread.
+     */
+    private SegmentCollection.Builder pendingBatch = SegmentCollection.newBuilder();
+    private long pendingBatchBytes;
+    private long pendingBatchStartTime;
 
     @Override
     public void prepare() {
         ServiceManager.INSTANCE.findService(GRPCChannelManager.class).addChannelListener(this);
+        // The meters are only for the tuning of the batching and the compression, not registered by default.
+        if (Config.Collector.SEGMENT_UPLINK_BATCH_BYTES > 0
+            || StringUtil.isNotEmpty(Config.Collector.SEGMENT_UPLINK_COMPRESSION)) {
+            meters = new SegmentUplinkMeters();
+        }
     }
 
     @Override
@@ -64,7 +84,10 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
         lastLogTime = System.currentTimeMillis();
         segmentUplinkedCounter = 0;
         segmentAbandonedCounter = 0;
-        carrier = new DataCarrier<>(CHANNEL_SIZE, BUFFER_SIZE, BufferStrategy.IF_POSSIBLE);
+        carrier = new DataCarrier<>(
+            CHANNEL_SIZE, BUFFER_SIZE, RING_BUFFER ? BufferStrategy.RING_IF_POSSIBLE : BufferStrategy.IF_POSSIBLE);
+        carrier.setWaitStrategy(WAIT_STRATEGY);
+        spillBuffer = DiskSpillBuffer.create("segment");
         carrier.consume(this, 1);
     }
 
@@ -77,6 +100,9 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     public void shutdown() {
         TracingContext.ListenerManager.remove(this);
         carrier.shutdownConsumers();
+        if (spillBuffer != null) {
+            spillBuffer.close();
+        }
     }
 
     @Override
@@ -86,58 +112,214 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
     @Override
     public void consume(List<TraceSegment> data) {
+        if (Config.Collector.SEGMENT_UPLINK_BATCH_BYTES > 0) {
+            batch(data);
+            return;
+        }
         if (CONNECTED.equals(status)) {
-            final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
-            StreamObserver<SegmentObject> upstreamSegmentStreamObserver = serviceStub.withDeadlineAfter(
-                Config.Collector.GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
-            ).collect(new StreamObserver<Commands>() {
-                @Override
-                public void onNext(Commands commands) {
-                    ServiceManager.INSTANCE.findService(CommandService.class)
-                                           .receiveCommand(commands);
+            replaySpilled();
+            List<SegmentObject> upstreamSegments = new ArrayList<>(data.size());
+            for (TraceSegment segment : data) {
+                try {
+                    upstreamSegments.add(segment.transform());
+                } catch (Throwable t) {
+                    LOGGER.error(t, "Transform UpstreamSegment fail.");
                 }
+            }
+            upstream(upstreamSegments);
+            segmentUplinkedCounter += data.size();
+        } else {
+            spillOrAbandon(data);
+        }
 
-                @Override
-                public void onError(
-                    Throwable throwable) {
-                    status.finished();
-                    if (LOGGER.isErrorEnable()) {
-                        LOGGER.error(
-                            throwable,
-                            "Send UpstreamSegment to collector fail with a grpc internal exception."
-                        );
-                    }
-                    ServiceManager.INSTANCE
-                        .findService(GRPCChannelManager.class)
-                        .reportError(throwable);
-                }
+        printUplinkStatus();
+    }
+
+    private void upstream(final List<SegmentObject> segments) {
+        final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
+        StreamObserver<SegmentObject> upstreamSegmentStreamObserver = serviceStub.withDeadlineAfter(
+            Config.Collector.GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
+        ).collect(new StreamObserver<Commands>() {
+            @Override
+            public void onNext(Commands commands) {
+                ServiceManager.INSTANCE.findService(CommandService.class)
+                                       .receiveCommand(commands);
+            }
 
-                @Override
-                public void onCompleted() {
-                    status.finished();
+            @Override
+            public void onError(
+                Throwable throwable) {
+                status.finished();
+                dropped(segments.size());
+                if (LOGGER.isErrorEnable()) {
+                    LOGGER.error(
+                        throwable,
+                        "Send UpstreamSegment to collector fail with a grpc internal exception."
+                    );
                 }
-            });
+                ServiceManager.INSTANCE
+                    .findService(GRPCChannelManager.class)
+                    .reportError(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                status.finished();
+            }
+        });
+
+        try {
+            for (SegmentObject upstreamSegment : segments) {
+                upstreamSegmentStreamObserver.onNext(upstreamSegment);
+            }
+        } catch (Throwable t) {
+            LOGGER.error(t, "Send UpstreamSegment to collector fail.");
+        }
+
+        upstreamSegmentStreamObserver.onCompleted();
 
+        status.wait4Finish();
+    }
+
+    /**
+     * Send the spilled segments, at the rate limited by {@link DiskSpillBuffer}, before the new ones.
+     */
+    private void replaySpilled() {
+        if (spillBuffer == null || spillBuffer.isEmpty()) {
+            return;
+        }
+        List<byte[]> records = spillBuffer.replay(BUFFER_SIZE);
+        if (records.isEmpty()) {
+            return;
+        }
+        List<SegmentObject> upstreamSegments = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            try {
+                upstreamSegments.add(SegmentObject.parseFrom(record));
+            } catch (InvalidProtocolBufferException e) {
+                LOGGER.error(e, "Parse the spilled UpstreamSegment fail.");
+            }
+        }
+        upstream(upstreamSegments);
+        segmentUplinkedCounter += upstreamSegments.size();
+    }
+
+    private void spillOrAbandon(List<TraceSegment> data) {
+        if (spillBuffer == null) {
+            segmentAbandonedCounter += data.size();
+            dropped(data.size());
+            return;
+        }
+        for (TraceSegment segment : data) {
             try {
-                for (TraceSegment segment : data) {
-                    SegmentObject upstreamSegment = segment.transform();
-                    upstreamSegmentStreamObserver.onNext(upstreamSegment);
+                spillOrAbandon(segment.transform());
+            } catch (Throwable t) {
+                LOGGER.error(t, "Transform UpstreamSegment fail.");
+            }
+        }
+    }
+
+    private void spillOrAbandon(SegmentObject segment) {
+        if (spillBuffer == null || !spillBuffer.append(segment.toByteArray())) {
+            segmentAbandonedCounter++;
+            dropped(1);
+        }
+    }
+
+    /**
+     * Add the segments into the pending batch, which is sent in one message once it reaches {@link
+     * Config.Collector#SEGMENT_UPLINK_BATCH_BYTES} or has waited for {@link Config.Collector#SEGMENT_UPLINK_FLUSH_INTERVAL}.
+     * The small batches consumed in every cycle under the low load don't cost a round trip each.
+     */
+    private void batch(List<TraceSegment> data) {
+        if (!CONNECTED.equals(status)) {
+            spillOrAbandon(data);
+            printUplinkStatus();
+            return;
+        }
+        replaySpilled();
+        for (TraceSegment segment : data) {
+            try {
+                SegmentObject upstreamSegment = segment.transform();
+                if (pendingBatch.getSegmentsCount() == 0) {
+                    pendingBatchStartTime = System.currentTimeMillis();
                 }
+                pendingBatch.addSegments(upstreamSegment);
+                pendingBatchBytes += upstreamSegment.getSerializedSize();
             } catch (Throwable t) {
-                LOGGER.error(t, "Transform and send UpstreamSegment to collector fail.");
+                LOGGER.error(t, "Transform UpstreamSegment fail.");
             }
+            if (pendingBatchBytes >= Config.Collector.SEGMENT_UPLINK_BATCH_BYTES) {
+                flushBatch();
+            }
+        }
+        flushBatchIfExpired();
+    }
 
-            upstreamSegmentStreamObserver.onCompleted();
+    private void flushBatchIfExpired() {
+        if (pendingBatch.getSegmentsCount() > 0
+            && System.currentTimeMillis() - pendingBatchStartTime >= Config.Collector.SEGMENT_UPLINK_FLUSH_INTERVAL) {
+            flushBatch();
+        }
+    }
 
-            status.wait4Finish();
-            segmentUplinkedCounter += data.size();
-        } else {
-            segmentAbandonedCounter += data.size();
+    private void flushBatch() {
+        final SegmentCollection batch = pendingBatch.build();
+        pendingBatch = SegmentCollection.newBuilder();
+        pendingBatchBytes = 0;
+        if (batch.getSegmentsCount() == 0) {
+            return;
+        }
+        if (!CONNECTED.equals(status)) {
+            for (SegmentObject segment : batch.getSegmentsList()) {
+                spillOrAbandon(segment);
+            }
+            printUplinkStatus();
+            return;
         }
 
+        final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
+        serviceStub.withDeadlineAfter(
+            Config.Collector.GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
+        ).collectInSync(batch, new StreamObserver<Commands>() {
+            @Override
+            public void onNext(Commands commands) {
+                ServiceManager.INSTANCE.findService(CommandService.class)
+                                       .receiveCommand(commands);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                status.finished();
+                dropped(batch.getSegmentsCount());
+                if (LOGGER.isErrorEnable()) {
+                    LOGGER.error(
+                        throwable,
+                        "Send UpstreamSegment batch to collector fail with a grpc internal exception."
+                    );
+                }
+                ServiceManager.INSTANCE
+                    .findService(GRPCChannelManager.class)
+                    .reportError(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                status.finished();
+            }
+        });
+
+        status.wait4Finish();
+        segmentUplinkedCounter += batch.getSegmentsCount();
         printUplinkStatus();
     }
 
+    private void dropped(int segments) {
+        if (meters != null) {
+            meters.dropped(segments);
+        }
+    }
+
     private void printUplinkStatus() {
         long currentTimeMillis = System.currentTimeMillis();
         if (currentTimeMillis - lastLogTime > 30 * 1000) {
@@ -160,8 +342,20 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     }
 
     @Override
-    public void onExit() {
+    public void nothingToConsume() {
+        if (Config.Collector.SEGMENT_UPLINK_BATCH_BYTES > 0) {
+            flushBatchIfExpired();
+        }
+        if (CONNECTED.equals(status)) {
+            replaySpilled();
+        }
+    }
 
+    @Override
+    public void onExit() {
+        if (Config.Collector.SEGMENT_UPLINK_BATCH_BYTES > 0) {
+            flushBatch();
+        }
     }
 
     @Override
@@ -170,9 +364,19 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
             return;
         }
         if (!carrier.produce(traceSegment)) {
-            if (LOGGER.isDebugEnable()) {
-                LOGGER.debug("One trace segment has been abandoned, cause by buffer is full.");
+            if (spillBuffer != null) {
+                // The segment is transformed and spilled in the spill thread, rather than the tracing thread.
+                spillBuffer.appendAsync(() -> traceSegment.transform().toByteArray(), this::abandonOne);
+                return;
             }
+            abandonOne();
+        }
+    }
+
+    private void abandonOne() {
+        dropped(1);
+        if (LOGGER.isDebugEnable()) {
+            LOGGER.debug("One trace segment has been abandoned, cause by buffer is full.");
         }
     }
 
@@ -180,7 +384,15 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     public void statusChanged(GRPCChannelStatus status) {
         if (CONNECTED.equals(status)) {
             Channel channel = ServiceManager.INSTANCE.findService(GRPCChannelManager.class).getChannel();
-            serviceStub = TraceSegmentReportServiceGrpc.newStub(channel);
+            TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub = TraceSegmentReportServiceGrpc.newStub(
+                channel);
+            if (StringUtil.isNotEmpty(Config.Collector.SEGMENT_UPLINK_COMPRESSION)) {
+                stub = stub.withCompression(Config.Collector.SEGMENT_UPLINK_COMPRESSION);
+            }
+            if (meters != null) {
+                stub = stub.withInterceptors(meters);
+            }
+            serviceStub = stub;
         }
         this.status = status;
     }
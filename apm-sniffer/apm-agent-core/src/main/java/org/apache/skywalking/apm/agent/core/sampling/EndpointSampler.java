@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import org.apache.skywalking.apm.agent.core.meter.Counter;
+import org.apache.skywalking.apm.agent.core.meter.MeterFactory;
+
+/**
+ * The per-endpoint sampler of {@link SamplingStrategy#ENDPOINT}. Every endpoint(the first operation name of the
+ * tracing context) has its own token bucket, so the threads of different endpoints don't contend on one counter, and a
+ * hot endpoint can't consume the budget of the others.
+ * <p>
+ * The rate of each bucket is re-calculated every window(3 seconds) by {@link #adjust()}, as the sampling rate divided by
+ * the number of the endpoints active in the last window, but never less than the guaranteed minimum. All buckets draw
+ * from one budget of the window as well, the sampling rate or the guaranteed minimum of the endpoints active in the
+ * window, whichever is larger. So a burst of new endpoints can't sample beyond the budget, before the next
+ * {@link #adjust()} shrinks the share. A new bucket starts with the share it would get among the active endpoints,
+ * rather than the full share of the last window. The buckets idle
+ * for {@link #IDLE_WINDOWS_TO_EVICT} windows are removed, and once there are {@code endpointLimit} buckets, the new
+ * endpoints share one bucket, {@link #OTHERS}.
+ */
+public class EndpointSampler {
+    static final String OTHERS = "others";
+    static final long WINDOW_MILLIS = 3000;
+    static final int IDLE_WINDOWS_TO_EVICT = 20;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Meters> meters = new ConcurrentHashMap<>();
+    private final Bucket others;
+
+    private final int endpointLimit;
+    private final int minPerEndpoint;
+    private final IntSupplier samplingRate;
+    private final boolean meterActive;
+
+    /**
+     * The tokens of every bucket per window.
+     */
+    private volatile double share;
+    /**
+     * The samples and the endpoints active in the current window, reset by {@link #adjust()}.
+     */
+    private final AtomicInteger windowSampled = new AtomicInteger();
+    private final AtomicInteger windowActive = new AtomicInteger();
+
+    /**
+     * @param endpointLimit  the max number of the endpoints with their own bucket.
+     * @param minPerEndpoint the guaranteed samples of every endpoint in 3 seconds.
+     * @param samplingRate   the samples of the service in 3 seconds, which could be changed dynamically.
+     * @param meterActive    report the sampled and dropped counts of every endpoint as meters.
+     */
+    public EndpointSampler(int endpointLimit, int minPerEndpoint, IntSupplier samplingRate, boolean meterActive) {
+        this.endpointLimit = endpointLimit;
+        this.minPerEndpoint = Math.max(minPerEndpoint, 0);
+        this.samplingRate = samplingRate;
+        this.meterActive = meterActive;
+        this.share = Math.max(samplingRate.getAsInt(), this.minPerEndpoint);
+        this.others = new Bucket(OTHERS);
+    }
+
+    /**
+     * @return true, if the bucket of the endpoint has a token.
+     */
+    public boolean trySampling(String operationName) {
+        final Bucket bucket = bucketOf(operationName);
+        final boolean sampled = bucket.tryAcquire(System.currentTimeMillis(), share, false);
+        bucket.meters.record(sampled);
+        return sampled;
+    }
+
+    /**
+     * Take a token from the bucket of the endpoint by force, for the traces propagated from the upstream. The bucket
+     * could be overdrawn, up to one window.
+     */
+    public void forceSampled(String operationName) {
+        final Bucket bucket = bucketOf(operationName);
+        bucket.tryAcquire(System.currentTimeMillis(), share, true);
+        bucket.meters.record(true);
+    }
+
+    /**
+     * Re-calculate the share of every bucket by the endpoints active in the last window, and evict the idle buckets.
+     * Called every window.
+     */
+    public void adjust() {
+        int active = 0;
+        final Iterator<Map.Entry<String, Bucket>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Bucket bucket = iterator.next().getValue();
+            if (bucket.endWindow()) {
+                active++;
+            } else if (bucket.idleWindows >= IDLE_WINDOWS_TO_EVICT) {
+                iterator.remove();
+            }
+        }
+        if (others.endWindow()) {
+            active++;
+        }
+        share = Math.max((double) samplingRate.getAsInt() / Math.max(active, 1), minPerEndpoint);
+        windowSampled.set(0);
+        windowActive.set(0);
+    }
+
+    /**
+     * Take one sample from the budget of the window.
+     *
+     * @return false, if the budget is used up.
+     */
+    private boolean tryAcquireWindow() {
+        while (true) {
+            final int sampled = windowSampled.get();
+            final long budget = Math.max(samplingRate.getAsInt(), (long) windowActive.get() * minPerEndpoint);
+            if (sampled >= budget) {
+                return false;
+            }
+            if (windowSampled.compareAndSet(sampled, sampled + 1)) {
+                return true;
+            }
+        }
+    }
+
+    double getShare() {
+        return share;
+    }
+
+    int bucketSize() {
+        return buckets.size();
+    }
+
+    private Bucket bucketOf(String operationName) {
+        Bucket bucket = buckets.get(operationName);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= endpointLimit) {
+            return others;
+        }
+        return buckets.computeIfAbsent(operationName, Bucket::new);
+    }
+
+    private Meters metersOf(String endpoint) {
+        Meters endpointMeters = meters.get(endpoint);
+        if (endpointMeters != null) {
+            return endpointMeters;
+        }
+        if (!OTHERS.equals(endpoint) && meters.size() >= endpointLimit) {
+            return metersOf(OTHERS);
+        }
+        // The meter service keeps the meters once registered, so they are cached here, and shared by the buckets of
+        // the same endpoint evicted and created again.
+        return meters.computeIfAbsent(endpoint, Meters::new);
+    }
+
+    private class Bucket {
+        private final Meters meters;
+        private double tokens;
+        private long lastRefillTime;
+        private volatile boolean active;
+        private int idleWindows;
+
+        private Bucket(String endpoint) {
+            this.meters = metersOf(endpoint);
+            // The share isn't divided by this endpoint yet, so start with the part this endpoint would get.
+            this.tokens = Math.min(
+                share, Math.max(minPerEndpoint, (double) samplingRate.getAsInt() / (windowActive.get() + 1)));
+            this.lastRefillTime = System.currentTimeMillis();
+        }
+
+        private synchronized boolean tryAcquire(long now, double capacity, boolean force) {
+            if (now > lastRefillTime) {
+                tokens += capacity * (now - lastRefillTime) / WINDOW_MILLIS;
+                lastRefillTime = now;
+            }
+            // The capacity shrinks when more endpoints are active.
+            tokens = Math.min(capacity, tokens);
+            if (!active) {
+                active = true;
+                windowActive.incrementAndGet();
+            }
+            if (tokens >= 1 && tryAcquireWindow()) {
+                tokens--;
+                return true;
+            }
+            if (force && tokens > -capacity) {
+                tokens--;
+                windowSampled.incrementAndGet();
+            }
+            return false;
+        }
+
+        /**
+         * @return true, if this bucket was used in the ending window.
+         */
+        private boolean endWindow() {
+            if (active) {
+                active = false;
+                idleWindows = 0;
+                return true;
+            }
+            idleWindows++;
+            return false;
+        }
+    }
+
+    private class Meters {
+        private final Counter sampled;
+        private final Counter dropped;
+
+        private Meters(String endpoint) {
+            if (meterActive) {
+                sampled = MeterFactory.counter("sampling_endpoint_sampled").tag("endpoint", endpoint).build();
+                dropped = MeterFactory.counter("sampling_endpoint_dropped").tag("endpoint", endpoint).build();
+            } else {
+                sampled = null;
+                dropped = null;
+            }
+        }
+
+        private void record(boolean isSampled) {
+            final Counter counter = isSampled ? sampled : dropped;
+            if (counter != null) {
+                counter.increment(1);
+            }
+        }
+    }
+}
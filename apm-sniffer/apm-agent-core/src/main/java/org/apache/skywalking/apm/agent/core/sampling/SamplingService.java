@@ -41,6 +41,9 @@ import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
  * send all of them to collector, if SAMPLING is on.
  * <p>
  * By default, SAMPLING is on, and  {@link Config.Agent#SAMPLE_N_PER_3_SECS }
+ * <p>
+ * The budget is spent in the way of {@link Config.Agent#SAMPLING_STRATEGY}, globally by default, or per endpoint by
+ * {@link EndpointSampler}.
  */
 @DefaultImplementor
 public class SamplingService implements BootService {
@@ -49,6 +52,7 @@ public class SamplingService implements BootService {
     private volatile boolean on = false;
     private volatile AtomicInteger samplingFactorHolder;
     private volatile ScheduledFuture<?> scheduledFuture;
+    private volatile EndpointSampler endpointSampler;
 
     private SamplingRateWatcher samplingRateWatcher;
 
@@ -62,6 +66,12 @@ public class SamplingService implements BootService {
         ServiceManager.INSTANCE.findService(ConfigurationDiscoveryService.class)
                                .registerAgentConfigChangeWatcher(samplingRateWatcher);
 
+        if (Config.Agent.SAMPLING_STRATEGY == SamplingStrategy.ENDPOINT) {
+            endpointSampler = new EndpointSampler(
+                Config.Agent.SAMPLE_ENDPOINT_LIMIT, Config.Agent.SAMPLE_MIN_PER_ENDPOINT_PER_3_SECS,
+                samplingRateWatcher::getSamplingRate, Config.Meter.ACTIVE
+            );
+        }
         handleSamplingRateChanged();
     }
 
@@ -83,6 +93,9 @@ public class SamplingService implements BootService {
      */
     public boolean trySampling(String operationName) {
         if (on) {
+            if (endpointSampler != null) {
+                return endpointSampler.trySampling(operationName);
+            }
             int factor = samplingFactorHolder.get();
             if (factor < samplingRateWatcher.getSamplingRate()) {
                 return samplingFactorHolder.compareAndSet(factor, factor + 1);
@@ -98,7 +111,21 @@ public class SamplingService implements BootService {
      * sampled, the trace beginning at local, has less chance to be sampled.
      */
     public void forceSampled() {
+        forceSampled(null);
+    }
+
+    /**
+     * @param operationName The first operation name of the new tracing context, whose budget should be taken when the
+     *                      sampling is per endpoint.
+     */
+    public void forceSampled(String operationName) {
         if (on) {
+            if (endpointSampler != null) {
+                if (operationName != null) {
+                    endpointSampler.forceSampled(operationName);
+                }
+                return;
+            }
             samplingFactorHolder.incrementAndGet();
         }
     }
@@ -107,6 +134,14 @@ public class SamplingService implements BootService {
         samplingFactorHolder = new AtomicInteger(0);
     }
 
+    private void endWindow() {
+        if (endpointSampler != null) {
+            endpointSampler.adjust();
+        } else {
+            resetSamplingFactor();
+        }
+    }
+
     /**
      * Handle the samplingRate changed.
      */
@@ -118,11 +153,13 @@ public class SamplingService implements BootService {
                 ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor(
                     new DefaultNamedThreadFactory("SamplingService"));
                 scheduledFuture = service.scheduleAtFixedRate(new RunnableWithExceptionProtection(
-                    this::resetSamplingFactor, t -> LOGGER.error("unexpected exception.", t)), 0, 3, TimeUnit.SECONDS);
+                    this::endWindow, t -> LOGGER.error("unexpected exception.", t)), 0, 3, TimeUnit.SECONDS);
                 LOGGER.debug(
                     "Agent sampling mechanism started. Sample {} traces in 3 seconds.",
                     samplingRateWatcher.getSamplingRate()
                 );
+            } else if (endpointSampler != null) {
+                endpointSampler.adjust();
             }
         } else {
             if (on) {
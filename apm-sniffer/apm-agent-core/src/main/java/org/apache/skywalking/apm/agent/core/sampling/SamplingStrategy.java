@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+/**
+ * How {@link SamplingService} spends the budget of {@link org.apache.skywalking.apm.agent.core.conf.Config.Agent#SAMPLE_N_PER_3_SECS}.
+ */
+public enum SamplingStrategy {
+    /**
+     * One counter for the whole service, reset every 3 seconds. The first N traces win, whatever their endpoints are.
+     */
+    GLOBAL,
+    /**
+     * One token bucket per endpoint, see {@link EndpointSampler}. The budget is shared fairly by the active endpoints,
+     * and every endpoint has a guaranteed minimum.
+     */
+    ENDPOINT
+}
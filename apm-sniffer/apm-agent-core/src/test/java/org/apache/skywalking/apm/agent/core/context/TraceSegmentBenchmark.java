@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.context.tag.Tags;
+import org.apache.skywalking.apm.agent.core.context.trace.AbstractTracingSpan;
+import org.apache.skywalking.apm.agent.core.context.trace.EntrySpan;
+import org.apache.skywalking.apm.agent.core.context.trace.ExitSpan;
+import org.apache.skywalking.apm.agent.core.context.trace.LocalSpan;
+import org.apache.skywalking.apm.agent.core.context.trace.SpanLayer;
+import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
+import org.apache.skywalking.apm.network.trace.component.ComponentsDefine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Record a representative 20 spans trace, an entry span with 19 nested exit and local spans, each of them has 3 tags,
+ * and every 5th span has a log, then transform the segment into the protobuf message to send.
+ */
+@State(Scope.Benchmark)
+public class TraceSegmentBenchmark {
+    private static final int SPAN_SIZE = 20;
+
+    @Setup
+    public void setup() {
+        Config.Agent.SERVICE_NAME = "benchmark-service";
+        Config.Agent.INSTANCE_NAME = "benchmark-instance";
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void recordAndTransform(Blackhole bh) {
+        TraceSegment segment = new TraceSegment();
+        AbstractTracingSpan[] spans = new AbstractTracingSpan[SPAN_SIZE];
+        for (int i = 0; i < SPAN_SIZE; i++) {
+            AbstractTracingSpan span;
+            if (i == 0) {
+                span = new EntrySpan(i, -1, "/benchmark/entry", null);
+            } else if (i % 2 == 0) {
+                span = new ExitSpan(i, i - 1, "Mysql/JDBI/PreparedStatement/execute", "localhost:3306", null);
+            } else {
+                span = new LocalSpan(i, i - 1, "org.apache.skywalking.Benchmark.local", null);
+            }
+            span.start();
+            span.setComponent(ComponentsDefine.TOMCAT);
+            span.setLayer(SpanLayer.HTTP);
+            span.tag(Tags.URL, "http://localhost:8080/benchmark/entry");
+            span.tag(Tags.STATUS_CODE, "200");
+            span.tag("db.statement", "select * from benchmark where id = ?");
+            if (i % 5 == 0) {
+                span.log(System.currentTimeMillis(), Collections.singletonMap("event", "benchmark"));
+            }
+            spans[i] = span;
+        }
+        for (int i = SPAN_SIZE - 1; i >= 0; i--) {
+            spans[i].finish(segment);
+        }
+        bh.consume(segment.transform());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opt = new OptionsBuilder().include(TraceSegmentBenchmark.class.getSimpleName())
+                                          .addProfiler(GCProfiler.class)
+                                          .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * # JMH version: 1.21
+     * # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+     * # Warmup: 3 iterations, 2 s each
+     * # Measurement: 5 iterations, 2 s each
+     * # Benchmark mode: Average time, time/op
+     *
+     * Linked lists for the segment spans, span logs and refs, and an initial capacity of 8 tags:
+     * Benchmark                                                      Mode  Cnt      Score     Error  Units
+     * TraceSegmentBenchmark.recordAndTransform                       avgt    5      5.226 ±   0.360  us/op
+     * TraceSegmentBenchmark.recordAndTransform:·gc.alloc.rate.norm   avgt    5  17424.001 ±   0.001   B/op
+     *
+     * Array lists sized for the common cases:
+     * Benchmark                                                      Mode  Cnt      Score     Error  Units
+     * TraceSegmentBenchmark.recordAndTransform                       avgt    5      5.039 ±   0.409  us/op
+     * TraceSegmentBenchmark.recordAndTransform:·gc.alloc.rate.norm   avgt    5  16760.001 ±   0.001   B/op
+     */
+}
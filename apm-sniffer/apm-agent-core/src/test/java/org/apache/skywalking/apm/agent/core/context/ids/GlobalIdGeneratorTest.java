@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context.ids;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GlobalIdGeneratorTest {
+
+    @After
+    public void tearDown() {
+        Config.Agent.ID_FORMAT = GlobalIdFormat.DEFAULT;
+    }
+
+    @Test
+    public void testDefaultFormat() {
+        String id = GlobalIdGenerator.generate();
+        String[] parts = id.split("\\.");
+        Assert.assertEquals(3, parts.length);
+        Assert.assertEquals(32, parts[0].length());
+        Assert.assertEquals(String.valueOf(Thread.currentThread().getId()), parts[1]);
+    }
+
+    @Test
+    public void testCompactFormat() {
+        Config.Agent.ID_FORMAT = GlobalIdFormat.COMPACT;
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            String id = GlobalIdGenerator.generate();
+            Assert.assertTrue(id, id.matches("[0-9a-f]{32}"));
+            Assert.assertTrue(ids.add(id));
+        }
+        // The first 10 hex chars are the random instance prefix.
+        String rendered = GlobalIdGenerator.render(GlobalIdFormat.COMPACT, 1, 2L << 16 | 10);
+        Assert.assertEquals("000001" + "000000000002000a", rendered.substring(10));
+    }
+
+    @Test
+    public void testNewTraceIdEqualsPropagatedOne() {
+        Config.Agent.ID_FORMAT = GlobalIdFormat.COMPACT;
+        NewDistributedTraceId newTraceId = new NewDistributedTraceId();
+        PropagatedTraceId propagatedTraceId = new PropagatedTraceId(newTraceId.getId());
+        Assert.assertSame(newTraceId.getId(), newTraceId.getId());
+        Assert.assertEquals(newTraceId, propagatedTraceId);
+        Assert.assertEquals(newTraceId.hashCode(), propagatedTraceId.hashCode());
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin;
+
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import net.bytebuddy.description.NamedElement;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.description.type.TypeList;
+import net.bytebuddy.dynamic.scaffold.InstrumentedType;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.skywalking.apm.agent.core.plugin.bytebuddy.AbstractJunction;
+import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.IndirectMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.NameMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static net.bytebuddy.matcher.ElementMatchers.isInterface;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+import static org.apache.skywalking.apm.agent.core.plugin.match.ClassAnnotationMatch.byClassAnnotationMatch;
+import static org.apache.skywalking.apm.agent.core.plugin.match.HierarchyMatch.byHierarchyMatch;
+import static org.apache.skywalking.apm.agent.core.plugin.match.MultiClassNameMatch.byMultiClassMatch;
+import static org.apache.skywalking.apm.agent.core.plugin.match.NameMatch.byName;
+import static org.apache.skywalking.apm.agent.core.plugin.match.PrefixMatch.nameStartsWith;
+import static org.apache.skywalking.apm.agent.core.plugin.match.RegexMatch.byRegexMatch;
+
+/**
+ * Match a synthetic set of 30k classes against plugins in the similar amount and match types as the SDK plugins, by
+ * the indexed {@link PluginFinder#buildMatch()}, and by the disjunction of all plugin junctions as before.
+ */
+@State(Scope.Benchmark)
+public class PluginFinderBenchmark {
+    private static final int CLASS_SIZE = 30_000;
+
+    private final List<TypeDescription> types = new ArrayList<>(CLASS_SIZE);
+    private PluginFinder indexedFinder;
+    private ElementMatcher<? super TypeDescription> indexedMatcher;
+    private PluginFinder disjunctionFinder;
+    private ElementMatcher<? super TypeDescription> disjunctionMatcher;
+
+    @Setup
+    public void setup() {
+        List<AbstractClassEnhancePluginDefine> plugins = new ArrayList<>();
+        for (int i = 0; i < 290; i++) {
+            plugins.add(new PluginFinderTest.MockPluginDefine(byName("com.example.pkg" + i + ".Type" + i * 100)));
+        }
+        for (int i = 0; i < 22; i++) {
+            plugins.add(new PluginFinderTest.MockPluginDefine(
+                byMultiClassMatch("com.example.multi" + i + ".Client", "com.example.pkg" + i + ".Type" + (i * 100 + 1))));
+        }
+        for (int i = 0; i < 18; i++) {
+            plugins.add(new PluginFinderTest.MockPluginDefine(byHierarchyMatch("com.example.Parent" + i)));
+        }
+        plugins.add(new PluginFinderTest.MockPluginDefine(byHierarchyMatch(Callable.class.getName())));
+        plugins.add(new PluginFinderTest.MockPluginDefine(
+            byHierarchyMatch(RandomAccess.class.getName(), Serializable.class.getName())));
+        for (int i = 0; i < 7; i++) {
+            plugins.add(new PluginFinderTest.MockPluginDefine(byClassAnnotationMatch("com.example.Annotation" + i)));
+        }
+        plugins.add(new PluginFinderTest.MockPluginDefine(byClassAnnotationMatch(Deprecated.class.getName())));
+        for (int i = 0; i < 4; i++) {
+            plugins.add(new PluginFinderTest.MockPluginDefine(nameStartsWith("com.example.prefix" + i + ".")));
+        }
+        plugins.add(new PluginFinderTest.MockPluginDefine(byRegexMatch("com\\.example\\.regex\\..*Service")));
+
+        indexedFinder = new PluginFinder(plugins);
+        indexedMatcher = indexedFinder.buildMatch();
+        disjunctionFinder = new PluginFinder(plugins);
+        disjunctionMatcher = buildDisjunctionMatch(plugins);
+
+        TypeDescription.Generic[] superClasses = {
+            TypeDescription.Generic.OBJECT,
+            TypeDescription.Generic.OfNonGenericType.ForLoadedType.of(AbstractList.class),
+            TypeDescription.Generic.OfNonGenericType.ForLoadedType.of(HashMap.class),
+            TypeDescription.Generic.OfNonGenericType.ForLoadedType.of(Thread.class)
+        };
+        TypeDescription.Generic[] interfaces = {
+            TypeDescription.Generic.OfNonGenericType.ForLoadedType.of(Runnable.class),
+            TypeDescription.Generic.OfNonGenericType.ForLoadedType.of(Callable.class),
+            TypeDescription.Generic.OfNonGenericType.ForLoadedType.of(RandomAccess.class)
+        };
+        AnnotationDescription deprecated = AnnotationDescription.Builder.ofType(Deprecated.class).build();
+        for (int i = 0; i < CLASS_SIZE; i++) {
+            InstrumentedType type = InstrumentedType.Default.of(
+                "com.example.pkg" + i % 300 + ".Type" + i, superClasses[i % superClasses.length], Modifier.PUBLIC);
+            if (i % 7 == 0) {
+                type = type.withInterfaces(new TypeList.Generic.Explicit(
+                    interfaces[i % interfaces.length]));
+            }
+            if (i % 50 == 0) {
+                type = type.withAnnotations(Collections.singletonList(deprecated));
+            }
+            types.add(type);
+        }
+    }
+
+    private static ElementMatcher<? super TypeDescription> buildDisjunctionMatch(
+        List<AbstractClassEnhancePluginDefine> plugins) {
+        final Set<String> names = new HashSet<>();
+        List<IndirectMatch> indirectMatches = new ArrayList<>();
+        for (AbstractClassEnhancePluginDefine plugin : plugins) {
+            ClassMatch match = plugin.enhanceClass();
+            if (match instanceof NameMatch) {
+                names.add(((NameMatch) match).getClassName());
+            } else if (match instanceof IndirectMatch) {
+                indirectMatches.add((IndirectMatch) match);
+            }
+        }
+        ElementMatcher.Junction judge = new AbstractJunction<NamedElement>() {
+            @Override
+            public boolean matches(NamedElement target) {
+                return names.contains(target.getActualName());
+            }
+        };
+        judge = judge.and(not(isInterface()));
+        for (IndirectMatch match : indirectMatches) {
+            judge = judge.or(match.buildJunction());
+        }
+        return judge;
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void indexedMatch(Blackhole bh) {
+        for (TypeDescription type : types) {
+            if (indexedMatcher.matches(type)) {
+                bh.consume(indexedFinder.find(type));
+            }
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void disjunctionMatch(Blackhole bh) {
+        for (TypeDescription type : types) {
+            if (disjunctionMatcher.matches(type)) {
+                bh.consume(disjunctionFinder.find(type));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opt = new OptionsBuilder().include(PluginFinderBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * # JMH version: 1.21
+     * # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+     * # Warmup: 3 iterations, 2 s each
+     * # Measurement: 5 iterations, 2 s each
+     * # Threads: 1 thread, will synchronize iterations
+     * # Benchmark mode: Average time, time/op
+     *
+     * Benchmark                               Mode  Cnt    Score    Error  Units
+     * PluginFinderBenchmark.disjunctionMatch  avgt    5  786.398 ± 24.593  ms/op
+     * PluginFinderBenchmark.indexedMatch      avgt    5   49.927 ±  2.271  ms/op
+     */
+}
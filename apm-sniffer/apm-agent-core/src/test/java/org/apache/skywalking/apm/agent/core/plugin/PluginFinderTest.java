@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.ConstructorInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.InstanceMethodsInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance.ClassInstanceMethodsEnhancePluginDefine;
+import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.MatchTestAnnotation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.apache.skywalking.apm.agent.core.plugin.match.ClassAnnotationMatch.byClassAnnotationMatch;
+import static org.apache.skywalking.apm.agent.core.plugin.match.HierarchyMatch.byHierarchyMatch;
+import static org.apache.skywalking.apm.agent.core.plugin.match.MultiClassNameMatch.byMultiClassMatch;
+import static org.apache.skywalking.apm.agent.core.plugin.match.NameMatch.byName;
+import static org.apache.skywalking.apm.agent.core.plugin.match.RegexMatch.byRegexMatch;
+
+public class PluginFinderTest {
+    private final MockPluginDefine nameMatchPlugin = new MockPluginDefine(byName(NamedService.class.getName()));
+    private final MockPluginDefine multiNameMatchPlugin = new MockPluginDefine(
+        byMultiClassMatch("not.Exist", NamedService.class.getName()));
+    private final MockPluginDefine hierarchyMatchPlugin = new MockPluginDefine(
+        byHierarchyMatch(List.class.getName(), RandomAccess.class.getName()));
+    private final MockPluginDefine annotationMatchPlugin = new MockPluginDefine(
+        byClassAnnotationMatch(MatchTestAnnotation.class.getName()));
+    private final MockPluginDefine regexMatchPlugin = new MockPluginDefine(byRegexMatch(".*Annotated.*"));
+
+    private final PluginFinder finder = new PluginFinder(Arrays.asList(
+        regexMatchPlugin, nameMatchPlugin, hierarchyMatchPlugin, annotationMatchPlugin, multiNameMatchPlugin));
+
+    @Test
+    public void testNameMatch() {
+        assertMatched(NamedService.class, nameMatchPlugin, multiNameMatchPlugin);
+    }
+
+    @Test
+    public void testHierarchyMatch() {
+        assertMatched(RandomAccessList.class, hierarchyMatchPlugin);
+        // Only a part of the parent types is implemented.
+        assertMatched(SequentialList.class);
+        // The interface is never enhanced.
+        assertMatched(RandomAccessListInterface.class);
+    }
+
+    @Test
+    public void testAnnotationAndRegexMatch() {
+        assertMatched(AnnotatedService.class, regexMatchPlugin, annotationMatchPlugin);
+    }
+
+    @Test
+    public void testFindWithoutMatch() {
+        TypeDescription typeDescription = TypeDescription.ForLoadedType.of(RandomAccessList.class);
+        Assert.assertEquals(Arrays.asList(hierarchyMatchPlugin), finder.find(typeDescription));
+    }
+
+    private void assertMatched(Class<?> clazz, AbstractClassEnhancePluginDefine... plugins) {
+        TypeDescription typeDescription = TypeDescription.ForLoadedType.of(clazz);
+        ElementMatcher<? super TypeDescription> matcher = finder.buildMatch();
+        Assert.assertEquals(plugins.length > 0, matcher.matches(typeDescription));
+        if (plugins.length > 0) {
+            Assert.assertEquals(Arrays.asList(plugins), finder.find(typeDescription));
+        }
+    }
+
+    public static class NamedService {
+    }
+
+    @MatchTestAnnotation
+    public static class AnnotatedService {
+    }
+
+    public static class RandomAccessList extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(final int index) {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+    }
+
+    public static class SequentialList extends AbstractList<String> {
+        @Override
+        public String get(final int index) {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+    }
+
+    public interface RandomAccessListInterface extends List<String>, RandomAccess {
+    }
+
+    static class MockPluginDefine extends ClassInstanceMethodsEnhancePluginDefine {
+        private final ClassMatch match;
+
+        MockPluginDefine(ClassMatch match) {
+            this.match = match;
+        }
+
+        @Override
+        protected ClassMatch enhanceClass() {
+            return match;
+        }
+
+        @Override
+        public ConstructorInterceptPoint[] getConstructorsInterceptPoints() {
+            return new ConstructorInterceptPoint[0];
+        }
+
+        @Override
+        public InstanceMethodsInterceptPoint[] getInstanceMethodsInterceptPoints() {
+            return new InstanceMethodsInterceptPoint[0];
+        }
+    }
+}
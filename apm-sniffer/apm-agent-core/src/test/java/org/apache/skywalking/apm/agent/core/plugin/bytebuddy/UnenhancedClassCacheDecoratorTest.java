@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.bytebuddy;
+
+import java.io.File;
+import java.lang.instrument.ClassFileTransformer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UnenhancedClassCacheDecoratorTest {
+    private static final byte[] UNENHANCED_CLASS = new byte[] {1, 2, 3};
+    private static final byte[] ENHANCED_CLASS = new byte[] {4, 5, 6};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSkipUnenhancedClassInNextRun() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+
+        UnenhancedClassCacheDecorator firstRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        ClassFileTransformer decorated = firstRun.decorate(transformer(firstRun));
+        Assert.assertNull(transform(decorated, "a/Unenhanced", UNENHANCED_CLASS));
+        Assert.assertNotNull(transform(decorated, "a/Enhanced", ENHANCED_CLASS));
+        firstRun.save();
+
+        UnenhancedClassCacheDecorator secondRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        ResettableClassFileTransformer transformer = transformer(secondRun);
+        decorated = secondRun.decorate(transformer);
+        Assert.assertNull(transform(decorated, "a/Unenhanced", UNENHANCED_CLASS));
+        Assert.assertNotNull(transform(decorated, "a/Enhanced", ENHANCED_CLASS));
+        verify(transformer, never()).transform(any(), eq("a/Unenhanced"), any(), any(), any());
+        verify(transformer, times(1)).transform(any(), eq("a/Enhanced"), any(), any(), any());
+
+        // The changed class is transformed again.
+        Assert.assertNull(transform(decorated, "a/Unenhanced", new byte[] {1, 2, 3, 4}));
+        verify(transformer, times(1)).transform(any(), eq("a/Unenhanced"), any(), any(), any());
+    }
+
+    @Test
+    public void testInvalidateByFingerprint() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+
+        UnenhancedClassCacheDecorator firstRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        ClassFileTransformer decorated = firstRun.decorate(transformer(firstRun));
+        transform(decorated, "a/Unenhanced", UNENHANCED_CLASS);
+        firstRun.save();
+        Assert.assertTrue(new File(cacheDir, "unenhanced-v1").exists());
+
+        UnenhancedClassCacheDecorator nextRun = new UnenhancedClassCacheDecorator(cacheDir, "v2", 100);
+        ResettableClassFileTransformer transformer = transformer(nextRun);
+        decorated = nextRun.decorate(transformer);
+        transform(decorated, "a/Unenhanced", UNENHANCED_CLASS);
+        verify(transformer, times(1)).transform(any(), eq("a/Unenhanced"), any(), any(), any());
+    }
+
+    @Test
+    public void testKeepCachesOfOtherFingerprints() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+
+        // Two applications share one agent, and start one after another.
+        UnenhancedClassCacheDecorator firstApp = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        transform(firstApp.decorate(transformer(firstApp)), "a/Unenhanced", UNENHANCED_CLASS);
+        UnenhancedClassCacheDecorator secondApp = new UnenhancedClassCacheDecorator(cacheDir, "v2", 100);
+        transform(secondApp.decorate(transformer(secondApp)), "b/Unenhanced", UNENHANCED_CLASS);
+        firstApp.save();
+        secondApp.save();
+        Assert.assertTrue(new File(cacheDir, "unenhanced-v1").exists());
+        Assert.assertTrue(new File(cacheDir, "unenhanced-v2").exists());
+
+        UnenhancedClassCacheDecorator firstAppRestarted = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        ResettableClassFileTransformer transformer = transformer(firstAppRestarted);
+        Assert.assertNull(transform(firstAppRestarted.decorate(transformer), "a/Unenhanced", UNENHANCED_CLASS));
+        verify(transformer, never()).transform(any(), eq("a/Unenhanced"), any(), any(), any());
+
+        UnenhancedClassCacheDecorator secondAppRestarted = new UnenhancedClassCacheDecorator(cacheDir, "v2", 100);
+        transformer = transformer(secondAppRestarted);
+        Assert.assertNull(transform(secondAppRestarted.decorate(transformer), "b/Unenhanced", UNENHANCED_CLASS));
+        verify(transformer, never()).transform(any(), eq("b/Unenhanced"), any(), any(), any());
+    }
+
+    @Test
+    public void testRemoveStaleCaches() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+        File expired = new File(cacheDir, "unenhanced-expired");
+        Assert.assertTrue(expired.mkdirs());
+        Assert.assertTrue(expired.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(8)));
+        // The most recently used caches are kept, along with the one of this run.
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 20; i++) {
+            File recent = new File(cacheDir, "unenhanced-recent" + i);
+            Assert.assertTrue(recent.mkdirs());
+            Assert.assertTrue(recent.setLastModified(now - TimeUnit.MINUTES.toMillis(i)));
+        }
+
+        new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        Assert.assertFalse(expired.exists());
+        Assert.assertTrue(new File(cacheDir, "unenhanced-v1").exists());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i < 15, new File(cacheDir, "unenhanced-recent" + i).exists());
+        }
+    }
+
+    @Test
+    public void testSkipFailedTransformation() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+
+        UnenhancedClassCacheDecorator firstRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        // The transformation failed, so the class isn't reported as ignored.
+        ClassFileTransformer decorated = firstRun.decorate(mock(ResettableClassFileTransformer.class));
+        Assert.assertNull(transform(decorated, "a/Failed", UNENHANCED_CLASS));
+        firstRun.save();
+
+        UnenhancedClassCacheDecorator nextRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        ResettableClassFileTransformer transformer = transformer(nextRun);
+        transform(nextRun.decorate(transformer), "a/Failed", UNENHANCED_CLASS);
+        verify(transformer, times(1)).transform(any(), eq("a/Failed"), any(), any(), any());
+    }
+
+    @Test
+    public void testKeyedByClassLoader() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+        URLClassLoader loader = new URLClassLoader(new URL[] {folder.getRoot().toURI().toURL()}, null);
+
+        UnenhancedClassCacheDecorator firstRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        transform(firstRun.decorate(transformer(firstRun)), "a/Unenhanced", UNENHANCED_CLASS);
+        firstRun.save();
+
+        UnenhancedClassCacheDecorator nextRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        ResettableClassFileTransformer transformer = transformer(nextRun);
+        Assert.assertNull(nextRun.decorate(transformer)
+                                 .transform(loader, "a/Unenhanced", null, null, UNENHANCED_CLASS));
+        verify(transformer, times(1)).transform(eq(loader), eq("a/Unenhanced"), any(), any(), any());
+    }
+
+    @Test
+    public void testSkipClassEnhancedByAnyClassLoader() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+        URLClassLoader loader = new URLClassLoader(new URL[] {folder.getRoot().toURI().toURL()}, null);
+
+        UnenhancedClassCacheDecorator firstRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        ResettableClassFileTransformer transformer = transformer(firstRun);
+        doReturn(new byte[] {7, 8, 9}).when(transformer).transform(eq(loader), eq("a/Shared"), any(), any(), any());
+        ClassFileTransformer decorated = firstRun.decorate(transformer);
+        Assert.assertNull(transform(decorated, "a/Shared", UNENHANCED_CLASS));
+        Assert.assertNotNull(decorated.transform(loader, "a/Shared", null, null, UNENHANCED_CLASS));
+        firstRun.save();
+
+        UnenhancedClassCacheDecorator nextRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        transformer = transformer(nextRun);
+        transform(nextRun.decorate(transformer), "a/Shared", UNENHANCED_CLASS);
+        verify(transformer, times(1)).transform(isNull(), eq("a/Shared"), any(), any(), any());
+    }
+
+    @Test
+    public void testVerifyCachedClassOncePerInterval() throws Exception {
+        File cacheDir = folder.newFolder("class-cache");
+
+        UnenhancedClassCacheDecorator firstRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+        transform(firstRun.decorate(transformer(firstRun)), "a/Unenhanced", UNENHANCED_CLASS);
+        firstRun.save();
+
+        int verified = 0;
+        for (int i = 0; i < 16; i++) {
+            UnenhancedClassCacheDecorator nextRun = new UnenhancedClassCacheDecorator(cacheDir, "v1", 100);
+            ResettableClassFileTransformer transformer = transformer(nextRun);
+            Assert.assertNull(transform(nextRun.decorate(transformer), "a/Unenhanced", UNENHANCED_CLASS));
+            verified += mockingDetails(transformer).getInvocations().size();
+            nextRun.save();
+        }
+        Assert.assertEquals(1, verified);
+    }
+
+    @Test
+    public void testEnvironmentFingerprint() throws Exception {
+        File plugins = folder.newFolder("plugins");
+        Properties settings = new Properties();
+        settings.setProperty("agent.service_name", "service");
+
+        String fingerprint = UnenhancedClassCacheDecorator.environmentFingerprint(
+            Collections.singletonList(plugins), settings, null);
+        Assert.assertEquals(fingerprint, UnenhancedClassCacheDecorator.environmentFingerprint(
+            Collections.singletonList(plugins), settings, null));
+
+        settings.setProperty("plugin.exclude_plugins", "mysql");
+        Assert.assertNotEquals(fingerprint, UnenhancedClassCacheDecorator.environmentFingerprint(
+            Collections.singletonList(plugins), settings, null));
+    }
+
+    /**
+     * Mock the transformer of ByteBuddy, which enhances `a/Enhanced` and reports the other classes as ignored.
+     */
+    private static ResettableClassFileTransformer transformer(UnenhancedClassCacheDecorator decorator) throws Exception {
+        ResettableClassFileTransformer transformer = mock(ResettableClassFileTransformer.class);
+        when(transformer.transform(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            String className = invocation.getArgument(1);
+            if ("a/Enhanced".equals(className)) {
+                return new byte[] {7, 8, 9};
+            }
+            TypeDescription typeDescription = mock(TypeDescription.class);
+            when(typeDescription.getName()).thenReturn(className.replace('/', '.'));
+            decorator.listener().onIgnored(typeDescription, invocation.getArgument(0), null, false);
+            return null;
+        });
+        return transformer;
+    }
+
+    private static byte[] transform(ClassFileTransformer transformer, String className,
+                                    byte[] classfileBuffer) throws Exception {
+        return transformer.transform(null, className, null, null, classfileBuffer);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.loader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AgentClassLoaderTest {
+    private static final String FIXTURE_CLASS_ENTRY = Fixture.class.getName().replace('.', '/') + ".class";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFindClassFromPluginJar() throws Exception {
+        File plugins = temporaryFolder.newFolder("plugins");
+        writeJar(new File(plugins, "fixture-plugin.jar"), FIXTURE_CLASS_ENTRY, fixtureClassBytes());
+
+        List<File> classpath = new ArrayList<>(Collections.singletonList(plugins));
+        // Without the parent, the class could only be found in the plugin jar.
+        AgentClassLoader loader = new AgentClassLoader(null, classpath);
+        // The loader keeps its own copy of the classpath.
+        classpath.clear();
+
+        Class<?> fixture = loader.loadClass(Fixture.class.getName());
+        Assert.assertSame(loader, fixture.getClassLoader());
+        Assert.assertNotSame(Fixture.class, fixture);
+
+        try {
+            loader.loadClass("org.apache.skywalking.apm.agent.core.plugin.loader.Absent");
+            Assert.fail("The class isn't in any plugin jar.");
+        } catch (ClassNotFoundException expected) {
+        }
+    }
+
+    @Test
+    public void testFindResourceFromPluginJar() throws IOException {
+        File plugins = temporaryFolder.newFolder("plugins");
+        writeJar(new File(plugins, "resource-plugin.jar"), "skywalking-plugin.def", bytes("fixture=Fixture"));
+
+        AgentClassLoader loader = new AgentClassLoader(null, Collections.singletonList(plugins));
+
+        Assert.assertEquals("fixture=Fixture", read(loader.getResource("skywalking-plugin.def")));
+        Assert.assertNull(loader.getResource("absent.def"));
+    }
+
+    @Test
+    public void testFirstJarOfTheClasspathWins() throws IOException {
+        File plugins = temporaryFolder.newFolder("plugins");
+        File activations = temporaryFolder.newFolder("activations");
+        writeJar(new File(plugins, "duplicate-plugin.jar"), "duplicate.def", bytes("plugins"));
+        writeJar(new File(activations, "duplicate-activation.jar"), "duplicate.def", bytes("activations"));
+
+        AgentClassLoader loader = new AgentClassLoader(null, Arrays.asList(plugins, activations));
+
+        Assert.assertEquals("plugins", read(loader.getResource("duplicate.def")));
+        List<URL> resources = Collections.list(loader.getResources("duplicate.def"));
+        Assert.assertEquals(2, resources.size());
+        Assert.assertEquals("plugins", read(resources.get(0)));
+        Assert.assertEquals("activations", read(resources.get(1)));
+    }
+
+    private static void writeJar(File file, String entryName, byte[] data) throws IOException {
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+            jar.putNextEntry(new JarEntry(entryName));
+            jar.write(data);
+            jar.closeEntry();
+        }
+    }
+
+    private static byte[] fixtureClassBytes() throws IOException {
+        try (InputStream is = AgentClassLoaderTest.class.getClassLoader().getResourceAsStream(FIXTURE_CLASS_ENTRY)) {
+            return readAll(is);
+        }
+    }
+
+    private static String read(URL url) throws IOException {
+        try (InputStream is = url.openStream()) {
+            return new String(readAll(is), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int length;
+        while ((length = is.read(buffer)) != -1) {
+            baos.write(buffer, 0, length);
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static class Fixture {
+    }
+}
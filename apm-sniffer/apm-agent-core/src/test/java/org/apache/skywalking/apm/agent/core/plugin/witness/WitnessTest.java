@@ -26,6 +26,9 @@ import org.apache.skywalking.apm.agent.core.plugin.WitnessMethod;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.List;
 import java.util.Map;
 
@@ -60,6 +63,45 @@ public class WitnessTest {
         Assert.assertTrue(finder.exist(witnessMethod, this.getClass().getClassLoader()));
     }
 
+    @Test
+    public void testWitnessResultCached() {
+        ClassLoader classLoader = new URLClassLoader(new URL[0], this.getClass().getClassLoader());
+        Assert.assertTrue(finder.exist(className, classLoader));
+        Assert.assertFalse(finder.exist("org.apache.skywalking.NotExisted", classLoader));
+
+        long evaluations = finder.getEvaluationCount();
+        long cacheHits = finder.getCacheHitCount();
+        Assert.assertTrue(finder.exist(className, classLoader));
+        Assert.assertFalse(finder.exist("org.apache.skywalking.NotExisted", classLoader));
+        Assert.assertEquals(evaluations, finder.getEvaluationCount());
+        Assert.assertEquals(cacheHits + 2, finder.getCacheHitCount());
+    }
+
+    @Test
+    public void testWitnessClassSharedBySiblingLoaders() {
+        ClassLoader parent = this.getClass().getClassLoader();
+        Assert.assertTrue(finder.exist(className, new URLClassLoader(new URL[0], parent)));
+
+        long evaluations = finder.getEvaluationCount();
+        Assert.assertTrue(finder.exist(className, new URLClassLoader(new URL[0], parent)));
+        Assert.assertEquals(evaluations, finder.getEvaluationCount());
+    }
+
+    @Test
+    public void testClassLoaderNotRetained() throws InterruptedException {
+        ClassLoader classLoader = new URLClassLoader(new URL[0], this.getClass().getClassLoader());
+        WitnessMethod witnessMethod = new WitnessMethod(className, ElementMatchers.named("foo"));
+        Assert.assertTrue(finder.exist(witnessMethod, classLoader));
+
+        WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+        classLoader = null;
+        for (int i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assert.assertNull(reference.get());
+    }
+
     public List<Map<String, Object>> foo(List<Map<String, Object>> param, String s) {
         return null;
     }
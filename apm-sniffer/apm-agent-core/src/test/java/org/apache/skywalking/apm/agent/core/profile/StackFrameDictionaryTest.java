@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.profile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StackFrameDictionaryTest {
+
+    @Test
+    public void testInternedSignature() {
+        StackFrameDictionary dictionary = new StackFrameDictionary(10);
+        StackTraceElement element = new StackTraceElement("org.example.Foo", "bar", "Foo.java", 12);
+        String signature = dictionary.signatureOf(element);
+        Assert.assertEquals("org.example.Foo.bar:12", signature);
+        Assert.assertSame(
+            signature, dictionary.signatureOf(new StackTraceElement("org.example.Foo", "bar", "Foo.java", 12)));
+        Assert.assertEquals(
+            "org.example.Foo.bar:13",
+            dictionary.signatureOf(new StackTraceElement("org.example.Foo", "bar", "Foo.java", 13))
+        );
+        Assert.assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void testBounded() {
+        StackFrameDictionary dictionary = new StackFrameDictionary(2);
+        for (int line = 0; line < 5; line++) {
+            Assert.assertEquals(
+                "org.example.Foo.bar:" + line,
+                dictionary.signatureOf(new StackTraceElement("org.example.Foo", "bar", "Foo.java", line))
+            );
+        }
+        Assert.assertEquals(2, dictionary.size());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiskSpillBufferTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DiskSpillBuffer spillBuffer;
+
+    @Before
+    public void setUp() throws IOException {
+        spillBuffer = new DiskSpillBuffer(new File(temporaryFolder.getRoot(), "test.spill"), 64, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        spillBuffer.close();
+    }
+
+    @Test
+    public void testReplayInOrderAcrossTheEnd() throws InterruptedException {
+        for (int round = 0; round < 10; round++) {
+            Assert.assertTrue(spillBuffer.append(bytes("record-" + round + "-a")));
+            Assert.assertTrue(spillBuffer.append(bytes("record-" + round + "-b")));
+            List<byte[]> records = replayAll(2);
+            Assert.assertEquals("record-" + round + "-a", new String(records.get(0), StandardCharsets.UTF_8));
+            Assert.assertEquals("record-" + round + "-b", new String(records.get(1), StandardCharsets.UTF_8));
+            Assert.assertTrue(spillBuffer.isEmpty());
+            // Start the next round at an odd position, so the records wrap around the end of the file.
+            Assert.assertTrue(spillBuffer.append(bytes("x")));
+            Assert.assertEquals(1, replayAll(1).size());
+        }
+    }
+
+    @Test
+    public void testAbandonWhenFull() {
+        // 4 bytes length + 20 bytes data per record
+        Assert.assertTrue(spillBuffer.append(new byte[20]));
+        Assert.assertTrue(spillBuffer.append(new byte[20]));
+        Assert.assertFalse(spillBuffer.append(new byte[20]));
+        Assert.assertTrue(spillBuffer.append(new byte[12]));
+        Assert.assertEquals(3, spillBuffer.size());
+    }
+
+    @Test
+    public void testReplayRateLimited() throws IOException, InterruptedException {
+        spillBuffer.close();
+        spillBuffer = new DiskSpillBuffer(new File(temporaryFolder.getRoot(), "limited.spill"), 1024, 10);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(spillBuffer.append(bytes(String.valueOf(i))));
+        }
+        Thread.sleep(200);
+        int replayed = spillBuffer.replay(100).size();
+        // The permits are capped by the rate of one second.
+        Assert.assertTrue(String.valueOf(replayed), replayed >= 1 && replayed <= 10);
+        Assert.assertEquals(50 - replayed, spillBuffer.size());
+    }
+
+    @Test
+    public void testAppendAsyncInSpillThread() throws InterruptedException {
+        AtomicInteger abandoned = new AtomicInteger();
+        Thread[] spillThread = new Thread[1];
+        spillBuffer.appendAsync(() -> {
+            spillThread[0] = Thread.currentThread();
+            return bytes("async");
+        }, abandoned::incrementAndGet);
+
+        Assert.assertEquals("async", new String(replayAll(1).get(0), StandardCharsets.UTF_8));
+        Assert.assertNotSame(Thread.currentThread(), spillThread[0]);
+        Assert.assertTrue(spillThread[0].isDaemon());
+        Assert.assertEquals(0, abandoned.get());
+    }
+
+    @Test
+    public void testAbandonWhenSpillThreadFallsBehind() throws InterruptedException {
+        AtomicInteger abandoned = new AtomicInteger();
+        CountDownLatch serializing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        spillBuffer.appendAsync(() -> {
+            serializing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+            return new byte[0];
+        }, abandoned::incrementAndGet);
+        Assert.assertTrue(serializing.await(5, TimeUnit.SECONDS));
+
+        // The spill thread is blocked, only the queue takes the records.
+        for (int i = 0; i <= DiskSpillBuffer.PENDING_RECORDS; i++) {
+            spillBuffer.appendAsync(() -> new byte[0], abandoned::incrementAndGet);
+        }
+        Assert.assertEquals(1, abandoned.get());
+        release.countDown();
+    }
+
+    @Test
+    public void testAbandonAfterClose() {
+        AtomicInteger abandoned = new AtomicInteger();
+        spillBuffer.close();
+        Assert.assertFalse(spillBuffer.append(bytes("closed")));
+        spillBuffer.appendAsync(() -> bytes("closed"), abandoned::incrementAndGet);
+        Assert.assertEquals(1, abandoned.get());
+        Assert.assertTrue(spillBuffer.replay(1).isEmpty());
+    }
+
+    private List<byte[]> replayAll(int expected) throws InterruptedException {
+        List<byte[]> records = new ArrayList<>(spillBuffer.replay(expected));
+        while (records.size() < expected) {
+            Thread.sleep(5);
+            records.addAll(spillBuffer.replay(expected - records.size()));
+        }
+        return records;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
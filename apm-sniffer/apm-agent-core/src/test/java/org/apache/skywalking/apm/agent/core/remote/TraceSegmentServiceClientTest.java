@@ -34,11 +34,13 @@ import org.apache.skywalking.apm.agent.core.test.tools.SegmentStorage;
 import org.apache.skywalking.apm.agent.core.test.tools.SegmentStoragePoint;
 import org.apache.skywalking.apm.agent.core.test.tools.TracingSegmentRunner;
 import org.apache.skywalking.apm.network.common.v3.Commands;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
 import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
 import org.apache.skywalking.apm.network.language.agent.v3.TraceSegmentReportServiceGrpc;
 import org.apache.skywalking.apm.network.trace.component.ComponentsDefine;
+import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -65,6 +67,7 @@ public class TraceSegmentServiceClientTest {
 
     private TraceSegmentServiceClient serviceClient = new TraceSegmentServiceClient();
     private List<SegmentObject> upstreamSegments;
+    private List<SegmentCollection> upstreamBatches;
 
     private TraceSegmentReportServiceGrpc.TraceSegmentReportServiceImplBase serviceImplBase = new TraceSegmentReportServiceGrpc.TraceSegmentReportServiceImplBase() {
         @Override
@@ -86,6 +89,14 @@ public class TraceSegmentServiceClientTest {
                 }
             };
         }
+
+        @Override
+        public void collectInSync(final SegmentCollection request, final StreamObserver<Commands> responseObserver) {
+            upstreamBatches.add(request);
+            upstreamSegments.addAll(request.getSegmentsList());
+            responseObserver.onNext(Commands.getDefaultInstance());
+            responseObserver.onCompleted();
+        }
     };
 
     @BeforeClass
@@ -109,6 +120,13 @@ public class TraceSegmentServiceClientTest {
         Whitebox.setInternalState(serviceClient, "status", GRPCChannelStatus.CONNECTED);
 
         upstreamSegments = new ArrayList<>();
+        upstreamBatches = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        Config.Collector.SEGMENT_UPLINK_BATCH_BYTES = 0;
+        Config.Collector.SEGMENT_UPLINK_FLUSH_INTERVAL = 1000;
     }
 
     @Test
@@ -155,4 +173,33 @@ public class TraceSegmentServiceClientTest {
         assertThat(reconnect, is(true));
 
     }
+
+    @Test
+    public void testSendTraceSegmentsInBatch() {
+        grpcServerRule.getServiceRegistry().addService(serviceImplBase);
+        Config.Collector.SEGMENT_UPLINK_BATCH_BYTES = 1024 * 1024;
+        Config.Collector.SEGMENT_UPLINK_FLUSH_INTERVAL = 60 * 1000;
+
+        for (int i = 0; i < 3; i++) {
+            AbstractSpan entrySpan = ContextManager.createEntrySpan("/testBatch" + i, null);
+            entrySpan.setComponent(ComponentsDefine.TOMCAT);
+            ContextManager.stopSpan();
+            serviceClient.consume(storage.getTraceSegments().subList(i, i + 1));
+        }
+        assertThat(upstreamBatches.size(), is(0));
+
+        Config.Collector.SEGMENT_UPLINK_FLUSH_INTERVAL = 0;
+        serviceClient.nothingToConsume();
+        assertThat(upstreamBatches.size(), is(1));
+        assertThat(upstreamSegments.size(), is(3));
+        assertThat(upstreamSegments.get(2).getSpans(0).getOperationName(), is("/testBatch2"));
+
+        AbstractSpan entrySpan = ContextManager.createEntrySpan("/testBatchBySize", null);
+        ContextManager.stopSpan();
+        Config.Collector.SEGMENT_UPLINK_BATCH_BYTES = 1;
+        Config.Collector.SEGMENT_UPLINK_FLUSH_INTERVAL = 60 * 1000;
+        serviceClient.consume(storage.getTraceSegments().subList(3, 4));
+        assertThat(upstreamBatches.size(), is(2));
+        assertThat(upstreamSegments.size(), is(4));
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EndpointSamplerTest {
+
+    @Test
+    public void testHotEndpointDoesNotStarveOthers() {
+        EndpointSampler sampler = new EndpointSampler(100, 1, () -> 10, false);
+        // The hot endpoint is active in the last window, together with the rare one.
+        sampler.trySampling("/hot");
+        sampler.trySampling("/rare");
+        sampler.adjust();
+        Assert.assertEquals(5, sampler.getShare(), 0.001);
+
+        int hotSampled = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sampler.trySampling("/hot")) {
+                hotSampled++;
+            }
+        }
+        Assert.assertTrue(String.valueOf(hotSampled), hotSampled <= 6);
+        Assert.assertTrue(sampler.trySampling("/rare"));
+    }
+
+    @Test
+    public void testNewEndpointsStayWithinBudget() {
+        // In the first window, and in a burst of new endpoints after a quiet window.
+        EndpointSampler sampler = new EndpointSampler(1000, 0, () -> 10, false);
+        for (int round = 0; round < 2; round++) {
+            Assert.assertEquals(10, sampleNewEndpoints(sampler, "/round-" + round + "-", 100));
+            sampler.adjust();
+            sampler.adjust();
+        }
+
+        // The guaranteed minimum of the active endpoints is the budget, when larger than the rate.
+        sampler = new EndpointSampler(1000, 1, () -> 10, false);
+        Assert.assertTrue(sampleNewEndpoints(sampler, "/endpoint-", 100) <= 100);
+        sampler = new EndpointSampler(1000, 1, () -> 10, false);
+        Assert.assertTrue(sampleNewEndpoints(sampler, "/endpoint-", 5) <= 10);
+    }
+
+    @Test
+    public void testGuaranteedMinimum() {
+        EndpointSampler sampler = new EndpointSampler(100, 2, () -> 3, false);
+        for (int i = 0; i < 10; i++) {
+            sampler.trySampling("/endpoint-" + i);
+        }
+        sampler.adjust();
+        Assert.assertEquals(2, sampler.getShare(), 0.001);
+        // The endpoints sampled in the last window have spent their tokens, so check a fresh one.
+        Assert.assertTrue(sampler.trySampling("/endpoint-10"));
+        Assert.assertTrue(sampler.trySampling("/endpoint-10"));
+    }
+
+    @Test
+    public void testDynamicRate() {
+        AtomicInteger rate = new AtomicInteger(10);
+        EndpointSampler sampler = new EndpointSampler(100, 1, rate::get, false);
+        sampler.trySampling("/a");
+        sampler.adjust();
+        Assert.assertEquals(10, sampler.getShare(), 0.001);
+        rate.set(100);
+        sampler.adjust();
+        Assert.assertEquals(100, sampler.getShare(), 0.001);
+    }
+
+    @Test
+    public void testBoundedAndEvicted() {
+        EndpointSampler sampler = new EndpointSampler(3, 1, () -> 1000, false);
+        for (int i = 0; i < 10; i++) {
+            sampler.trySampling("/endpoint-" + i);
+        }
+        Assert.assertEquals(3, sampler.bucketSize());
+        for (int i = 0; i < EndpointSampler.IDLE_WINDOWS_TO_EVICT + 1; i++) {
+            sampler.adjust();
+        }
+        Assert.assertEquals(0, sampler.bucketSize());
+    }
+
+    @Test
+    public void testForceSampledOverdraws() {
+        EndpointSampler sampler = new EndpointSampler(100, 1, () -> 2, false);
+        sampler.trySampling("/a");
+        sampler.adjust();
+        sampler.forceSampled("/a");
+        sampler.forceSampled("/a");
+        sampler.forceSampled("/a");
+        Assert.assertFalse(sampler.trySampling("/a"));
+    }
+
+    private static int sampleNewEndpoints(EndpointSampler sampler, String prefix, int endpoints) {
+        int sampled = 0;
+        for (int i = 0; i < endpoints; i++) {
+            for (int j = 0; j < 20; j++) {
+                if (sampler.trySampling(prefix + i)) {
+                    sampled++;
+                }
+            }
+        }
+        return sampled;
+    }
+}
@@ -18,7 +18,9 @@
 
 package org.apache.skywalking.apm.agent;
 
+import java.io.File;
 import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +35,7 @@ import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
 import net.bytebuddy.utility.JavaModule;
 import org.apache.skywalking.apm.agent.core.boot.AgentPackageNotFoundException;
+import org.apache.skywalking.apm.agent.core.boot.AgentPackagePath;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.conf.SnifferConfigInitializer;
@@ -47,6 +50,7 @@ import org.apache.skywalking.apm.agent.core.plugin.PluginException;
 import org.apache.skywalking.apm.agent.core.plugin.PluginFinder;
 import org.apache.skywalking.apm.agent.core.plugin.bootstrap.BootstrapInstrumentBoost;
 import org.apache.skywalking.apm.agent.core.plugin.bytebuddy.CacheableTransformerDecorator;
+import org.apache.skywalking.apm.agent.core.plugin.bytebuddy.UnenhancedClassCacheDecorator;
 import org.apache.skywalking.apm.agent.core.plugin.jdk9module.JDK9ModuleExporter;
 
 import static net.bytebuddy.matcher.ElementMatchers.nameContains;
@@ -123,11 +127,30 @@ public class SkyWalkingAgent {
             }
         }
 
+        if (Config.Agent.IS_CACHE_UNENHANCED_CLASS) {
+            try {
+                File agentPath = AgentPackagePath.getPath();
+                List<File> agentFiles = new ArrayList<>();
+                agentFiles.add(agentPath);
+                Config.Plugin.MOUNT.forEach(mountFolder -> agentFiles.add(new File(agentPath, mountFolder)));
+                String fingerprint = UnenhancedClassCacheDecorator.environmentFingerprint(
+                    agentFiles, SnifferConfigInitializer.getAgentSettings(), System.getProperty("java.class.path"));
+                UnenhancedClassCacheDecorator unenhancedClassCache = new UnenhancedClassCacheDecorator(
+                    new File(agentPath, "class-cache"), fingerprint, Config.Agent.UNENHANCED_CLASS_CACHE_MAX_SIZE);
+                agentBuilder = agentBuilder.with(unenhancedClassCache).with(unenhancedClassCache.listener());
+                Runtime.getRuntime()
+                       .addShutdownHook(new Thread(unenhancedClassCache::save, "skywalking unenhanced class cache thread"));
+                LOGGER.info("SkyWalking agent unenhanced class cache activated.");
+            } catch (Exception e) {
+                LOGGER.error(e, "SkyWalking agent can't active unenhanced class cache.");
+            }
+        }
+
         agentBuilder.type(pluginFinder.buildMatch())
                     .transform(new Transformer(pluginFinder))
                     .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
                     .with(new RedefinitionListener())
-                    .with(new Listener())
+                    .with(new Listener(pluginFinder))
                     .installOn(instrumentation);
 
         try {
@@ -152,27 +175,31 @@ public class SkyWalkingAgent {
                                                 final TypeDescription typeDescription,
                                                 final ClassLoader classLoader,
                                                 final JavaModule module) {
-            LoadedLibraryCollector.registerURLClassLoader(classLoader);
-            List<AbstractClassEnhancePluginDefine> pluginDefines = pluginFinder.find(typeDescription);
-            if (pluginDefines.size() > 0) {
-                DynamicType.Builder<?> newBuilder = builder;
-                EnhanceContext context = new EnhanceContext();
-                for (AbstractClassEnhancePluginDefine define : pluginDefines) {
-                    DynamicType.Builder<?> possibleNewBuilder = define.define(
-                            typeDescription, newBuilder, classLoader, context);
-                    if (possibleNewBuilder != null) {
-                        newBuilder = possibleNewBuilder;
+            try {
+                LoadedLibraryCollector.registerURLClassLoader(classLoader);
+                List<AbstractClassEnhancePluginDefine> pluginDefines = pluginFinder.find(typeDescription);
+                if (pluginDefines.size() > 0) {
+                    DynamicType.Builder<?> newBuilder = builder;
+                    EnhanceContext context = new EnhanceContext();
+                    for (AbstractClassEnhancePluginDefine define : pluginDefines) {
+                        DynamicType.Builder<?> possibleNewBuilder = define.define(
+                                typeDescription, newBuilder, classLoader, context);
+                        if (possibleNewBuilder != null) {
+                            newBuilder = possibleNewBuilder;
+                        }
                     }
-                }
-                if (context.isEnhanced()) {
-                    LOGGER.debug("Finish the prepare stage for {}.", typeDescription.getName());
+                    if (context.isEnhanced()) {
+                        LOGGER.debug("Finish the prepare stage for {}.", typeDescription.getName());
+                    }
+
+                    return newBuilder;
                 }
 
-                return newBuilder;
+                LOGGER.debug("Matched class {}, but ignore by finding mechanism.", typeDescription.getTypeName());
+                return builder;
+            } finally {
+                pluginFinder.clearMatched();
             }
-
-            LOGGER.debug("Matched class {}, but ignore by finding mechanism.", typeDescription.getTypeName());
-            return builder;
         }
     }
 
@@ -181,6 +208,12 @@ public class SkyWalkingAgent {
     }
 
     private static class Listener implements AgentBuilder.Listener {
+        private final PluginFinder pluginFinder;
+
+        Listener(PluginFinder pluginFinder) {
+            this.pluginFinder = pluginFinder;
+        }
+
         @Override
         public void onDiscovery(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
 
@@ -218,6 +251,8 @@ public class SkyWalkingAgent {
 
         @Override
         public void onComplete(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+            // The transformer may be skipped when the transformation failed after the matching.
+            pluginFinder.clearMatched();
         }
     }
 
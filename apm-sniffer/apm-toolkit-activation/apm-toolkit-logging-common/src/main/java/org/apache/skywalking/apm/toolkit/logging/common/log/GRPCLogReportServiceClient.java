@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.toolkit.logging.common.log;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
 import io.grpc.ClientCall;
@@ -30,6 +31,7 @@ import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +40,7 @@ import org.apache.skywalking.apm.agent.core.boot.OverrideImplementor;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.remote.DiskSpillBuffer;
 import org.apache.skywalking.apm.agent.core.remote.GRPCStreamServiceStatus;
 import org.apache.skywalking.apm.agent.core.remote.LogReportServiceClient;
 import org.apache.skywalking.apm.agent.core.util.CollectionUtil;
@@ -64,6 +67,8 @@ public class GRPCLogReportServiceClient extends LogReportServiceClient {
 
     private AtomicBoolean disconnected = new AtomicBoolean(false);
 
+    private volatile DiskSpillBuffer spillBuffer;
+
     private static final Metadata.Key<String> AUTH_HEAD_HEADER_NAME = Metadata.Key.of("Authentication", Metadata.ASCII_STRING_MARSHALLER);
 
     @Override
@@ -73,6 +78,7 @@ public class GRPCLogReportServiceClient extends LogReportServiceClient {
                                     Config.Buffer.BUFFER_SIZE,
                                     BufferStrategy.IF_POSSIBLE
         );
+        spillBuffer = DiskSpillBuffer.create("log");
         carrier.consume(this, 1);
         channel = ManagedChannelBuilder
             .forAddress(
@@ -95,6 +101,9 @@ public class GRPCLogReportServiceClient extends LogReportServiceClient {
             if (channel != null) {
                 channel.shutdownNow();
             }
+            if (spillBuffer != null) {
+                spillBuffer.close();
+            }
         } catch (Throwable t) {
             LOGGER.error(t.getMessage(), t);
         }
@@ -103,9 +112,18 @@ public class GRPCLogReportServiceClient extends LogReportServiceClient {
     @Override
     public void produce(LogData logData) {
         if (Objects.nonNull(logData) && !carrier.produce(logData)) {
-            if (LOGGER.isDebugEnable()) {
-                LOGGER.debug("One log has been abandoned, cause by buffer is full.");
+            if (spillBuffer != null) {
+                // The log is serialized and spilled in the spill thread, rather than the logging thread.
+                spillBuffer.appendAsync(logData::toByteArray, GRPCLogReportServiceClient::abandonOne);
+                return;
             }
+            abandonOne();
+        }
+    }
+
+    private static void abandonOne() {
+        if (LOGGER.isDebugEnable()) {
+            LOGGER.debug("One log has been abandoned, cause by buffer is full.");
         }
     }
 
@@ -114,6 +132,36 @@ public class GRPCLogReportServiceClient extends LogReportServiceClient {
         if (CollectionUtil.isEmpty(dataList)) {
             return;
         }
+        replaySpilled();
+        upstream(dataList);
+    }
+
+    @Override
+    public void nothingToConsume() {
+        replaySpilled();
+    }
+
+    /**
+     * Send the spilled logs, at the rate limited by {@link DiskSpillBuffer}, after the last report succeeded.
+     */
+    private void replaySpilled() {
+        if (spillBuffer == null || spillBuffer.isEmpty() || disconnected.get()) {
+            return;
+        }
+        List<LogData> dataList = new ArrayList<>();
+        for (byte[] record : spillBuffer.replay(Config.Buffer.BUFFER_SIZE)) {
+            try {
+                dataList.add(LogData.parseFrom(record));
+            } catch (InvalidProtocolBufferException e) {
+                LOGGER.error(e, "Parse the spilled log data fail.");
+            }
+        }
+        if (!dataList.isEmpty()) {
+            upstream(dataList);
+        }
+    }
+
+    private void upstream(final List<LogData> dataList) {
         StreamObserver<LogData> reportStreamObserver = null;
         final GRPCStreamServiceStatus waitStatus = new GRPCStreamServiceStatus(false);
         try {
@@ -134,6 +182,7 @@ public class GRPCLogReportServiceClient extends LogReportServiceClient {
                     LOGGER.error(t, "Try to send {} log data to collector, with unexpected exception.",
                                  dataList.size()
                     );
+                    spill(dataList);
                 }
 
                 @Override
@@ -158,6 +207,21 @@ public class GRPCLogReportServiceClient extends LogReportServiceClient {
         }
     }
 
+    /**
+     * Keep the logs failed to send in the spill file, some of them may have been received by the backend.
+     */
+    private void spill(List<LogData> dataList) {
+        if (spillBuffer == null) {
+            return;
+        }
+        for (LogData logData : dataList) {
+            if (!spillBuffer.append(logData.toByteArray())) {
+                LOGGER.debug("One log has been abandoned, cause by the spill file is full.");
+                return;
+            }
+        }
+    }
+
     private Channel decorateLogChannelWithAuthentication(Channel channel) {
         if (StringUtil.isEmpty(Config.Agent.AUTHENTICATION)) {
             return channel;
@@ -23,6 +23,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.DBLatencyThresholdsAndWatcher;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.TraceLatencyThresholdsAndWatcher;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.TraceSampleRateWatcher;
@@ -104,6 +105,25 @@ public class AnalyzerModuleConfig extends ModuleConfig {
     @Setter
     private String meterAnalyzerActiveFiles = Const.EMPTY_STRING;
 
+    /**
+     * The max number of the counter series stored for the increase and rate functions of MAL. The new series are not
+     * stored once it's reached.
+     *
+     * @since 8.7.0
+     */
+    @Setter
+    @Getter
+    private int meterCounterWindowMaxSeries = CounterWindow.DEFAULT_MAX_SERIES;
+
+    /**
+     * The counter series not updated in this period are evicted. Unit is minute.
+     *
+     * @since 8.7.0
+     */
+    @Setter
+    @Getter
+    private int meterCounterWindowSeriesTTL = 60;
+
     /**
      * Sample the trace segment if the segment has span(s) tagged as error status, and ignore the sampleRate
      * configuration.
@@ -121,6 +141,25 @@ public class AnalyzerModuleConfig extends ModuleConfig {
     @Getter
     private String segmentStatusAnalysisStrategy = FROM_SPAN_STATUS.name();
 
+    /**
+     * The number of the shards(threads) analyzing the segments asynchronously. The segments are sharded by the trace
+     * ID. Non-positive value means the segments are analyzed in the receiver threads.
+     *
+     * @since 8.7.0
+     */
+    @Setter
+    @Getter
+    private int segmentAnalysisShards = 0;
+
+    /**
+     * The max number of the segments waiting in every shard, the receivers wait when the shard is full.
+     *
+     * @since 8.7.0
+     */
+    @Setter
+    @Getter
+    private int segmentAnalysisQueueSize = 10000;
+
     private List<Integer> virtualPeers;
 
     /**
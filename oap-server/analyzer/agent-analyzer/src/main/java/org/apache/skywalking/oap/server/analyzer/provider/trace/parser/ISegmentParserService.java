@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
 
+import com.google.protobuf.ByteString;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.oap.server.library.module.Service;
 
@@ -26,4 +27,16 @@ import org.apache.skywalking.oap.server.library.module.Service;
  */
 public interface ISegmentParserService extends Service {
     void send(SegmentObject segment);
+
+    /**
+     * Send the segment along with its original serialized bytes, which are reused as the data binary of the segment
+     * record rather than serializing the segment again. The default implementation ignores the bytes and delegates to
+     * {@link #send(SegmentObject)}, so the existing implementations keep working.
+     *
+     * @param segment       the parsed segment.
+     * @param segmentBinary the bytes the segment parsed from.
+     */
+    default void send(SegmentObject segment, ByteString segmentBinary) {
+        send(segment);
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
+
+import com.google.protobuf.ByteString;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * SegmentAnalysisStage decouples the segment analysis from the receiver threads. The receivers only enqueue the decoded
+ * segments, and every shard analyzes its queue in its own thread, with its own {@link TraceAnalyzer}. The segments are
+ * sharded by the trace ID, so the segments of one trace are analyzed in order by the same shard.
+ *
+ * The queues are bounded and {@link BufferStrategy#BLOCKING}, the receivers wait when the shard is full. {@link
+ * #shutdown()} analyzes the queued segments before returning, as a best effort, the segments received after it are not
+ * analyzed.
+ */
+@Slf4j
+public class SegmentAnalysisStage {
+    private final DataCarrier<SegmentAnalysisTask>[] shards;
+    private final GaugeMetrics queueDepth;
+    private final HistogramMetrics analysisLatency;
+    private final CountDownLatch exitedShards;
+
+    /**
+     * @param shardNum          the number of the shards, as well as the analysis threads.
+     * @param queueSize         the max number of the segments waiting in every shard.
+     * @param analyzerSupplier  creates the analyzer of every shard.
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentAnalysisStage(int shardNum, int queueSize, Supplier<TraceAnalyzer> analyzerSupplier,
+                                MetricsCreator metricsCreator) {
+        queueDepth = metricsCreator.createGauge(
+            "segment_analysis_queue_depth", "The number of the segments waiting for the analysis",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        analysisLatency = metricsCreator.createHistogramMetric(
+            "segment_analysis_latency", "The latency from the segment enqueued to analyzed",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        shards = new DataCarrier[shardNum];
+        exitedShards = new CountDownLatch(shardNum);
+        for (int i = 0; i < shardNum; i++) {
+            // One channel per shard, as multiple channels don't keep the order of the segments.
+            shards[i] = new DataCarrier<>("SegmentAnalysisStage." + i, 1, queueSize);
+            shards[i].consume(new ShardConsumer(analyzerSupplier.get()), 1);
+        }
+    }
+
+    /**
+     * Enqueue the segment to the shard of its trace.
+     *
+     * @param segmentBinary the bytes the segment parsed from, null means absent.
+     */
+    public void in(SegmentObject segment, ByteString segmentBinary) {
+        final int shard = (segment.getTraceId().hashCode() & Integer.MAX_VALUE) % shards.length;
+        queueDepth.inc();
+        if (!shards[shard].produce(new SegmentAnalysisTask(segment, segmentBinary, System.nanoTime()))) {
+            queueDepth.dec();
+            log.warn(
+                "Segment analysis shard {} is not running, segment {} is abandoned.", shard,
+                segment.getTraceSegmentId()
+            );
+        }
+    }
+
+    /**
+     * Stop the shards, and wait for them to analyze the queued segments, at most the given timeout.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        for (final DataCarrier<SegmentAnalysisTask> shard : shards) {
+            shard.shutdownConsumers();
+        }
+        try {
+            if (!exitedShards.await(timeout, unit)) {
+                log.warn("Segment analysis shards don't finish the queued segments in {} {}.", timeout, unit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class SegmentAnalysisTask {
+        private final SegmentObject segment;
+        private final ByteString segmentBinary;
+        private final long enqueueTime;
+    }
+
+    @RequiredArgsConstructor
+    private class ShardConsumer implements IConsumer<SegmentAnalysisTask> {
+        private final TraceAnalyzer analyzer;
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void consume(final List<SegmentAnalysisTask> data) {
+            for (final SegmentAnalysisTask task : data) {
+                try {
+                    analyzer.doAnalysis(task.segment, task.segmentBinary);
+                } catch (Exception e) {
+                    log.error("Analyze segment {} failure.", task.segment.getTraceSegmentId(), e);
+                } finally {
+                    queueDepth.dec();
+                    analysisLatency.observe((System.nanoTime() - task.enqueueTime) / 1_000_000_000d);
+                }
+            }
+        }
+
+        @Override
+        public void onError(final List<SegmentAnalysisTask> data, final Throwable t) {
+            log.error(t.getMessage(), t);
+        }
+
+        @Override
+        public void onExit() {
+            exitedShards.countDown();
+        }
+    }
+}
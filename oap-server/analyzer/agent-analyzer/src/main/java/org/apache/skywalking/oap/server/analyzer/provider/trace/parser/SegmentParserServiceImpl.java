@@ -18,25 +18,64 @@
 
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
 
+import com.google.protobuf.ByteString;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 /**
  * The open service to the receivers.
  */
 @RequiredArgsConstructor
 public class SegmentParserServiceImpl implements ISegmentParserService {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
     private final ModuleManager moduleManager;
     private final AnalyzerModuleConfig config;
     @Setter
     private SegmentParserListenerManager listenerManager;
+    /**
+     * The asynchronous analysis stage, null means the segments are analyzed in the receiver threads.
+     */
+    private SegmentAnalysisStage analysisStage;
+
+    /**
+     * Start the asynchronous analysis stage, if {@link AnalyzerModuleConfig#getSegmentAnalysisShards()} is positive. The
+     * module providers have no shutdown phase, so the queued segments are analyzed in a JVM shutdown hook.
+     */
+    public void startAnalysisStage() {
+        if (config.getSegmentAnalysisShards() <= 0) {
+            return;
+        }
+        final MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                                           .provider()
+                                                           .getService(MetricsCreator.class);
+        analysisStage = new SegmentAnalysisStage(
+            config.getSegmentAnalysisShards(), config.getSegmentAnalysisQueueSize(),
+            () -> new TraceAnalyzer(moduleManager, listenerManager, config), metricsCreator
+        );
+        final SegmentAnalysisStage stage = analysisStage;
+        Runtime.getRuntime().addShutdownHook(
+            new Thread(() -> stage.shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS), "SegmentAnalysisStageShutdown"));
+    }
 
     @Override
     public void send(SegmentObject segment) {
+        send(segment, null);
+    }
+
+    @Override
+    public void send(SegmentObject segment, ByteString segmentBinary) {
+        if (analysisStage != null) {
+            analysisStage.in(segment, segmentBinary);
+            return;
+        }
         final TraceAnalyzer traceAnalyzer = new TraceAnalyzer(moduleManager, listenerManager, config);
-        traceAnalyzer.doAnalysis(segment);
+        traceAnalyzer.doAnalysis(segment, segmentBinary);
     }
 }
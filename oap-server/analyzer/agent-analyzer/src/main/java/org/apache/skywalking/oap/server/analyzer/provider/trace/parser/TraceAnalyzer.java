@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
 
+import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -34,22 +35,34 @@ import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentListener;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 
+/**
+ * TraceAnalyzer notifies the listeners created by {@link SegmentParserListenerManager} when traversing the segment. It
+ * could be reused by the sequential analysis of the segments in one thread, the listeners are created again for every
+ * segment, as they hold the results of the segment until {@link AnalysisListener#build()}.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class TraceAnalyzer {
     private final ModuleManager moduleManager;
     private final SegmentParserListenerManager listenerManager;
     private final AnalyzerModuleConfig config;
-    private List<AnalysisListener> analysisListeners = new ArrayList<>();
+    private final List<AnalysisListener> analysisListeners = new ArrayList<>();
 
     public void doAnalysis(SegmentObject segmentObject) {
+        doAnalysis(segmentObject, null);
+    }
+
+    /**
+     * @param segmentBinary the bytes the segment parsed from, null means absent.
+     */
+    public void doAnalysis(SegmentObject segmentObject, ByteString segmentBinary) {
         if (segmentObject.getSpansList().size() == 0) {
             return;
         }
 
         createSpanListeners();
 
-        notifySegmentListener(segmentObject);
+        notifySegmentListener(segmentObject, segmentBinary);
 
         segmentObject.getSpansList().forEach(spanObject -> {
             if (spanObject.getSpanId() == 0) {
@@ -69,6 +82,7 @@ public class TraceAnalyzer {
         });
 
         notifyListenerToBuild();
+        analysisListeners.clear();
     }
 
     private void notifyListenerToBuild() {
@@ -107,15 +121,16 @@ public class TraceAnalyzer {
         });
     }
 
-    private void notifySegmentListener(SegmentObject segmentObject) {
+    private void notifySegmentListener(SegmentObject segmentObject, ByteString segmentBinary) {
         analysisListeners.forEach(listener -> {
             if (listener.containsPoint(AnalysisListener.Point.Segment)) {
-                ((SegmentListener) listener).parseSegment(segmentObject);
+                ((SegmentListener) listener).parseSegment(segmentObject, segmentBinary);
             }
         });
     }
 
     private void createSpanListeners() {
+        analysisListeners.clear();
         listenerManager.getSpanListenerFactories()
                        .forEach(
                            spanListenerFactory -> analysisListeners.add(
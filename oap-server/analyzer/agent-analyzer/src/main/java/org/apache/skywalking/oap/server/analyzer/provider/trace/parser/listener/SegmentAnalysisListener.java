@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener;
 
+import com.google.protobuf.ByteString;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -67,6 +68,10 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     private long endTimestamp;
     private int duration;
     private boolean isError;
+    /**
+     * The bytes the segment parsed from, reused as the data binary to avoid serializing the segment again.
+     */
+    private ByteString segmentBinary;
 
     @Override
     public boolean containsPoint(Point point) {
@@ -100,7 +105,8 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         segment.setTimeBucket(timeBucket);
         segment.setEndTime(endTimestamp);
         segment.setIsError(BooleanUtils.booleanToValue(isError));
-        segment.setDataBinary(segmentObject.toByteArray());
+        segment.setDataBinary(
+            segmentBinary != null ? segmentBinary.toByteArray() : segmentObject.toByteArray());
         segment.setVersion(3);
 
         endpointName = namingControl.formatEndpointName(serviceName, span.getOperationName());
@@ -125,6 +131,12 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         );
     }
 
+    @Override
+    public void parseSegment(SegmentObject segmentObject, ByteString segmentBinary) {
+        this.segmentBinary = segmentBinary;
+        parseSegment(segmentObject);
+    }
+
     @Override
     public void parseSegment(SegmentObject segmentObject) {
         segment.setTraceId(segmentObject.getTraceId());
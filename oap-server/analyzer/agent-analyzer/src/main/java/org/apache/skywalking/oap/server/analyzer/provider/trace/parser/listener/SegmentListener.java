@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener;
 
+import com.google.protobuf.ByteString;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 
 /**
@@ -25,4 +26,13 @@ import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
  */
 public interface SegmentListener extends AnalysisListener {
     void parseSegment(SegmentObject segmentObject);
+
+    /**
+     * Parse the segment with the bytes it parsed from, if the receiver holds them.
+     *
+     * @param segmentBinary the bytes the segment parsed from, null means absent.
+     */
+    default void parseSegment(SegmentObject segmentObject, ByteString segmentBinary) {
+        parseSegment(segmentObject);
+    }
 }
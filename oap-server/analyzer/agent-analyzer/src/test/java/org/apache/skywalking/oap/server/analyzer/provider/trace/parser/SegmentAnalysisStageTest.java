@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class SegmentAnalysisStageTest {
+
+    @Test
+    public void testSegmentsOfOneTraceAnalyzedInOrderByOneShard() throws InterruptedException {
+        final int segmentNum = 300;
+        final CountDownLatch latch = new CountDownLatch(segmentNum);
+        final Map<String, List<String>> analyzedSegments = new ConcurrentHashMap<>();
+        final Map<String, TraceAnalyzer> analyzerOfTrace = new ConcurrentHashMap<>();
+
+        final SegmentAnalysisStage stage = new SegmentAnalysisStage(4, 100, () -> {
+            final TraceAnalyzer analyzer = mock(TraceAnalyzer.class);
+            doAnswer(invocation -> {
+                final SegmentObject segment = (SegmentObject) invocation.getArguments()[0];
+                final TraceAnalyzer previous = analyzerOfTrace.putIfAbsent(segment.getTraceId(), analyzer);
+                Assert.assertTrue(previous == null || previous == analyzer);
+                analyzedSegments.computeIfAbsent(
+                    segment.getTraceId(), traceId -> Collections.synchronizedList(new ArrayList<>()))
+                                .add(segment.getTraceSegmentId());
+                latch.countDown();
+                return null;
+            }).when(analyzer).doAnalysis(any(SegmentObject.class), any());
+            return analyzer;
+        }, new MetricsCreatorNoop());
+
+        for (int i = 0; i < segmentNum; i++) {
+            stage.in(SegmentObject.newBuilder()
+                                  .setTraceId("trace-" + i % 10)
+                                  .setTraceSegmentId(String.valueOf(i))
+                                  .build(), null);
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        stage.shutdown(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(10, analyzedSegments.size());
+        analyzedSegments.forEach((traceId, segmentIds) -> {
+            Assert.assertEquals(segmentNum / 10, segmentIds.size());
+            for (int i = 1; i < segmentIds.size(); i++) {
+                Assert.assertTrue(
+                    Integer.parseInt(segmentIds.get(i - 1)) < Integer.parseInt(segmentIds.get(i)));
+            }
+        });
+    }
+
+    @Test
+    public void testShutdownAnalyzesQueuedSegments() {
+        final int segmentNum = 100;
+        final AtomicInteger analyzed = new AtomicInteger();
+        final SegmentAnalysisStage stage = new SegmentAnalysisStage(2, segmentNum, () -> {
+            final TraceAnalyzer analyzer = mock(TraceAnalyzer.class);
+            doAnswer(invocation -> {
+                Thread.sleep(1);
+                analyzed.incrementAndGet();
+                return null;
+            }).when(analyzer).doAnalysis(any(SegmentObject.class), any());
+            return analyzer;
+        }, new MetricsCreatorNoop());
+
+        for (int i = 0; i < segmentNum; i++) {
+            stage.in(SegmentObject.newBuilder()
+                                  .setTraceId("trace-" + i)
+                                  .setTraceSegmentId(String.valueOf(i))
+                                  .build(), null);
+        }
+        stage.shutdown(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(segmentNum, analyzed.get());
+    }
+}
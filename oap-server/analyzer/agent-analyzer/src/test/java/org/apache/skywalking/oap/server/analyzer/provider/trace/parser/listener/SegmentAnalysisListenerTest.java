@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener;
+
+import com.google.protobuf.ByteString;
+import java.util.Collections;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.TraceLatencyThresholdsAndWatcher;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.strategy.SegmentStatusStrategy;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.apache.skywalking.oap.server.core.source.Segment;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SegmentAnalysisListenerTest {
+    private SourceReceiver sourceReceiver;
+    private SegmentAnalysisListener listener;
+    private SegmentObject segmentObject;
+
+    @Before
+    public void setUp() {
+        sourceReceiver = mock(SourceReceiver.class);
+        final TraceSegmentSampler sampler = mock(TraceSegmentSampler.class);
+        when(sampler.shouldSample(anyString())).thenReturn(true);
+        listener = new SegmentAnalysisListener(
+            sourceReceiver,
+            sampler,
+            false,
+            new NamingControl(512, 512, 512, new EndpointNameGrouping()),
+            Collections.emptyList(),
+            SegmentStatusStrategy.FROM_SPAN_STATUS.getExceptionAnalyzer(),
+            mock(TraceLatencyThresholdsAndWatcher.class)
+        );
+        segmentObject = SegmentObject.newBuilder()
+                                     .setTraceId("trace-1")
+                                     .setTraceSegmentId("segment-1")
+                                     .setService("service")
+                                     .setServiceInstance("instance")
+                                     .addSpans(SpanObject.newBuilder()
+                                                         .setSpanId(0)
+                                                         .setParentSpanId(-1)
+                                                         .setSpanType(SpanType.Entry)
+                                                         .setOperationName("/endpoint")
+                                                         .setStartTime(1000L)
+                                                         .setEndTime(2000L))
+                                     .build();
+    }
+
+    @Test
+    public void testReuseOriginalBytesAsDataBinary() {
+        // The listener never parses the bytes, so a marker proves they are stored as is instead of re-serialized.
+        final ByteString segmentBinary = ByteString.copyFromUtf8("original wire bytes");
+        analyze(segmentBinary);
+
+        final Segment segment = receivedSegment();
+        Assert.assertArrayEquals(segmentBinary.toByteArray(), segment.getDataBinary());
+    }
+
+    @Test
+    public void testSerializeSegmentWithoutOriginalBytes() {
+        analyze(null);
+
+        final Segment segment = receivedSegment();
+        Assert.assertArrayEquals(segmentObject.toByteArray(), segment.getDataBinary());
+    }
+
+    private void analyze(ByteString segmentBinary) {
+        listener.parseSegment(segmentObject, segmentBinary);
+        listener.parseFirst(segmentObject.getSpans(0), segmentObject);
+        listener.parseEntry(segmentObject.getSpans(0), segmentObject);
+        listener.build();
+    }
+
+    private Segment receivedSegment() {
+        final ArgumentCaptor<Segment> captor = ArgumentCaptor.forClass(Segment.class);
+        verify(sourceReceiver).receive(captor.capture());
+        Assert.assertEquals("segment-1", captor.getValue().getSegmentId());
+        return captor.getValue();
+    }
+}
@@ -21,6 +21,9 @@ package org.apache.skywalking.oap.meter.analyzer;
 import com.google.common.collect.ImmutableMap;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.AccessLevel;
@@ -50,15 +53,7 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.elasticsearch.common.Strings;
 
-import java.util.Objects;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.mapping;
-import static java.util.stream.Collectors.toList;
 
 /**
  * Analyzer analyses DSL expression with input samples, then to generate meter-system metrics.
@@ -102,10 +97,15 @@ public class Analyzer {
      * @param sampleFamilies input samples.
      */
     public void analyse(final ImmutableMap<String, SampleFamily> sampleFamilies) {
-        ImmutableMap<String, SampleFamily> input = samples.stream()
-                                                          .map(s -> Tuple.of(s, sampleFamilies.get(s)))
-                                                          .filter(t -> t._2 != null)
-                                                          .collect(ImmutableMap.toImmutableMap(t -> t._1, t -> t._2));
+        // The sample families are indexed by name, so only the ones referred by the expression are looked up.
+        ImmutableMap.Builder<String, SampleFamily> builder = ImmutableMap.builderWithExpectedSize(samples.size());
+        for (String s : samples) {
+            SampleFamily sf = sampleFamilies.get(s);
+            if (sf != null) {
+                builder.put(s, sf);
+            }
+        }
+        ImmutableMap<String, SampleFamily> input = builder.build();
         if (input.size() < 1) {
             if (log.isDebugEnabled()) {
                 log.debug("{} is ignored due to the lack of {}", expression, samples);
@@ -137,34 +137,32 @@ public class Analyzer {
                     break;
                 case histogram:
                 case histogramPercentile:
-                    Stream.of(ss).map(s -> Tuple.of(composeGroup(s.getLabels(), k -> !Objects.equals("le", k)), s))
-                          .collect(groupingBy(Tuple2::_1, mapping(Tuple2::_2, toList())))
-                          .forEach((group, subSs) -> {
-                              if (subSs.size() < 1) {
-                                  return;
-                              }
-                              long[] bb = new long[subSs.size()];
-                              long[] vv = new long[bb.length];
-                              for (int i = 0; i < subSs.size(); i++) {
-                                  Sample s = subSs.get(i);
-                                  bb[i] = Long.parseLong(s.getLabels().get("le"));
-                                  vv[i] = getValue(s);
-                              }
-                              BucketedValues bv = new BucketedValues(bb, vv);
-                              bv.setGroup(group);
-                              long time = subSs.get(0).getTimestamp();
-                              if (metricType == MetricType.histogram) {
-                                  AcceptableValue<BucketedValues> v = meterSystem.buildMetrics(
-                                      metricName, BucketedValues.class);
-                                  v.accept(meterEntity, bv);
-                                  send(v, time);
-                                  return;
-                              }
-                              AcceptableValue<PercentileArgument> v = meterSystem.buildMetrics(
-                                  metricName, PercentileArgument.class);
-                              v.accept(meterEntity, new PercentileArgument(bv, percentiles));
-                              send(v, time);
-                          });
+                    groupBuckets(ss).forEach((group, subSs) -> {
+                        if (subSs.size() < 1) {
+                            return;
+                        }
+                        long[] bb = new long[subSs.size()];
+                        long[] vv = new long[bb.length];
+                        for (int i = 0; i < subSs.size(); i++) {
+                            Sample s = subSs.get(i);
+                            bb[i] = Long.parseLong(s.getLabels().get("le"));
+                            vv[i] = getValue(s);
+                        }
+                        BucketedValues bv = new BucketedValues(bb, vv);
+                        bv.setGroup(group);
+                        long time = subSs.get(0).getTimestamp();
+                        if (metricType == MetricType.histogram) {
+                            AcceptableValue<BucketedValues> v = meterSystem.buildMetrics(
+                                metricName, BucketedValues.class);
+                            v.accept(meterEntity, bv);
+                            send(v, time);
+                            return;
+                        }
+                        AcceptableValue<PercentileArgument> v = meterSystem.buildMetrics(
+                            metricName, PercentileArgument.class);
+                        v.accept(meterEntity, new PercentileArgument(bv, percentiles));
+                        send(v, time);
+                    });
                     break;
             }
         });
@@ -180,13 +178,38 @@ public class Analyzer {
         return Math.round(sample.getValue());
     }
 
-    private String composeGroup(ImmutableMap<String, String> labels) {
-        return composeGroup(labels, k -> true);
+    /**
+     * Group the buckets of the histograms by their labels other than "le", in one pass over the samples.
+     */
+    private static Map<String, List<Sample>> groupBuckets(Sample[] ss) {
+        Map<String, List<Sample>> groups = new LinkedHashMap<>();
+        for (Sample s : ss) {
+            groups.computeIfAbsent(composeGroup(s.getLabels(), "le"), k -> new ArrayList<>()).add(s);
+        }
+        return groups;
     }
 
-    private String composeGroup(ImmutableMap<String, String> labels, Predicate<String> filter) {
-        return labels.keySet().stream().filter(filter).sorted().map(labels::get)
-                     .collect(Collectors.joining("-"));
+    private static String composeGroup(ImmutableMap<String, String> labels) {
+        return composeGroup(labels, null);
+    }
+
+    // Joins the values of the labels sorted by key with "-", skipping the excluded key.
+    private static String composeGroup(ImmutableMap<String, String> labels, String excludedKey) {
+        String[] keys = labels.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        StringBuilder group = new StringBuilder();
+        boolean first = true;
+        for (String key : keys) {
+            if (key.equals(excludedKey)) {
+                continue;
+            }
+            if (!first) {
+                group.append('-');
+            }
+            group.append(labels.get(key));
+            first = false;
+        }
+        return group.toString();
     }
 
     @RequiredArgsConstructor
@@ -20,9 +20,17 @@ package org.apache.skywalking.oap.meter.analyzer;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.vavr.control.Try;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
@@ -36,6 +44,19 @@ import static java.util.stream.Collectors.toList;
  */
 @Slf4j
 public class MetricConvert {
+    private static final int ANALYZE_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int ANALYZE_QUEUE_SIZE = 1024;
+
+    /**
+     * Shared by all the converters. When the queue is full the caller runs the analyzer itself, which bounds the
+     * pending work without dropping any.
+     */
+    private static final ExecutorService ANALYZE_EXECUTOR = new ThreadPoolExecutor(
+        ANALYZE_THREADS, ANALYZE_THREADS, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(ANALYZE_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("MetricConvert-%d").build(),
+        new ThreadPoolExecutor.CallerRunsPolicy()
+    );
 
     public static <T> Stream<T> log(Try<T> t, String debugMessage) {
         return t
@@ -68,15 +89,31 @@ public class MetricConvert {
         if (sampleFamilies.size() < 1) {
             return;
         }
-        for (Analyzer each : analyzers) {
+        // The analyzers only read the shared sample families, so they are run in parallel.
+        final List<Future<?>> futures = new ArrayList<>(analyzers.size());
+        for (final Analyzer each : analyzers) {
+            futures.add(ANALYZE_EXECUTOR.submit(() -> analyse(each, sampleFamilies)));
+        }
+        for (final Future<?> future : futures) {
             try {
-                each.analyse(sampleFamilies);
-            } catch (Throwable t) {
-                log.error("Analyze {} error", each, t);
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Analyze error", e.getCause());
             }
         }
     }
 
+    private static void analyse(final Analyzer analyzer, final ImmutableMap<String, SampleFamily> sampleFamilies) {
+        try {
+            analyzer.analyse(sampleFamilies);
+        } catch (Throwable t) {
+            log.error("Analyze {} error", analyzer, t);
+        }
+    }
+
     private String formatMetricName(MetricRuleConfig rule, String meterRuleName) {
         StringJoiner metricName = new StringJoiner("_");
         metricName.add(rule.getMetricPrefix()).add(meterRuleName);
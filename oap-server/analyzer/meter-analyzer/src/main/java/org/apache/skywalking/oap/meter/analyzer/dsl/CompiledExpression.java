@@ -0,0 +1,411 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.collect.ImmutableMap;
+import groovy.lang.GroovyShell;
+import groovy.lang.MetaMethod;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.meter.analyzer.dsl.tagOpt.K8sRetagType;
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.reflection.CachedMethod;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.syntax.Types;
+
+/**
+ * CompiledExpression is the ahead-of-time compiled form of an {@link Expression}. The syntax tree of the expression is
+ * compiled into a tree of operators calling {@link SampleFamily} directly. The methods are resolved, and the literal
+ * arguments are evaluated only once when compiling, rather than dispatched dynamically by the Groovy runtime in every
+ * run.
+ *
+ * The method calls on the sample families, the arithmetic operations between the sample families and the numbers, and
+ * the literals, including the closures, are supported. Other expressions are run by the Groovy script as before.
+ */
+@Slf4j
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class CompiledExpression {
+
+    private final Operator root;
+
+    /**
+     * Compile the literal of the expression.
+     *
+     * @param literal               string literal represents the DSL expression.
+     * @param compilerConfiguration the configuration of the Groovy compiler, which compiles the closures in the
+     *                              expression.
+     * @return the compiled expression, or empty if the expression is not supported.
+     */
+    static Optional<CompiledExpression> compile(final String literal,
+                                                final CompilerConfiguration compilerConfiguration) {
+        try {
+            CompilationUnit unit = new CompilationUnit(compilerConfiguration);
+            unit.addSource("Expression", literal);
+            unit.compile(Phases.CONVERSION);
+            BlockStatement block = unit.getAST().getModules().get(0).getStatementBlock();
+            if (block.getStatements().size() != 1 || !(block.getStatements().get(0) instanceof ExpressionStatement)) {
+                throw new UnsupportedOperationException("only one expression statement is supported");
+            }
+            Operator root = new Compiler(literal, compilerConfiguration).compile(
+                ((ExpressionStatement) block.getStatements().get(0)).getExpression());
+            if (!root.isSampleFamily()) {
+                throw new UnsupportedOperationException("the result is not a sample family");
+            }
+            return Optional.of(new CompiledExpression(root));
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("\"{}\" is not compiled, it's run by the script: {}", literal, e.getMessage());
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Run the compiled expression with a data map.
+     *
+     * @param sampleFamilies a data map includes all of candidates to be analysis.
+     * @return The result sample family.
+     */
+    SampleFamily run(final ImmutableMap<String, SampleFamily> sampleFamilies) {
+        return (SampleFamily) root.evaluate(sampleFamilies);
+    }
+
+    @RequiredArgsConstructor
+    private static class Compiler {
+        private final String literal;
+        private final CompilerConfiguration compilerConfiguration;
+
+        Operator compile(final org.codehaus.groovy.ast.expr.Expression node) {
+            if (node instanceof ConstantExpression) {
+                return new Constant(((ConstantExpression) node).getValue());
+            }
+            if (node instanceof ListExpression) {
+                List<Object> list = new ArrayList<>();
+                for (org.codehaus.groovy.ast.expr.Expression each : ((ListExpression) node).getExpressions()) {
+                    list.add(constantOf(compile(each)));
+                }
+                return new Constant(list);
+            }
+            if (node instanceof ClosureExpression) {
+                return new Constant(new GroovyShell(compilerConfiguration).evaluate(sourceOf(node)));
+            }
+            if (node instanceof VariableExpression) {
+                return variable(((VariableExpression) node).getName());
+            }
+            if (node instanceof PropertyExpression) {
+                return property((PropertyExpression) node);
+            }
+            if (node instanceof MethodCallExpression) {
+                return methodCall((MethodCallExpression) node);
+            }
+            if (node instanceof BinaryExpression) {
+                BinaryExpression binary = (BinaryExpression) node;
+                return BinaryOperator.of(
+                    binary.getOperation().getType(), compile(binary.getLeftExpression()),
+                    compile(binary.getRightExpression())
+                );
+            }
+            throw new UnsupportedOperationException(node.getClass().getSimpleName() + " is not supported");
+        }
+
+        private Operator variable(final String name) {
+            switch (name) {
+                case "AVG":
+                    return new Constant(Expression.ExpressionDelegate.AVG);
+                case "SUM":
+                    return new Constant(Expression.ExpressionDelegate.SUM);
+                case "LATEST":
+                    return new Constant(Expression.ExpressionDelegate.LATEST);
+                default:
+                    return new SampleFamilyReference(literal, name);
+            }
+        }
+
+        private Operator property(final PropertyExpression node) {
+            if (node.getObjectExpression() instanceof VariableExpression
+                && "K8sRetagType".equals(((VariableExpression) node.getObjectExpression()).getName())
+                && node.getPropertyAsString() != null) {
+                return new Constant(K8sRetagType.valueOf(node.getPropertyAsString()));
+            }
+            throw new UnsupportedOperationException("property " + node.getText() + " is not supported");
+        }
+
+        private Operator methodCall(final MethodCallExpression node) {
+            if (node.isImplicitThis() || node.isSafe() || node.isSpreadSafe() || node.getMethodAsString() == null
+                || !(node.getArguments() instanceof ArgumentListExpression)) {
+                throw new UnsupportedOperationException("method call " + node.getText() + " is not supported");
+            }
+            Operator target = compile(node.getObjectExpression());
+            if (!target.isSampleFamily()) {
+                throw new UnsupportedOperationException("method call on " + node.getObjectExpression().getText());
+            }
+            List<org.codehaus.groovy.ast.expr.Expression> argNodes =
+                ((ArgumentListExpression) node.getArguments()).getExpressions();
+            Operator[] args = new Operator[argNodes.size()];
+            Class<?>[] argTypes = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = compile(argNodes.get(i));
+                argTypes[i] = args[i].type();
+            }
+            MetaMethod method = InvokerHelper.getMetaClass(SampleFamily.class)
+                                             .pickMethod(node.getMethodAsString(), argTypes);
+            if (!(method instanceof CachedMethod)) {
+                throw new UnsupportedOperationException("method " + node.getMethodAsString() + " is not found");
+            }
+            return new MethodCall(target, (CachedMethod) method, args);
+        }
+
+        private Object constantOf(final Operator operator) {
+            if (!(operator instanceof Constant)) {
+                throw new UnsupportedOperationException("only literals are supported in the list");
+            }
+            return ((Constant) operator).value;
+        }
+
+        /**
+         * @return the source code of the node, in order to compile the closures by the Groovy compiler.
+         */
+        private String sourceOf(final ASTNode node) {
+            if (node.getLineNumber() < 1 || node.getLastLineNumber() < node.getLineNumber()) {
+                throw new UnsupportedOperationException("the position of " + node.getText() + " is unknown");
+            }
+            String[] lines = literal.split("\n", -1);
+            StringBuilder source = new StringBuilder();
+            for (int line = node.getLineNumber(); line <= node.getLastLineNumber(); line++) {
+                String text = lines[line - 1];
+                int end = line == node.getLastLineNumber() ? node.getLastColumnNumber() - 1 : text.length();
+                int begin = line == node.getLineNumber() ? node.getColumnNumber() - 1 : 0;
+                source.append(text, begin, end).append('\n');
+            }
+            return source.toString();
+        }
+    }
+
+    private interface Operator {
+        Object evaluate(ImmutableMap<String, SampleFamily> sampleFamilies);
+
+        /**
+         * @return the type of the value evaluated.
+         */
+        Class<?> type();
+
+        default boolean isSampleFamily() {
+            return type() == SampleFamily.class;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Constant implements Operator {
+        private final Object value;
+
+        @Override
+        public Object evaluate(final ImmutableMap<String, SampleFamily> sampleFamilies) {
+            return value;
+        }
+
+        @Override
+        public Class<?> type() {
+            if (value == null) {
+                throw new UnsupportedOperationException("null is not supported");
+            }
+            return value.getClass();
+        }
+    }
+
+    /**
+     * The reference to the sample family in the data map, as {@link Expression.ExpressionDelegate#propertyMissing}.
+     */
+    @RequiredArgsConstructor
+    private static class SampleFamilyReference implements Operator {
+        private final String literal;
+        private final String metricName;
+
+        @Override
+        public Object evaluate(final ImmutableMap<String, SampleFamily> sampleFamilies) {
+            SampleFamily sampleFamily = sampleFamilies.get(metricName);
+            if (sampleFamily != null) {
+                return sampleFamily;
+            }
+            log.warn("{} referred by \"{}\" doesn't exist in {}", metricName, literal, sampleFamilies.keySet());
+            return SampleFamily.EMPTY;
+        }
+
+        @Override
+        public Class<?> type() {
+            return SampleFamily.class;
+        }
+    }
+
+    private static class MethodCall implements Operator {
+        private final Operator target;
+        private final CachedMethod metaMethod;
+        private final Method method;
+        private final Operator[] args;
+        /**
+         * The arguments corrected to the parameter types, if all of them are literals.
+         */
+        private final Object[] constantArgs;
+
+        MethodCall(final Operator target, final CachedMethod metaMethod, final Operator[] args) {
+            this.target = target;
+            this.metaMethod = metaMethod;
+            this.method = metaMethod.getCachedMethod();
+            this.args = args;
+            Object[] values = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                if (!(args[i] instanceof Constant)) {
+                    values = null;
+                    break;
+                }
+                values[i] = ((Constant) args[i]).value;
+            }
+            this.constantArgs = values == null ? null : correct(values);
+        }
+
+        @Override
+        public Object evaluate(final ImmutableMap<String, SampleFamily> sampleFamilies) {
+            Object object = target.evaluate(sampleFamilies);
+            Object[] values = constantArgs;
+            if (values == null) {
+                values = new Object[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    values[i] = args[i].evaluate(sampleFamilies);
+                }
+                values = correct(values);
+            }
+            try {
+                return method.invoke(object, values);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Class<?> type() {
+            return method.getReturnType();
+        }
+
+        /**
+         * Correct the arguments to the parameter types, as {@link MetaMethod#doMethodInvoke}.
+         */
+        private Object[] correct(final Object[] values) {
+            return metaMethod.coerceArgumentsToClasses(metaMethod.correctArguments(values));
+        }
+    }
+
+    /**
+     * The arithmetic operations, the operations with a number at the left-hand side are the same as the ones
+     * extended to {@link Number} by {@link Expression}.
+     */
+    @RequiredArgsConstructor
+    private static class BinaryOperator implements Operator {
+        private final Operator left;
+        private final Operator right;
+        private final BiFunction<Object, Object, SampleFamily> fn;
+
+        static Operator of(final int operation, final Operator left, final Operator right) {
+            if (left.isSampleFamily() && right.isSampleFamily()) {
+                switch (operation) {
+                    case Types.PLUS:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) l).plus((SampleFamily) r));
+                    case Types.MINUS:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) l).minus((SampleFamily) r));
+                    case Types.MULTIPLY:
+                        return new BinaryOperator(
+                            left, right, (l, r) -> ((SampleFamily) l).multiply((SampleFamily) r));
+                    case Types.DIVIDE:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) l).div((SampleFamily) r));
+                    default:
+                        break;
+                }
+            } else if (left.isSampleFamily() && Number.class.isAssignableFrom(right.type())) {
+                switch (operation) {
+                    case Types.PLUS:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) l).plus((Number) r));
+                    case Types.MINUS:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) l).minus((Number) r));
+                    case Types.MULTIPLY:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) l).multiply((Number) r));
+                    case Types.DIVIDE:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) l).div((Number) r));
+                    default:
+                        break;
+                }
+            } else if (Number.class.isAssignableFrom(left.type()) && right.isSampleFamily()) {
+                switch (operation) {
+                    case Types.PLUS:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) r).plus((Number) l));
+                    case Types.MINUS:
+                        return new BinaryOperator(
+                            left, right, (l, r) -> ((SampleFamily) r).minus((Number) l).negative());
+                    case Types.MULTIPLY:
+                        return new BinaryOperator(left, right, (l, r) -> ((SampleFamily) r).multiply((Number) l));
+                    case Types.DIVIDE:
+                        return new BinaryOperator(
+                            left, right,
+                            (l, r) -> ((SampleFamily) r).newValue(v -> ((Number) l).doubleValue() / v)
+                        );
+                    default:
+                        break;
+                }
+            }
+            throw new UnsupportedOperationException(
+                "operation " + Types.getText(operation) + " between " + left.type().getSimpleName() + " and "
+                    + right.type().getSimpleName() + " is not supported");
+        }
+
+        @Override
+        public Object evaluate(final ImmutableMap<String, SampleFamily> sampleFamilies) {
+            return fn.apply(left.evaluate(sampleFamilies), right.evaluate(sampleFamilies));
+        }
+
+        @Override
+        public Class<?> type() {
+            return SampleFamily.class;
+        }
+    }
+}
@@ -37,6 +37,17 @@ public final class DSL {
      * @return Expression object could be executed.
      */
     public static Expression parse(final String expression) {
+        return parse(expression, true);
+    }
+
+    /**
+     * Parse string literal to Expression object.
+     *
+     * @param expression string literal represents the DSL expression.
+     * @param compile    whether to compile the expression ahead of time, or always run it by the Groovy script.
+     * @return Expression object could be executed.
+     */
+    static Expression parse(final String expression, final boolean compile) {
         CompilerConfiguration cc = new CompilerConfiguration();
         cc.setScriptBaseClass(DelegatingScript.class.getName());
         ImportCustomizer icz = new ImportCustomizer();
@@ -44,6 +55,9 @@ public final class DSL {
         cc.addCompilationCustomizers(icz);
         GroovyShell sh = new GroovyShell(new Binding(), cc);
         DelegatingScript script = (DelegatingScript) sh.parse(expression);
-        return new Expression(expression, script);
+        if (!compile) {
+            return new Expression(expression, script);
+        }
+        return new Expression(expression, script, CompiledExpression.compile(expression, cc).orElse(null));
     }
 }
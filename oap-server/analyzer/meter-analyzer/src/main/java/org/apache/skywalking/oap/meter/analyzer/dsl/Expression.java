@@ -28,7 +28,8 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Expression is a reusable monadic container type which represents a DSL expression.
+ * Expression is a reusable monadic container type which represents a DSL expression. It runs the {@link
+ * CompiledExpression} if the expression is compiled, otherwise the Groovy script.
  */
 @Slf4j
 @ToString(of = {"literal"})
@@ -38,14 +39,28 @@ public class Expression {
 
     private final DelegatingScript expression;
 
+    /**
+     * The compiled expression, null if the expression is not supported by {@link CompiledExpression}.
+     */
+    private final CompiledExpression compiled;
+
     private final ThreadLocal<ImmutableMap<String, SampleFamily>> propertyRepository = new ThreadLocal<>();
 
     public Expression(final String literal, final DelegatingScript expression) {
+        this(literal, expression, null);
+    }
+
+    public Expression(final String literal, final DelegatingScript expression, final CompiledExpression compiled) {
         this.literal = literal;
         this.expression = expression;
+        this.compiled = compiled;
         this.empower();
     }
 
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+
     /**
      * Parse the expression statically.
      *
@@ -53,7 +68,8 @@ public class Expression {
      */
     public ExpressionParsingContext parse() {
         try (ExpressionParsingContext ctx = ExpressionParsingContext.create()) {
-            Result r = run(ImmutableMap.of());
+            // The parsing context is collected by the script.
+            Result r = run(ImmutableMap.of(), false);
             if (!r.isSuccess() && r.isThrowable()) {
                 throw new ExpressionParsingException("failed to parse expression: " + literal + ", error:" + r.getError());
             }
@@ -72,9 +88,15 @@ public class Expression {
      * @return The result of execution.
      */
     public Result run(final ImmutableMap<String, SampleFamily> sampleFamilies) {
-        propertyRepository.set(sampleFamilies);
+        return run(sampleFamilies, isCompiled());
+    }
+
+    private Result run(final ImmutableMap<String, SampleFamily> sampleFamilies, final boolean runCompiled) {
+        if (!runCompiled) {
+            propertyRepository.set(sampleFamilies);
+        }
         try {
-            SampleFamily sf = (SampleFamily) expression.run();
+            SampleFamily sf = runCompiled ? compiled.run(sampleFamilies) : (SampleFamily) expression.run();
             if (sf == SampleFamily.EMPTY) {
                 if (!ExpressionParsingContext.get().isPresent()) {
                     if (log.isDebugEnabled()) {
@@ -43,6 +43,7 @@ import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
 import org.apache.skywalking.oap.server.core.analysis.meter.ScopeType;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -54,15 +55,11 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.google.common.collect.ImmutableMap.toImmutableMap;
-import static java.util.function.UnaryOperator.identity;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.mapping;
-import static java.util.stream.Collectors.toList;
-
 /**
  * SampleFamily represents a collection of {@link Sample}.
  */
@@ -88,19 +85,25 @@ public class SampleFamily {
 
     /* tag filter operations*/
     public SampleFamily tagEqual(String... labels) {
-        return match(labels, InternalOps::stringComp);
+        return match(labels, lv -> sv -> InternalOps.stringComp(sv, lv));
     }
 
     public SampleFamily tagNotEqual(String[] labels) {
-        return match(labels, (sv, lv) -> !InternalOps.stringComp(sv, lv));
+        return match(labels, lv -> sv -> !InternalOps.stringComp(sv, lv));
     }
 
     public SampleFamily tagMatch(String[] labels) {
-        return match(labels, String::matches);
+        return match(labels, lv -> {
+            Pattern pattern = Pattern.compile(lv);
+            return sv -> pattern.matcher(sv).matches();
+        });
     }
 
     public SampleFamily tagNotMatch(String[] labels) {
-        return match(labels, (sv, lv) -> !sv.matches(lv));
+        return match(labels, lv -> {
+            Pattern pattern = Pattern.compile(lv);
+            return sv -> !pattern.matcher(sv).matches();
+        });
     }
 
     /* value filter operations*/
@@ -217,8 +220,7 @@ public class SampleFamily {
 
         return SampleFamily.build(
             this.context,
-            Arrays.stream(samples)
-                  .collect(groupingBy(it -> InternalOps.getLabels(by, it), mapping(identity(), toList())))
+            InternalOps.groupBy(samples, by)
                   .entrySet().stream()
                   .map(entry -> InternalOps.newSample(
                       entry.getValue().get(0).getName(),
@@ -239,19 +241,18 @@ public class SampleFamily {
             double result = Arrays.stream(samples).mapToDouble(s -> s.value).reduce(aggregator).orElse(0.0D);
             return SampleFamily.build(this.context, InternalOps.newSample(samples[0].name, ImmutableMap.of(), samples[0].timestamp, result));
         }
-        return SampleFamily.build(
-            this.context,
-            Arrays.stream(samples)
-                  .collect(groupingBy(it -> InternalOps.getLabels(by, it), mapping(identity(), toList())))
-                  .entrySet().stream()
-                  .map(entry -> InternalOps.newSample(
-                      entry.getValue().get(0).getName(),
-                      entry.getKey(),
-                      entry.getValue().get(0).getTimestamp(),
-                      entry.getValue().stream().mapToDouble(Sample::getValue).reduce(aggregator).orElse(0.0D)
-                  ))
-                  .toArray(Sample[]::new)
-        );
+        Map<ImmutableMap<String, String>, List<Sample>> groups = InternalOps.groupBy(samples, by);
+        Sample[] ss = new Sample[groups.size()];
+        int i = 0;
+        for (Map.Entry<ImmutableMap<String, String>, List<Sample>> entry : groups.entrySet()) {
+            List<Sample> group = entry.getValue();
+            double result = group.get(0).value;
+            for (int j = 1; j < group.size(); j++) {
+                result = aggregator.applyAsDouble(result, group.get(j).value);
+            }
+            ss[i++] = InternalOps.newSample(group.get(0).name, entry.getKey(), group.get(0).timestamp, result);
+        }
+        return SampleFamily.build(this.context, ss);
     }
 
     /* Function */
@@ -430,28 +431,41 @@ public class SampleFamily {
 
     private SampleFamily createMeterSamples(EntityDescription entityDescription) {
         Map<MeterEntity, Sample[]> meterSamples = new HashMap<>();
-        Arrays.stream(samples)
-              .collect(groupingBy(it -> InternalOps.getLabels(entityDescription.getLabelKeys(), it), mapping(identity(), toList())))
-              .forEach((labels, samples) -> {
-                  MeterEntity meterEntity = InternalOps.buildMeterEntity(samples, entityDescription);
-                  meterSamples.put(meterEntity, InternalOps.left(samples, entityDescription.getLabelKeys()));
-              });
-
-        this.context.setMeterSamples(meterSamples);
+        List<String> labelKeys = entityDescription.getLabelKeys();
+        InternalOps.groupBy(samples, labelKeys).forEach((labels, samples) -> {
+            MeterEntity meterEntity = InternalOps.buildMeterEntity(samples, entityDescription);
+            meterSamples.put(meterEntity, InternalOps.left(samples, labelKeys));
+        });
+
         //This samples is original, The grouped samples is in context which mapping with MeterEntity
-        return SampleFamily.build(this.context, samples);
+        //The context is copied, as the input sample families are shared by the expressions run concurrently
+        return SampleFamily.build(this.context.withMeterSamples(meterSamples), samples);
     }
 
-    private SampleFamily match(String[] labels, Function2<String, String, Boolean> op) {
+    /**
+     * @param op creates the predicate of the label value from the expected value, once per label.
+     */
+    private SampleFamily match(String[] labels, Function<String, Predicate<String>> op) {
         Preconditions.checkArgument(labels.length % 2 == 0);
         Map<String, String> ll = new HashMap<>(labels.length / 2);
         for (int i = 0; i < labels.length; i += 2) {
             ll.put(labels[i], labels[i + 1]);
         }
+        String[] keys = new String[ll.size()];
+        List<Predicate<String>> predicates = new ArrayList<>(ll.size());
+        for (Map.Entry<String, String> entry : ll.entrySet()) {
+            keys[predicates.size()] = entry.getKey();
+            predicates.add(op.apply(entry.getValue()));
+        }
         Sample[] ss = Arrays.stream(samples)
-                            .filter(sample -> ll.entrySet()
-                                                .stream()
-                                                .allMatch(entry -> op.apply(sample.labels.getOrDefault(entry.getKey(), ""), entry.getValue())))
+                            .filter(sample -> {
+                                for (int i = 0; i < keys.length; i++) {
+                                    if (!predicates.get(i).test(sample.labels.getOrDefault(keys[i], ""))) {
+                                        return false;
+                                    }
+                                }
+                                return true;
+                            })
                             .toArray(Sample[]::new);
         return ss.length > 0 ? SampleFamily.build(this.context, ss) : EMPTY;
     }
@@ -476,12 +490,17 @@ public class SampleFamily {
     }
 
     private SampleFamily newValue(SampleFamily another, Function2<Double, Double, Double> transform) {
+        // Index the samples of another by the labels, the first one matches as before.
+        Map<ImmutableMap<String, String>, Sample> index = new HashMap<>(another.samples.length * 2);
+        for (Sample as : another.samples) {
+            index.putIfAbsent(as.labels, as);
+        }
         Sample[] ss = Arrays.stream(samples)
-                            .flatMap(cs -> io.vavr.collection.Stream.of(another.samples)
-                                                                    .find(as -> cs.labels.equals(as.labels))
-                                                                    .map(as -> cs.toBuilder().value(transform.apply(cs.value, as.value)))
-                                                                    .map(Sample.SampleBuilder::build)
-                                                                    .toJavaStream())
+                            .flatMap(cs -> {
+                                Sample as = index.get(cs.labels);
+                                return as == null ? Stream.empty() : Stream.of(
+                                    cs.toBuilder().value(transform.apply(cs.value, as.value)).build());
+                            })
                             .toArray(Sample[]::new);
         return ss.length > 0 ? SampleFamily.build(this.context, ss) : EMPTY;
     }
@@ -515,17 +534,44 @@ public class SampleFamily {
         private HistogramType histogramType;
 
         private TimeUnit defaultHistogramBucketUnit;
+
+        RunningContext withMeterSamples(Map<MeterEntity, Sample[]> meterSamples) {
+            return RunningContext.builder()
+                                 .meterSamples(meterSamples)
+                                 .histogramType(histogramType)
+                                 .defaultHistogramBucketUnit(defaultHistogramBucketUnit)
+                                 .build();
+        }
     }
 
     private static class InternalOps {
 
         private static Sample[] left(List<Sample> samples, List<String> labelKeys) {
-            return samples.stream().map(s -> {
-                ImmutableMap<String, String> ll = ImmutableMap.<String, String>builder()
-                    .putAll(Maps.filterKeys(s.labels, key -> !labelKeys.contains(key)))
-                    .build();
-                return s.toBuilder().labels(ll).build();
-            }).toArray(Sample[]::new);
+            Sample[] ss = new Sample[samples.size()];
+            for (int i = 0; i < ss.length; i++) {
+                Sample s = samples.get(i);
+                ImmutableMap.Builder<String, String> ll = ImmutableMap.builder();
+                for (Map.Entry<String, String> label : s.labels.entrySet()) {
+                    if (!labelKeys.contains(label.getKey())) {
+                        ll.put(label);
+                    }
+                }
+                ss[i] = s.toBuilder().labels(ll.build()).build();
+            }
+            return ss;
+        }
+
+        /**
+         * Group the samples by the values of the label keys, in the same order as {@link
+         * java.util.stream.Collectors#groupingBy(Function)}.
+         */
+        private static Map<ImmutableMap<String, String>, List<Sample>> groupBy(Sample[] samples,
+                                                                              List<String> labelKeys) {
+            Map<ImmutableMap<String, String>, List<Sample>> groups = new HashMap<>();
+            for (Sample sample : samples) {
+                groups.computeIfAbsent(getLabels(labelKeys, sample), k -> new ArrayList<>()).add(sample);
+            }
+            return groups;
         }
 
         private static String dim(List<Sample> samples, List<String> labelKeys) {
@@ -594,11 +640,11 @@ public class SampleFamily {
         }
 
         private static ImmutableMap<String, String> getLabels(final List<String> labelKeys, final Sample sample) {
-            return labelKeys.stream()
-                            .collect(toImmutableMap(
-                                Function.identity(),
-                                labelKey -> sample.labels.getOrDefault(labelKey, "")
-                            ));
+            ImmutableMap.Builder<String, String> labels = ImmutableMap.builder();
+            for (String labelKey : labelKeys) {
+                labels.put(labelKey, sample.labels.getOrDefault(labelKey, ""));
+            }
+            return labels.build();
         }
     }
 
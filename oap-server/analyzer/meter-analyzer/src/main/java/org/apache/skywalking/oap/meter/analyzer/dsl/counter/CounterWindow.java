@@ -19,73 +19,293 @@
 package org.apache.skywalking.oap.meter.analyzer.dsl.counter;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import lombok.AccessLevel;
-import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
-import lombok.ToString;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
 
 /**
  * CounterWindow stores a series of counter samples in order to calculate the increase
  * or instant rate of increase.
  *
+ * The series are shared by the expressions run concurrently, every series is guarded by itself. The series not updated
+ * in {@link #seriesTTL} are evicted, and the new series are not stored once the number of the series reaches {@link
+ * #maxSeries}, their increase is calculated as the first sample of the series. A series keeps at most {@link
+ * #MAX_SAMPLES_PER_SERIES} samples, an increase window older than them is truncated and reported.
  */
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-@ToString
-@EqualsAndHashCode
+@Slf4j
 public class CounterWindow {
 
+    public static final int DEFAULT_MAX_SERIES = 100_000;
+
+    public static final long DEFAULT_SERIES_TTL = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * The max number of the samples kept in a series, the oldest one is dropped when the series is full.
+     */
+    static final int MAX_SAMPLES_PER_SERIES = 1024;
+
+    private static final long MAX_SWEEP_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
     public static final CounterWindow INSTANCE = new CounterWindow();
 
-    private final Map<ID, Tuple2<Long, Double>> lastElementMap = Maps.newHashMap();
-    private final Map<ID, Queue<Tuple2<Long, Double>>> windows = Maps.newHashMap();
+    private final Map<ID, Series> series = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepTime = new AtomicLong(System.currentTimeMillis());
+
+    private volatile int maxSeries = DEFAULT_MAX_SERIES;
+    private volatile long seriesTTL = DEFAULT_SERIES_TTL;
+
+    private volatile GaugeMetrics seriesGauge;
+    private volatile CounterMetrics expiredCounter;
+    private volatile CounterMetrics overflowCounter;
+    private volatile CounterMetrics truncatedCounter;
+
+    private CounterWindow() {
+        createMetrics(new MetricsCreatorNoop());
+    }
+
+    CounterWindow(int maxSeries, long seriesTTL) {
+        this();
+        this.maxSeries = maxSeries;
+        this.seriesTTL = seriesTTL;
+    }
+
+    /**
+     * Set the limits of the series, and report the series count and the evictions through the telemetry.
+     */
+    public void configure(int maxSeries, long seriesTTL, MetricsCreator metricsCreator) {
+        this.maxSeries = maxSeries;
+        this.seriesTTL = seriesTTL;
+        createMetrics(metricsCreator);
+        seriesGauge.setValue(series.size());
+    }
 
     public Tuple2<Long, Double> increase(String name, ImmutableMap<String, String> labels, Double value, long windowSize, long now) {
-        ID id = new ID(name, labels);
-        if (!windows.containsKey(id)) {
-            windows.put(id, new PriorityQueue<>());
-        }
+        Series s = getSeries(name, labels);
+        synchronized (s) {
+            boolean dropped = s.offer(now, value);
+            long waterLevel = now - windowSize;
+            if (s.firstTime() > waterLevel) {
+                if (dropped) {
+                    // The samples at the start of the window have been dropped.
+                    truncatedCounter.inc();
+                    if (!s.truncated) {
+                        s.truncated = true;
+                        log.warn(
+                            "The increase window of {}{} is truncated, as more than {} samples are in the window.",
+                            name, labels, MAX_SAMPLES_PER_SERIES
+                        );
+                    }
+                }
+                return s.first();
+            }
 
-        Queue<Tuple2<Long, Double>> window = windows.get(id);
-        window.offer(Tuple.of(now, value));
-        long waterLevel = now - windowSize;
-        Tuple2<Long, Double> peek = window.peek();
-        if (peek._1 > waterLevel) {
-            return peek;
-        }
+            long resultTime = s.firstTime();
+            double resultValue = s.firstValue();
+            while (s.firstTime() < waterLevel) {
+                resultTime = s.firstTime();
+                resultValue = s.firstValue();
+                s.poll();
+            }
 
-        Tuple2<Long, Double> result = peek;
-        while (peek._1 < waterLevel) {
-            result = window.poll();
-            peek = window.element();
+            // Choose the closed slot to the expected timestamp
+            if (waterLevel - resultTime <= s.firstTime() - waterLevel) {
+                return Tuple.of(resultTime, resultValue);
+            }
+
+            return s.first();
         }
+    }
 
-        // Choose the closed slot to the expected timestamp
-        if (waterLevel - result._1 <= peek._1 - waterLevel) {
+    public Tuple2<Long, Double> pop(String name, ImmutableMap<String, String> labels, Double value, long now) {
+        Series s = getSeries(name, labels);
+        synchronized (s) {
+            Tuple2<Long, Double> element = Tuple.of(now, value);
+            Tuple2<Long, Double> result = s.lastElement;
+            s.lastElement = element;
+            if (result == null) {
+                return element;
+            }
             return result;
         }
+    }
 
-        return peek;
+    public void reset() {
+        series.clear();
+        seriesGauge.setValue(0);
     }
 
-    public Tuple2<Long, Double> pop(String name, ImmutableMap<String, String> labels, Double value, long now) {
-        ID id = new ID(name, labels);
+    int seriesCount() {
+        return series.size();
+    }
 
-        Tuple2<Long, Double> element = Tuple.of(now, value);
-        Tuple2<Long, Double> result = lastElementMap.get(id);
-        lastElementMap.put(id, element);
-        if (result == null) {
-            return element;
+    /**
+     * Evict the series not updated in {@link #seriesTTL}. The access time is checked again under the lock of the
+     * entry, so a series fetched concurrently is not evicted.
+     */
+    void sweep(long now) {
+        int evicted = 0;
+        for (ID id : series.keySet()) {
+            boolean[] expired = new boolean[1];
+            series.computeIfPresent(id, (k, s) -> {
+                expired[0] = now - s.lastAccessTime > seriesTTL;
+                return expired[0] ? null : s;
+            });
+            if (expired[0]) {
+                evicted++;
+            }
         }
-        return result;
+        if (evicted > 0) {
+            expiredCounter.inc(evicted);
+            if (log.isDebugEnabled()) {
+                log.debug("{} counter series are expired, {} left.", evicted, series.size());
+            }
+        }
+        seriesGauge.setValue(series.size());
     }
 
-    public void reset() {
-        windows.clear();
+    private Series getSeries(String name, ImmutableMap<String, String> labels) {
+        long now = System.currentTimeMillis();
+        long lastSweep = lastSweepTime.get();
+        if (now - lastSweep >= Math.min(seriesTTL, MAX_SWEEP_INTERVAL) && lastSweepTime.compareAndSet(lastSweep, now)) {
+            sweep(now);
+        }
+
+        ID id = new ID(name, labels);
+        // The access time is refreshed atomically with the lookup, so the sweep can't evict the series in between.
+        Series s = series.computeIfPresent(id, (k, v) -> {
+            v.lastAccessTime = now;
+            return v;
+        });
+        if (s == null) {
+            if (series.size() >= maxSeries) {
+                overflowCounter.inc();
+                // Not stored, as the first sample of the series.
+                return new Series();
+            }
+            s = series.compute(id, (k, v) -> {
+                Series stored = v == null ? new Series() : v;
+                stored.lastAccessTime = now;
+                return stored;
+            });
+            seriesGauge.setValue(series.size());
+        }
+        return s;
+    }
+
+    private void createMetrics(MetricsCreator metricsCreator) {
+        seriesGauge = metricsCreator.createGauge(
+            "meter_counter_window_series", "The number of the counter series stored for MAL increase and rate",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        MetricsTag.Keys reason = new MetricsTag.Keys("reason");
+        expiredCounter = metricsCreator.createCounter(
+            "meter_counter_window_evicted_series", "The number of the counter series evicted or not stored",
+            reason, new MetricsTag.Values("expired")
+        );
+        overflowCounter = metricsCreator.createCounter(
+            "meter_counter_window_evicted_series", "The number of the counter series evicted or not stored",
+            reason, new MetricsTag.Values("overflow")
+        );
+        truncatedCounter = metricsCreator.createCounter(
+            "meter_counter_window_truncated_increases",
+            "The number of the increases calculated over a window truncated by the samples limit of the series",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+    }
+
+    /**
+     * Series is a ring buffer of the samples, ordered by the timestamp then the value, the same as a priority queue of
+     * {@code Tuple2<Long, Double>}.
+     */
+    private static class Series {
+        private long[] times = new long[4];
+        private double[] values = new double[4];
+        private int head;
+        private int size;
+
+        private Tuple2<Long, Double> lastElement;
+
+        private volatile long lastAccessTime;
+
+        private boolean truncated;
+
+        /**
+         * @return true if the oldest sample is dropped as the series is full.
+         */
+        boolean offer(long time, double value) {
+            boolean dropped = false;
+            if (size == times.length) {
+                if (size < MAX_SAMPLES_PER_SERIES) {
+                    grow();
+                } else {
+                    poll();
+                    dropped = true;
+                }
+            }
+            int i = size++;
+            // Insert in order, the samples mostly arrive in order so it's usually appended.
+            while (i > 0 && compare(times[index(i - 1)], values[index(i - 1)], time, value) > 0) {
+                times[index(i)] = times[index(i - 1)];
+                values[index(i)] = values[index(i - 1)];
+                i--;
+            }
+            times[index(i)] = time;
+            values[index(i)] = value;
+            return dropped;
+        }
+
+        void poll() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+            head = index(1);
+            size--;
+        }
+
+        long firstTime() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+            return times[head];
+        }
+
+        double firstValue() {
+            return values[head];
+        }
+
+        Tuple2<Long, Double> first() {
+            return Tuple.of(firstTime(), firstValue());
+        }
+
+        private int index(int i) {
+            return (head + i) & (times.length - 1);
+        }
+
+        private void grow() {
+            long[] newTimes = new long[times.length * 2];
+            double[] newValues = new double[values.length * 2];
+            for (int i = 0; i < size; i++) {
+                newTimes[i] = times[index(i)];
+                newValues[i] = values[index(i)];
+            }
+            times = newTimes;
+            values = newValues;
+            head = 0;
+        }
+
+        private static int compare(long time1, double value1, long time2, double value2) {
+            int c = Long.compare(time1, time2);
+            return c != 0 ? c : Double.compare(value1, value2);
+        }
     }
 }
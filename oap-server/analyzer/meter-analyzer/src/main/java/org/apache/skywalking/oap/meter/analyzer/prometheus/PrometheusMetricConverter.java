@@ -18,15 +18,17 @@
 
 package org.apache.skywalking.oap.meter.analyzer.prometheus;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
-import io.vavr.Tuple;
-import io.vavr.Tuple2;
-import java.util.Collections;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -42,19 +44,21 @@ import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Histogra
 import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Metric;
 import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Summary;
 
-import static com.google.common.collect.ImmutableMap.toImmutableMap;
-import static io.vavr.API.$;
-import static io.vavr.API.Case;
-import static io.vavr.API.Match;
-import static io.vavr.Predicates.instanceOf;
-import static java.util.stream.Collectors.toList;
-import static org.apache.skywalking.oap.meter.analyzer.Analyzer.NIL;
-
 /**
  * PrometheusMetricConverter converts prometheus metrics to meter-system metrics, then store them to backend storage.
  */
 @Slf4j
 public class PrometheusMetricConverter {
+    /**
+     * The label sets seen in the recent scrapes, shared by all the converters. The same series is reported with an
+     * equal label set in every scrape, so its labels are copied once and the identical instance is reused afterwards.
+     */
+    private static final Cache<Map<String, String>, ImmutableMap<String, String>> LABELS_CACHE =
+        CacheBuilder.newBuilder()
+                    .maximumSize(100_000)
+                    .expireAfterAccess(10, TimeUnit.MINUTES)
+                    .build();
+
     private final Pattern metricsNameEscapePattern;
 
     private final LoadingCache<String, String> escapedMetricsNameCache =
@@ -84,80 +88,109 @@ public class PrometheusMetricConverter {
         convert.toMeter(data);
     }
 
+    /**
+     * toMeter transforms the sample families converted from several sources, such as the targets of a fetcher rule, to
+     * meter-system metrics. The families of the same name are merged before being analyzed.
+     *
+     * @param sampleFamiliesOfSources sample families converted by {@link #convertPromMetricToSampleFamily(Stream)}.
+     */
+    public void toMeter(List<ImmutableMap<String, SampleFamily>> sampleFamiliesOfSources) {
+        if (sampleFamiliesOfSources.size() == 1) {
+            convert.toMeter(sampleFamiliesOfSources.get(0));
+            return;
+        }
+        Map<String, List<SampleFamily>> families = new LinkedHashMap<>();
+        sampleFamiliesOfSources.forEach(source -> source.forEach(
+            (name, family) -> families.computeIfAbsent(name, k -> new ArrayList<>(sampleFamiliesOfSources.size()))
+                                      .add(family)));
+        ImmutableMap.Builder<String, SampleFamily> data = ImmutableMap.builderWithExpectedSize(families.size());
+        families.forEach((name, ff) -> {
+            if (ff.size() == 1) {
+                data.put(name, ff.get(0));
+                return;
+            }
+            int length = 0;
+            for (SampleFamily f : ff) {
+                length += f.samples.length;
+            }
+            Sample[] m = new Sample[length];
+            int pos = 0;
+            for (SampleFamily f : ff) {
+                System.arraycopy(f.samples, 0, m, pos, f.samples.length);
+                pos += f.samples.length;
+            }
+            data.put(name, SampleFamilyBuilder.newBuilder(m).build());
+        });
+        convert.toMeter(data.build());
+    }
+
+    /**
+     * Convert the prometheus metrics to the sample families indexed by the escaped sample name. The samples are
+     * collected into their families in one pass, so each family is built only once.
+     */
     public ImmutableMap<String, SampleFamily> convertPromMetricToSampleFamily(Stream<Metric> metricStream) {
-        return metricStream
-            .peek(metric -> log.debug("Prom metric to be convert to SampleFamily: {}", metric))
-            .flatMap(this::convertMetric)
-            .filter(t -> t != NIL)
-            .peek(t -> log.debug("SampleFamily: {}", t))
-            .collect(toImmutableMap(Tuple2::_1, Tuple2::_2, (a, b) -> {
-                log.debug("merge {} {}", a, b);
-                Sample[] m = new Sample[a.samples.length + b.samples.length];
-                System.arraycopy(a.samples, 0, m, 0, a.samples.length);
-                System.arraycopy(b.samples, 0, m, a.samples.length, b.samples.length);
-                return SampleFamilyBuilder.newBuilder(m).build();
-            }));
+        Map<String, List<Sample>> samples = new LinkedHashMap<>();
+        metricStream.forEach(metric -> {
+            if (log.isDebugEnabled()) {
+                log.debug("Prom metric to be convert to SampleFamily: {}", metric);
+            }
+            convertMetric(metric, samples);
+        });
+        ImmutableMap.Builder<String, SampleFamily> result = ImmutableMap.builderWithExpectedSize(samples.size());
+        samples.forEach((name, ss) -> {
+            SampleFamily sf = SampleFamilyBuilder.newBuilder(ss.toArray(new Sample[0])).build();
+            if (log.isDebugEnabled()) {
+                log.debug("SampleFamily: {} {}", name, sf);
+            }
+            result.put(name, sf);
+        });
+        return result.build();
+    }
+
+    private void convertMetric(Metric metric, Map<String, List<Sample>> samples) {
+        String name = escapedName(metric.getName());
+        ImmutableMap<String, String> labels = internLabels(metric.getLabels());
+        if (metric instanceof Counter) {
+            add(samples, name, labels, metric.getTimestamp(), ((Counter) metric).getValue());
+        } else if (metric instanceof Gauge) {
+            add(samples, name, labels, metric.getTimestamp(), ((Gauge) metric).getValue());
+        } else if (metric instanceof Histogram) {
+            Histogram h = (Histogram) metric;
+            add(samples, escapedName(metric.getName() + "_count"), labels, h.getTimestamp(), h.getSampleCount());
+            add(samples, escapedName(metric.getName() + "_sum"), labels, h.getTimestamp(), h.getSampleSum());
+            h.getBuckets().forEach((le, value) -> add(
+                samples, name, withLabel(labels, "le", le.toString()), h.getTimestamp(), value));
+        } else if (metric instanceof Summary) {
+            Summary s = (Summary) metric;
+            add(samples, escapedName(metric.getName() + "_count"), labels, s.getTimestamp(), s.getSampleCount());
+            add(samples, escapedName(metric.getName() + "_sum"), labels, s.getTimestamp(), s.getSampleSum());
+            s.getQuantiles().forEach((quantile, value) -> add(
+                samples, name, withLabel(labels, "quantile", quantile.toString()), s.getTimestamp(), value));
+        }
+    }
+
+    private static void add(Map<String, List<Sample>> samples, String name, ImmutableMap<String, String> labels,
+                            long timestamp, double value) {
+        samples.computeIfAbsent(name, k -> new ArrayList<>()).add(
+            Sample.builder().name(name).labels(labels).timestamp(timestamp).value(value).build());
     }
 
-    private Stream<Tuple2<String, SampleFamily>> convertMetric(Metric metric) {
-        return Match(metric).of(
-            Case($(instanceOf(Histogram.class)), t -> Stream.of(
-                Tuple.of(escapedName(metric.getName() + "_count"), SampleFamilyBuilder.newBuilder(Sample.builder().name(escapedName(metric.getName() + "_count"))
-                    .timestamp(metric.getTimestamp()).labels(ImmutableMap.copyOf(metric.getLabels())).value(((Histogram) metric).getSampleCount()).build()).build()),
-                Tuple.of(escapedName(metric.getName() + "_sum"), SampleFamilyBuilder.newBuilder(Sample.builder().name(escapedName(metric.getName() + "_sum"))
-                    .timestamp(metric.getTimestamp()).labels(ImmutableMap.copyOf(metric.getLabels())).value(((Histogram) metric).getSampleSum()).build()).build()),
-                convertToSample(metric).orElse(NIL))),
-            Case($(instanceOf(Summary.class)), t -> Stream.of(
-                Tuple.of(escapedName(metric.getName() + "_count"), SampleFamilyBuilder.newBuilder(Sample.builder().name(escapedName(metric.getName() + "_count"))
-                    .timestamp(metric.getTimestamp()).labels(ImmutableMap.copyOf(metric.getLabels())).value(((Summary) metric).getSampleCount()).build()).build()),
-                Tuple.of(escapedName(metric.getName() + "_sum"), SampleFamilyBuilder.newBuilder(Sample.builder().name(escapedName(metric.getName() + "_sum"))
-                    .timestamp(metric.getTimestamp()).labels(ImmutableMap.copyOf(metric.getLabels())).value(((Summary) metric).getSampleSum()).build()).build()),
-                convertToSample(metric).orElse(NIL))),
-            Case($(), t -> Stream.of(convertToSample(metric).orElse(NIL)))
-        );
+    private static ImmutableMap<String, String> withLabel(ImmutableMap<String, String> labels,
+                                                          String key, String value) {
+        return ImmutableMap.<String, String>builderWithExpectedSize(labels.size() + 1)
+            .putAll(labels)
+            .put(key, value)
+            .build();
     }
 
-    private Optional<Tuple2<String, SampleFamily>> convertToSample(Metric metric) {
-        Sample[] ss = Match(metric).of(
-            Case($(instanceOf(Counter.class)), t -> Collections.singletonList(Sample.builder()
-                .name(escapedName(t.getName()))
-                .labels(ImmutableMap.copyOf(t.getLabels()))
-                .timestamp(t.getTimestamp())
-                .value(t.getValue())
-                .build())),
-            Case($(instanceOf(Gauge.class)), t -> Collections.singletonList(Sample.builder()
-                .name(escapedName(t.getName()))
-                .labels(ImmutableMap.copyOf(t.getLabels()))
-                .timestamp(t.getTimestamp())
-                .value(t.getValue())
-                .build())),
-            Case($(instanceOf(Histogram.class)), t -> t.getBuckets()
-                .entrySet().stream()
-                .map(b -> Sample.builder()
-                    .name(escapedName(t.getName()))
-                    .labels(ImmutableMap.<String, String>builder()
-                        .putAll(t.getLabels())
-                        .put("le", b.getKey().toString())
-                        .build())
-                    .timestamp(t.getTimestamp())
-                    .value(b.getValue())
-                    .build()).collect(toList())),
-            Case($(instanceOf(Summary.class)),
-                t -> t.getQuantiles().entrySet().stream()
-                    .map(b -> Sample.builder()
-                        .name(escapedName(t.getName()))
-                        .labels(ImmutableMap.<String, String>builder()
-                            .putAll(t.getLabels())
-                            .put("quantile", b.getKey().toString())
-                            .build())
-                        .timestamp(t.getTimestamp())
-                        .value(b.getValue())
-                        .build()).collect(toList()))
-        ).toArray(new Sample[0]);
-        if (ss.length < 1) {
-            return Optional.empty();
+    // Returns the shared immutable copy of the given labels, which is equal to them.
+    static ImmutableMap<String, String> internLabels(final Map<String, String> labels) {
+        ImmutableMap<String, String> interned = LABELS_CACHE.getIfPresent(labels);
+        if (interned == null) {
+            interned = ImmutableMap.copyOf(labels);
+            LABELS_CACHE.put(interned, interned);
         }
-        return Optional.of(Tuple.of(escapedName(metric.getName()), SampleFamilyBuilder.newBuilder(ss).build()));
+        return interned;
     }
 
     // Returns the escaped name of the given one, with "." replaced by "_"
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * The compiled expressions should have the same results as the Groovy scripts.
+ */
+@RunWith(Parameterized.class)
+public class CompiledExpressionTest {
+
+    private static final ImmutableMap<String, SampleFamily> INPUT = of(
+        "http_requests", SampleFamilyBuilder.newBuilder(
+            Sample.builder()
+                  .labels(of("service", "svc1", "instance", "i1", "endpoint", "/a", "region", "us", "az", "az-1"))
+                  .value(100).name("http_requests").build(),
+            Sample.builder()
+                  .labels(of("service", "svc1", "instance", "i2", "endpoint", "/b", "region", "us", "az", "az-2"))
+                  .value(0.5).name("http_requests").build(),
+            Sample.builder()
+                  .labels(of("service", "svc2", "instance", "i3", "endpoint", "/a", "region", "cn", "az", "az-1"))
+                  .value(12).name("http_requests").build()
+        ).build(),
+        "http_errors", SampleFamilyBuilder.newBuilder(
+            Sample.builder()
+                  .labels(of("service", "svc1", "instance", "i1", "endpoint", "/a", "region", "us", "az", "az-1"))
+                  .value(4).name("http_errors").build(),
+            Sample.builder()
+                  .labels(of("service", "svc2", "instance", "i3", "endpoint", "/a", "region", "cn", "az", "az-1"))
+                  .value(3).name("http_errors").build()
+        ).build(),
+        "http_latency", SampleFamilyBuilder.newBuilder(
+            Sample.builder().labels(of("service", "svc1", "le", "1")).value(10).name("http_latency").build(),
+            Sample.builder().labels(of("service", "svc1", "le", "5")).value(25).name("http_latency").build(),
+            Sample.builder().labels(of("service", "svc1", "le", "10")).value(30).name("http_latency").build(),
+            Sample.builder().labels(of("service", "svc2", "le", "1")).value(1).name("http_latency").build()
+        ).build()
+    );
+
+    @Parameterized.Parameter
+    public String expression;
+
+    @Parameterized.Parameter(1)
+    public boolean compiled;
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+            {"http_requests", true},
+            {"http_requests.tagEqual('region', 'us', 'az', 'az-1').sum(['service', 'instance'])", true},
+            {"http_requests.tagNotEqual('region', 'us').tagMatch('az', 'az-.+').tagNotMatch('endpoint', '/b')", true},
+            {"http_requests.valueGreater(0.5).valueLessEqual(100).valueNotEqual(12)", true},
+            {"http_requests.avg(['service']).max(['service']).min(['service']).sum(['service'])", true},
+            {"(http_requests * 100).sum(['service']).service(['service'])", true},
+            {"100 - http_requests.sum(['service'])", true},
+            {"1 + http_requests / 2 - 1", true},
+            {"2 * http_requests.multiply(3).div(4).plus(5).minus(6)", true},
+            {"1000 / http_requests", true},
+            {"http_errors / http_requests * 100", true},
+            {"http_requests + http_errors - http_errors", true},
+            {"http_requests.plus(http_errors).sum(['service', 'instance']).instance(['service'], ['instance'])", true},
+            {"http_requests.sum(['service', 'endpoint']).endpoint(['service'], ['endpoint']).downsampling(SUM)", true},
+            {"(http_requests.sum(['service', 'instance'])).tag({tags -> tags.service = 'oap::' + tags.service})"
+                 + ".instance(['service'], ['instance'])", true},
+            {"http_requests.tag({ tags ->\n  tags.remove('az')\n  tags.region = tags.region.toUpperCase()\n})"
+                 + "\n  .sum(['service', 'region']).service(['service', 'region'])", true},
+            {"http_latency.sum(['le', 'service']).histogram().histogram_percentile([50,90,99]).service(['service'])",
+                true},
+            {"http_latency.histogram('le').service(['service']).downsampling(LATEST)", true},
+            {"http_not_exist.sum(['service'])", true},
+            {"http_requests.tagEqual('service', \"${'svc'}1\").service(['service'])", false},
+            {"http_requests.sum(['service']) + time() * 0", false},
+            });
+    }
+
+    @Test
+    public void test() {
+        Expression script = DSL.parse(expression, false);
+        Expression compiledExpression = DSL.parse(expression);
+        assertThat(compiledExpression.isCompiled(), is(compiled));
+
+        Result want = script.run(INPUT);
+        Result r = compiledExpression.run(INPUT);
+        assertThat(r.isSuccess(), is(want.isSuccess()));
+        assertThat(r.getData().samples, is(want.getData().samples));
+        Map<MeterEntity, Sample[]> wantMeterSamples = want.getData().context.getMeterSamples();
+        Map<MeterEntity, Sample[]> meterSamples = r.getData().context.getMeterSamples();
+        if (wantMeterSamples == null) {
+            assertThat(meterSamples == null, is(true));
+            return;
+        }
+        assertThat(meterSamples.keySet(), is(wantMeterSamples.keySet()));
+        wantMeterSamples.forEach((entity, samples) -> {
+            assertThat(meterSamples.get(entity), notNullValue());
+            assertThat(meterSamples.get(entity), is(samples));
+        });
+    }
+}
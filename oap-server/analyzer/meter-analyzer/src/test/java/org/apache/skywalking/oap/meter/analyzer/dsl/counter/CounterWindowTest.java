@@ -22,10 +22,20 @@ import com.google.common.collect.Lists;
 import io.vavr.Tuple2;
 import java.time.Duration;
 import java.util.List;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.junit.Assert;
 import org.junit.Test;
 
 import static java.time.Instant.parse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class CounterWindowTest {
 
@@ -93,4 +103,85 @@ public class CounterWindowTest {
 
         Assert.assertArrayEquals(new double[] {0, 1d, 2d, 3d, 4d, 0d, 1d, 2d}, actuals, 0.d);
     }
+
+    @Test
+    public void testExpiredSeriesEvicted() {
+        CounterWindow window = new CounterWindow(10, 1000);
+        window.increase("test", ImmutableMap.of("k", "v1"), 1d, 15000, 1000);
+        window.pop("test", ImmutableMap.of("k", "v2"), 1d, 1000);
+        Assert.assertEquals(2, window.seriesCount());
+
+        window.sweep(System.currentTimeMillis());
+        Assert.assertEquals(2, window.seriesCount());
+        window.sweep(System.currentTimeMillis() + 1001);
+        Assert.assertEquals(0, window.seriesCount());
+
+        // The evicted series starts over.
+        Tuple2<Long, Double> increase = window.increase("test", ImmutableMap.of("k", "v1"), 5d, 15000, 2000);
+        Assert.assertEquals(5d, increase._2, 0.d);
+    }
+
+    @Test
+    public void testNewSeriesNotStoredOverMaxSeries() {
+        CounterWindow window = new CounterWindow(2, 60000);
+        for (int i = 0; i < 3; i++) {
+            window.increase("test", ImmutableMap.of("k", String.valueOf(i)), 1d, 15000, 1000);
+        }
+        Assert.assertEquals(2, window.seriesCount());
+
+        Tuple2<Long, Double> increase = window.increase("test", ImmutableMap.of("k", "2"), 3d, 15000, 2000);
+        Assert.assertEquals(3d, increase._2, 0.d);
+        increase = window.increase("test", ImmutableMap.of("k", "1"), 3d, 15000, 2000);
+        Assert.assertEquals(1d, increase._2, 0.d);
+    }
+
+    @Test
+    public void testSamplesOverMaxPerSeries() {
+        CounterWindow window = new CounterWindow(10, 60000);
+        int count = CounterWindow.MAX_SAMPLES_PER_SERIES * 2;
+        Tuple2<Long, Double> increase = null;
+        for (int i = 0; i < count; i++) {
+            increase = window.increase("test", ImmutableMap.of(), (double) i, Long.MAX_VALUE / 2, i);
+        }
+        // The oldest samples are dropped once the series is full.
+        Assert.assertEquals(count - CounterWindow.MAX_SAMPLES_PER_SERIES, increase._1.longValue());
+    }
+
+    @Test
+    public void testTruncatedWindowCounted() {
+        MetricsCreator metricsCreator = mock(MetricsCreator.class, RETURNS_MOCKS);
+        CounterMetrics truncated = mock(CounterMetrics.class);
+        when(metricsCreator.createCounter(eq("meter_counter_window_truncated_increases"), anyString(), any(), any()))
+            .thenReturn(truncated);
+        CounterWindow window = new CounterWindow(10, 60000);
+        window.configure(10, 60000, metricsCreator);
+
+        int count = CounterWindow.MAX_SAMPLES_PER_SERIES + 3;
+        for (int i = 0; i < count; i++) {
+            window.increase("test", ImmutableMap.of(), (double) i, Long.MAX_VALUE / 2, i);
+        }
+        verify(truncated, times(3)).inc();
+
+        // The window is covered by the samples kept.
+        window.increase("test", ImmutableMap.of(), (double) count, 10, count);
+        verify(truncated, times(3)).inc();
+    }
+
+    @Test
+    public void testConcurrentIncrease() throws InterruptedException {
+        CounterWindow window = new CounterWindow(1000, 60000);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    window.increase("test", ImmutableMap.of("k", String.valueOf(i % 100)), (double) i, 1000, i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(100, window.seriesCount());
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.prometheus;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.skywalking.oap.meter.analyzer.dsl.Sample;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rule;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
+import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Counter;
+import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Gauge;
+import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Histogram;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.hamcrest.core.Is.is;
+
+public class PrometheusMetricConverterTest {
+
+    private PrometheusMetricConverter converter;
+
+    @Before
+    public void setup() {
+        Rule rule = new Rule();
+        rule.setMetricPrefix("test");
+        rule.setMetricsRules(Collections.emptyList());
+        converter = new PrometheusMetricConverter(rule, Mockito.mock(MeterSystem.class));
+    }
+
+    @Test
+    public void testSamplesOfSameNameInOneFamily() {
+        ImmutableMap<String, SampleFamily> result = converter.convertPromMetricToSampleFamily(Stream.of(
+            new Counter("http.requests", of("svc", "a"), 1, 1000),
+            new Gauge("cpu", of("svc", "a"), 0.5, 1000),
+            new Counter("http.requests", of("svc", "b"), 2, 1000)
+        ));
+
+        Assert.assertThat(result.keySet().asList(), is(Arrays.asList("http_requests", "cpu")));
+        Sample[] requests = result.get("http_requests").samples;
+        Assert.assertThat(requests.length, is(2));
+        Assert.assertThat(requests[0].getLabels(), is(of("svc", "a")));
+        Assert.assertThat(requests[0].getValue(), is(1.0));
+        Assert.assertThat(requests[1].getLabels(), is(of("svc", "b")));
+        Assert.assertThat(requests[1].getName(), is("http_requests"));
+        Assert.assertThat(result.get("cpu").samples[0].getValue(), is(0.5));
+    }
+
+    @Test
+    public void testHistogram() {
+        Map<Double, Long> buckets = new HashMap<>();
+        buckets.put(1.0, 3L);
+        buckets.put(Double.POSITIVE_INFINITY, 5L);
+        ImmutableMap<String, SampleFamily> result = converter.convertPromMetricToSampleFamily(Stream.of(
+            new Histogram("latency", of("svc", "a"), 5, 12.5, buckets, 1000)
+        ));
+
+        Assert.assertThat(result.get("latency_count").samples[0].getValue(), is(5.0));
+        Assert.assertThat(result.get("latency_sum").samples[0].getValue(), is(12.5));
+        Sample[] bb = result.get("latency").samples;
+        Assert.assertThat(bb.length, is(2));
+        for (Sample b : bb) {
+            Assert.assertThat(b.getLabels().get("svc"), is("a"));
+            Assert.assertThat(b.getValue(), is(b.getLabels().get("le").equals("1.0") ? 3.0 : 5.0));
+        }
+    }
+
+    @Test
+    public void testLabelsReusedBetweenScrapes() {
+        SampleFamily first = converter.convertPromMetricToSampleFamily(Stream.of(
+            new Counter("reused_labels", of("svc", "a", "instance", "1"), 1, 1000))).get("reused_labels");
+        SampleFamily second = converter.convertPromMetricToSampleFamily(Stream.of(
+            new Counter("reused_labels", of("svc", "a", "instance", "1"), 2, 2000))).get("reused_labels");
+
+        Assert.assertSame(first.samples[0].getLabels(), second.samples[0].getLabels());
+    }
+}
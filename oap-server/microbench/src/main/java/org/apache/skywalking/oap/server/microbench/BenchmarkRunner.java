@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entrance of the micro benchmarks. It accepts all the JMH command line options, and differs from the default JMH
+ * main in the output. The results are written in JSON into {@code microbench-result.json} of the {@code target}
+ * directory of this module, which holds the benchmark jar, and the GC profiler is on, unless the options say otherwise. The JSON files could be compared between releases to track the regressions.
+ */
+public class BenchmarkRunner {
+    public static final String DEFAULT_RESULT_FILE = "microbench-result.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result(defaultResultFile());
+        }
+        if (commandLineOptions.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        new Runner(builder.build()).run();
+    }
+
+    /**
+     * @return the result file in the build output directory, i.e. the directory of {@code microbenchmarks.jar} or the
+     * parent of {@code target/classes}, so running the benchmarks never writes into the working directory.
+     */
+    static String defaultResultFile() {
+        try {
+            File location = new File(BenchmarkRunner.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            File target = location.getParentFile();
+            if (target != null && target.isDirectory()) {
+                return new File(target, DEFAULT_RESULT_FILE).getPath();
+            }
+        } catch (URISyntaxException | SecurityException e) {
+            // fall through to the default build output directory.
+        }
+        return new File("target", DEFAULT_RESULT_FILE).getPath();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.microbench.metrics.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * L1 aggregation merges the metrics of the same entity in {@link MergableBufferedData}, then flushes all of them to
+ * L2, which accepts them through {@link ReadWriteSafeCache}. Every operation is one metrics, built from one source, as
+ * the OAL dispatchers do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class L1AggregationBenchmark {
+    /**
+     * The metrics count received between two flushes.
+     */
+    private static final int FLUSH_BATCH = 10_000;
+
+    @Param({
+        "100",
+        "1000",
+        "10000",
+        "100000"
+    })
+    private int entities;
+
+    private MetricsGenerator generator;
+    private MergableBufferedData<Metrics> mergeDataCache;
+    private ReadWriteSafeCache<Metrics> readWriteSafeCache;
+
+    @Setup
+    public void setup() {
+        generator = new MetricsGenerator(entities);
+        mergeDataCache = new MergableBufferedData<>();
+        readWriteSafeCache = new ReadWriteSafeCache<>(new MergableBufferedData<>(), new MergableBufferedData<>());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLUSH_BATCH)
+    public void mergeLongAvg(Blackhole blackhole) {
+        for (int i = 0; i < FLUSH_BATCH; i++) {
+            mergeDataCache.accept(generator.respTime(generator.next()));
+        }
+        blackhole.consume(mergeDataCache.read());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLUSH_BATCH)
+    public void mergePercentile(Blackhole blackhole) {
+        for (int i = 0; i < FLUSH_BATCH; i++) {
+            mergeDataCache.accept(generator.percentile(generator.next()));
+        }
+        blackhole.consume(mergeDataCache.read());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLUSH_BATCH)
+    public void readWriteSafeCache(Blackhole blackhole) {
+        for (int i = 0; i < FLUSH_BATCH; i++) {
+            readWriteSafeCache.write(generator.respTime(generator.next()));
+        }
+        blackhole.consume(readWriteSafeCache.read());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.microbench.metrics.EndpointRespTimeMetrics;
+import org.apache.skywalking.oap.server.microbench.metrics.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The entity ID encoding/decoding of {@link IDManager}, and {@link Metrics#id()} of a new metrics, which happen for
+ * every source in the receivers and L1 aggregation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MetricsIdBenchmark {
+    private static final int ENTITIES = 10_000;
+
+    private MetricsGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = new MetricsGenerator(ENTITIES);
+    }
+
+    @Benchmark
+    public String buildServiceId() {
+        return IDManager.ServiceID.buildId("benchmark-service-" + (generator.next() & 63), true);
+    }
+
+    @Benchmark
+    public String buildEndpointId() {
+        int index = generator.next();
+        return IDManager.EndpointID.buildId(generator.serviceId(index), "/benchmark/api/v1/endpoint");
+    }
+
+    @Benchmark
+    public IDManager.EndpointID.EndpointIDDefinition analysisEndpointId() {
+        return IDManager.EndpointID.analysisId(generator.endpointId(generator.next()));
+    }
+
+    @Benchmark
+    public String metricsId() {
+        int index = generator.next();
+        EndpointRespTimeMetrics metrics = new EndpointRespTimeMetrics();
+        metrics.setEntityId(generator.endpointId(index));
+        metrics.setTimeBucket(MetricsGenerator.TIME_BUCKET);
+        return metrics.id();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.microbench.metrics.EndpointPercentileMetrics;
+import org.apache.skywalking.oap.server.microbench.metrics.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link BucketTable} accumulation of every span, and {@link PercentileMetrics#calculate()} before the metrics is
+ * persisted. The spans param controls how many latencies have been combined into the metrics, which decides the
+ * number of buckets in the dataset. The String keyed {@link DataTable} accumulation is kept as the baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PercentileBenchmark {
+    @Param({
+        "10",
+        "100",
+        "1000"
+    })
+    private int spans;
+
+    private MetricsGenerator generator;
+    private EndpointPercentileMetrics metrics;
+    private EndpointPercentileMetrics empty;
+    private DataTable dataTable;
+    private BucketTable bucketTable;
+    private String storageData;
+
+    @Setup
+    public void setup() {
+        generator = new MetricsGenerator(100);
+        metrics = generator.percentile(0, spans);
+        empty = new EndpointPercentileMetrics();
+        dataTable = new DataTable();
+        bucketTable = new BucketTable();
+        storageData = metrics.getDataset().toStorageData();
+    }
+
+    @Benchmark
+    public void combineSpan() {
+        metrics.combine(generator.latency(generator.next()), MetricsGenerator.PRECISION);
+    }
+
+    @Benchmark
+    public void dataTableAccumulation() {
+        int latency = generator.latency(generator.next());
+        dataTable.valueAccumulation(String.valueOf(latency / MetricsGenerator.PRECISION), 1L);
+    }
+
+    @Benchmark
+    public void bucketTableAccumulation() {
+        int latency = generator.latency(generator.next());
+        bucketTable.valueAccumulation(latency / MetricsGenerator.PRECISION, 1L);
+    }
+
+    @Benchmark
+    public int[] calculate() {
+        // Combine nothing to reset the calculated flag, otherwise calculate() returns immediately.
+        metrics.combine(empty);
+        metrics.calculate();
+        return metrics.getValues();
+    }
+
+    @Benchmark
+    public String toStorageData() {
+        return metrics.getDataset().toStorageData();
+    }
+
+    @Benchmark
+    public BucketTable fromStorageData() {
+        return new BucketTable(storageData);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.microbench.metrics.EndpointPercentileMetrics;
+import org.apache.skywalking.oap.server.microbench.metrics.EndpointRespTimeMetrics;
+import org.apache.skywalking.oap.server.microbench.metrics.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link RemoteData} serialization of the OAL generated metrics, which happens for every metrics sent from L1 to
+ * L2. The bytes benchmarks include the protobuf encoding/decoding.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RemoteDataBenchmark {
+    @Param({
+        "10",
+        "1000"
+    })
+    private int spans;
+
+    private EndpointRespTimeMetrics respTime;
+    private EndpointPercentileMetrics percentile;
+    private RemoteData respTimeRemoteData;
+    private RemoteData percentileRemoteData;
+    private byte[] respTimeBytes;
+    private byte[] percentileBytes;
+
+    @Setup
+    public void setup() {
+        MetricsGenerator generator = new MetricsGenerator(100);
+        respTime = generator.respTime(0);
+        percentile = generator.percentile(0, spans);
+        percentile.calculate();
+        respTimeRemoteData = respTime.serialize().build();
+        percentileRemoteData = percentile.serialize().build();
+        respTimeBytes = respTimeRemoteData.toByteArray();
+        percentileBytes = percentileRemoteData.toByteArray();
+    }
+
+    @Benchmark
+    public RemoteData serializeLongAvg() {
+        return respTime.serialize().build();
+    }
+
+    @Benchmark
+    public EndpointRespTimeMetrics deserializeLongAvg() {
+        EndpointRespTimeMetrics metrics = new EndpointRespTimeMetrics();
+        metrics.deserialize(respTimeRemoteData);
+        return metrics;
+    }
+
+    @Benchmark
+    public RemoteData serializePercentile() {
+        return percentile.serialize().build();
+    }
+
+    @Benchmark
+    public EndpointPercentileMetrics deserializePercentile() {
+        EndpointPercentileMetrics metrics = new EndpointPercentileMetrics();
+        metrics.deserialize(percentileRemoteData);
+        return metrics;
+    }
+
+    @Benchmark
+    public byte[] serializePercentileToBytes() {
+        return percentile.serialize().build().toByteArray();
+    }
+
+    @Benchmark
+    public EndpointPercentileMetrics deserializePercentileFromBytes() throws InvalidProtocolBufferException {
+        EndpointPercentileMetrics metrics = new EndpointPercentileMetrics();
+        metrics.deserialize(RemoteData.parseFrom(percentileBytes));
+        return metrics;
+    }
+
+    @Benchmark
+    public byte[] serializeLongAvgToBytes() {
+        return respTime.serialize().build().toByteArray();
+    }
+
+    @Benchmark
+    public EndpointRespTimeMetrics deserializeLongAvgFromBytes() throws InvalidProtocolBufferException {
+        EndpointRespTimeMetrics metrics = new EndpointRespTimeMetrics();
+        metrics.deserialize(RemoteData.parseFrom(respTimeBytes));
+        return metrics;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.oal;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.expression.EqualMatch;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsPreAggregationTable;
+import org.apache.skywalking.oap.server.microbench.metrics.EndpointRespTimeMetrics;
+import org.apache.skywalking.oap.server.microbench.metrics.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The OAL dispatchers build one metrics object per source, and the L1 aggregation merges them. With the
+ * pre-aggregation, the dispatchers merge the sources into {@link MetricsPreAggregationTable} first, and only the merged
+ * rows reach L1. Every operation is one source of {@code endpoint_resp_time = from(Endpoint.latency).longAvg();} with
+ * a {@code filter(status == true)}, as the code generated by the template dispatcher/doMetrics.ftl.
+ *
+ * Run with {@code -prof gc} to compare the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OALDispatcherBenchmark {
+    /**
+     * The sources dispatched between two flushes.
+     */
+    private static final int FLUSH_BATCH = 10_000;
+    private static final String METRICS_NAME = "EndpointRespTime";
+    private static final EqualMatch MATCHER = new EqualMatch();
+
+    @Param({
+        "100",
+        "10000"
+    })
+    private int entities;
+
+    private MetricsGenerator generator;
+    private MergableBufferedData<Metrics> l1;
+    private MetricsPreAggregationTable table;
+
+    @Setup
+    public void setup() {
+        generator = new MetricsGenerator(entities);
+        l1 = new MergableBufferedData<>();
+        table = new MetricsPreAggregationTable(Integer.MAX_VALUE, l1::accept);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLUSH_BATCH)
+    public void perSource(Blackhole blackhole) {
+        for (int i = 0; i < FLUSH_BATCH; i++) {
+            final int index = generator.next();
+            if (!new EqualMatch().match(true, Boolean.TRUE)) {
+                continue;
+            }
+            EndpointRespTimeMetrics metrics = new EndpointRespTimeMetrics();
+            metrics.setTimeBucket(MetricsGenerator.TIME_BUCKET);
+            metrics.setEntityId(generator.endpointId(index));
+            metrics.setServiceId(generator.serviceId(index));
+            metrics.combine(generator.latency(index), 1);
+            l1.accept(metrics);
+        }
+        blackhole.consume(l1.read());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLUSH_BATCH)
+    public void preAggregated(Blackhole blackhole) {
+        for (int i = 0; i < FLUSH_BATCH; i++) {
+            final int index = generator.next();
+            if (!MATCHER.match(true, Boolean.TRUE)) {
+                continue;
+            }
+            synchronized (table) {
+                EndpointRespTimeMetrics row = (EndpointRespTimeMetrics) table.borrow(METRICS_NAME);
+                if (row == null) {
+                    row = new EndpointRespTimeMetrics();
+                }
+                row.setTimeBucket(MetricsGenerator.TIME_BUCKET);
+                row.setEntityId(generator.endpointId(index));
+                row.setServiceId(generator.serviceId(index));
+                row = (EndpointRespTimeMetrics) table.merge(METRICS_NAME, row);
+                row.combine(generator.latency(index), 1);
+            }
+        }
+        table.flush();
+        blackhole.consume(l1.read());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.datacarrier;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 4 producer threads produce into the {@link DataCarrier}, and one consumer thread per channel consumes. The buffers
+ * are blocking, so the throughput is bounded by the consumers, the same as the L1 and L2 workers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DataCarrierBenchmark {
+    private static final Object DATA = new Object();
+
+    @Param({
+        "1",
+        "2",
+        "4"
+    })
+    private int channels;
+
+    @Param({
+        "BLOCKING",
+        "RING_BLOCKING"
+    })
+    private String bufferStrategy;
+
+    @Param({
+        "SLEEPING",
+        "PARKING"
+    })
+    private String waitStrategy;
+
+    private DataCarrier<Object> dataCarrier;
+    private final LongAdder consumed = new LongAdder();
+
+    @Setup
+    public void setup() {
+        dataCarrier = new DataCarrier<>(
+            "DataCarrierBenchmark", "DataCarrierBenchmark", channels, 10000, BufferStrategy.valueOf(bufferStrategy));
+        dataCarrier.setWaitStrategy(WaitStrategyType.valueOf(waitStrategy));
+        dataCarrier.consume(new IConsumer<Object>() {
+            @Override
+            public void init() {
+            }
+
+            @Override
+            public void consume(final List<Object> data) {
+                consumed.add(data.size());
+            }
+
+            @Override
+            public void onError(final List<Object> data, final Throwable t) {
+            }
+
+            @Override
+            public void onExit() {
+            }
+        }, channels);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataCarrier.shutdownConsumers();
+    }
+
+    @Benchmark
+    public boolean produce() {
+        return dataCarrier.produce(DATA);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+
+/**
+ * The same codes as the class generated by OAL for {@code endpoint_percentile = from(Endpoint.latency).percentile(10);}.
+ *
+ * @see EndpointRespTimeMetrics
+ */
+@Getter
+@Setter
+public class EndpointPercentileMetrics extends PercentileMetrics {
+    private String entityId;
+    private String serviceId;
+
+    @Override
+    protected String id0() {
+        StringBuilder splitJointId = new StringBuilder(String.valueOf(getTimeBucket()));
+        splitJointId.append(Const.ID_CONNECTOR).append(entityId);
+        return splitJointId.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result + entityId.hashCode();
+        result = 31 * result + (int) getTimeBucket();
+        return result;
+    }
+
+    @Override
+    public int remoteHashCode() {
+        int result = 17;
+        result = 31 * result + entityId.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        EndpointPercentileMetrics metrics = (EndpointPercentileMetrics) obj;
+        return entityId.equals(metrics.entityId) && getTimeBucket() == metrics.getTimeBucket();
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataStrings(getEntityId());
+        remoteBuilder.addDataStrings(getServiceId());
+
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataIntegers(getPrecision());
+
+        remoteBuilder.addDataObjectBinaries(getPercentileValues().toByteString());
+        remoteBuilder.addDataObjectBinaries(getDataset().toByteString());
+        return remoteBuilder;
+    }
+
+    @Override
+    public void deserialize(RemoteData remoteData) {
+        setEntityId(remoteData.getDataStrings(0));
+        setServiceId(remoteData.getDataStrings(1));
+
+        setTimeBucket(remoteData.getDataLongs(0));
+
+        setPrecision(remoteData.getDataIntegers(0));
+
+        setPercentileValues(new DataTable(remoteData.getDataObjectBinaries(0)));
+        setDataset(new BucketTable(remoteData.getDataObjectBinaries(1)));
+    }
+
+    @Override
+    public Metrics toHour() {
+        EndpointPercentileMetrics metrics = new EndpointPercentileMetrics();
+        metrics.setEntityId(getEntityId());
+        metrics.setServiceId(getServiceId());
+        metrics.setTimeBucket(toTimeBucketInHour());
+        metrics.setPrecision(getPrecision());
+        DataTable percentileValues = new DataTable();
+        percentileValues.copyFrom(getPercentileValues());
+        metrics.setPercentileValues(percentileValues);
+        BucketTable dataset = new BucketTable();
+        dataset.copyFrom(getDataset());
+        metrics.setDataset(dataset);
+        return metrics;
+    }
+
+    @Override
+    public Metrics toDay() {
+        EndpointPercentileMetrics metrics = new EndpointPercentileMetrics();
+        metrics.setEntityId(getEntityId());
+        metrics.setServiceId(getServiceId());
+        metrics.setTimeBucket(toTimeBucketInDay());
+        metrics.setPrecision(getPrecision());
+        DataTable percentileValues = new DataTable();
+        percentileValues.copyFrom(getPercentileValues());
+        metrics.setPercentileValues(percentileValues);
+        BucketTable dataset = new BucketTable();
+        dataset.copyFrom(getDataset());
+        metrics.setDataset(dataset);
+        return metrics;
+    }
+}
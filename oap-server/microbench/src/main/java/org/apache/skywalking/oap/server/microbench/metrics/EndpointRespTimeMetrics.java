@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+
+/**
+ * The same codes as the class generated by OAL for {@code endpoint_resp_time = from(Endpoint.latency).longAvg();},
+ * see the templates in {@code oal-rt/src/main/resources/code-templates/metrics}. The benchmarks use it, rather than
+ * running the OAL engine, to keep the measurement free of the class generation.
+ */
+@Getter
+@Setter
+public class EndpointRespTimeMetrics extends LongAvgMetrics {
+    private String entityId;
+    private String serviceId;
+
+    @Override
+    protected String id0() {
+        StringBuilder splitJointId = new StringBuilder(String.valueOf(getTimeBucket()));
+        splitJointId.append(Const.ID_CONNECTOR).append(entityId);
+        return splitJointId.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result + entityId.hashCode();
+        result = 31 * result + (int) getTimeBucket();
+        return result;
+    }
+
+    @Override
+    public int remoteHashCode() {
+        int result = 17;
+        result = 31 * result + entityId.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        EndpointRespTimeMetrics metrics = (EndpointRespTimeMetrics) obj;
+        return entityId.equals(metrics.entityId) && getTimeBucket() == metrics.getTimeBucket();
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataStrings(getEntityId());
+        remoteBuilder.addDataStrings(getServiceId());
+
+        remoteBuilder.addDataLongs(getSummation());
+        remoteBuilder.addDataLongs(getCount());
+        remoteBuilder.addDataLongs(getValue());
+        remoteBuilder.addDataLongs(getTimeBucket());
+        return remoteBuilder;
+    }
+
+    @Override
+    public void deserialize(RemoteData remoteData) {
+        setEntityId(remoteData.getDataStrings(0));
+        setServiceId(remoteData.getDataStrings(1));
+
+        setSummation(remoteData.getDataLongs(0));
+        setCount(remoteData.getDataLongs(1));
+        setValue(remoteData.getDataLongs(2));
+        setTimeBucket(remoteData.getDataLongs(3));
+    }
+
+    @Override
+    public Metrics toHour() {
+        EndpointRespTimeMetrics metrics = new EndpointRespTimeMetrics();
+        metrics.setEntityId(getEntityId());
+        metrics.setServiceId(getServiceId());
+        metrics.setSummation(getSummation());
+        metrics.setCount(getCount());
+        metrics.setValue(getValue());
+        metrics.setTimeBucket(toTimeBucketInHour());
+        return metrics;
+    }
+
+    @Override
+    public Metrics toDay() {
+        EndpointRespTimeMetrics metrics = new EndpointRespTimeMetrics();
+        metrics.setEntityId(getEntityId());
+        metrics.setServiceId(getServiceId());
+        metrics.setSummation(getSummation());
+        metrics.setCount(getCount());
+        metrics.setValue(getValue());
+        metrics.setTimeBucket(toTimeBucketInDay());
+        return metrics;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.metrics;
+
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+
+/**
+ * Generate the entities and metrics for the benchmarks. The endpoints are spread over the services as the real
+ * clusters, 1 service owns 50 endpoints at most.
+ */
+public class MetricsGenerator {
+    private static final int ENDPOINTS_PER_SERVICE = 50;
+    public static final long TIME_BUCKET = 202107011230L;
+    public static final int PRECISION = 10;
+
+    private final String[] serviceIds;
+    private final String[] endpointIds;
+    private final int[] latencies;
+    private int cursor;
+
+    /**
+     * @param entities the cardinality of the endpoints.
+     */
+    public MetricsGenerator(int entities) {
+        serviceIds = new String[entities];
+        endpointIds = new String[entities];
+        for (int i = 0; i < entities; i++) {
+            serviceIds[i] = IDManager.ServiceID.buildId("benchmark-service-" + i / ENDPOINTS_PER_SERVICE, true);
+            endpointIds[i] = IDManager.EndpointID.buildId(serviceIds[i], "/benchmark/api/v1/endpoint-" + i);
+        }
+        // Latencies follow a long tail distribution, most requests are fast.
+        Random random = new Random(7);
+        latencies = new int[4096];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = (int) Math.min(Math.abs(random.nextGaussian()) * 200 + random.nextInt(20), 30_000);
+        }
+    }
+
+    public int size() {
+        return endpointIds.length;
+    }
+
+    public String serviceId(int index) {
+        return serviceIds[index];
+    }
+
+    public String endpointId(int index) {
+        return endpointIds[index];
+    }
+
+    public int latency(int index) {
+        return latencies[index & (latencies.length - 1)];
+    }
+
+    /**
+     * @return the next endpoint index, rolling over all entities.
+     */
+    public int next() {
+        int index = cursor++;
+        if (cursor == endpointIds.length) {
+            cursor = 0;
+        }
+        return index;
+    }
+
+    public EndpointRespTimeMetrics respTime(int index) {
+        EndpointRespTimeMetrics metrics = new EndpointRespTimeMetrics();
+        metrics.setEntityId(endpointIds[index]);
+        metrics.setServiceId(serviceIds[index]);
+        metrics.setTimeBucket(TIME_BUCKET);
+        metrics.combine(latency(index), 1);
+        return metrics;
+    }
+
+    public EndpointPercentileMetrics percentile(int index) {
+        EndpointPercentileMetrics metrics = new EndpointPercentileMetrics();
+        metrics.setEntityId(endpointIds[index]);
+        metrics.setServiceId(serviceIds[index]);
+        metrics.setTimeBucket(TIME_BUCKET);
+        metrics.combine(latency(index), PRECISION);
+        return metrics;
+    }
+
+    /**
+     * @param spans the number of latencies combined into the metrics.
+     */
+    public EndpointPercentileMetrics percentile(int index, int spans) {
+        EndpointPercentileMetrics metrics = percentile(index);
+        for (int i = 1; i < spans; i++) {
+            metrics.combine(latency(index + i), PRECISION);
+        }
+        return metrics;
+    }
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -53,6 +54,7 @@ import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oal.rt.output.AllDispatcherContext;
 import org.apache.skywalking.oal.rt.output.DispatcherContext;
 import org.apache.skywalking.oal.rt.parser.AnalysisResult;
+import org.apache.skywalking.oal.rt.parser.Expression;
 import org.apache.skywalking.oal.rt.parser.OALScripts;
 import org.apache.skywalking.oal.rt.parser.ScriptParser;
 import org.apache.skywalking.oal.rt.parser.SourceColumn;
@@ -408,6 +410,34 @@ public class OALRuntime implements OALEngine {
             throw new OALCompileException(e.getMessage(), e);
         }
 
+        /**
+         * Generate the singletons of the filter matchers, they are stateless
+         */
+        Map<String, String> matcherFields = new HashMap<>();
+        for (AnalysisResult dispatcherContextMetric : dispatcherContext.getMetrics()) {
+            if (dispatcherContextMetric.getFilterExpressions() != null) {
+                for (Expression filterExpression : dispatcherContextMetric.getFilterExpressions()) {
+                    matcherFields.put(filterExpression.getExpressionObjectField(), filterExpression.getExpressionObject());
+                }
+            }
+            for (Object arg : dispatcherContextMetric.getEntryMethod().getArgsExpressions()) {
+                if (arg instanceof Expression) {
+                    Expression argExpression = (Expression) arg;
+                    matcherFields.put(argExpression.getExpressionObjectField(), argExpression.getExpressionObject());
+                }
+            }
+        }
+        for (Map.Entry<String, String> matcherField : matcherFields.entrySet()) {
+            try {
+                dispatcherClass.addField(CtField.make(
+                    "private static final " + matcherField.getValue() + " " + matcherField.getKey()
+                        + " = new " + matcherField.getValue() + "();", dispatcherClass));
+            } catch (CannotCompileException e) {
+                log.error("Can't add field " + matcherField.getKey() + " for " + className + ".", e);
+                throw new OALCompileException(e.getMessage(), e);
+            }
+        }
+
         /**
          * Generate methods
          */
@@ -35,4 +35,11 @@ public class Expression {
     public void setRight(String right) {
         this.right = right;
     }
+
+    /**
+     * @return the name of the static field holding the singleton of {@link #expressionObject} in the dispatcher.
+     */
+    public String getExpressionObjectField() {
+        return "MATCHER_" + expressionObject.replace('.', '_').toUpperCase();
+    }
 }
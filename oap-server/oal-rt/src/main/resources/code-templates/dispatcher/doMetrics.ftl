@@ -1,26 +1,46 @@
+<#macro entryArgs>
+<#list entryMethod.argsExpressions as arg>
+    <#if entryMethod.argTypes[arg_index] < 3>
+        ${arg}
+    <#else>
+        ${arg.expressionObjectField}.match(${arg.left}, ${arg.right})
+    </#if><#if arg_has_next>, </#if>
+</#list>
+</#macro>
 private void do${metricsName}(${sourcePackage}${sourceName} source) {
 
 <#if filterExpressions??>
     <#list filterExpressions as filterExpression>
-        if (!new ${filterExpression.expressionObject}().match(${filterExpression.left}, ${filterExpression.right})) {
+        if (!${filterExpression.expressionObjectField}.match(${filterExpression.left}, ${filterExpression.right})) {
         return;
         }
     </#list>
 </#if>
 
+org.apache.skywalking.oap.server.core.analysis.worker.MetricsPreAggregator preAggregator = org.apache.skywalking.oap.server.core.analysis.worker.MetricsPreAggregator.getInstance();
+if (preAggregator.isActive()) {
+org.apache.skywalking.oap.server.core.analysis.worker.MetricsPreAggregationTable table = preAggregator.table();
+synchronized (table) {
+${metricsClassPackage}${metricsName}Metrics row = (${metricsClassPackage}${metricsName}Metrics) table.borrow("${metricsName}");
+if (row == null) {
+row = new ${metricsClassPackage}${metricsName}Metrics();
+}
+row.setTimeBucket(source.getTimeBucket());
+<#list fieldsFromSource as field>
+    row.${field.fieldSetter}(source.${field.fieldGetter}());
+</#list>
+row = (${metricsClassPackage}${metricsName}Metrics) table.merge("${metricsName}", row);
+row.${entryMethod.methodName}(<@entryArgs/>);
+}
+return;
+}
+
 ${metricsClassPackage}${metricsName}Metrics metrics = new ${metricsClassPackage}${metricsName}Metrics();
 metrics.setTimeBucket(source.getTimeBucket());
 <#list fieldsFromSource as field>
     metrics.${field.fieldSetter}(source.${field.fieldGetter}());
 </#list>
-metrics.${entryMethod.methodName}(
-<#list entryMethod.argsExpressions as arg>
-    <#if entryMethod.argTypes[arg_index] < 3>
-        ${arg}
-    <#else>
-        new ${arg.expressionObject}().match(${arg.left}, ${arg.right})
-    </#if><#if arg_has_next>, </#if>
-</#list>);
+metrics.${entryMethod.methodName}(<@entryArgs/>);
 
 org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor.getInstance().in(metrics);
 }
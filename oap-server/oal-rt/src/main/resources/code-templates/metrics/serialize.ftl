@@ -17,7 +17,7 @@ org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builder remot
 </#list>
 
 <#list serializeFields.objectFields as field>
-    remoteBuilder.addDataObjectStrings(${field.getter}().toStorageData());
+    remoteBuilder.addDataObjectBinaries(${field.getter}().toByteString());
 </#list>
 
 return remoteBuilder;
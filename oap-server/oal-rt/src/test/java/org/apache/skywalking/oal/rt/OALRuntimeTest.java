@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oal.rt;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.skywalking.oap.server.core.analysis.NodeType;
+import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.expression.BooleanMatch;
+import org.apache.skywalking.oap.server.core.analysis.metrics.expression.NotEqualMatch;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsPreAggregator;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.oal.rt.OALDefine;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.source.Endpoint;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilderFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Compile the dispatcher of a real OAL script through the templates, and dispatch the sources with and without the
+ * metrics pre-aggregation.
+ */
+public class OALRuntimeTest {
+    private static final long TIME_BUCKET = 202110181200L;
+
+    private static Class<?> DISPATCHER_CLASS;
+
+    private final List<Metrics> received = new ArrayList<>();
+    private MetricsStreamProcessor originalProcessor;
+    private SourceDispatcher<Endpoint> dispatcher;
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        AnnotationScan scopeScan = new AnnotationScan();
+        scopeScan.registerListener(new DefaultScopeDefine.Listener());
+        scopeScan.scan();
+
+        List<Class> dispatcherClasses = new ArrayList<>();
+        OALRuntime runtime = new OALRuntime(new TestOALDefine());
+        runtime.setStorageBuilderFactory(new StorageBuilderFactory.Default());
+        runtime.setStreamListener(mock(StreamAnnotationListener.class));
+        runtime.setDispatcherListener(dispatcherClasses::add);
+        runtime.start(OALRuntimeTest.class.getClassLoader());
+        runtime.notifyAllListeners();
+
+        Assert.assertEquals(1, dispatcherClasses.size());
+        DISPATCHER_CLASS = dispatcherClasses.get(0);
+    }
+
+    @AfterClass
+    public static void clear() {
+        DefaultScopeDefine.reset();
+    }
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        originalProcessor = MetricsStreamProcessor.getInstance();
+        MetricsStreamProcessor processor = spy(originalProcessor);
+        doAnswer(invocation -> received.add(invocation.getArgument(0))).when(processor).in(any(Metrics.class));
+        Whitebox.setInternalState(MetricsStreamProcessor.class, "PROCESSOR", processor);
+
+        dispatcher = (SourceDispatcher<Endpoint>) DISPATCHER_CLASS.newInstance();
+    }
+
+    @After
+    public void tearDown() {
+        MetricsPreAggregator.getInstance().shutdown();
+        Whitebox.setInternalState(MetricsStreamProcessor.class, "PROCESSOR", originalProcessor);
+    }
+
+    @Test
+    public void testMatchersAreSingletons() {
+        Set<Class<?>> matcherTypes = new HashSet<>();
+        for (Field field : DISPATCHER_CLASS.getDeclaredFields()) {
+            Assert.assertTrue(Modifier.isStatic(field.getModifiers()));
+            Assert.assertTrue(Modifier.isFinal(field.getModifiers()));
+            matcherTypes.add(field.getType());
+        }
+        Assert.assertEquals(2, matcherTypes.size());
+        Assert.assertTrue(matcherTypes.contains(NotEqualMatch.class));
+        Assert.assertTrue(matcherTypes.contains(BooleanMatch.class));
+    }
+
+    @Test
+    public void testDispatchWithoutPreAggregation() {
+        dispatcher.dispatch(endpoint("/hello", true));
+        dispatcher.dispatch(endpoint("/ignored", false));
+
+        Assert.assertEquals(1, count(CountMetrics.class));
+        Assert.assertEquals(2, count(PercentMetrics.class));
+        Assert.assertEquals(1, first(CountMetrics.class).getValue());
+    }
+
+    @Test
+    public void testDispatchWithPreAggregation() {
+        MetricsPreAggregator.getInstance().start(3600_000L, 100);
+        dispatcher.dispatch(endpoint("/hello", true));
+        dispatcher.dispatch(endpoint("/hello", true));
+        dispatcher.dispatch(endpoint("/hello", false));
+        dispatcher.dispatch(endpoint("/ignored", false));
+        Assert.assertTrue(received.isEmpty());
+
+        // The merged rows are flushed at the shutdown.
+        MetricsPreAggregator.getInstance().shutdown();
+        Assert.assertEquals(1, count(CountMetrics.class));
+        Assert.assertEquals(3, first(CountMetrics.class).getValue());
+        // The ignored endpoint is another entity of the metric without filter.
+        Assert.assertEquals(2, count(PercentMetrics.class));
+        long total = 0;
+        long match = 0;
+        for (Metrics metrics : received) {
+            if (metrics instanceof PercentMetrics) {
+                total += ((PercentMetrics) metrics).getTotal();
+                match += ((PercentMetrics) metrics).getMatch();
+            }
+        }
+        Assert.assertEquals(4, total);
+        Assert.assertEquals(2, match);
+    }
+
+    private static Endpoint endpoint(String name, boolean status) {
+        Endpoint endpoint = new Endpoint();
+        endpoint.setName(name);
+        endpoint.setServiceName("service");
+        endpoint.setServiceNodeType(NodeType.Normal);
+        endpoint.setStatus(status);
+        endpoint.setTimeBucket(TIME_BUCKET);
+        endpoint.prepare();
+        return endpoint;
+    }
+
+    private long count(Class<? extends Metrics> type) {
+        return received.stream().filter(type::isInstance).count();
+    }
+
+    private <T extends Metrics> T first(Class<T> type) {
+        return received.stream().filter(type::isInstance).map(type::cast).findFirst().orElse(null);
+    }
+
+    private static class TestOALDefine extends OALDefine {
+        private TestOALDefine() {
+            super("oal/oal-rt-test.oal", "org.apache.skywalking.oap.server.core.source", "org.apache.skywalking.oal.rt.test");
+        }
+    }
+}
@@ -59,6 +59,56 @@ public class CoreModuleConfig extends ModuleConfig {
      * The threshold of session time. Unit is ms. Default value is 70s.
      */
     private long storageSessionTimeout = 70_000;
+    /**
+     * Use the lock-free MPSC ring buffer in the L1 and L2 aggregation workers, instead of the ArrayBlockingQueue.
+     *
+     * @since 8.7.0
+     */
+    private boolean enableMetricsRingBuffer = false;
+    /**
+     * How the L1 and L2 aggregation consumer threads wait when there is nothing to consume. Options are SLEEPING,
+     * PARKING, BLOCKING, YIELDING and BUSY_SPIN. PARKING and BLOCKING require {@link #enableMetricsRingBuffer}.
+     *
+     * @since 8.7.0
+     */
+    private String metricsConsumerWaitStrategy = "SLEEPING";
+    /**
+     * Keep the L2 aggregation session cache in the direct memory rather than the heap. The metrics are kept serialized,
+     * and bounded by {@link #metricsSessionCacheMaxMemoryInMB}.
+     *
+     * @since 8.7.0
+     */
+    private boolean enableOffHeapMetricsSessionCache = false;
+    /**
+     * The max number of the cached metrics in the heap session cache of every metrics. The least recently accessed ones
+     * are evicted beyond this limit. Non-positive value means unlimited, which is the default, as same as the previous
+     * releases.
+     *
+     * @since 8.7.0
+     */
+    private int metricsSessionCacheMaxSize = 0;
+    /**
+     * The max size(MB) of the direct memory shared by the off-heap session caches of all metrics. The least recently
+     * accessed metrics of a cache are evicted when it requires more. It counts towards -XX:MaxDirectMemorySize.
+     * Non-positive value means unlimited.
+     *
+     * @since 8.7.0
+     */
+    private int metricsSessionCacheMaxMemoryInMB = 256;
+    /**
+     * The flush period of the pre-aggregation in the OAL dispatchers. Unit is ms. When positive, the dispatchers merge
+     * the sources of the same metric, entity and time bucket before the L1 aggregation, and only the merged metrics are
+     * sent to L1. Non-positive value means the pre-aggregation is disabled.
+     *
+     * @since 8.7.0
+     */
+    private long metricsPreAggregationPeriod = 0;
+    /**
+     * The max number of the merged metrics in every pre-aggregation table, the table is flushed to L1 once reached.
+     *
+     * @since 8.7.0
+     */
+    private int metricsPreAggregationMaxSize = 10_000;
     private final List<String> downsampling;
     /**
      * The period of doing data persistence. Unit is second.
@@ -88,6 +138,33 @@ public class CoreModuleConfig extends ModuleConfig {
      */
 
     private int remoteTimeout = 20;
+    /**
+     * The gRPC message compression of the cluster internal communication, such as gzip. Empty means no compression.
+     *
+     * @since 8.7.0
+     */
+    private String remoteCompression = "";
+    /**
+     * How to deal with the data to other OAP nodes, when the queue is full because of the slow peers. BLOCK makes the
+     * L1 aggregation wait, DROP abandons the data.
+     *
+     * @since 8.7.0
+     */
+    private String remoteBufferOverflowPolicy = "BLOCK";
+    /**
+     * How to route the metrics to the L2 aggregation OAP nodes. HASH_CODE is the modulo of the hash code, most of the
+     * metrics move to another node when the cluster scales. CONSISTENT_HASH uses a hash ring with virtual nodes, only
+     * about 1/N of the metrics move.
+     *
+     * @since 8.7.0
+     */
+    private String remoteHashSelector = "HASH_CODE";
+    /**
+     * The number of virtual nodes per OAP node on the hash ring, works with the CONSISTENT_HASH remote hash selector.
+     *
+     * @since 8.7.0
+     */
+    private int remoteHashVirtualNodes = 160;
     /**
      * The size of network address alias.
      */
@@ -162,6 +239,16 @@ public class CoreModuleConfig extends ModuleConfig {
     @Getter
     private int prepareThreads = 2;
 
+    /**
+     * The max number of the concurrent batch executions to the storage. The next round of every metrics starts after
+     * the execution stage of its current round.
+     *
+     * @since 8.7.0
+     */
+    @Setter
+    @Getter
+    private int flushThreads = 2;
+
     @Getter
     @Setter
     private boolean enableEndpointNameGroupingByOpenapi = true;
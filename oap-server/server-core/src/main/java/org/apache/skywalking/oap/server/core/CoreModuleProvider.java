@@ -18,10 +18,14 @@
 
 package org.apache.skywalking.oap.server.core;
 
+import com.google.common.base.Strings;
+import io.grpc.CompressorRegistry;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
 import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
 import org.apache.skywalking.oap.server.configuration.api.DynamicConfigurationService;
 import org.apache.skywalking.oap.server.core.analysis.ApdexThresholdConfig;
@@ -30,6 +34,7 @@ import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 import org.apache.skywalking.oap.server.core.analysis.metrics.ApdexMetrics;
 import org.apache.skywalking.oap.server.core.analysis.worker.ManagementStreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsPreAggregator;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
 import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
@@ -71,6 +76,8 @@ import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.client.Address;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.remote.health.HealthCheckServiceHandler;
+import org.apache.skywalking.oap.server.core.remote.selector.ConsistentHashSelector;
+import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegister;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegisterImpl;
 import org.apache.skywalking.oap.server.core.server.JettyHandlerRegister;
@@ -284,6 +291,27 @@ public class CoreModuleProvider extends ModuleProvider {
         } else {
             this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteTimeout());
         }
+        if (!Strings.isNullOrEmpty(moduleConfig.getRemoteCompression())
+            && CompressorRegistry.getDefaultInstance().lookupCompressor(moduleConfig.getRemoteCompression()) == null) {
+            throw new ModuleStartException("Unsupported remote compression: " + moduleConfig.getRemoteCompression());
+        }
+        this.remoteClientManager.setRemoteCompression(moduleConfig.getRemoteCompression());
+        if ("BLOCK".equalsIgnoreCase(moduleConfig.getRemoteBufferOverflowPolicy())) {
+            this.remoteClientManager.setRemoteBufferStrategy(BufferStrategy.BLOCKING);
+        } else if ("DROP".equalsIgnoreCase(moduleConfig.getRemoteBufferOverflowPolicy())) {
+            this.remoteClientManager.setRemoteBufferStrategy(BufferStrategy.IF_POSSIBLE);
+        } else {
+            throw new ModuleStartException(
+                "Unsupported remote buffer overflow policy: " + moduleConfig.getRemoteBufferOverflowPolicy());
+        }
+        if ("HASH_CODE".equalsIgnoreCase(moduleConfig.getRemoteHashSelector())) {
+            this.remoteClientManager.setHashSelector(new HashCodeSelector());
+        } else if ("CONSISTENT_HASH".equalsIgnoreCase(moduleConfig.getRemoteHashSelector())) {
+            this.remoteClientManager.setHashSelector(
+                new ConsistentHashSelector(moduleConfig.getRemoteHashVirtualNodes()));
+        } else {
+            throw new ModuleStartException("Unsupported remote hash selector: " + moduleConfig.getRemoteHashSelector());
+        }
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
         // Management
@@ -294,6 +322,16 @@ public class CoreModuleProvider extends ModuleProvider {
         metricsStreamProcessor.setEnableDatabaseSession(moduleConfig.isEnableDatabaseSession());
         metricsStreamProcessor.setL1FlushPeriod(moduleConfig.getL1FlushPeriod());
         metricsStreamProcessor.setStorageSessionTimeout(moduleConfig.getStorageSessionTimeout());
+        metricsStreamProcessor.setEnableMetricsRingBuffer(moduleConfig.isEnableMetricsRingBuffer());
+        try {
+            metricsStreamProcessor.setMetricsConsumerWaitStrategy(
+                WaitStrategyType.fromName(moduleConfig.getMetricsConsumerWaitStrategy()));
+        } catch (IllegalArgumentException e) {
+            throw new ModuleStartException("Invalid metricsConsumerWaitStrategy. " + e.getMessage(), e);
+        }
+        metricsStreamProcessor.setEnableOffHeapMetricsSessionCache(moduleConfig.isEnableOffHeapMetricsSessionCache());
+        metricsStreamProcessor.setMetricsSessionCacheMaxSize(moduleConfig.getMetricsSessionCacheMaxSize());
+        metricsStreamProcessor.setMetricsSessionCacheMaxMemoryInMB(moduleConfig.getMetricsSessionCacheMaxMemoryInMB());
         TopNStreamProcessor.getInstance().setTopNWorkerReportCycle(moduleConfig.getTopNReportPeriod());
         apdexThresholdConfig = new ApdexThresholdConfig(this);
         ApdexMetrics.setDICT(apdexThresholdConfig);
@@ -314,6 +352,8 @@ public class CoreModuleProvider extends ModuleProvider {
         } catch (IOException | IllegalAccessException | InstantiationException | StorageException e) {
             throw new ModuleStartException(e.getMessage(), e);
         }
+        MetricsPreAggregator.getInstance().start(
+            moduleConfig.getMetricsPreAggregationPeriod(), moduleConfig.getMetricsPreAggregationMaxSize());
 
         Address gRPCServerInstanceAddress = new Address(moduleConfig.getGRPCHost(), moduleConfig.getGRPCPort(), true);
         TelemetryRelatedContext.INSTANCE.setId(gRPCServerInstanceAddress.toString());
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+
+/**
+ * HeapMetricsSessionCache keeps the metrics instances in the heap, ordered by the last access time. When the number of
+ * the cached metrics exceeds the {@link #maxSize}, the least recently accessed one is evicted.
+ *
+ * As all sessions share the same timeout, the least recently accessed sessions are always the first ones to expire, so
+ * {@link #removeExpired(long, long)} stops at the first alive session rather than scanning the whole cache.
+ */
+public class HeapMetricsSessionCache implements MetricsSessionCache {
+    private final LinkedHashMap<Metrics, Session> sessions;
+    /**
+     * The max number of the cached metrics. Non-positive value means unlimited.
+     */
+    private final int maxSize;
+    private final CounterMetrics evictionCounter;
+
+    public HeapMetricsSessionCache(int maxSize, CounterMetrics evictionCounter) {
+        this.maxSize = maxSize;
+        this.evictionCounter = evictionCounter;
+        this.sessions = new LinkedHashMap<Metrics, Session>(100, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Metrics, Session> eldest) {
+                if (HeapMetricsSessionCache.this.maxSize > 0 && size() > HeapMetricsSessionCache.this.maxSize) {
+                    HeapMetricsSessionCache.this.evictionCounter.inc();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Metrics get(final Metrics metrics) {
+        Session session = sessions.get(metrics);
+        if (session == null) {
+            return null;
+        }
+        session.lastAccessTimestamp = System.currentTimeMillis();
+        return session.metrics;
+    }
+
+    @Override
+    public boolean containsKey(final Metrics metrics) {
+        return sessions.containsKey(metrics);
+    }
+
+    @Override
+    public void put(final Metrics metrics) {
+        sessions.put(metrics, new Session(metrics, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void clear() {
+        sessions.clear();
+    }
+
+    @Override
+    public void removeExpired(final long timestamp, final long sessionTimeout) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (timestamp - iterator.next().lastAccessTimestamp <= sessionTimeout) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+
+    @AllArgsConstructor
+    private static class Session {
+        private final Metrics metrics;
+        private long lastAccessTimestamp;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * MetricsSessionCache holds the metrics read from or written into the database by the L2 aggregation, in order to avoid
+ * reading them again in the next rounds of persistence. The ID of the metrics is declared through {@link
+ * Object#hashCode()} and {@link Object#equals(Object)}, same as the L1/L2 aggregation.
+ *
+ * The implementations are not thread safe, as the cache is only accessed by the persistent thread of one {@link
+ * org.apache.skywalking.oap.server.core.analysis.worker.MetricsPersistentWorker}.
+ */
+public interface MetricsSessionCache {
+    /**
+     * @param metrics the key of the cached metrics.
+     * @return the cached metrics having the same ID as the given one, or null if absent. The returned instance is not
+     * guaranteed to be the cached one, so the changes on it should be written back through {@link #put(Metrics)}.
+     */
+    Metrics get(Metrics metrics);
+
+    /**
+     * @return true if the metrics having the same ID exists in the cache.
+     */
+    boolean containsKey(Metrics metrics);
+
+    /**
+     * Put the metrics into the cache, replace the existing one with the same ID. It also refreshes the last access time
+     * of the session.
+     */
+    void put(Metrics metrics);
+
+    /**
+     * Remove all cached metrics.
+     */
+    void clear();
+
+    /**
+     * Remove the metrics which have not been accessed in the last {@code sessionTimeout} milliseconds.
+     *
+     * @param timestamp      of current time
+     * @param sessionTimeout represents the duration between last access time and the time point removing from cache.
+     */
+    void removeExpired(long timestamp, long sessionTimeout);
+
+    /**
+     * @return the number of cached metrics.
+     */
+    int size();
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OffHeapMemoryBudget bounds the direct memory allocated by all the {@link OffHeapMetricsSessionCache}s sharing it, so
+ * the total doesn't grow with the number of the metrics.
+ */
+public class OffHeapMemoryBudget {
+    /**
+     * The max bytes of the direct memory. Non-positive value means unlimited.
+     */
+    private final long maxBytes;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    public OffHeapMemoryBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return true if the bytes are acquired from the budget, which must be {@link #release(long)}d once the memory is
+     * dropped.
+     */
+    boolean tryAcquire(final long bytes) {
+        if (maxBytes <= 0) {
+            allocatedBytes.addAndGet(bytes);
+            return true;
+        }
+        while (true) {
+            final long allocated = allocatedBytes.get();
+            if (allocated + bytes > maxBytes) {
+                return false;
+            }
+            if (allocatedBytes.compareAndSet(allocated, allocated + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    void release(final long bytes) {
+        allocatedBytes.addAndGet(-bytes);
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+}
@@ -0,0 +1,550 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+
+/**
+ * OffHeapMetricsSessionCache keeps the serialized metrics in the direct memory, to reduce the heap occupation and the
+ * GC pressure of the L2 aggregation when there are huge amount of metrics. The metrics are serialized through the same
+ * {@link RemoteData} used by the cluster communication, and rebuilt at {@link #get(Metrics)}. So, the changes on the
+ * returned instance must be written back through {@link #put(Metrics)}.
+ *
+ * The ID and the serialized metrics are stored together in a block of an arena, which is made of direct memory chunks
+ * allocated on demand. The chunks and the blocks are sized in the powers of 2, and managed as a buddy system. A block
+ * is split from a larger free one when there is no free block of its size, and a freed block is merged with its free
+ * buddy, so the free memory doesn't stay fragmented in the sizes no longer required. The free blocks of a size are kept
+ * in a doubly linked list written in the blocks themselves.
+ * <p>
+ * The chunks of all caches are bounded by one shared {@link OffHeapMemoryBudget}. When the budget is used up, the least
+ * recently accessed metrics of this cache are evicted to free the blocks instead. The chunks left entirely free after
+ * {@link #removeExpired(long, long)} are given back to the budget. The index and the access order of the metrics are
+ * kept in the primitive arrays, so there is no heap object per cached metrics.
+ */
+public class OffHeapMetricsSessionCache implements MetricsSessionCache {
+    private static final int NIL = -1;
+    private static final int MIN_BLOCK_SHIFT = 6;
+    private static final int MAX_BLOCK_SHIFT = 20;
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_SIZE = 1 << MAX_BLOCK_SHIFT;
+    private static final int PREV_OFFSET = 0;
+    private static final int NEXT_OFFSET = 8;
+
+    private final OffHeapMemoryBudget budget;
+    private final CounterMetrics evictionCounter;
+
+    /**
+     * The chunks indexed by the high 32 bits of the block addresses, null if given back to the budget.
+     */
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    /**
+     * The free blocks of every chunk, one bit set per size, indexed by the offset of the block >> the size shift.
+     */
+    private final List<BitSet[]> freeMaps = new ArrayList<>();
+    private final IntStack releasedChunks = new IntStack();
+    private long allocatedBytes;
+    private int maxChunkShift;
+    /**
+     * The first free block of every size, {@link #NIL} if none.
+     */
+    private final long[] freeHeads = new long[MAX_BLOCK_SHIFT - MIN_BLOCK_SHIFT + 1];
+    private long usedBytes;
+
+    /**
+     * The cached metrics are stored in the slots, the arrays below are indexed by the slot.
+     */
+    private long[] slotAddresses = new long[16];
+    private int[] slotHashes = new int[16];
+    private int[] slotKeyLengths = new int[16];
+    private int[] slotValueLengths = new int[16];
+    private byte[] slotBlockShifts = new byte[16];
+    private long[] slotLastAccessTimestamps = new long[16];
+    /**
+     * The doubly linked list of the slots in the access order, from the least recently accessed {@link #head}.
+     */
+    private int[] slotPrevs = new int[16];
+    private int[] slotNexts = new int[16];
+    private int head = NIL;
+    private int tail = NIL;
+    private int slotCount;
+    private final IntStack freeSlots = new IntStack();
+
+    /**
+     * The open addressing table with linear probing, from the hash of the ID to the slot + 1. 0 means empty.
+     */
+    private int[] table = new int[32];
+    private int size;
+
+    public OffHeapMetricsSessionCache(OffHeapMemoryBudget budget, CounterMetrics evictionCounter) {
+        this.budget = budget;
+        this.evictionCounter = evictionCounter;
+        Arrays.fill(freeHeads, NIL);
+    }
+
+    /**
+     * @param maxBytes the max bytes of the direct memory of this cache only. Non-positive value means unlimited.
+     */
+    public OffHeapMetricsSessionCache(long maxBytes, CounterMetrics evictionCounter) {
+        this(new OffHeapMemoryBudget(maxBytes), evictionCounter);
+    }
+
+    @Override
+    public Metrics get(final Metrics metrics) {
+        final int index = indexOf(key(metrics));
+        if (index == NIL) {
+            return null;
+        }
+        final int slot = table[index] - 1;
+        slotLastAccessTimestamps[slot] = System.currentTimeMillis();
+        unlink(slot);
+        linkLast(slot);
+
+        final ByteBuffer data = chunks.get(chunkOf(slotAddresses[slot])).duplicate();
+        final int position = offsetOf(slotAddresses[slot]) + slotKeyLengths[slot];
+        data.limit(position + slotValueLengths[slot]).position(position);
+        try {
+            final Metrics cached = metrics.getClass().getDeclaredConstructor().newInstance();
+            cached.deserialize(RemoteData.parseFrom(data));
+            return cached;
+        } catch (Exception e) {
+            throw new UnexpectedException("Failed to restore the cached metrics " + metrics.id(), e);
+        }
+    }
+
+    @Override
+    public boolean containsKey(final Metrics metrics) {
+        return indexOf(key(metrics)) != NIL;
+    }
+
+    @Override
+    public void put(final Metrics metrics) {
+        final byte[] key = key(metrics);
+        final int existing = indexOf(key);
+        if (existing != NIL) {
+            removeAt(existing);
+        }
+
+        final byte[] value = metrics.serialize().build().toByteArray();
+        final int blockShift = blockShift(key.length + value.length);
+        if (blockShift > MAX_BLOCK_SHIFT || budget.maxBytes() > 0 && 1L << blockShift > budget.maxBytes()) {
+            // Too large to be cached, it would be loaded from the storage again when required.
+            evictionCounter.inc();
+            return;
+        }
+        final long address = allocate(blockShift);
+        if (address == NIL) {
+            evictionCounter.inc();
+            return;
+        }
+        final ByteBuffer block = chunks.get(chunkOf(address)).duplicate();
+        block.position(offsetOf(address));
+        block.put(key).put(value);
+        usedBytes += 1L << blockShift;
+
+        final int slot = newSlot();
+        slotAddresses[slot] = address;
+        slotHashes[slot] = hash(key);
+        slotKeyLengths[slot] = key.length;
+        slotValueLengths[slot] = value.length;
+        slotBlockShifts[slot] = (byte) blockShift;
+        slotLastAccessTimestamps[slot] = System.currentTimeMillis();
+        linkLast(slot);
+        insert(slot);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        head = NIL;
+        tail = NIL;
+        slotCount = 0;
+        freeSlots.clear();
+        // The chunks are kept for the next round, as the cache is cleared in every round without the database session.
+        Arrays.fill(freeHeads, NIL);
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            if (chunks.get(chunk) != null) {
+                for (BitSet freeMap : freeMaps.get(chunk)) {
+                    freeMap.clear();
+                }
+                pushFree((long) chunk << 32, rootShift(chunk));
+            }
+        }
+        usedBytes = 0;
+    }
+
+    @Override
+    public void removeExpired(final long timestamp, final long sessionTimeout) {
+        while (head != NIL && timestamp - slotLastAccessTimestamps[head] > sessionTimeout) {
+            removeAt(indexOfSlot(head));
+        }
+        releaseFreeChunks();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the size of the blocks holding the cached metrics.
+     */
+    public long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return the size of the direct memory chunks held by the cache.
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private static byte[] key(final Metrics metrics) {
+        return metrics.id().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int hash(final byte[] key) {
+        final int h = Arrays.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static int blockShift(final int length) {
+        final int shift = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1);
+        return Math.max(shift, MIN_BLOCK_SHIFT);
+    }
+
+    private static int chunkOf(final long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(final long address) {
+        return (int) address;
+    }
+
+    /**
+     * @return the block of the given size, split from the smallest free block large enough, or {@link #NIL} if none of
+     * the chunks could hold it. The least recently accessed metrics are evicted when the budget has been used up.
+     */
+    private long allocate(final int blockShift) {
+        while (true) {
+            for (int shift = blockShift; shift <= MAX_BLOCK_SHIFT; shift++) {
+                final long address = freeHeads[shift - MIN_BLOCK_SHIFT];
+                if (address != NIL) {
+                    removeFree(address, shift);
+                    // Keep the upper halves free, until the block is of the required size.
+                    while (shift > blockShift) {
+                        shift--;
+                        pushFree(address + (1L << shift), shift);
+                    }
+                    return address;
+                }
+            }
+            if (newChunk(blockShift)) {
+                continue;
+            }
+            if (head == NIL || maxChunkShift < blockShift) {
+                // Evicting wouldn't free a block large enough.
+                return NIL;
+            }
+            removeAt(indexOfSlot(head));
+            evictionCounter.inc();
+        }
+    }
+
+    /**
+     * Free the block, merged with its buddy as long as the buddy is free too.
+     */
+    private void free(final long address, int shift) {
+        final int chunk = chunkOf(address);
+        final int rootShift = rootShift(chunk);
+        int offset = offsetOf(address);
+        while (shift < rootShift) {
+            final int buddy = offset ^ (1 << shift);
+            if (!freeMaps.get(chunk)[shift - MIN_BLOCK_SHIFT].get(buddy >>> shift)) {
+                break;
+            }
+            removeFree((long) chunk << 32 | buddy, shift);
+            offset = Math.min(offset, buddy);
+            shift++;
+        }
+        pushFree((long) chunk << 32 | offset, shift);
+    }
+
+    /**
+     * Allocate a chunk, as large as the budget allows, in the powers of 2 from the size of the chunks held up to
+     * {@link #MAX_CHUNK_SIZE}, and at least of the block size.
+     *
+     * @return false if the budget can't afford the block size.
+     */
+    private boolean newChunk(final int blockShift) {
+        int shift = Math.max(blockShift, 63 - Long.numberOfLeadingZeros(Math.max(MIN_CHUNK_SIZE, allocatedBytes)));
+        shift = Math.min(shift, MAX_BLOCK_SHIFT);
+        while (!budget.tryAcquire(1L << shift)) {
+            if (--shift < blockShift) {
+                return false;
+            }
+        }
+        final int chunk;
+        final BitSet[] freeMap = new BitSet[shift - MIN_BLOCK_SHIFT + 1];
+        for (int i = 0; i < freeMap.length; i++) {
+            freeMap[i] = new BitSet(1 << (shift - MIN_BLOCK_SHIFT - i));
+        }
+        if (releasedChunks.isEmpty()) {
+            chunk = chunks.size();
+            chunks.add(ByteBuffer.allocateDirect(1 << shift));
+            freeMaps.add(freeMap);
+        } else {
+            chunk = releasedChunks.pop();
+            chunks.set(chunk, ByteBuffer.allocateDirect(1 << shift));
+            freeMaps.set(chunk, freeMap);
+        }
+        allocatedBytes += 1L << shift;
+        maxChunkShift = Math.max(maxChunkShift, shift);
+        pushFree((long) chunk << 32, shift);
+        return true;
+    }
+
+    /**
+     * Give the chunks entirely free back to the budget, so the other caches could use the memory.
+     */
+    private void releaseFreeChunks() {
+        maxChunkShift = 0;
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            final ByteBuffer buffer = chunks.get(chunk);
+            if (buffer == null) {
+                continue;
+            }
+            final int rootShift = rootShift(chunk);
+            if (freeMaps.get(chunk)[rootShift - MIN_BLOCK_SHIFT].get(0)) {
+                removeFree((long) chunk << 32, rootShift);
+                chunks.set(chunk, null);
+                freeMaps.set(chunk, null);
+                releasedChunks.push(chunk);
+                allocatedBytes -= buffer.capacity();
+                budget.release(buffer.capacity());
+            } else {
+                maxChunkShift = Math.max(maxChunkShift, rootShift);
+            }
+        }
+    }
+
+    private int rootShift(final int chunk) {
+        return Integer.numberOfTrailingZeros(chunks.get(chunk).capacity());
+    }
+
+    private void pushFree(final long address, final int shift) {
+        final int level = shift - MIN_BLOCK_SHIFT;
+        final long next = freeHeads[level];
+        freeMaps.get(chunkOf(address))[level].set(offsetOf(address) >>> shift);
+        writeLink(address, PREV_OFFSET, NIL);
+        writeLink(address, NEXT_OFFSET, next);
+        if (next != NIL) {
+            writeLink(next, PREV_OFFSET, address);
+        }
+        freeHeads[level] = address;
+    }
+
+    private void removeFree(final long address, final int shift) {
+        final int level = shift - MIN_BLOCK_SHIFT;
+        freeMaps.get(chunkOf(address))[level].clear(offsetOf(address) >>> shift);
+        final long prev = readLink(address, PREV_OFFSET);
+        final long next = readLink(address, NEXT_OFFSET);
+        if (prev == NIL) {
+            freeHeads[level] = next;
+        } else {
+            writeLink(prev, NEXT_OFFSET, next);
+        }
+        if (next != NIL) {
+            writeLink(next, PREV_OFFSET, prev);
+        }
+    }
+
+    private long readLink(final long address, final int linkOffset) {
+        return chunks.get(chunkOf(address)).getLong(offsetOf(address) + linkOffset);
+    }
+
+    private void writeLink(final long address, final int linkOffset, final long link) {
+        chunks.get(chunkOf(address)).putLong(offsetOf(address) + linkOffset, link);
+    }
+
+    private int newSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == slotAddresses.length) {
+            final int capacity = slotCount << 1;
+            slotAddresses = Arrays.copyOf(slotAddresses, capacity);
+            slotHashes = Arrays.copyOf(slotHashes, capacity);
+            slotKeyLengths = Arrays.copyOf(slotKeyLengths, capacity);
+            slotValueLengths = Arrays.copyOf(slotValueLengths, capacity);
+            slotBlockShifts = Arrays.copyOf(slotBlockShifts, capacity);
+            slotLastAccessTimestamps = Arrays.copyOf(slotLastAccessTimestamps, capacity);
+            slotPrevs = Arrays.copyOf(slotPrevs, capacity);
+            slotNexts = Arrays.copyOf(slotNexts, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void linkLast(final int slot) {
+        slotPrevs[slot] = tail;
+        slotNexts[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            slotNexts[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(final int slot) {
+        final int prev = slotPrevs[slot];
+        final int next = slotNexts[slot];
+        if (prev == NIL) {
+            head = next;
+        } else {
+            slotNexts[prev] = next;
+        }
+        if (next == NIL) {
+            tail = prev;
+        } else {
+            slotPrevs[next] = prev;
+        }
+    }
+
+    private boolean keyEquals(final int slot, final byte[] key) {
+        if (slotKeyLengths[slot] != key.length) {
+            return false;
+        }
+        final ByteBuffer chunk = chunks.get(chunkOf(slotAddresses[slot]));
+        final int offset = offsetOf(slotAddresses[slot]);
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the table holding the metrics of the key, or {@link #NIL} if absent.
+     */
+    private int indexOf(final byte[] key) {
+        final int hash = hash(key);
+        final int mask = table.length - 1;
+        for (int index = hash & mask; table[index] != 0; index = (index + 1) & mask) {
+            final int slot = table[index] - 1;
+            if (slotHashes[slot] == hash && keyEquals(slot, key)) {
+                return index;
+            }
+        }
+        return NIL;
+    }
+
+    private int indexOfSlot(final int slot) {
+        final int mask = table.length - 1;
+        int index = slotHashes[slot] & mask;
+        while (table[index] != slot + 1) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void insert(final int slot) {
+        if ((size + 1) << 1 > table.length) {
+            final int[] old = table;
+            table = new int[old.length << 1];
+            for (int entry : old) {
+                if (entry != 0) {
+                    place(entry);
+                }
+            }
+        }
+        place(slot + 1);
+        size++;
+    }
+
+    private void place(final int entry) {
+        final int mask = table.length - 1;
+        int index = slotHashes[entry - 1] & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = entry;
+    }
+
+    /**
+     * Remove the metrics at the index of the table, and free its block and slot.
+     */
+    private void removeAt(int index) {
+        final int slot = table[index] - 1;
+        unlink(slot);
+        final int blockShift = slotBlockShifts[slot];
+        free(slotAddresses[slot], blockShift);
+        usedBytes -= 1L << blockShift;
+        freeSlots.push(slot);
+        size--;
+
+        // Shift the following entries of the probe sequence back, so no tombstone is required.
+        final int mask = table.length - 1;
+        table[index] = 0;
+        for (int next = (index + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            final int home = slotHashes[table[next] - 1] & mask;
+            final boolean movable = index <= next ? home <= index || home > next : home <= index && home > next;
+            if (movable) {
+                table[index] = table[next];
+                table[next] = 0;
+                index = next;
+            }
+        }
+    }
+
+    private static class IntStack {
+        private int[] elements = new int[16];
+        private int size;
+
+        void push(final int element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size << 1);
+            }
+            elements[size++] = element;
+        }
+
+        int pop() {
+            return elements[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
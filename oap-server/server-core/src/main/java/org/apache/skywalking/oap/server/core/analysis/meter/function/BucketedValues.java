@@ -23,6 +23,7 @@ import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.query.type.Bucket;
 import org.apache.skywalking.oap.server.core.query.type.HeatMap;
@@ -81,4 +82,11 @@ public class BucketedValues {
 
         return Arrays.equals(buckets, existedBuckets);
     }
+
+    /**
+     * @return true if the bucket is same.
+     */
+    public boolean isCompatible(BucketTable dataset) {
+        return dataset.keysEqual(buckets);
+    }
 }
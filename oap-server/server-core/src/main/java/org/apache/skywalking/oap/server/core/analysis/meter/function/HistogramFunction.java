@@ -28,9 +28,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
-import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
@@ -52,7 +51,7 @@ public abstract class HistogramFunction extends Metrics implements AcceptableVal
     @Getter
     @Setter
     @Column(columnName = DATASET, dataType = Column.ValueDataType.HISTOGRAM, storageOnly = true, defaultValue = 0)
-    private DataTable dataset = new DataTable(30);
+    private BucketTable dataset = new BucketTable(30);
 
     @Override
     public void accept(final MeterEntity entity, final BucketedValues value) {
@@ -67,10 +66,7 @@ public abstract class HistogramFunction extends Metrics implements AcceptableVal
 
         final long[] values = value.getValues();
         for (int i = 0; i < values.length; i++) {
-            final long bucket = value.getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            final long bucketValue = values[i];
-            dataset.valueAccumulation(bucketName, bucketValue);
+            dataset.valueAccumulation(value.getBuckets()[i], values[i]);
         }
     }
 
@@ -122,7 +118,7 @@ public abstract class HistogramFunction extends Metrics implements AcceptableVal
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
+        this.setDataset(new BucketTable(remoteData.getDataObjectBinaries(0)));
     }
 
     @Override
@@ -132,7 +128,7 @@ public abstract class HistogramFunction extends Metrics implements AcceptableVal
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(dataset.toStorageData());
+        remoteBuilder.addDataObjectBinaries(dataset.toByteString());
 
         return remoteBuilder;
     }
@@ -157,7 +153,7 @@ public abstract class HistogramFunction extends Metrics implements AcceptableVal
                     throw new UnexpectedException("createNew should not be called");
                 }
             };
-            metrics.setDataset(new DataTable((String) dbMap.get(DATASET)));
+            metrics.setDataset(new BucketTable((String) dbMap.get(DATASET)));
             metrics.setTimeBucket(((Number) dbMap.get(TIME_BUCKET)).longValue());
             metrics.setEntityId((String) dbMap.get(ENTITY_ID));
             return metrics;
@@ -20,7 +20,6 @@ package org.apache.skywalking.oap.server.core.analysis.meter.function;
 
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.IntStream;
@@ -31,12 +30,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MultiIntValuesHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
@@ -63,7 +62,7 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
     @Getter
     @Setter
     @Column(columnName = DATASET, storageOnly = true)
-    private DataTable dataset = new DataTable(30);
+    private BucketTable dataset = new BucketTable(30);
     /**
      * Rank
      */
@@ -112,10 +111,7 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
 
         final long[] values = value.getBucketedValues().getValues();
         for (int i = 0; i < values.length; i++) {
-            final long bucket = value.getBucketedValues().getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            final long bucketValue = values[i];
-            dataset.valueAccumulation(bucketName, bucketValue);
+            dataset.valueAccumulation(value.getBucketedValues().getBuckets()[i], values[i]);
         }
 
         this.isCalculated = false;
@@ -162,20 +158,15 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
                 roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
             }
 
-            int count = 0;
-            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
-
+            long count = 0;
             int loopIndex = 0;
-
-            for (String key : sortedKeys) {
-                final Long value = dataset.get(key);
-
-                count += value;
+            for (int i = 0; i < dataset.size(); i++) {
+                count += dataset.valueAt(i);
                 for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
                     int roof = roofs[rankIdx];
 
                     if (count >= roof) {
-                        percentileValues.put(String.valueOf(ranks.get(rankIdx)), Long.parseLong(key));
+                        percentileValues.put(String.valueOf(ranks.get(rankIdx)), dataset.keyAt(i));
                         loopIndex++;
                     } else {
                         break;
@@ -226,9 +217,9 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(1)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(2)));
+        this.setDataset(new BucketTable(remoteData.getDataObjectBinaries(0)));
+        this.setRanks(new IntList(remoteData.getDataObjectBinaries(1)));
+        this.setPercentileValues(new DataTable(remoteData.getDataObjectBinaries(2)));
     }
 
     @Override
@@ -238,9 +229,9 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(dataset.toStorageData());
-        remoteBuilder.addDataObjectStrings(ranks.toStorageData());
-        remoteBuilder.addDataObjectStrings(percentileValues.toStorageData());
+        remoteBuilder.addDataObjectBinaries(dataset.toByteString());
+        remoteBuilder.addDataObjectBinaries(ranks.toByteString());
+        remoteBuilder.addDataObjectBinaries(percentileValues.toByteString());
 
         return remoteBuilder;
     }
@@ -272,7 +263,7 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
                     throw new UnexpectedException("createNew should not be called");
                 }
             };
-            metrics.setDataset(new DataTable((String) dbMap.get(DATASET)));
+            metrics.setDataset(new BucketTable((String) dbMap.get(DATASET)));
             metrics.setRanks(new IntList((String) dbMap.get(RANKS)));
             metrics.setPercentileValues(new DataTable((String) dbMap.get(VALUE)));
             metrics.setTimeBucket(((Number) dbMap.get(TIME_BUCKET)).longValue());
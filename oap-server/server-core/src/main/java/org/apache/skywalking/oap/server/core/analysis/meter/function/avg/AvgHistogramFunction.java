@@ -147,9 +147,9 @@ public abstract class AvgHistogramFunction extends Metrics implements Acceptable
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(2)));
+        this.setCount(new DataTable(remoteData.getDataObjectBinaries(0)));
+        this.setSummation(new DataTable(remoteData.getDataObjectBinaries(1)));
+        this.setDataset(new DataTable(remoteData.getDataObjectBinaries(2)));
     }
 
     @Override
@@ -159,9 +159,9 @@ public abstract class AvgHistogramFunction extends Metrics implements Acceptable
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
-        remoteBuilder.addDataObjectStrings(dataset.toStorageData());
+        remoteBuilder.addDataObjectBinaries(count.toByteString());
+        remoteBuilder.addDataObjectBinaries(summation.toByteString());
+        remoteBuilder.addDataObjectBinaries(dataset.toByteString());
 
         return remoteBuilder;
     }
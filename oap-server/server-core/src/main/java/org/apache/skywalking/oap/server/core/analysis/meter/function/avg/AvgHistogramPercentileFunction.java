@@ -296,10 +296,10 @@ public abstract class AvgHistogramPercentileFunction extends Metrics implements
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(2)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(3)));
+        this.setSummation(new DataTable(remoteData.getDataObjectBinaries(0)));
+        this.setCount(new DataTable(remoteData.getDataObjectBinaries(1)));
+        this.setRanks(new IntList(remoteData.getDataObjectBinaries(2)));
+        this.setPercentileValues(new DataTable(remoteData.getDataObjectBinaries(3)));
     }
 
     @Override
@@ -309,10 +309,10 @@ public abstract class AvgHistogramPercentileFunction extends Metrics implements
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(ranks.toStorageData());
-        remoteBuilder.addDataObjectStrings(percentileValues.toStorageData());
+        remoteBuilder.addDataObjectBinaries(summation.toByteString());
+        remoteBuilder.addDataObjectBinaries(count.toByteString());
+        remoteBuilder.addDataObjectBinaries(ranks.toByteString());
+        remoteBuilder.addDataObjectBinaries(percentileValues.toByteString());
 
         return remoteBuilder;
     }
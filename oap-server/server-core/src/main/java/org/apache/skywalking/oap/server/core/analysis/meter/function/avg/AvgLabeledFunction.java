@@ -128,8 +128,8 @@ public abstract class AvgLabeledFunction extends Metrics implements AcceptableVa
 
     @Override
     public void deserialize(final RemoteData remoteData) {
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
+        this.setCount(new DataTable(remoteData.getDataObjectBinaries(0)));
+        this.setSummation(new DataTable(remoteData.getDataObjectBinaries(1)));
         setTimeBucket(remoteData.getDataLongs(0));
 
         this.entityId = remoteData.getDataStrings(0);
@@ -139,8 +139,8 @@ public abstract class AvgLabeledFunction extends Metrics implements AcceptableVa
     @Override
     public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
+        remoteBuilder.addDataObjectBinaries(count.toByteString());
+        remoteBuilder.addDataObjectBinaries(summation.toByteString());
         remoteBuilder.addDataLongs(getTimeBucket());
 
         remoteBuilder.addDataStrings(entityId);
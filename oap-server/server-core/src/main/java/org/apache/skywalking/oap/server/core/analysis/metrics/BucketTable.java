@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * BucketTable stores long values grouped by long bucket keys. Different from {@link DataTable}, the keys and values
+ * are kept in two primitive arrays sorted by key, so accumulation neither boxes the value nor formats the key as a
+ * string, and the buckets could be read in order without sorting.
+ * <p>
+ * The storage format is the same as {@link DataTable}, {@link Long#MIN_VALUE} is written as {@link
+ * Bucket#INFINITE_NEGATIVE}. The data persisted by either of them could be read by the other one.
+ */
+public class BucketTable implements StorageDataComplexObject<BucketTable> {
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    public BucketTable() {
+        this(16);
+    }
+
+    public BucketTable(int initialCapacity) {
+        keys = new long[initialCapacity];
+        values = new long[initialCapacity];
+    }
+
+    public BucketTable(String data) {
+        this();
+        toObject(data);
+    }
+
+    public BucketTable(ByteString data) {
+        this();
+        toObject(data);
+    }
+
+    /**
+     * @return the value of the given key, or 0 if the key doesn't exist.
+     */
+    public long get(long key) {
+        final int index = indexOf(key);
+        return index >= 0 ? values[index] : 0L;
+    }
+
+    public boolean hasKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void put(long key, long value) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+        } else {
+            insert(-(index + 1), key, value);
+        }
+    }
+
+    /**
+     * Accumulate the value with existing value in the same given key.
+     */
+    public void valueAccumulation(long key, long value) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            values[index] += value;
+        } else {
+            insert(-(index + 1), key, value);
+        }
+    }
+
+    /**
+     * @return the sum of all values.
+     */
+    public long sumOfValues() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return the key at the given position, keys are in ascending order.
+     */
+    public long keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return the value of the key at the given position.
+     */
+    public long valueAt(int index) {
+        return values[index];
+    }
+
+    public long[] sortedKeys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    public long[] sortedValues() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @return true if this table includes exactly the given keys, which must be in ascending order.
+     */
+    public boolean keysEqual(long[] thatKeys) {
+        if (size != thatKeys.length) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != thatKeys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean keysEqual(BucketTable that) {
+        if (size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != that.keys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasData() {
+        return size > 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public BucketTable append(BucketTable that) {
+        if (keysEqual(that)) {
+            for (int i = 0; i < size; i++) {
+                values[i] += that.values[i];
+            }
+        } else {
+            for (int i = 0; i < that.size; i++) {
+                valueAccumulation(that.keys[i], that.values[i]);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public String toStorageData() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                builder.append(Const.ARRAY_SPLIT);
+            }
+            if (keys[i] == Long.MIN_VALUE) {
+                builder.append(Bucket.INFINITE_NEGATIVE);
+            } else {
+                builder.append(keys[i]);
+            }
+            builder.append(Const.KEY_VALUE_SPLIT).append(values[i]);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void toObject(String data) {
+        String[] keyValues = data.split(Const.ARRAY_PARSER_SPLIT);
+        for (String keyValue : keyValues) {
+            final String[] keyValuePair = keyValue.split(Const.KEY_VALUE_SPLIT);
+            if (keyValuePair.length == 2) {
+                final long key = Bucket.INFINITE_NEGATIVE.equals(keyValuePair[0])
+                    ? Long.MIN_VALUE : Long.parseLong(keyValuePair[0]);
+                put(key, Long.parseLong(keyValuePair[1]));
+            }
+        }
+    }
+
+    /**
+     * The binary format is the number of entries, followed by the pairs of the key delta to the previous key and the
+     * zigzag varint value. The keys are sorted, so the deltas are small positive numbers in most cases.
+     */
+    @Override
+    public ByteString toByteString() {
+        final ByteString.Output output = ByteString.newOutput();
+        final CodedOutputStream stream = CodedOutputStream.newInstance(output);
+        try {
+            stream.writeUInt32NoTag(size);
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                stream.writeUInt64NoTag(keys[i] - previous);
+                stream.writeSInt64NoTag(values[i]);
+                previous = keys[i];
+            }
+            stream.flush();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        return output.toByteString();
+    }
+
+    @Override
+    public void toObject(ByteString data) {
+        final CodedInputStream stream = data.newCodedInput();
+        try {
+            final int count = stream.readUInt32();
+            long key = 0;
+            for (int i = 0; i < count; i++) {
+                key += stream.readUInt64();
+                put(key, stream.readSInt64());
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void copyFrom(final BucketTable source) {
+        this.append(source);
+    }
+
+    private int indexOf(long key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, long key, long value) {
+        if (size == keys.length) {
+            final int capacity = Math.max(keys.length << 1, 8);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        if (index < size) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BucketTable)) {
+            return false;
+        }
+        final BucketTable that = (BucketTable) o;
+        if (!keysEqual(that)) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (values[i] != that.values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Long.hashCode(keys[i]);
+            result = 31 * result + Long.hashCode(values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BucketTable(" + toStorageData() + ")";
+    }
+}
@@ -42,7 +42,7 @@ public abstract class HistogramMetrics extends Metrics {
     @Getter
     @Setter
     @Column(columnName = DATASET, dataType = Column.ValueDataType.HISTOGRAM, storageOnly = true, defaultValue = 0)
-    private DataTable dataset = new DataTable(30);
+    private BucketTable dataset = new BucketTable(30);
 
     /**
      * Data will be grouped in
@@ -60,8 +60,7 @@ public abstract class HistogramMetrics extends Metrics {
     public final void combine(@SourceFrom int value, @Arg int step, @Arg int maxNumOfSteps) {
         if (!dataset.hasData()) {
             for (int i = 0; i <= maxNumOfSteps; i++) {
-                String key = String.valueOf(i * step);
-                dataset.put(key, 0L);
+                dataset.put((long) i * step, 0L);
             }
         }
 
@@ -69,9 +68,7 @@ public abstract class HistogramMetrics extends Metrics {
         if (index > maxNumOfSteps) {
             index = maxNumOfSteps;
         }
-        String idx = String.valueOf(index * step);
-
-        dataset.valueAccumulation(idx, 1L);
+        dataset.valueAccumulation((long) index * step, 1L);
     }
 
     @Override
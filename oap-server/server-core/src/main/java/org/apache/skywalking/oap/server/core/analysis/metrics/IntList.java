@@ -18,11 +18,16 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 
 /**
@@ -41,6 +46,10 @@ public class IntList implements StorageDataComplexObject<IntList> {
         toObject(valueString);
     }
 
+    public IntList(ByteString valueBinary) {
+        toObject(valueBinary);
+    }
+
     public int size() {
         return data.size();
     }
@@ -72,6 +81,39 @@ public class IntList implements StorageDataComplexObject<IntList> {
         }
     }
 
+    /**
+     * The binary format is the number of elements, followed by the packed zigzag varint elements.
+     */
+    @Override
+    public ByteString toByteString() {
+        final ByteString.Output output = ByteString.newOutput();
+        final CodedOutputStream stream = CodedOutputStream.newInstance(output);
+        try {
+            stream.writeUInt32NoTag(data.size());
+            for (final Integer element : data) {
+                stream.writeSInt32NoTag(element);
+            }
+            stream.flush();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        return output.toByteString();
+    }
+
+    @Override
+    public void toObject(final ByteString data) {
+        final CodedInputStream stream = data.newCodedInput();
+        try {
+            final int size = stream.readUInt32();
+            this.data = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                this.data.add(stream.readSInt32());
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public void copyFrom(final IntList source) {
         this.data.addAll(source.data);
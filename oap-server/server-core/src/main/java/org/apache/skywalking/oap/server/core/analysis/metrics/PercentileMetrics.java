@@ -19,7 +19,6 @@
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
 import java.util.Comparator;
-import java.util.List;
 import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
@@ -58,13 +57,13 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
     @Getter
     @Setter
     @Column(columnName = DATASET, storageOnly = true)
-    private DataTable dataset;
+    private BucketTable dataset;
 
     private boolean isCalculated;
 
     public PercentileMetrics() {
         percentileValues = new DataTable(RANKS.length);
-        dataset = new DataTable(30);
+        dataset = new BucketTable(30);
     }
 
     @Entrance
@@ -72,8 +71,7 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
         this.isCalculated = false;
         this.precision = precision;
 
-        String index = String.valueOf(value / precision);
-        dataset.valueAccumulation(index, 1L);
+        dataset.valueAccumulation(value / precision, 1L);
     }
 
     @Override
@@ -95,19 +93,15 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
                 roofs[i] = Math.round(total * RANKS[i] * 1.0f / 100);
             }
 
-            int count = 0;
-            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
-
+            long count = 0;
             int loopIndex = 0;
-            for (String key : sortedKeys) {
-                final Long value = dataset.get(key);
-
-                count += value;
+            for (int i = 0; i < dataset.size(); i++) {
+                count += dataset.valueAt(i);
                 for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
                     int roof = roofs[rankIdx];
 
                     if (count >= roof) {
-                        percentileValues.put(String.valueOf(rankIdx), Long.parseLong(key) * precision);
+                        percentileValues.put(String.valueOf(rankIdx), dataset.keyAt(i) * precision);
                         loopIndex++;
                     } else {
                         break;
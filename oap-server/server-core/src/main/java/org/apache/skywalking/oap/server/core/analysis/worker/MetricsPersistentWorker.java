@@ -22,18 +22,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerPoolFactory;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.data.MetricsSessionCache;
 import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
@@ -57,8 +59,9 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
      */
     private static long SESSION_TIMEOUT_OFFSITE_COUNTER = 0;
 
+    @Getter
     private final Model model;
-    private final Map<Metrics, Metrics> context;
+    private final MetricsSessionCache context;
     private final IMetricsDAO metricsDAO;
     private final Optional<AbstractWorker<Metrics>> nextAlarmWorker;
     private final Optional<AbstractWorker<ExportEvent>> nextExportWorker;
@@ -68,6 +71,8 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     private final boolean supportUpdate;
     private long sessionTimeout;
     private CounterMetrics aggregationCounter;
+    private CounterMetrics sessionCacheHitCounter;
+    private CounterMetrics sessionCacheMissCounter;
     /**
      * The counter for the round of persistent.
      */
@@ -82,10 +87,11 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
                             AbstractWorker<Metrics> nextAlarmWorker, AbstractWorker<ExportEvent> nextExportWorker,
                             MetricsTransWorker transWorker, boolean enableDatabaseSession, boolean supportUpdate,
-                            long storageSessionTimeout) {
+                            long storageSessionTimeout, BufferStrategy bufferStrategy,
+                            WaitStrategyType waitStrategy, MetricsSessionCache sessionCache) {
         super(moduleDefineHolder, new ReadWriteSafeCache<>(new MergableBufferedData(), new MergableBufferedData()));
         this.model = model;
-        this.context = new HashMap<>(100);
+        this.context = sessionCache;
         this.enableDatabaseSession = enableDatabaseSession;
         this.metricsDAO = metricsDAO;
         this.nextAlarmWorker = Optional.ofNullable(nextAlarmWorker);
@@ -101,14 +107,15 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         if (size == 0) {
             size = 1;
         }
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20);
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20, waitStrategy);
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
             throw new UnexpectedException(e.getMessage(), e);
         }
 
-        this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, 2000);
+        this.dataCarrier = new DataCarrier<>(
+            "MetricsPersistentWorker." + model.getName(), name, 1, 2000, bufferStrategy);
         this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer());
 
         MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
@@ -119,6 +126,16 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
             new MetricsTag.Keys("metricName", "level", "dimensionality"),
             new MetricsTag.Values(model.getName(), "2", model.getDownsampling().getName())
         );
+        sessionCacheHitCounter = metricsCreator.createCounter(
+            "metrics_session_cache_hit", "The number of metrics found in the session cache",
+            new MetricsTag.Keys("metricName", "level", "dimensionality"),
+            new MetricsTag.Values(model.getName(), "2", model.getDownsampling().getName())
+        );
+        sessionCacheMissCounter = metricsCreator.createCounter(
+            "metrics_session_cache_miss", "The number of metrics not found in the session cache",
+            new MetricsTag.Keys("metricName", "level", "dimensionality"),
+            new MetricsTag.Values(model.getName(), "2", model.getDownsampling().getName())
+        );
         SESSION_TIMEOUT_OFFSITE_COUNTER++;
     }
 
@@ -126,10 +143,12 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
      * Create the leaf and down-sampling MetricsPersistentWorker, no next step.
      */
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
-                            boolean enableDatabaseSession, boolean supportUpdate, long storageSessionTimeout) {
+                            boolean enableDatabaseSession, boolean supportUpdate, long storageSessionTimeout,
+                            BufferStrategy bufferStrategy, WaitStrategyType waitStrategy,
+                            MetricsSessionCache sessionCache) {
         this(moduleDefineHolder, model, metricsDAO,
              null, null, null,
-             enableDatabaseSession, supportUpdate, storageSessionTimeout
+             enableDatabaseSession, supportUpdate, storageSessionTimeout, bufferStrategy, waitStrategy, sessionCache
         );
         // For a down-sampling metrics, we prolong the session timeout for 4 times, nearly 5 minutes.
         // And add offset according to worker creation sequence, to avoid context clear overlap,
@@ -192,11 +211,15 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     private void flushDataToStorage(List<Metrics> metricsList,
                                     List<PrepareRequest> prepareRequests) {
         try {
-            loadFromStorage(metricsList);
+            /*
+             * The metrics of this batch found in the cache or the storage are pinned here until all requests are built,
+             * as the bounded session cache could evict them at any put.
+             */
+            final Map<Metrics, Metrics> batchContext = loadFromStorage(metricsList);
 
             long timestamp = System.currentTimeMillis();
             for (Metrics metrics : metricsList) {
-                Metrics cachedMetrics = context.get(metrics);
+                Metrics cachedMetrics = batchContext.get(metrics);
                 if (cachedMetrics != null) {
                     /*
                      * If the metrics is not supportUpdate, defined through MetricsExtension#supportUpdate,
@@ -229,6 +252,12 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
                 nextExportWorker.ifPresent(exportEvenWorker -> exportEvenWorker.in(
                     new ExportEvent(metrics, ExportEvent.EventType.INCREMENT)));
             }
+
+            /*
+             * Write the batch back to the session cache only after the requests are built. The session cache may not
+             * hold the instances themselves, such as the off-heap one, and may evict some of them from now on.
+             */
+            batchContext.values().forEach(context::put);
         } catch (Throwable t) {
             log.error(t.getMessage(), t);
         } finally {
@@ -244,14 +273,28 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
     /**
      * Load data from the storage, if {@link #enableDatabaseSession} == true, only load data when the id doesn't exist.
+     *
+     * @return the existing metrics of the given ones, found in the session cache or loaded from the storage, keyed by
+     * themselves.
      */
-    private void loadFromStorage(List<Metrics> metrics) {
+    private Map<Metrics, Metrics> loadFromStorage(List<Metrics> metrics) {
+        final Map<Metrics, Metrics> batchContext = new HashMap<>(metrics.size());
         try {
-            List<Metrics> notInCacheMetrics = metrics.stream()
-                                                     .filter(m -> !context.containsKey(m) || !enableDatabaseSession)
-                                                     .collect(Collectors.toList());
+            List<Metrics> notInCacheMetrics = new ArrayList<>(enableDatabaseSession ? 0 : metrics.size());
+            for (Metrics m : metrics) {
+                final Metrics cachedMetrics = enableDatabaseSession ? context.get(m) : null;
+                if (cachedMetrics != null) {
+                    batchContext.put(cachedMetrics, cachedMetrics);
+                } else {
+                    notInCacheMetrics.add(m);
+                }
+            }
+            if (enableDatabaseSession) {
+                sessionCacheMissCounter.inc(notInCacheMetrics.size());
+                sessionCacheHitCounter.inc(metrics.size() - notInCacheMetrics.size());
+            }
             if (notInCacheMetrics.isEmpty()) {
-                return;
+                return batchContext;
             }
 
             final List<Metrics> dbMetrics = metricsDAO.multiGet(model, notInCacheMetrics);
@@ -259,24 +302,17 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
                 // Clear the cache only after results from DB are returned successfully.
                 context.clear();
             }
-            dbMetrics.forEach(m -> context.put(m, m));
+            dbMetrics.forEach(m -> batchContext.put(m, m));
         } catch (final Exception e) {
             log.error("Failed to load metrics for merging", e);
         }
+        return batchContext;
     }
 
     @Override
     public void endOfRound() {
         if (enableDatabaseSession) {
-            Iterator<Metrics> iterator = context.values().iterator();
-            long timestamp = System.currentTimeMillis();
-            while (iterator.hasNext()) {
-                Metrics metrics = iterator.next();
-
-                if (metrics.isExpired(timestamp, sessionTimeout)) {
-                    iterator.remove();
-                }
-            }
+            context.removeExpired(System.currentTimeMillis(), sessionTimeout);
         }
     }
 
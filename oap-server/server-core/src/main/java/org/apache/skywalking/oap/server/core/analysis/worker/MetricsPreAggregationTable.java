@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * One stripe of {@link MetricsPreAggregator}. The rows are keyed by the metrics themselves, as the generated {@link
+ * Metrics#equals(Object)} compares the class(the OAL metric), the entity ID columns and the time bucket.
+ *
+ * The OAL dispatchers hold the monitor of this table while borrowing a scratch, filling it with the source, and
+ * merging. A scratch which hits an existing row is kept for the next source of the same metric, so the sources of a hot
+ * entity don't allocate any metrics object.
+ */
+public class MetricsPreAggregationTable {
+    private final int maxSize;
+    private final Consumer<Metrics> downstream;
+    private Map<Metrics, Metrics> rows = new HashMap<>();
+    private final Map<String, Metrics> scratches = new HashMap<>();
+
+    /**
+     * @param maxSize    the max number of the rows, the rows are flushed to the downstream once reached.
+     * @param downstream accepts the merged rows.
+     */
+    public MetricsPreAggregationTable(int maxSize, Consumer<Metrics> downstream) {
+        this.maxSize = maxSize;
+        this.downstream = downstream;
+    }
+
+    /**
+     * The caller should hold the monitor of this table.
+     *
+     * @return the scratch metrics of the OAL metric, or null if there is none.
+     */
+    public Metrics borrow(String metricsName) {
+        return scratches.remove(metricsName);
+    }
+
+    /**
+     * Find the row of the scratch metrics, whose time bucket and source columns are set, but its entrance method is not
+     * called yet. The caller should hold the monitor of this table, and call the entrance method on the returned row.
+     *
+     * @return the existing row, then the scratch is kept for the next borrowing, or the scratch itself as a new row.
+     */
+    public Metrics merge(String metricsName, Metrics scratch) {
+        final Metrics existing = rows.get(scratch);
+        if (existing != null) {
+            scratches.put(metricsName, scratch);
+            return existing;
+        }
+        if (rows.size() >= maxSize) {
+            rows.values().forEach(downstream);
+            rows.clear();
+        }
+        rows.put(scratch, scratch);
+        return scratch;
+    }
+
+    /**
+     * Hand all the merged rows to the downstream.
+     */
+    public void flush() {
+        final List<Metrics> flushed;
+        synchronized (this) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            flushed = new ArrayList<>(rows.values());
+            rows.clear();
+        }
+        flushed.forEach(downstream);
+    }
+
+    synchronized int size() {
+        return rows.size();
+    }
+}
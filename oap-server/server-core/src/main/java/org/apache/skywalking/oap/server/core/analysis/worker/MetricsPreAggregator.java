@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * MetricsPreAggregator merges the metrics of the OAL dispatchers before {@link MetricsStreamProcessor#in(Metrics)}, when
+ * CoreModuleConfig#metricsPreAggregationPeriod is positive. The dispatchers merge the sources into the {@link
+ * MetricsPreAggregationTable} striped by the thread ID, and only the merged rows are sent to the L1 aggregation, every
+ * period or once a table is full, rather than one metrics object per source. The tables are flushed once more at the
+ * JVM shutdown, as a best effort, the rows would be lost anyway if the L1 aggregation can't persist them in time.
+ */
+@Slf4j
+public class MetricsPreAggregator {
+    private static final MetricsPreAggregator INSTANCE = new MetricsPreAggregator();
+
+    private volatile boolean active = false;
+    private MetricsPreAggregationTable[] tables;
+    private ScheduledExecutorService flushExecutor;
+
+    public static MetricsPreAggregator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param period  the flush period of the tables. Unit is ms. Non-positive means the pre-aggregation is disabled.
+     * @param maxSize the max number of the rows of every table.
+     */
+    public synchronized void start(long period, int maxSize) {
+        if (period <= 0 || active) {
+            return;
+        }
+        final MetricsStreamProcessor processor = MetricsStreamProcessor.getInstance();
+        tables = new MetricsPreAggregationTable[Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new MetricsPreAggregationTable(maxSize, processor::in);
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("MetricsPreAggregator-%d").build());
+        flushExecutor.scheduleWithFixedDelay(
+            new RunnableWithExceptionProtection(
+                this::flush, t -> log.error("Metrics pre-aggregation flush failure.", t)), period, period,
+            TimeUnit.MILLISECONDS
+        );
+        active = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "MetricsPreAggregatorShutdown"));
+        log.info("Metrics pre-aggregation is active, {} tables flushed every {}ms", tables.length, period);
+    }
+
+    /**
+     * Stop the pre-aggregation, the following sources go to the L1 aggregation directly, and the merged rows are
+     * flushed.
+     */
+    public synchronized void shutdown() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return the table of the current thread.
+     */
+    public MetricsPreAggregationTable table() {
+        return tables[(int) (Thread.currentThread().getId() % tables.length)];
+    }
+
+    private void flush() {
+        for (final MetricsPreAggregationTable table : tables) {
+            table.flush();
+        }
+    }
+}
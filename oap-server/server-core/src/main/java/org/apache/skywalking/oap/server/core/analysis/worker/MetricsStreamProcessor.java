@@ -25,6 +25,8 @@ import java.util.List;
 import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.DownSampling;
@@ -32,6 +34,10 @@ import org.apache.skywalking.oap.server.core.analysis.MetricsExtension;
 import org.apache.skywalking.oap.server.core.analysis.Stream;
 import org.apache.skywalking.oap.server.core.analysis.StreamDefinition;
 import org.apache.skywalking.oap.server.core.analysis.StreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.data.HeapMetricsSessionCache;
+import org.apache.skywalking.oap.server.core.analysis.data.MetricsSessionCache;
+import org.apache.skywalking.oap.server.core.analysis.data.OffHeapMemoryBudget;
+import org.apache.skywalking.oap.server.core.analysis.data.OffHeapMetricsSessionCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.config.DownSamplingConfigService;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
@@ -45,6 +51,10 @@ import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * MetricsStreamProcessor represents the entrance and creator of the metrics streaming aggregation work flow.
@@ -87,6 +97,35 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
      */
     @Setter
     private long storageSessionTimeout = 70_000;
+    /**
+     * Hold and forward CoreModuleConfig#enableMetricsRingBuffer to the L1 and L2 workers.
+     */
+    @Setter
+    private boolean enableMetricsRingBuffer = false;
+    /**
+     * Hold and forward CoreModuleConfig#metricsConsumerWaitStrategy to the L1 and L2 workers.
+     */
+    @Setter
+    private WaitStrategyType metricsConsumerWaitStrategy = WaitStrategyType.SLEEPING;
+    /**
+     * Hold and forward CoreModuleConfig#enableOffHeapMetricsSessionCache to the persistent worker.
+     */
+    @Setter
+    private boolean enableOffHeapMetricsSessionCache = false;
+    /**
+     * Hold and forward CoreModuleConfig#metricsSessionCacheMaxSize to the persistent worker.
+     */
+    @Setter
+    private int metricsSessionCacheMaxSize = 0;
+    /**
+     * Hold and forward CoreModuleConfig#metricsSessionCacheMaxMemoryInMB to the persistent worker.
+     */
+    @Setter
+    private int metricsSessionCacheMaxMemoryInMB = 256;
+    /**
+     * Shared by the off-heap session caches of all persistent workers, created along with the first one.
+     */
+    private OffHeapMemoryBudget offHeapMemoryBudget;
 
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
@@ -183,7 +222,9 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         MetricsRemoteWorker remoteWorker = new MetricsRemoteWorker(moduleDefineHolder, remoteReceiverWorkerName);
         MetricsAggregateWorker aggregateWorker = new MetricsAggregateWorker(
-            moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod);
+            moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod, metricsBufferStrategy(),
+            metricsConsumerWaitStrategy
+        );
 
         entryWorkers.put(metricsClass, aggregateWorker);
     }
@@ -198,7 +239,8 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(
             moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, enableDatabaseSession,
-            supportUpdate, storageSessionTimeout
+            supportUpdate, storageSessionTimeout, metricsBufferStrategy(), metricsConsumerWaitStrategy,
+            metricsSessionCache(moduleDefineHolder, model)
         );
         persistentWorkers.add(minutePersistentWorker);
 
@@ -210,9 +252,33 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                        Model model,
                                                        boolean supportUpdate) {
         MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(
-            moduleDefineHolder, model, metricsDAO, enableDatabaseSession, supportUpdate, storageSessionTimeout);
+            moduleDefineHolder, model, metricsDAO, enableDatabaseSession, supportUpdate, storageSessionTimeout,
+            metricsBufferStrategy(), metricsConsumerWaitStrategy, metricsSessionCache(moduleDefineHolder, model)
+        );
         persistentWorkers.add(persistentWorker);
 
         return persistentWorker;
     }
+
+    private BufferStrategy metricsBufferStrategy() {
+        return enableMetricsRingBuffer ? BufferStrategy.RING_BLOCKING : BufferStrategy.BLOCKING;
+    }
+
+    private MetricsSessionCache metricsSessionCache(ModuleDefineHolder moduleDefineHolder, Model model) {
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        CounterMetrics evictionCounter = metricsCreator.createCounter(
+            "metrics_session_cache_eviction", "The number of metrics evicted from the session cache due to the limit",
+            new MetricsTag.Keys("metricName", "level", "dimensionality"),
+            new MetricsTag.Values(model.getName(), "2", model.getDownsampling().getName())
+        );
+        if (enableOffHeapMetricsSessionCache) {
+            if (offHeapMemoryBudget == null) {
+                offHeapMemoryBudget = new OffHeapMemoryBudget(metricsSessionCacheMaxMemoryInMB * 1024L * 1024L);
+            }
+            return new OffHeapMetricsSessionCache(offHeapMemoryBudget, evictionCounter);
+        }
+        return new HeapMetricsSessionCache(metricsSessionCacheMaxSize, evictionCounter);
+    }
 }
@@ -24,7 +24,6 @@ import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.selector.ForeverFirstSelector;
-import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.RollingSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.Selector;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -40,13 +39,11 @@ public class RemoteSenderService implements Service {
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSenderService.class);
 
     private final ModuleManager moduleManager;
-    private final HashCodeSelector hashCodeSelector;
     private final ForeverFirstSelector foreverFirstSelector;
     private final RollingSelector rollingSelector;
 
     public RemoteSenderService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
-        this.hashCodeSelector = new HashCodeSelector();
         this.foreverFirstSelector = new ForeverFirstSelector();
         this.rollingSelector = new RollingSelector();
     }
@@ -72,7 +69,7 @@ public class RemoteSenderService implements Service {
         }
         switch (selector) {
             case HashCode:
-                remoteClient = hashCodeSelector.select(clientList, streamData);
+                remoteClient = clientManager.getHashSelector().select(clientList, streamData);
                 break;
             case Rolling:
                 remoteClient = rollingSelector.select(clientList, streamData);
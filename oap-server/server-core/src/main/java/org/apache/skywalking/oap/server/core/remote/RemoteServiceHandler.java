@@ -110,29 +110,20 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
         return new StreamObserver<RemoteMessage>() {
             @Override
             public void onNext(RemoteMessage message) {
-                remoteInCounter.inc();
                 HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
                 try {
-                    String nextWorkerName = message.getNextWorkerName();
-                    RemoteData remoteData = message.getRemoteData();
+                    final RemoteHandleWorker handleWorker;
+                    if (message.getNextWorkerId() != 0) {
+                        handleWorker = workerInstanceGetter.get(message.getNextWorkerId());
+                    } else {
+                        handleWorker = workerInstanceGetter.get(message.getNextWorkerName());
+                    }
 
-                    try {
-                        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
-                        if (handleWorker != null) {
-                            AbstractWorker nextWorker = handleWorker.getWorker();
-                            StreamData streamData = handleWorker.getStreamDataClass().newInstance();
-                            streamData.deserialize(remoteData);
-                            nextWorker.in(streamData);
-                        } else {
-                            remoteInTargetNotFoundCounter.inc();
-                            LOGGER.warn(
-                                "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
-                                nextWorkerName
-                            );
-                        }
-                    } catch (Throwable t) {
-                        remoteInErrorCounter.inc();
-                        LOGGER.error(t.getMessage(), t);
+                    if (message.hasRemoteData()) {
+                        handle(handleWorker, message, message.getRemoteData());
+                    }
+                    for (RemoteData remoteData : message.getBatchRemoteDataList()) {
+                        handle(handleWorker, message, remoteData);
                     }
                 } finally {
                     timer.finish();
@@ -151,4 +142,25 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
             }
         };
     }
+
+    private void handle(RemoteHandleWorker handleWorker, RemoteMessage message, RemoteData remoteData) {
+        remoteInCounter.inc();
+        try {
+            if (handleWorker != null) {
+                AbstractWorker nextWorker = handleWorker.getWorker();
+                StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+                streamData.deserialize(remoteData);
+                nextWorker.in(streamData);
+            } else {
+                remoteInTargetNotFoundCounter.inc();
+                LOGGER.warn(
+                    "Work name [{}] or ID [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
+                    message.getNextWorkerName(), message.getNextWorkerId()
+                );
+            }
+        } catch (Throwable t) {
+            remoteInErrorCounter.inc();
+            LOGGER.error(t.getMessage(), t);
+        }
+    }
 }
@@ -19,56 +19,94 @@
 package org.apache.skywalking.oap.server.core.remote.client;
 
 import io.grpc.ManagedChannel;
-import io.grpc.stub.StreamObserver;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.netty.handler.ssl.SslContext;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
- * buffering the message and sending the message by batch.
+ * buffering the message and sending the message by batch. The stream data of the same next worker are merged into one
+ * message, addressed by the worker ID rather than the name when possible.
+ *
+ * The messages are sent through a long-lived stream, which follows the gRPC flow control. The sending thread waits for
+ * the stream being ready rather than buffering in the gRPC transport, so a slow peer makes the queue full. Then the
+ * {@link BufferStrategy} decides to block the producers or drop the data.
  */
 @Slf4j
 public class GRPCRemoteClient implements RemoteClient {
+    /**
+     * The max number of stream data merged into one message.
+     */
+    private static final int MAX_BATCH_SIZE = 200;
+
+    private final ModuleDefineHolder moduleDefineHolder;
     private final int channelSize;
     private final int bufferSize;
     private final Address address;
-    private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
     private SslContext sslContext;
     private GRPCClient client;
     private DataCarrier<RemoteMessage> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
+    private CounterMetrics remoteOutDropCounter;
+    private GaugeMetrics remoteOutQueueSizeGauge;
+    private HistogramMetrics remoteOutFlowControlHistogram;
     private int remoteTimeout;
+    /**
+     * The strategy when the queue is full, BLOCKING or IF_POSSIBLE(drop).
+     */
+    private final BufferStrategy bufferStrategy;
+    /**
+     * The stream in use, only accessed by the consumer thread.
+     */
+    private RemoteStream stream;
+    /**
+     * The gRPC message compression, such as gzip. Null or empty means no compression.
+     */
+    private final String compression;
+    private IWorkerInstanceGetter workerInstanceGetter;
 
     public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
                             final Address address,
                             final int channelSize,
                             final int bufferSize,
                             final int remoteTimeout,
-                            final SslContext sslContext) {
+                            final SslContext sslContext,
+                            final String compression,
+                            final BufferStrategy bufferStrategy) {
 
+        this.moduleDefineHolder = moduleDefineHolder;
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
         this.remoteTimeout = remoteTimeout;
         this.sslContext = sslContext;
+        this.compression = compression;
+        this.bufferStrategy = bufferStrategy;
 
         remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME)
                                              .provider()
@@ -90,6 +128,34 @@ public class GRPCRemoteClient implements RemoteClient {
                                                           address
                                                               .toString(), "N")
                                                   );
+        remoteOutDropCounter = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                 .provider()
+                                                 .getService(MetricsCreator.class)
+                                                 .createCounter(
+                                                     "remote_out_drop_count",
+                                                     "The number(client side) of inside remote data dropped due to the full queue "
+                                                         + "or the broken stream.",
+                                                     new MetricsTag.Keys("dest", "self"),
+                                                     new MetricsTag.Values(address.toString(), "N")
+                                                 );
+        remoteOutQueueSizeGauge = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                    .provider()
+                                                    .getService(MetricsCreator.class)
+                                                    .createGauge(
+                                                        "remote_out_queue_size",
+                                                        "The number(client side) of inside remote data waiting in the queue.",
+                                                        new MetricsTag.Keys("dest", "self"),
+                                                        new MetricsTag.Values(address.toString(), "N")
+                                                    );
+        remoteOutFlowControlHistogram = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class)
+                                                          .createHistogramMetric(
+                                                              "remote_out_flow_control_latency",
+                                                              "The latency(client side) of waiting for the peer to be ready.",
+                                                              new MetricsTag.Keys("dest", "self"),
+                                                              new MetricsTag.Values(address.toString(), "N")
+                                                          );
     }
 
     @Override
@@ -122,14 +188,28 @@ public class GRPCRemoteClient implements RemoteClient {
     }
 
     RemoteServiceGrpc.RemoteServiceStub getStub() {
-        return RemoteServiceGrpc.newStub(getChannel());
+        RemoteServiceGrpc.RemoteServiceStub stub = RemoteServiceGrpc.newStub(getChannel());
+        if (compression != null && !compression.isEmpty()) {
+            stub = stub.withCompression(compression);
+        }
+        return stub;
+    }
+
+    IWorkerInstanceGetter getWorkerInstanceGetter() {
+        if (Objects.isNull(workerInstanceGetter)) {
+            workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
+                                                     .provider()
+                                                     .getService(IWorkerInstanceGetter.class);
+        }
+        return workerInstanceGetter;
     }
 
     DataCarrier<RemoteMessage> getDataCarrier() {
         if (Objects.isNull(this.carrier)) {
             synchronized (GRPCRemoteClient.class) {
                 if (Objects.isNull(this.carrier)) {
-                    this.carrier = new DataCarrier<>("GRPCRemoteClient", channelSize, bufferSize);
+                    this.carrier = new DataCarrier<>(
+                        "GRPCRemoteClient", "GRPCRemoteClient", channelSize, bufferSize, bufferStrategy);
                 }
             }
         }
@@ -145,10 +225,19 @@ public class GRPCRemoteClient implements RemoteClient {
     @Override
     public void push(String nextWorkerName, StreamData streamData) {
         RemoteMessage.Builder builder = RemoteMessage.newBuilder();
-        builder.setNextWorkerName(nextWorkerName);
+        final int nextWorkerId = getWorkerInstanceGetter().getWorkerId(nextWorkerName);
+        if (nextWorkerId != 0) {
+            builder.setNextWorkerId(nextWorkerId);
+        } else {
+            builder.setNextWorkerName(nextWorkerName);
+        }
         builder.setRemoteData(streamData.serialize());
 
-        this.getDataCarrier().produce(builder.build());
+        remoteOutQueueSizeGauge.inc();
+        if (!this.getDataCarrier().produce(builder.build())) {
+            remoteOutQueueSizeGauge.dec();
+            remoteOutDropCounter.inc();
+        }
     }
 
     class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
@@ -158,19 +247,51 @@ public class GRPCRemoteClient implements RemoteClient {
 
         @Override
         public void consume(List<RemoteMessage> remoteMessages) {
+            remoteOutQueueSizeGauge.dec(remoteMessages.size());
+            int sent = 0;
             try {
-                StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
+                RemoteStream remoteStream = getStream();
+                // Merge the stream data of the same next worker, keyed by the worker ID or name.
+                Map<Object, RemoteMessage.Builder> batches = new LinkedHashMap<>();
                 for (RemoteMessage remoteMessage : remoteMessages) {
                     remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                    final Object nextWorker = remoteMessage.getNextWorkerId() != 0
+                        ? remoteMessage.getNextWorkerId() : remoteMessage.getNextWorkerName();
+                    RemoteMessage.Builder batch = batches.get(nextWorker);
+                    if (batch == null) {
+                        batch = RemoteMessage.newBuilder()
+                                             .setNextWorkerId(remoteMessage.getNextWorkerId())
+                                             .setNextWorkerName(remoteMessage.getNextWorkerName());
+                        batches.put(nextWorker, batch);
+                    }
+                    batch.addBatchRemoteData(remoteMessage.getRemoteData());
+                    if (batch.getBatchRemoteDataCount() >= MAX_BATCH_SIZE) {
+                        remoteStream.send(batch.build());
+                        sent += batch.getBatchRemoteDataCount();
+                        batches.remove(nextWorker);
+                    }
+                }
+                for (RemoteMessage.Builder batch : batches.values()) {
+                    remoteStream.send(batch.build());
+                    sent += batch.getBatchRemoteDataCount();
                 }
-                streamObserver.onCompleted();
             } catch (Throwable t) {
                 remoteOutErrorCounter.inc();
+                // The data not sent yet are lost, such as when the stream is terminated by an unhealthy peer.
+                remoteOutDropCounter.inc(remoteMessages.size() - sent);
                 log.error(t.getMessage(), t);
             }
         }
 
+        @Override
+        public void nothingToConsume() {
+            // Close the idle stream before the deadline, rather than being cancelled.
+            if (stream != null && stream.isExpired()) {
+                stream.complete();
+                stream = null;
+            }
+        }
+
         @Override
         public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
             log.error(t.getMessage(), t);
@@ -178,59 +299,97 @@ public class GRPCRemoteClient implements RemoteClient {
 
         @Override
         public void onExit() {
+            if (stream != null) {
+                stream.complete();
+                stream = null;
+            }
         }
     }
 
     /**
-     * Create a gRPC stream observer to sending stream data, one stream observer could send multiple stream data by a
-     * single consume. The max number of concurrency allowed at the same time is 10.
-     *
-     * @return stream observer
+     * Get the stream in use, or create a new one if it is terminated or is going to reach the deadline.
      */
-    private StreamObserver<RemoteMessage> createStreamObserver() {
-        int sleepTotalMillis = 0;
-        int sleepMillis = 10;
+    private RemoteStream getStream() {
+        if (stream != null && stream.isExpired()) {
+            stream.complete();
+            stream = null;
+        }
+        if (stream == null) {
+            RemoteStream remoteStream = new RemoteStream();
+            getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS).call(remoteStream);
+            stream = remoteStream;
+        }
+        return stream;
+    }
 
-        // Control the concurrency of gRPC streaming stub.
-        // If over 10 created and not finished/error, this blocks the method.
-        while (concurrentStreamObserverNumber.get() > 10) {
-            try {
-                Thread.sleep(sleepMillis);
-            } catch (InterruptedException e) {
-                log.error(e.getMessage(), e);
+    /**
+     * RemoteStream is a stream to the peer, which is reused by multiple consumes until it is close to the deadline.
+     */
+    private class RemoteStream implements ClientResponseObserver<RemoteMessage, Empty> {
+        private final long createTime = System.currentTimeMillis();
+        private ClientCallStreamObserver<RemoteMessage> requestStream;
+        private volatile boolean terminated = false;
+
+        @Override
+        public void beforeStart(final ClientCallStreamObserver<RemoteMessage> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(this::wakeUp);
+        }
+
+        /**
+         * Send the message when the stream is ready, otherwise wait for the ready signal of the flow control.
+         *
+         * @throws IllegalStateException if the stream is terminated before it is ready.
+         */
+        void send(RemoteMessage message) throws InterruptedException {
+            if (!requestStream.isReady()) {
+                try (HistogramMetrics.Timer ignored = remoteOutFlowControlHistogram.createTimer()) {
+                    synchronized (this) {
+                        while (!requestStream.isReady() && !terminated) {
+                            wait(100);
+                        }
+                    }
+                }
+            }
+            if (terminated) {
+                throw new IllegalStateException("Remote stream to " + address + " is terminated.");
             }
+            requestStream.onNext(message);
+        }
 
-            sleepTotalMillis += sleepMillis;
+        /**
+         * @return true if the stream is terminated, or it has been used for half of the timeout.
+         */
+        boolean isExpired() {
+            return terminated || System.currentTimeMillis() - createTime > TimeUnit.SECONDS.toMillis(remoteTimeout) / 2;
+        }
 
-            if (sleepTotalMillis > 60000) {
-                log.warn("Remote client [{}] block times over 60 seconds. Current streaming number {}",
-                         address, concurrentStreamObserverNumber.get()
-                );
-                // Reset sleepTotalMillis to avoid too many warn logs.
-                sleepTotalMillis = 0;
+        void complete() {
+            if (!terminated) {
+                requestStream.onCompleted();
             }
         }
 
-        final StreamObserver<RemoteMessage> remoteMessageStreamObserver
-            = getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS)
-                       .call(new StreamObserver<Empty>() {
-                           @Override
-                           public void onNext(Empty empty) {
-                           }
-
-                           @Override
-                           public void onError(Throwable throwable) {
-                               concurrentStreamObserverNumber.addAndGet(-1);
-                               log.error(throwable.getMessage(), throwable);
-                           }
-
-                           @Override
-                           public void onCompleted() {
-                               concurrentStreamObserverNumber.addAndGet(-1);
-                           }
-                       });
-        concurrentStreamObserverNumber.incrementAndGet();
-        return remoteMessageStreamObserver;
+        private synchronized void wakeUp() {
+            notifyAll();
+        }
+
+        @Override
+        public void onNext(final Empty empty) {
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            terminated = true;
+            wakeUp();
+            log.error(throwable.getMessage(), throwable);
+        }
+
+        @Override
+        public void onCompleted() {
+            terminated = true;
+            wakeUp();
+        }
     }
 
     @Override
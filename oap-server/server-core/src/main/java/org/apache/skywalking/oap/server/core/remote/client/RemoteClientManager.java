@@ -35,9 +35,12 @@ import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.oap.server.core.cluster.ClusterModule;
 import org.apache.skywalking.oap.server.core.cluster.ClusterNodesQuery;
 import org.apache.skywalking.oap.server.core.cluster.RemoteInstance;
+import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
+import org.apache.skywalking.oap.server.core.remote.selector.RemoteClientSelector;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.library.module.Service;
 import org.apache.skywalking.oap.server.library.server.grpc.ssl.DynamicSslContext;
@@ -62,6 +65,23 @@ public class RemoteClientManager implements Service {
     private volatile List<RemoteClient> usingClients;
     private GaugeMetrics gauge;
     private int remoteTimeout;
+    /**
+     * The gRPC message compression of the remote clients. Null or empty means no compression.
+     */
+    @Setter
+    private String remoteCompression;
+    /**
+     * The strategy of the remote clients when the queue is full, because of the slow peers.
+     */
+    @Setter
+    private BufferStrategy remoteBufferStrategy = BufferStrategy.BLOCKING;
+    /**
+     * The selector routes the data of {@link org.apache.skywalking.oap.server.core.remote.selector.Selector#HashCode}
+     * to the remote clients.
+     */
+    @Getter
+    @Setter
+    private RemoteClientSelector hashSelector = new HashCodeSelector();
 
     /**
      * Initial the manager for all remote communication clients.
@@ -232,7 +252,10 @@ public class RemoteClientManager implements Service {
                         newRemoteClients.add(client);
                     } else {
                         RemoteClient client;
-                        client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext);
+                        client = new GRPCRemoteClient(
+                            moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext, remoteCompression,
+                            remoteBufferStrategy
+                        );
                         client.connect();
                         newRemoteClients.add(client);
                     }
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+
+/**
+ * ConsistentHashSelector routes the data on a hash ring, every remote client owns several virtual nodes on it. Compared
+ * with {@link HashCodeSelector}, only about 1/N of the data changes its target OAP node when a node joins or leaves the
+ * cluster, so the L2 aggregation keeps most of its cached metrics warm during scaling.
+ *
+ * The ring is built once per client list, the list is immutable and replaced as a whole by the RemoteClientManager.
+ */
+public class ConsistentHashSelector implements RemoteClientSelector {
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final int virtualNodes;
+    private volatile Ring ring;
+
+    public ConsistentHashSelector() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashSelector(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive, but was " + virtualNodes);
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    @Override
+    public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
+        if (clients.size() == 1) {
+            return clients.get(0);
+        }
+        Ring current = ring;
+        if (current == null || current.clients != clients) {
+            current = new Ring(clients, virtualNodes);
+            ring = current;
+        }
+        return current.select(mix(streamData.remoteHashCode()));
+    }
+
+    /**
+     * The finalization mix of MurmurHash3, spreads the sequential or low-entropy hash codes over the whole ring.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static class Ring {
+        private final List<RemoteClient> clients;
+        private final int[] points;
+        private final RemoteClient[] owners;
+
+        private Ring(List<RemoteClient> clients, int virtualNodes) {
+            this.clients = clients;
+            long[] nodes = new long[clients.size() * virtualNodes];
+            int index = 0;
+            for (int i = 0; i < clients.size(); i++) {
+                String address = clients.get(i).getAddress().toString();
+                for (int v = 0; v < virtualNodes; v++) {
+                    int point = Hashing.murmur3_32()
+                                       .hashString(address + "#" + v, StandardCharsets.UTF_8)
+                                       .asInt();
+                    // Point in the high bits, client index in the low bits, sorting keeps the collided points stable.
+                    nodes[index++] = ((long) point << 32) | i;
+                }
+            }
+            Arrays.sort(nodes);
+            this.points = new int[nodes.length];
+            this.owners = new RemoteClient[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                points[i] = (int) (nodes[i] >> 32);
+                owners[i] = clients.get((int) nodes[i]);
+            }
+        }
+
+        private RemoteClient select(int hash) {
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                index = -index - 1;
+                if (index == points.length) {
+                    index = 0;
+                }
+            }
+            return owners[index];
+        }
+    }
+}
@@ -21,9 +21,13 @@ package org.apache.skywalking.oap.server.core.storage;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
@@ -31,6 +35,7 @@ import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.PersistenceWorker;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
@@ -40,16 +45,23 @@ import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
+/**
+ * PersistenceTimer drives the {@link PersistenceWorker}s to flush their data into the storage. Every worker runs in its
+ * own pipeline and cadence, a slow model doesn't hold back the others. The next round of a worker starts after the
+ * execution stage of its current round, so the rounds of one worker never overlap, while the prepare stage of a worker
+ * overlaps with the execution stages of the others. The concurrency of the execution stage is bounded by
+ * {@link CoreModuleConfig#getFlushThreads()}.
+ */
 @Slf4j
 public enum PersistenceTimer {
     INSTANCE;
     @VisibleForTesting
     boolean isStarted = false;
     private CounterMetrics errorCounter;
-    private HistogramMetrics prepareLatency;
-    private HistogramMetrics executeLatency;
-    private HistogramMetrics allLatency;
-    private ExecutorService prepareExecutorService;
+    private MetricsCreator metricsCreator;
+    private ScheduledExecutorService prepareExecutorService;
+    private ExecutorService executeExecutorService;
+    private final Map<PersistenceWorker<? extends StorageData>, PersistencePipeline> pipelines = new ConcurrentHashMap<>();
 
     PersistenceTimer() {
     }
@@ -58,93 +70,145 @@ public enum PersistenceTimer {
         log.info("persistence timer start");
         IBatchDAO batchDAO = moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
 
-        MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
-                                                     .provider()
-                                                     .getService(MetricsCreator.class);
+        metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                      .provider()
+                                      .getService(MetricsCreator.class);
         errorCounter = metricsCreator.createCounter(
             "persistence_timer_bulk_error_count", "Error execution of the prepare stage in persistence timer",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
         );
-        prepareLatency = metricsCreator.createHistogramMetric(
-            "persistence_timer_bulk_prepare_latency", "Latency of the prepare stage in persistence timer",
-            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
-        );
-        executeLatency = metricsCreator.createHistogramMetric(
-            "persistence_timer_bulk_execute_latency", "Latency of the execute stage in persistence timer",
-            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
-        );
-        allLatency = metricsCreator.createHistogramMetric(
-            "persistence_timer_bulk_all_latency", "Latency of the all stage in persistence timer",
-            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
-        );
 
-        prepareExecutorService = Executors.newFixedThreadPool(moduleConfig.getPrepareThreads());
+        prepareExecutorService = Executors.newScheduledThreadPool(moduleConfig.getPrepareThreads());
+        executeExecutorService = Executors.newFixedThreadPool(moduleConfig.getFlushThreads());
         if (!isStarted) {
+            final long period = TimeUnit.SECONDS.toMillis(moduleConfig.getPersistentPeriod());
             Executors.newSingleThreadScheduledExecutor()
                      .scheduleWithFixedDelay(
-                         new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO), t -> log
-                             .error("Extract data and save failure.", t)), 5, moduleConfig.getPersistentPeriod(),
-                         TimeUnit.SECONDS
+                         new RunnableWithExceptionProtection(() -> schedulePipelines(batchDAO, period), t -> log
+                             .error("Schedule the persistence pipelines failure.", t)), 5_000, period,
+                         TimeUnit.MILLISECONDS
                      );
 
             this.isStarted = true;
         }
     }
 
-    private void extractDataAndSave(IBatchDAO batchDAO) {
-        if (log.isDebugEnabled()) {
-            log.debug("Extract data and save");
+    /**
+     * Schedule the pipelines of the workers created since the last check. The start time of every pipeline is spread
+     * in one period, to avoid all workers preparing and flushing at the same moment.
+     */
+    @VisibleForTesting
+    void schedulePipelines(IBatchDAO batchDAO, long period) {
+        for (PersistenceWorker<? extends StorageData> worker : getPersistenceWorkers()) {
+            if (pipelines.containsKey(worker)) {
+                continue;
+            }
+            PersistencePipeline pipeline = new PersistencePipeline(worker, batchDAO, period);
+            pipelines.put(worker, pipeline);
+            pipeline.schedule(ThreadLocalRandom.current().nextLong(period));
+        }
+    }
+
+    private List<PersistenceWorker<? extends StorageData>> getPersistenceWorkers() {
+        List<PersistenceWorker<? extends StorageData>> persistenceWorkers = new ArrayList<>();
+        persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
+        persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
+        return persistenceWorkers;
+    }
+
+    /**
+     * The pipeline of one worker. Every run is one round. The execution stage runs asynchronously in the execute
+     * threads, and the next round is scheduled only once it finished, so the prepare stage, which could read the
+     * storage, never sees the data of the previous round half flushed. No thread waits for the execution.
+     */
+    @VisibleForTesting
+    class PersistencePipeline implements Runnable {
+        private final PersistenceWorker<? extends StorageData> worker;
+        private final IBatchDAO batchDAO;
+        private final long period;
+        private final HistogramMetrics prepareLatency;
+        private final HistogramMetrics executeLatency;
+        private final HistogramMetrics allLatency;
+
+        PersistencePipeline(PersistenceWorker<? extends StorageData> worker, IBatchDAO batchDAO, long period) {
+            this.worker = worker;
+            this.batchDAO = batchDAO;
+            this.period = period;
+
+            Model model = worker.getModel();
+            MetricsTag.Keys keys = new MetricsTag.Keys("metricName", "dimensionality");
+            MetricsTag.Values values = new MetricsTag.Values(model.getName(), model.getDownsampling().getName());
+            prepareLatency = metricsCreator.createHistogramMetric(
+                "persistence_timer_bulk_prepare_latency", "Latency of the prepare stage in persistence timer",
+                keys, values
+            );
+            executeLatency = metricsCreator.createHistogramMetric(
+                "persistence_timer_bulk_execute_latency", "Latency of the execute stage in persistence timer",
+                keys, values
+            );
+            allLatency = metricsCreator.createHistogramMetric(
+                "persistence_timer_bulk_all_latency", "Latency of the all stage in persistence timer",
+                keys, values
+            );
         }
 
-        long startTime = System.currentTimeMillis();
-
-        try (HistogramMetrics.Timer allTimer = allLatency.createTimer()) {
-            List<PersistenceWorker<? extends StorageData>> persistenceWorkers = new ArrayList<>();
-            persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
-            persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
-
-            CountDownLatch countDownLatch = new CountDownLatch(persistenceWorkers.size());
-            persistenceWorkers.forEach(worker -> {
-                prepareExecutorService.submit(() -> {
-                    List<PrepareRequest> innerPrepareRequests = null;
-                    try {
-                        // Prepare stage
-                        try (HistogramMetrics.Timer timer = prepareLatency.createTimer()) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("extract {} worker data and save", worker.getClass().getName());
-                            }
-
-                            innerPrepareRequests = worker.buildBatchRequests();
-
-                            worker.endOfRound();
-                        } catch (Throwable e) {
-                            log.error(e.getMessage(), e);
-                        }
-
-                        // Execution stage
-                        try (HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer()) {
-                            if (CollectionUtils.isNotEmpty(innerPrepareRequests)) {
-                                batchDAO.flush(innerPrepareRequests);
-                            }
-                        } catch (Throwable e) {
-                            log.error(e.getMessage(), e);
-                        }
+        @Override
+        public void run() {
+            final long startTime = System.currentTimeMillis();
+            final HistogramMetrics.Timer allTimer = allLatency.createTimer();
+            List<PrepareRequest> prepareRequests = null;
+            // Prepare stage
+            try (HistogramMetrics.Timer timer = prepareLatency.createTimer()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("extract {} worker data and save", worker.getModel().getName());
+                }
+
+                prepareRequests = worker.buildBatchRequests();
+
+                worker.endOfRound();
+            } catch (Throwable e) {
+                errorCounter.inc();
+                log.error(e.getMessage(), e);
+            }
+
+            if (CollectionUtils.isEmpty(prepareRequests)) {
+                allTimer.finish();
+                scheduleNextRound(startTime);
+                return;
+            }
+            final List<PrepareRequest> requests = prepareRequests;
+            // Execution stage
+            try {
+                executeExecutorService.execute(() -> {
+                    try (HistogramMetrics.Timer timer = executeLatency.createTimer()) {
+                        batchDAO.flush(requests);
+                    } catch (Throwable e) {
+                        errorCounter.inc();
+                        log.error(e.getMessage(), e);
                     } finally {
-                        countDownLatch.countDown();
+                        allTimer.finish();
+                        scheduleNextRound(startTime);
                     }
                 });
-            });
-
-            countDownLatch.await();
-        } catch (Throwable e) {
-            errorCounter.inc();
-            log.error(e.getMessage(), e);
-        } finally {
-            if (log.isDebugEnabled()) {
-                log.debug("Persistence data save finish");
+            } catch (RejectedExecutionException e) {
+                log.warn("The persistence of {} is stopped.", worker.getModel().getName());
             }
         }
 
-        log.debug("Batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
+        // Keeps the cadence of one round per period, unless the last round took longer.
+        private void scheduleNextRound(long startTimeOfLastRound) {
+            schedule(Math.max(0, startTimeOfLastRound + period - System.currentTimeMillis()));
+        }
+
+        void schedule(long delay) {
+            try {
+                prepareExecutorService.schedule(
+                    new RunnableWithExceptionProtection(this, t -> log.error("Extract data and save failure.", t)),
+                    delay, TimeUnit.MILLISECONDS
+                );
+            } catch (RejectedExecutionException e) {
+                log.warn("The persistence of {} is stopped.", worker.getModel().getName());
+            }
+        }
     }
 }
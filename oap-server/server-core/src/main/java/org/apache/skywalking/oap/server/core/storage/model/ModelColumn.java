@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.storage.model;
 
 import java.lang.reflect.Type;
 import lombok.Getter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
 
@@ -48,9 +49,9 @@ public class ModelColumn {
         this.length = length;
         this.analyzer = analyzer;
         /*
-         * byte[] and {@link IntKeyLongValueHashMap} could never be query.
+         * byte[], {@link DataTable} and {@link BucketTable} could never be query.
          */
-        if (type.equals(byte[].class) || type.equals(DataTable.class)) {
+        if (type.equals(byte[].class) || type.equals(DataTable.class) || type.equals(BucketTable.class)) {
             this.storageOnly = true;
         } else {
             if (storageOnly && isValue) {
@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.oap.server.core.storage.type;
 
+import com.google.protobuf.ByteString;
+
 /**
  * StorageDataComplexObject implementation supports String-Object interconversion.
  */
@@ -32,6 +34,17 @@ public interface StorageDataComplexObject<T> {
      */
     void toObject(String data);
 
+    /**
+     * @return binary representing this object, which is more compact than {@link #toStorageData()}. It is used in the
+     * communication between OAP nodes, no compatibility guaranteed across versions.
+     */
+    ByteString toByteString();
+
+    /**
+     * Initialize this object based on the given binary data.
+     */
+    void toObject(ByteString data);
+
     /**
      * Initialize the object based on the given source.
      */
@@ -26,4 +26,17 @@ import org.apache.skywalking.oap.server.library.module.Service;
 public interface IWorkerInstanceGetter extends Service {
     RemoteHandleWorker get(String nextWorkerName);
 
+    /**
+     * @param nextWorkerId the ID from {@link #getWorkerId(String)} of the remote OAP node.
+     * @return the worker of the given ID, or null if absent.
+     */
+    RemoteHandleWorker get(int nextWorkerId);
+
+    /**
+     * The worker ID is derived from the worker name only, so it is the same in the whole cluster, as long as the OAL
+     * scripts are the same on all OAP nodes, which is required by the L2 aggregation already.
+     *
+     * @return the ID representing the worker in the remote message, or 0 if the name can't be represented by an ID.
+     */
+    int getWorkerId(String nextWorkerName);
 }
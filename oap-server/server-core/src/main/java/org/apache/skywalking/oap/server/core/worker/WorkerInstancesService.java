@@ -19,7 +19,9 @@
 package org.apache.skywalking.oap.server.core.worker;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.slf4j.Logger;
@@ -32,9 +34,16 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
     private static final Logger LOGGER = LoggerFactory.getLogger(WorkerInstancesService.class);
 
     private final Map<String, RemoteHandleWorker> instances;
+    private final Map<Integer, RemoteHandleWorker> idInstances;
+    /**
+     * The IDs shared by more than one worker name, these workers are addressed by the names.
+     */
+    private final Set<Integer> conflictIds;
 
     public WorkerInstancesService() {
         this.instances = new HashMap<>();
+        this.idInstances = new HashMap<>();
+        this.conflictIds = new HashSet<>();
     }
 
     @Override
@@ -42,13 +51,40 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
         return instances.get(nextWorkerName);
     }
 
+    @Override
+    public RemoteHandleWorker get(int nextWorkerId) {
+        return idInstances.get(nextWorkerId);
+    }
+
+    @Override
+    public int getWorkerId(String nextWorkerName) {
+        final int id = nextWorkerName.hashCode();
+        if (id == 0 || conflictIds.contains(id) || !instances.containsKey(nextWorkerName)) {
+            return 0;
+        }
+        return id;
+    }
+
     @Override
     public void put(String remoteReceiverWorkName, AbstractWorker instance,
         Class<? extends StreamData> streamDataClass) {
         if (instances.containsKey(remoteReceiverWorkName)) {
             throw new UnexpectedException("Duplicate worker name:" + remoteReceiverWorkName);
         }
-        instances.put(remoteReceiverWorkName, new RemoteHandleWorker(instance, streamDataClass));
+        final RemoteHandleWorker worker = new RemoteHandleWorker(instance, streamDataClass);
+        instances.put(remoteReceiverWorkName, worker);
+
+        // String#hashCode is specified by the JLS, so the ID of the same name is the same on all OAP nodes.
+        final int id = remoteReceiverWorkName.hashCode();
+        if (idInstances.containsKey(id)) {
+            LOGGER.info("Worker {} shares the ID with another worker, use the name in the remote message.",
+                        remoteReceiverWorkName
+            );
+            idInstances.remove(id);
+            conflictIds.add(id);
+        } else if (!conflictIds.contains(id)) {
+            idInstances.put(id, worker);
+        }
         LOGGER.debug("Worker {} has been registered as {}", instance.toString(), remoteReceiverWorkName);
     }
 }
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsSessionCacheTest {
+    @Test
+    public void testHeapCacheEvictLeastRecentlyAccessed() {
+        MockCounter evictionCounter = new MockCounter();
+        HeapMetricsSessionCache cache = new HeapMetricsSessionCache(2, evictionCounter);
+        cache.put(metrics("a", 1));
+        cache.put(metrics("b", 2));
+        // Access "a", so "b" becomes the least recently accessed one.
+        Assert.assertNotNull(cache.get(metrics("a", 0)));
+        cache.put(metrics("c", 3));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.containsKey(metrics("a", 0)));
+        Assert.assertFalse(cache.containsKey(metrics("b", 0)));
+        Assert.assertTrue(cache.containsKey(metrics("c", 0)));
+        Assert.assertEquals(1, (long) evictionCounter.value);
+    }
+
+    @Test
+    public void testHeapCacheRemoveExpired() {
+        HeapMetricsSessionCache cache = new HeapMetricsSessionCache(0, new MockCounter());
+        cache.put(metrics("a", 1));
+        cache.put(metrics("b", 2));
+        long now = System.currentTimeMillis();
+
+        cache.removeExpired(now, 60_000);
+        Assert.assertEquals(2, cache.size());
+
+        cache.removeExpired(now + 70_000, 60_000);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testOffHeapCacheRoundTrip() {
+        OffHeapMetricsSessionCache cache = new OffHeapMetricsSessionCache(0, new MockCounter());
+        cache.put(metrics("a", 5));
+
+        MockMetrics cached = (MockMetrics) cache.get(metrics("a", 0));
+        Assert.assertEquals("a", cached.getEntityId());
+        Assert.assertEquals(5, cached.getValue());
+
+        // The changes are only visible after written back.
+        cached.combine(3);
+        Assert.assertEquals(5, ((MockMetrics) cache.get(metrics("a", 0))).getValue());
+        cache.put(cached);
+        Assert.assertEquals(8, ((MockMetrics) cache.get(metrics("a", 0))).getValue());
+        Assert.assertNull(cache.get(metrics("b", 0)));
+    }
+
+    @Test
+    public void testOffHeapCacheEvictByBytes() {
+        MockCounter evictionCounter = new MockCounter();
+        // One chunk of 64KB, holding 1024 blocks of 64 bytes.
+        OffHeapMetricsSessionCache cache = new OffHeapMetricsSessionCache(64 * 1024, evictionCounter);
+        for (int i = 0; i < 2000; i++) {
+            cache.put(metrics("e" + i, i));
+        }
+
+        Assert.assertEquals(1024, cache.size());
+        Assert.assertEquals(64 * 1024, cache.usedBytes());
+        Assert.assertEquals(64 * 1024, cache.allocatedBytes());
+        Assert.assertEquals(2000 - 1024, (long) evictionCounter.value);
+        Assert.assertFalse(cache.containsKey(metrics("e0", 0)));
+        Assert.assertFalse(cache.containsKey(metrics("e975", 0)));
+        Assert.assertEquals(976, ((MockMetrics) cache.get(metrics("e976", 0))).getValue());
+        Assert.assertEquals(1999, ((MockMetrics) cache.get(metrics("e1999", 0))).getValue());
+
+        // The freed blocks are reused, no more direct memory is allocated.
+        for (int i = 2000; i < 4000; i++) {
+            cache.put(metrics("e" + i, i));
+        }
+        Assert.assertEquals(1024, cache.size());
+        Assert.assertEquals(64 * 1024, cache.allocatedBytes());
+        Assert.assertEquals(3999, ((MockMetrics) cache.get(metrics("e3999", 0))).getValue());
+
+        cache.removeExpired(System.currentTimeMillis() + 70_000, 60_000);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.usedBytes());
+    }
+
+    @Test
+    public void testOffHeapCacheUnlimited() {
+        OffHeapMetricsSessionCache cache = new OffHeapMetricsSessionCache(0, new MockCounter());
+        for (int i = 0; i < 5000; i++) {
+            cache.put(metrics("e" + i, i));
+        }
+        // Overwrite and remove some, the others are still reachable through the index.
+        for (int i = 0; i < 5000; i += 2) {
+            cache.put(metrics("e" + i, i + 1));
+        }
+        Assert.assertEquals(5000, cache.size());
+        Assert.assertEquals(5000 * 64, cache.usedBytes());
+        for (int i = 0; i < 5000; i++) {
+            Assert.assertEquals(i % 2 == 0 ? i + 1 : i, ((MockMetrics) cache.get(metrics("e" + i, 0))).getValue());
+        }
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get(metrics("e1", 0)));
+        cache.put(metrics("e1", 1));
+        Assert.assertEquals(1, ((MockMetrics) cache.get(metrics("e1", 0))).getValue());
+    }
+
+    @Test
+    public void testOffHeapCacheMergeFreedBlocks() {
+        MockCounter evictionCounter = new MockCounter();
+        OffHeapMetricsSessionCache cache = new OffHeapMetricsSessionCache(256 * 1024, evictionCounter);
+        // Fill up the budget with the blocks of 64 bytes.
+        for (int i = 0; i < 4096; i++) {
+            cache.put(metrics("e" + i, i));
+        }
+        Assert.assertEquals(4096, cache.size());
+        Assert.assertEquals(256 * 1024, cache.allocatedBytes());
+        Assert.assertEquals(0, (long) evictionCounter.value);
+
+        // Every metrics of 2KB only evicts the small ones merged into one block of its size.
+        StringBuilder largeId = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            largeId.append('l');
+        }
+        for (int i = 0; i < 100; i++) {
+            cache.put(metrics(largeId.toString() + i, i));
+        }
+        Assert.assertTrue(evictionCounter.value <= 100 * 2048 / 64);
+        Assert.assertEquals(4096 + 100 - (long) evictionCounter.value, cache.size());
+        Assert.assertEquals(99, ((MockMetrics) cache.get(metrics(largeId.toString() + 99, 0))).getValue());
+        Assert.assertEquals(4095, ((MockMetrics) cache.get(metrics("e4095", 0))).getValue());
+        Assert.assertEquals(256 * 1024, cache.allocatedBytes());
+
+        // The small ones fill the freed blocks again, split from the large ones.
+        cache.removeExpired(System.currentTimeMillis() + 70_000, 60_000);
+        Assert.assertEquals(0, cache.allocatedBytes());
+        evictionCounter.value = 0;
+        for (int i = 0; i < 4096; i++) {
+            cache.put(metrics("e" + i, i));
+        }
+        Assert.assertEquals(4096, cache.size());
+        Assert.assertEquals(0, (long) evictionCounter.value);
+    }
+
+    @Test
+    public void testOffHeapCacheShareBudget() {
+        OffHeapMemoryBudget budget = new OffHeapMemoryBudget(128 * 1024);
+        MockCounter evictionCounter = new MockCounter();
+        OffHeapMetricsSessionCache first = new OffHeapMetricsSessionCache(budget, new MockCounter());
+        OffHeapMetricsSessionCache second = new OffHeapMetricsSessionCache(budget, evictionCounter);
+        for (int i = 0; i < 4096; i++) {
+            first.put(metrics("e" + i, i));
+        }
+        Assert.assertEquals(2048, first.size());
+        Assert.assertEquals(128 * 1024, budget.allocatedBytes());
+
+        // The budget is used up by the other cache.
+        second.put(metrics("e0", 0));
+        Assert.assertEquals(0, second.size());
+        Assert.assertEquals(1, (long) evictionCounter.value);
+
+        // The chunks freed by the expiration are given back to the budget.
+        first.removeExpired(System.currentTimeMillis() + 70_000, 60_000);
+        Assert.assertEquals(0, budget.allocatedBytes());
+        second.put(metrics("e0", 0));
+        Assert.assertEquals(1, second.size());
+        Assert.assertEquals(64 * 1024, budget.allocatedBytes());
+    }
+
+    private static MockMetrics metrics(String entityId, long value) {
+        MockMetrics metrics = new MockMetrics();
+        metrics.setEntityId(entityId);
+        metrics.setTimeBucket(202106011200L);
+        metrics.combine(value);
+        return metrics;
+    }
+
+    private static class MockCounter implements CounterMetrics {
+        private double value;
+
+        @Override
+        public void inc() {
+            value++;
+        }
+
+        @Override
+        public void inc(final double value) {
+            this.value += value;
+        }
+    }
+
+    @EqualsAndHashCode(of = "entityId", callSuper = true)
+    public static class MockMetrics extends CountMetrics {
+        @Getter
+        @Setter
+        private String entityId;
+
+        @Override
+        protected String id0() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+            setEntityId(remoteData.getDataStrings(0));
+            setTimeBucket(remoteData.getDataLongs(0));
+            setValue(remoteData.getDataLongs(1));
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+            remoteBuilder.addDataStrings(entityId);
+            remoteBuilder.addDataLongs(getTimeBucket());
+            remoteBuilder.addDataLongs(getValue());
+            return remoteBuilder;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+    }
+}
@@ -19,11 +19,8 @@
 package org.apache.skywalking.oap.server.core.analysis.meter.function;
 
 import java.util.Map;
-import java.util.stream.IntStream;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
-import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
-import org.apache.skywalking.oap.server.core.query.type.HeatMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.junit.Assert;
 import org.junit.Test;
@@ -77,10 +74,8 @@ public class HistogramFunctionTest {
             })
         );
 
-        final int[] results = inst.getDataset().sortedValues(new HeatMap.KeyComparator(true)).stream()
-                                  .flatMapToInt(l -> IntStream.of(l.intValue()))
-                                  .toArray();
-        Assert.assertArrayEquals(new int[] {
+        final long[] results = inst.getDataset().sortedValues();
+        Assert.assertArrayEquals(new long[] {
             1,
             6,
             13,
@@ -113,7 +108,7 @@ public class HistogramFunctionTest {
             })
         );
 
-        Assert.assertEquals(1L, inst.getDataset().get(Bucket.INFINITE_NEGATIVE).longValue());
+        Assert.assertEquals(1L, inst.getDataset().get(Long.MIN_VALUE));
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -204,7 +199,7 @@ public class HistogramFunctionTest {
 
         // Simulate the storage layer do, convert the datatable to string.
         final Map map = storageBuilder.entity2Storage(inst);
-        map.put(DATASET, ((DataTable) map.get(DATASET)).toStorageData());
+        map.put(DATASET, ((BucketTable) map.get(DATASET)).toStorageData());
 
         final HistogramFunction inst2 = (HistogramFunction) storageBuilder.storage2Entity(map);
         Assert.assertEquals(inst, inst2);
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BucketTableTest {
+
+    private BucketTable bucketTable;
+
+    @Before
+    public void init() {
+        bucketTable = new BucketTable(2);
+        bucketTable.valueAccumulation(5, 500L);
+        bucketTable.valueAccumulation(6, 600L);
+        bucketTable.valueAccumulation(1, 100L);
+        bucketTable.valueAccumulation(2, 200L);
+        bucketTable.valueAccumulation(7, 700L);
+    }
+
+    @Test
+    public void accumulation() {
+        bucketTable.valueAccumulation(2, 20L);
+
+        Assert.assertEquals(5, bucketTable.size());
+        Assert.assertEquals(220L, bucketTable.get(2));
+        Assert.assertEquals(0L, bucketTable.get(3));
+        Assert.assertFalse(bucketTable.hasKey(3));
+        Assert.assertEquals(2120L, bucketTable.sumOfValues());
+        Assert.assertArrayEquals(new long[] {1, 2, 5, 6, 7}, bucketTable.sortedKeys());
+    }
+
+    @Test
+    public void toStorageData() {
+        Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", bucketTable.toStorageData());
+    }
+
+    @Test
+    public void toObject() {
+        BucketTable bucketTable = new BucketTable("1,100|2,200|5,500|6,600|7,700");
+
+        Assert.assertEquals(this.bucketTable, bucketTable);
+    }
+
+    @Test
+    public void compatibleWithDataTable() {
+        BucketTable bucketTable = new BucketTable(new DataTable("1,100|2,200|5,500|6,600|7,700").toStorageData());
+        Assert.assertEquals(this.bucketTable, bucketTable);
+
+        DataTable dataTable = new DataTable(this.bucketTable.toStorageData());
+        Assert.assertEquals(500L, dataTable.get("5").longValue());
+    }
+
+    @Test
+    public void infiniteNegative() {
+        BucketTable bucketTable = new BucketTable();
+        bucketTable.valueAccumulation(0, 1L);
+        bucketTable.valueAccumulation(Long.MIN_VALUE, 2L);
+
+        Assert.assertEquals("infinite-,2|0,1", bucketTable.toStorageData());
+        Assert.assertEquals(bucketTable, new BucketTable(bucketTable.toStorageData()));
+    }
+
+    @Test
+    public void toByteString() {
+        Assert.assertEquals(bucketTable, new BucketTable(bucketTable.toByteString()));
+
+        BucketTable bucketTable = new BucketTable();
+        bucketTable.valueAccumulation(Long.MIN_VALUE, 2L);
+        bucketTable.valueAccumulation(-100, 3L);
+        bucketTable.valueAccumulation(Long.MAX_VALUE, 4L);
+        Assert.assertEquals(bucketTable, new BucketTable(bucketTable.toByteString()));
+    }
+
+    @Test
+    public void copyFrom() {
+        BucketTable bucketTable = new BucketTable();
+        bucketTable.copyFrom(this.bucketTable);
+        Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", bucketTable.toStorageData());
+
+        bucketTable.append(this.bucketTable);
+        Assert.assertEquals("1,200|2,400|5,1000|6,1200|7,1400", bucketTable.toStorageData());
+    }
+}
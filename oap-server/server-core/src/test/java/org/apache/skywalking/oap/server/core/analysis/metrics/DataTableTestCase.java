@@ -52,6 +52,14 @@ public class DataTableTestCase {
         Assert.assertEquals(700, dataTable.get("7").intValue());
     }
 
+    @Test
+    public void toByteString() {
+        DataTable dataTable = new DataTable(this.dataTable.toByteString());
+
+        Assert.assertEquals(this.dataTable, dataTable);
+        Assert.assertTrue(this.dataTable.toByteString().size() < this.dataTable.toStorageData().length());
+    }
+
     @Test
     public void copyFrom() {
         DataTable dataTable = new DataTable();
@@ -44,13 +44,13 @@ public class HeatMapMetricsTest {
         metricsMocker.combine(100, step, maxNumOfSteps);
         metricsMocker.combine(100, step, maxNumOfSteps);
 
-        final DataTable dataset = metricsMocker.getDataset();
+        final BucketTable dataset = metricsMocker.getDataset();
         Assert.assertEquals(11, dataset.size());
 
-        Assert.assertEquals(1, dataset.get("20").intValue());
-        Assert.assertEquals(3, dataset.get("50").intValue());
-        Assert.assertEquals(1, dataset.get("60").intValue());
-        Assert.assertEquals(8, dataset.get("100").intValue());
+        Assert.assertEquals(1, dataset.get(20));
+        Assert.assertEquals(3, dataset.get(50));
+        Assert.assertEquals(1, dataset.get(60));
+        Assert.assertEquals(8, dataset.get(100));
     }
 
     @Test
@@ -76,13 +76,13 @@ public class HeatMapMetricsTest {
 
         metricsMocker.combine(metricsMocker1);
 
-        final DataTable dataset = metricsMocker.getDataset();
+        final BucketTable dataset = metricsMocker.getDataset();
         Assert.assertEquals(11, dataset.size());
 
-        Assert.assertEquals(1, dataset.get("20").intValue());
-        Assert.assertEquals(3, dataset.get("50").intValue());
-        Assert.assertEquals(1, dataset.get("60").intValue());
-        Assert.assertEquals(8, dataset.get("100").intValue());
+        Assert.assertEquals(1, dataset.get(20));
+        Assert.assertEquals(3, dataset.get(50));
+        Assert.assertEquals(1, dataset.get(60));
+        Assert.assertEquals(8, dataset.get(100));
     }
 
     public class HistogramMetricsMocker extends HistogramMetrics {
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.wait.WaitStrategyType;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.data.HeapMetricsSessionCache;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class MetricsPersistentWorkerTest {
+
+    @Test
+    public void testBatchLargerThanSessionCache() {
+        MockMetricsDAO dao = new MockMetricsDAO();
+        for (int i = 0; i < 5; i++) {
+            dao.storage.put("e" + i, metrics("e" + i, 1));
+        }
+        // The session cache holds 2 metrics only, while the batch has 5 existing ones.
+        MetricsPersistentWorker worker = worker(dao, new HeapMetricsSessionCache(2, new CounterMetrics() {
+            @Override
+            public void inc() {
+            }
+
+            @Override
+            public void inc(final double value) {
+            }
+        }));
+
+        List<Metrics> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(metrics("e" + i, 1));
+        }
+        worker.prepareBatch(batch);
+        Assert.assertEquals(0, dao.inserts.size());
+        Assert.assertEquals(5, dao.updates.size());
+        dao.updates.forEach(updated -> Assert.assertEquals(2, updated.getValue()));
+
+        // The next round merges into the cached or reloaded metrics as well.
+        dao.updates.forEach(updated -> dao.storage.put(updated.getEntityId(), metrics(updated.getEntityId(), 2)));
+        dao.updates.clear();
+        batch.clear();
+        for (int i = 0; i < 5; i++) {
+            batch.add(metrics("e" + i, 1));
+        }
+        worker.prepareBatch(batch);
+        Assert.assertEquals(0, dao.inserts.size());
+        Assert.assertEquals(5, dao.updates.size());
+        dao.updates.forEach(updated -> Assert.assertEquals(3, updated.getValue()));
+    }
+
+    private MetricsPersistentWorker worker(IMetricsDAO dao, HeapMetricsSessionCache sessionCache) {
+        ModuleManager moduleManager = mock(ModuleManager.class);
+        ModuleServiceHolder moduleServiceHolder = mock(ModuleServiceHolder.class);
+        doReturn((ModuleProviderHolder) () -> moduleServiceHolder).when(moduleManager).find(anyString());
+        doReturn(new MetricsCreatorNoop()).when(moduleServiceHolder).getService(MetricsCreator.class);
+        Model model = mock(Model.class);
+        doReturn("mock_metrics").when(model).getName();
+        doReturn(DownSampling.Minute).when(model).getDownsampling();
+
+        return new MetricsPersistentWorker(
+            moduleManager, model, dao, null, null, null, true, true, 70_000, BufferStrategy.BLOCKING,
+            WaitStrategyType.SLEEPING, sessionCache
+        );
+    }
+
+    private static MockMetrics metrics(String entityId, long value) {
+        MockMetrics metrics = new MockMetrics();
+        metrics.setEntityId(entityId);
+        metrics.setTimeBucket(202106011200L);
+        metrics.setValue(value);
+        return metrics;
+    }
+
+    private static class MockMetricsDAO implements IMetricsDAO {
+        private final Map<String, MockMetrics> storage = new HashMap<>();
+        private final List<MockMetrics> inserts = new ArrayList<>();
+        private final List<MockMetrics> updates = new ArrayList<>();
+
+        @Override
+        public List<Metrics> multiGet(final Model model, final List<Metrics> metrics) {
+            List<Metrics> result = new ArrayList<>();
+            for (Metrics m : metrics) {
+                MockMetrics stored = storage.get(((MockMetrics) m).getEntityId());
+                if (stored != null) {
+                    result.add(metrics(stored.getEntityId(), stored.getValue()));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public InsertRequest prepareBatchInsert(final Model model, final Metrics metrics) {
+            inserts.add((MockMetrics) metrics);
+            return mock(InsertRequest.class);
+        }
+
+        @Override
+        public UpdateRequest prepareBatchUpdate(final Model model, final Metrics metrics) {
+            MockMetrics m = (MockMetrics) metrics;
+            updates.add(metrics(m.getEntityId(), m.getValue()));
+            return mock(UpdateRequest.class);
+        }
+    }
+
+    @EqualsAndHashCode(of = "entityId", callSuper = true)
+    private static class MockMetrics extends CountMetrics {
+        @Getter
+        @Setter
+        private String entityId;
+
+        @Override
+        protected String id0() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder();
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+    }
+}
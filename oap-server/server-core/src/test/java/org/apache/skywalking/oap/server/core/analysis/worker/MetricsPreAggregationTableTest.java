@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsPreAggregationTableTest {
+    private static final String METRICS_NAME = "mock";
+
+    private final List<Metrics> flushed = new ArrayList<>();
+
+    @Test
+    public void testMergeAndReuseScratch() {
+        MetricsPreAggregationTable table = new MetricsPreAggregationTable(100, flushed::add);
+        for (int i = 0; i < 10; i++) {
+            dispatch(table, "entity-" + (i % 2), 1);
+        }
+        Assert.assertEquals(2, table.size());
+        // The scratch of the last hit is kept for the next source.
+        Assert.assertNotNull(table.borrow(METRICS_NAME));
+        Assert.assertNull(table.borrow(METRICS_NAME));
+
+        table.flush();
+        Assert.assertEquals(0, table.size());
+        Assert.assertEquals(2, flushed.size());
+        for (Metrics metrics : flushed) {
+            Assert.assertEquals(5, ((MockMetrics) metrics).getValue());
+        }
+    }
+
+    @Test
+    public void testFlushWhenFull() {
+        MetricsPreAggregationTable table = new MetricsPreAggregationTable(2, flushed::add);
+        dispatch(table, "entity-0", 1);
+        dispatch(table, "entity-1", 1);
+        Assert.assertTrue(flushed.isEmpty());
+        dispatch(table, "entity-2", 1);
+        Assert.assertEquals(2, flushed.size());
+        Assert.assertEquals(1, table.size());
+    }
+
+    /**
+     * The same steps as the OAL dispatchers generated by the template dispatcher/doMetrics.ftl.
+     */
+    private void dispatch(MetricsPreAggregationTable table, String entityId, long count) {
+        synchronized (table) {
+            MockMetrics row = (MockMetrics) table.borrow(METRICS_NAME);
+            if (row == null) {
+                row = new MockMetrics();
+            }
+            row.setTimeBucket(202107011230L);
+            row.setEntityId(entityId);
+            row = (MockMetrics) table.merge(METRICS_NAME, row);
+            row.combine(count);
+        }
+    }
+
+    @EqualsAndHashCode(of = "entityId", callSuper = true)
+    public static class MockMetrics extends CountMetrics {
+        @Getter
+        @Setter
+        private String entityId;
+
+        @Override
+        protected String id0() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder();
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcCleanupRule;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
@@ -55,10 +56,48 @@ public class RemoteServiceHandlerTestCase {
     @Rule
     public final GrpcCleanupRule gRPCCleanup = new GrpcCleanupRule();
 
+    private final String testWorkerId = "mock-worker";
+
     @Test
     public void callTest() throws DuplicateProviderException, ProviderNotFoundException, IOException {
-        final String testWorkerId = "mock-worker";
+        StreamObserver<RemoteMessage> streamObserver = createStreamObserver(new AtomicInteger());
+
+        RemoteMessage.Builder remoteMessage = RemoteMessage.newBuilder();
+        remoteMessage.setNextWorkerName(testWorkerId);
+        remoteMessage.setRemoteData(remoteData());
+
+        streamObserver.onNext(remoteMessage.build());
+        streamObserver.onCompleted();
+    }
+
+    @Test
+    public void callBatchTest() throws DuplicateProviderException, ProviderNotFoundException, IOException {
+        AtomicInteger received = new AtomicInteger();
+        StreamObserver<RemoteMessage> streamObserver = createStreamObserver(received);
+
+        RemoteMessage.Builder remoteMessage = RemoteMessage.newBuilder();
+        remoteMessage.setNextWorkerId(testWorkerId.hashCode());
+        remoteMessage.addBatchRemoteData(remoteData());
+        remoteMessage.addBatchRemoteData(remoteData());
+        remoteMessage.addBatchRemoteData(remoteData());
+
+        streamObserver.onNext(remoteMessage.build());
+        streamObserver.onCompleted();
+        Assert.assertEquals(3, received.get());
+    }
+
+    private RemoteData.Builder remoteData() {
+        RemoteData.Builder remoteData = RemoteData.newBuilder();
+        remoteData.addDataStrings("test1");
+        remoteData.addDataStrings("test2");
+
+        remoteData.addDataLongs(10);
+        remoteData.addDataLongs(20);
+        return remoteData;
+    }
 
+    private StreamObserver<RemoteMessage> createStreamObserver(AtomicInteger received)
+        throws DuplicateProviderException, ProviderNotFoundException, IOException {
         ModuleManagerTesting moduleManager = new ModuleManagerTesting();
         ModuleDefineTesting moduleDefine = new ModuleDefineTesting();
         moduleManager.put(CoreModule.NAME, moduleDefine);
@@ -67,7 +106,7 @@ public class RemoteServiceHandlerTestCase {
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceGetter.class, workerInstancesService);
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceSetter.class, workerInstancesService);
 
-        TestWorker worker = new TestWorker(moduleManager);
+        TestWorker worker = new TestWorker(moduleManager, received);
         workerInstancesService.put(testWorkerId, worker, TestRemoteData.class);
 
         String serverName = InProcessServerBuilder.generateName();
@@ -110,7 +149,7 @@ public class RemoteServiceHandlerTestCase {
             .directExecutor()
             .build()));
 
-        StreamObserver<RemoteMessage> streamObserver = remoteServiceStub.call(new StreamObserver<Empty>() {
+        return remoteServiceStub.call(new StreamObserver<Empty>() {
             @Override
             public void onNext(Empty empty) {
 
@@ -126,20 +165,6 @@ public class RemoteServiceHandlerTestCase {
 
             }
         });
-
-        RemoteMessage.Builder remoteMessage = RemoteMessage.newBuilder();
-        remoteMessage.setNextWorkerName(testWorkerId);
-
-        RemoteData.Builder remoteData = RemoteData.newBuilder();
-        remoteData.addDataStrings("test1");
-        remoteData.addDataStrings("test2");
-
-        remoteData.addDataLongs(10);
-        remoteData.addDataLongs(20);
-        remoteMessage.setRemoteData(remoteData);
-
-        streamObserver.onNext(remoteMessage.build());
-        streamObserver.onCompleted();
     }
 
     static class TestRemoteData extends StreamData {
@@ -175,8 +200,11 @@ public class RemoteServiceHandlerTestCase {
 
     static class TestWorker extends AbstractWorker {
 
-        public TestWorker(ModuleDefineHolder moduleDefineHolder) {
+        private final AtomicInteger received;
+
+        public TestWorker(ModuleDefineHolder moduleDefineHolder, AtomicInteger received) {
             super(moduleDefineHolder);
+            this.received = received;
         }
 
         @Override
@@ -187,6 +215,7 @@ public class RemoteServiceHandlerTestCase {
             Assert.assertEquals("test2", data.str2);
             Assert.assertEquals(10, data.long1);
             Assert.assertEquals(20, data.long2);
+            received.incrementAndGet();
         }
     }
 }
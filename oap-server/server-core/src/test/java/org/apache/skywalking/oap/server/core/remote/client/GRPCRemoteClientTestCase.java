@@ -18,12 +18,24 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
@@ -31,6 +43,7 @@ import org.apache.skywalking.oap.server.core.worker.WorkerInstancesService;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
@@ -50,6 +63,9 @@ public class GRPCRemoteClientTestCase {
 
     private final String nextWorkerName = "mock-worker";
     private ModuleManagerTesting moduleManager;
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flowControlWaits = new AtomicLong();
     @Rule
     public final GrpcServerRule grpcServerRule = new GrpcServerRule().directExecutor();
 
@@ -69,8 +85,122 @@ public class GRPCRemoteClientTestCase {
 
     @Test
     public void testPush() throws InterruptedException {
-        MetricsCreator metricsCreator = mock(MetricsCreator.class);
-        when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
+        registerTelemetry();
+        grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
+
+        Address address = new Address("not-important", 11, false);
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(
+            moduleManager, address, 1, 10, 10, null, null, BufferStrategy.BLOCKING));
+        remoteClient.connect();
+
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+
+        TimeUnit.SECONDS.sleep(2);
+        // All data are sent through one stream, batched by the worker.
+        Assert.assertEquals(12, received.get());
+    }
+
+    @Test
+    public void testBlockWhenThePeerIsNotReady() throws InterruptedException {
+        registerTelemetry();
+        SlowRemoteService slowService = new SlowRemoteService();
+        grpcServerRule.getServiceRegistry().addService(slowService);
+        GRPCRemoteClient remoteClient = connect(BufferStrategy.BLOCKING);
+
+        for (int i = 0; i < 5; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+        // The consumer waits for the peer to be ready, rather than buffering in the transport.
+        TimeUnit.MILLISECONDS.sleep(500);
+        Assert.assertEquals(0, received.get());
+
+        // The producer is blocked once the queue is full.
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                remoteClient.push(nextWorkerName, new TestStreamData());
+            }
+        });
+        producer.start();
+        producer.join(500);
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertEquals(0, dropped.get());
+
+        // The onReady handler wakes up the consumer.
+        slowService.release();
+        producer.join(10_000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertTrue(awaitUntil(() -> received.get() == 105));
+        Assert.assertEquals(0, dropped.get());
+        Assert.assertTrue(flowControlWaits.get() > 0);
+        remoteClient.close();
+    }
+
+    @Test
+    public void testDropWhenThePeerIsNotReady() throws InterruptedException {
+        registerTelemetry();
+        SlowRemoteService slowService = new SlowRemoteService();
+        grpcServerRule.getServiceRegistry().addService(slowService);
+        GRPCRemoteClient remoteClient = connect(BufferStrategy.IF_POSSIBLE);
+
+        for (int i = 0; i < 5; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        // The producer isn't blocked, the data beyond the queue are dropped.
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                remoteClient.push(nextWorkerName, new TestStreamData());
+            }
+        });
+        producer.start();
+        producer.join(5_000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertTrue(String.valueOf(dropped.get()), dropped.get() >= 100 - 10);
+        Assert.assertEquals(0, received.get());
+
+        slowService.release();
+        Assert.assertTrue(awaitUntil(() -> received.get() + dropped.get() == 105));
+        remoteClient.close();
+    }
+
+    @Test
+    public void testCountTheDataLostByBrokenStream() throws InterruptedException {
+        registerTelemetry();
+        // The peer terminates every stream before it is ready.
+        grpcServerRule.getServiceRegistry().addService(new RemoteServiceGrpc.RemoteServiceImplBase() {
+            @Override
+            public StreamObserver<RemoteMessage> call(final StreamObserver<Empty> responseObserver) {
+                ((ServerCallStreamObserver<Empty>) responseObserver).disableAutoInboundFlowControl();
+                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                return new NoopRequestObserver();
+            }
+        });
+        GRPCRemoteClient remoteClient = connect(BufferStrategy.BLOCKING);
+
+        for (int i = 0; i < 5; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+        Assert.assertTrue(awaitUntil(() -> dropped.get() == 5));
+        Assert.assertEquals(0, received.get());
+        remoteClient.close();
+    }
+
+    private GRPCRemoteClient connect(BufferStrategy bufferStrategy) {
+        Address address = new Address("not-important", 11, false);
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(
+            moduleManager, address, 1, 10, 60, null, null, bufferStrategy));
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        remoteClient.connect();
+        return remoteClient;
+    }
+
+    private void registerTelemetry() {
+        CounterMetrics noopCounter = new CounterMetrics() {
             @Override
             public void inc() {
 
@@ -80,7 +210,21 @@ public class GRPCRemoteClientTestCase {
             public void inc(double value) {
 
             }
-        });
+        };
+        CounterMetrics dropCounter = new CounterMetrics() {
+            @Override
+            public void inc() {
+                dropped.incrementAndGet();
+            }
+
+            @Override
+            public void inc(double value) {
+                dropped.addAndGet((long) value);
+            }
+        };
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(any(), any(), any(), any())).thenAnswer(
+            invocation -> "remote_out_drop_count".equals(invocation.getArgument(0)) ? dropCounter : noopCounter);
 
         when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
             @Override
@@ -90,27 +234,64 @@ public class GRPCRemoteClientTestCase {
 
             @Override
             public void observe(double value) {
-
+                flowControlWaits.incrementAndGet();
             }
         });
 
+        when(metricsCreator.createGauge(any(), any(), any(), any())).thenReturn(mock(GaugeMetrics.class));
+
         ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
         moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
         telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+    }
 
-        grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
+    private static boolean awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
 
-        Address address = new Address("not-important", 11, false);
-        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null));
-        remoteClient.connect();
+    /**
+     * The peer doesn't request any message until released, so the client stream is not ready.
+     */
+    private class SlowRemoteService extends RemoteServiceGrpc.RemoteServiceImplBase {
+        private final RemoteServiceHandler handler = new RemoteServiceHandler(moduleManager);
+        private final List<ServerCallStreamObserver<Empty>> calls = new CopyOnWriteArrayList<>();
+        private volatile boolean released;
 
-        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        @Override
+        public StreamObserver<RemoteMessage> call(final StreamObserver<Empty> responseObserver) {
+            ServerCallStreamObserver<Empty> serverCall = (ServerCallStreamObserver<Empty>) responseObserver;
+            serverCall.disableAutoInboundFlowControl();
+            calls.add(serverCall);
+            if (released) {
+                serverCall.request(Integer.MAX_VALUE);
+            }
+            return handler.call(responseObserver);
+        }
 
-        for (int i = 0; i < 12; i++) {
-            remoteClient.push(nextWorkerName, new TestStreamData());
+        void release() {
+            released = true;
+            calls.forEach(call -> call.request(Integer.MAX_VALUE));
         }
+    }
 
-        TimeUnit.SECONDS.sleep(2);
+    private static class NoopRequestObserver implements StreamObserver<RemoteMessage> {
+        @Override
+        public void onNext(final RemoteMessage message) {
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
     }
 
     public static class TestStreamData extends StreamData {
@@ -145,6 +326,7 @@ public class GRPCRemoteClientTestCase {
         public void in(Object o) {
             TestStreamData streamData = (TestStreamData) o;
             Assert.assertEquals(987, streamData.value);
+            received.incrementAndGet();
         }
     }
 }
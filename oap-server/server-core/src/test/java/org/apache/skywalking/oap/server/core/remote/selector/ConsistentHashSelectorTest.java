@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConsistentHashSelectorTest {
+    private static final int KEYS = 100_000;
+
+    @Test
+    public void testSameKeySameClient() {
+        List<RemoteClient> clients = clients(3);
+        ConsistentHashSelector selector = new ConsistentHashSelector();
+        for (int i = 0; i < 100; i++) {
+            TestStreamData data = new TestStreamData(("key" + i).hashCode());
+            Assert.assertSame(selector.select(clients, data), selector.select(clients, data));
+            // A new selector with the same cluster routes the same way.
+            Assert.assertSame(selector.select(clients, data), new ConsistentHashSelector().select(clients, data));
+        }
+    }
+
+    @Test
+    public void testBalance() {
+        List<RemoteClient> clients = clients(4);
+        RemoteClient[] routes = route(new ConsistentHashSelector(), clients);
+        for (RemoteClient client : clients) {
+            int count = 0;
+            for (RemoteClient route : routes) {
+                if (route == client) {
+                    count++;
+                }
+            }
+            double share = (double) count / KEYS;
+            Assert.assertTrue("share of " + client.getAddress() + " is " + share, share > 0.15 && share < 0.35);
+        }
+    }
+
+    @Test
+    public void testMigrationWhenNodeJoins() {
+        List<RemoteClient> before = clients(4);
+        List<RemoteClient> after = new ArrayList<>(before);
+        after.add(client(4));
+
+        double consistent = migrated(new ConsistentHashSelector(), before, after);
+        double modulo = migrated(new HashCodeSelector(), before, after);
+
+        // Ideally 1/5 of the keys move to the new node, the modulo hashing moves about 4/5.
+        Assert.assertTrue("consistent hash migrated " + consistent, consistent > 0.1 && consistent < 0.3);
+        Assert.assertTrue("hash code migrated " + modulo, modulo > 0.6);
+    }
+
+    @Test
+    public void testMigrationWhenNodeLeaves() {
+        List<RemoteClient> before = clients(5);
+        List<RemoteClient> after = new ArrayList<>(before);
+        RemoteClient removed = after.remove(2);
+
+        ConsistentHashSelector selector = new ConsistentHashSelector();
+        RemoteClient[] beforeRoutes = route(selector, before);
+        RemoteClient[] afterRoutes = route(selector, after);
+        int migrated = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (beforeRoutes[i] != afterRoutes[i]) {
+                migrated++;
+                // Only the keys of the leaving node move.
+                Assert.assertSame(removed, beforeRoutes[i]);
+            }
+        }
+        double fraction = (double) migrated / KEYS;
+        Assert.assertTrue("consistent hash migrated " + fraction, fraction > 0.1 && fraction < 0.3);
+    }
+
+    private static double migrated(RemoteClientSelector selector, List<RemoteClient> before, List<RemoteClient> after) {
+        RemoteClient[] beforeRoutes = route(selector, before);
+        RemoteClient[] afterRoutes = route(selector, after);
+        int migrated = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (!beforeRoutes[i].getAddress().equals(afterRoutes[i].getAddress())) {
+                migrated++;
+            }
+        }
+        return (double) migrated / KEYS;
+    }
+
+    private static RemoteClient[] route(RemoteClientSelector selector, List<RemoteClient> clients) {
+        RemoteClient[] routes = new RemoteClient[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            routes[i] = selector.select(clients, new TestStreamData(("service_" + i + "_endpoint").hashCode()));
+        }
+        return routes;
+    }
+
+    private static List<RemoteClient> clients(int size) {
+        List<RemoteClient> clients = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            clients.add(client(i));
+        }
+        return clients;
+    }
+
+    private static RemoteClient client(int index) {
+        RemoteClient client = mock(RemoteClient.class);
+        when(client.getAddress()).thenReturn(new Address("10.0.0." + index, 11800, false));
+        return client;
+    }
+
+    private static class TestStreamData extends StreamData {
+        private final int hashCode;
+
+        private TestStreamData(int hashCode) {
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder();
+        }
+    }
+}
@@ -19,16 +19,24 @@
 package org.apache.skywalking.oap.server.core.storage;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.Data;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsPersistentWorker;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNWorker;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -36,6 +44,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
 import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.powermock.reflect.Whitebox;
@@ -47,11 +56,21 @@ import static org.mockito.Mockito.mock;
 
 public class PersistenceTimerTest {
 
+    @After
+    public void tearDown() {
+        ((ExecutorService) Whitebox.getInternalState(PersistenceTimer.INSTANCE, "prepareExecutorService")).shutdownNow();
+        ((ExecutorService) Whitebox.getInternalState(PersistenceTimer.INSTANCE, "executeExecutorService")).shutdownNow();
+        ((Map<?, ?>) Whitebox.getInternalState(PersistenceTimer.INSTANCE, "pipelines")).clear();
+        MetricsStreamProcessor.getInstance().getPersistentWorkers().clear();
+        TopNStreamProcessor.getInstance().getPersistentWorkers().clear();
+    }
+
     @Test
     public void testExtractDataAndSave() throws Exception {
         Set<PrepareRequest> result = new HashSet();
         int count = 101;
         int workCount = 10;
+        CountDownLatch allFlushed = new CountDownLatch(workCount * 2);
         CoreModuleConfig moduleConfig = new CoreModuleConfig();
         moduleConfig.setPersistentPeriod(Integer.MAX_VALUE);
         IBatchDAO iBatchDAO = new IBatchDAO() {
@@ -65,12 +84,113 @@ public class PersistenceTimerTest {
                 synchronized (result) {
                     result.addAll(prepareRequests);
                 }
+                allFlushed.countDown();
             }
         };
         for (int i = 0; i < workCount; i++) {
             MetricsStreamProcessor.getInstance().getPersistentWorkers().add(genWorkers(i, count));
             TopNStreamProcessor.getInstance().getPersistentWorkers().add(genTopNWorkers(i, count));
         }
+        start(moduleConfig, iBatchDAO);
+        // One round of every worker starts in the first period, the next ones are a period later.
+        PersistenceTimer.INSTANCE.schedulePipelines(iBatchDAO, 500);
+
+        Assert.assertTrue(allFlushed.await(10, TimeUnit.SECONDS));
+        synchronized (result) {
+            Assert.assertTrue(result.size() >= count * workCount * 2);
+        }
+    }
+
+    @Test
+    public void testNextRoundWaitsForTheFlush() throws Exception {
+        AtomicBoolean flushing = new AtomicBoolean();
+        AtomicBoolean preparedWhileFlushing = new AtomicBoolean();
+        CountDownLatch rounds = new CountDownLatch(3);
+        IBatchDAO iBatchDAO = new IBatchDAO() {
+            @Override
+            public void insert(InsertRequest insertRequest) {
+
+            }
+
+            @Override
+            public void flush(final List<PrepareRequest> prepareRequests) {
+                flushing.set(true);
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    flushing.set(false);
+                    rounds.countDown();
+                }
+            }
+        };
+        CoreModuleConfig moduleConfig = new CoreModuleConfig();
+        moduleConfig.setPersistentPeriod(Integer.MAX_VALUE);
+        start(moduleConfig, iBatchDAO);
+
+        MetricsPersistentWorker worker = mock(MetricsPersistentWorker.class);
+        doReturn(mockModel()).when(worker).getModel();
+        doAnswer(invocation -> {
+            // The prepare stage could read the storage, the rows of the previous round must be flushed.
+            if (flushing.get()) {
+                preparedWhileFlushing.set(true);
+            }
+            return Collections.singletonList(new MockStorageData(UUID.randomUUID().toString()));
+        }).when(worker).buildBatchRequests();
+        MetricsStreamProcessor.getInstance().getPersistentWorkers().add(worker);
+
+        // The period is far shorter than the flush.
+        PersistenceTimer.INSTANCE.schedulePipelines(iBatchDAO, 10);
+
+        Assert.assertTrue(rounds.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(preparedWhileFlushing.get());
+    }
+
+    @Test
+    public void testSlowFlushesDoNotBlockOtherWorkers() throws Exception {
+        CountDownLatch slowFlushBlocker = new CountDownLatch(1);
+        CountDownLatch fastRounds = new CountDownLatch(3);
+        IBatchDAO iBatchDAO = new IBatchDAO() {
+            @Override
+            public void insert(InsertRequest insertRequest) {
+
+            }
+
+            @Override
+            public void flush(final List<PrepareRequest> prepareRequests) {
+                // The mock workers return the storage data as the requests.
+                if (((MockStorageData) prepareRequests.get(0)).getId().startsWith("fast")) {
+                    fastRounds.countDown();
+                    return;
+                }
+                try {
+                    slowFlushBlocker.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        CoreModuleConfig moduleConfig = new CoreModuleConfig();
+        moduleConfig.setPersistentPeriod(Integer.MAX_VALUE);
+        moduleConfig.setFlushThreads(3);
+        start(moduleConfig, iBatchDAO);
+
+        // As many slow workers as the prepare threads.
+        for (int i = 0; i < moduleConfig.getPrepareThreads(); i++) {
+            MetricsStreamProcessor.getInstance().getPersistentWorkers().add(genWorker("slow-" + i));
+        }
+        MetricsStreamProcessor.getInstance().getPersistentWorkers().add(genWorker("fast"));
+        PersistenceTimer.INSTANCE.schedulePipelines(iBatchDAO, 10);
+
+        try {
+            Assert.assertTrue(fastRounds.await(10, TimeUnit.SECONDS));
+        } finally {
+            slowFlushBlocker.countDown();
+        }
+    }
+
+    private void start(CoreModuleConfig moduleConfig, IBatchDAO iBatchDAO) {
         ModuleManager moduleManager = mock(ModuleManager.class);
         ModuleServiceHolder moduleServiceHolder = mock(ModuleServiceHolder.class);
         doReturn((ModuleProviderHolder) () -> moduleServiceHolder).when(moduleManager).find(anyString());
@@ -79,13 +199,18 @@ public class PersistenceTimerTest {
         PersistenceTimer.INSTANCE.isStarted = true;
 
         PersistenceTimer.INSTANCE.start(moduleManager, moduleConfig);
-        Whitebox.invokeMethod(PersistenceTimer.INSTANCE, "extractDataAndSave", iBatchDAO);
+    }
 
-        Assert.assertEquals(count * workCount * 2, result.size());
+    private Model mockModel() {
+        Model model = mock(Model.class);
+        doReturn("mock_metrics").when(model).getName();
+        doReturn(DownSampling.Minute).when(model).getDownsampling();
+        return model;
     }
 
     private MetricsPersistentWorker genWorkers(int num, int count) {
         MetricsPersistentWorker persistenceWorker = mock(MetricsPersistentWorker.class);
+        doReturn(mockModel()).when(persistenceWorker).getModel();
         doAnswer(invocation -> {
             List<MockStorageData> results = new ArrayList<>(count);
             for (int i = 0; i < count; i++) {
@@ -96,8 +221,17 @@ public class PersistenceTimerTest {
         return persistenceWorker;
     }
 
+    private MetricsPersistentWorker genWorker(String id) {
+        MetricsPersistentWorker persistenceWorker = mock(MetricsPersistentWorker.class);
+        doReturn(mockModel()).when(persistenceWorker).getModel();
+        doAnswer(invocation -> Collections.singletonList(new MockStorageData(id + " " + UUID.randomUUID())))
+            .when(persistenceWorker).buildBatchRequests();
+        return persistenceWorker;
+    }
+
     private TopNWorker genTopNWorkers(int num, int count) {
         TopNWorker persistenceWorker = mock(TopNWorker.class);
+        doReturn(mockModel()).when(persistenceWorker).getModel();
         doAnswer(invocation -> {
             List<MockStorageData> results = new ArrayList<>(count);
             for (int i = 0; i < count; i++) {
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.worker;
+
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+
+public class WorkerInstancesServiceTest {
+    @Test
+    public void testWorkerId() {
+        WorkerInstancesService service = new WorkerInstancesService();
+        service.put("worker", mock(AbstractWorker.class), StreamData.class);
+
+        final int id = service.getWorkerId("worker");
+        Assert.assertEquals("worker".hashCode(), id);
+        Assert.assertSame(service.get("worker"), service.get(id));
+        Assert.assertEquals(0, service.getWorkerId("absent"));
+    }
+
+    @Test
+    public void testConflictWorkerId() {
+        WorkerInstancesService service = new WorkerInstancesService();
+        // "Aa" and "BB" share the same hash code.
+        service.put("Aa", mock(AbstractWorker.class), StreamData.class);
+        service.put("BB", mock(AbstractWorker.class), StreamData.class);
+
+        Assert.assertEquals(0, service.getWorkerId("Aa"));
+        Assert.assertEquals(0, service.getWorkerId("BB"));
+        Assert.assertNull(service.get("Aa".hashCode()));
+        Assert.assertNotNull(service.get("Aa"));
+        Assert.assertNotNull(service.get("BB"));
+    }
+}
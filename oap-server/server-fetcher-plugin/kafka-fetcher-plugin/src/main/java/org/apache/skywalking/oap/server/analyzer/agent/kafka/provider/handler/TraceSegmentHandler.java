@@ -18,7 +18,9 @@
 
 package org.apache.skywalking.oap.server.analyzer.agent.kafka.provider.handler;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.utils.Bytes;
@@ -70,7 +72,9 @@ public class TraceSegmentHandler extends AbstractKafkaHandler {
     @Override
     public void handle(final ConsumerRecord<String, Bytes> record) {
         try (HistogramMetrics.Timer ignore = histogram.createTimer()) {
-            SegmentObject segment = SegmentObject.parseFrom(record.value().get());
+            // The record bytes are never changed after consumed, so wrap rather than copy them.
+            ByteString segmentBinary = UnsafeByteOperations.unsafeWrap(record.value().get());
+            SegmentObject segment = SegmentObject.parseFrom(segmentBinary);
             if (log.isDebugEnabled()) {
                 log.debug(
                     "Fetched a tracing segment[{}] from service instance[{}].",
@@ -78,7 +82,7 @@ public class TraceSegmentHandler extends AbstractKafkaHandler {
                     segment.getServiceInstance()
                 );
             }
-            segmentParserService.send(segment);
+            segmentParserService.send(segment, segmentBinary);
         } catch (InvalidProtocolBufferException e) {
             errorCounter.inc();
             log.error("handle record failed", e);
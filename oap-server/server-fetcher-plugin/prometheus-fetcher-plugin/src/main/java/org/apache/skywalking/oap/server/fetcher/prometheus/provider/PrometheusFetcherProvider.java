@@ -18,27 +18,32 @@
 
 package org.apache.skywalking.oap.server.fetcher.prometheus.provider;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
-import io.vavr.CheckedFunction1;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.Charsets;
-import org.apache.skywalking.oap.meter.analyzer.MetricConvert;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
 import org.apache.skywalking.oap.meter.analyzer.prometheus.PrometheusMetricConverter;
 import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rule;
 import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rules;
 import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.StaticConfig;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Target;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 import org.apache.skywalking.oap.server.fetcher.prometheus.http.HttpClient;
@@ -61,6 +66,7 @@ import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 @Slf4j
 public class PrometheusFetcherProvider extends ModuleProvider {
+    private static final int TARGET_QUEUE_SIZE = 1024;
 
     private final PrometheusFetcherConfig config;
 
@@ -68,6 +74,8 @@ public class PrometheusFetcherProvider extends ModuleProvider {
 
     private ScheduledExecutorService ses;
 
+    private ExecutorService convertWorkers;
+
     private HistogramMetrics histogram;
 
     private CounterMetrics errorCounter;
@@ -98,6 +106,13 @@ public class PrometheusFetcherProvider extends ModuleProvider {
             Math.min(rules.size(), config.getMaxConvertWorker()),
             new CustomThreadFactory("meter-converter")
         );
+        // When the queue is full the scheduler thread fetches the target itself, which bounds the pending targets.
+        convertWorkers = new ThreadPoolExecutor(
+            config.getMaxConvertWorker(), config.getMaxConvertWorker(), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(TARGET_QUEUE_SIZE),
+            new CustomThreadFactory("meter-target-converter"),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
     }
 
     @Override
@@ -132,39 +147,27 @@ public class PrometheusFetcherProvider extends ModuleProvider {
                         }
                         StaticConfig sc = r.getStaticConfig();
                         long now = System.currentTimeMillis();
-                        converter.toMeter(sc.getTargets().stream()
-                                .map(CheckedFunction1.liftTry(target -> {
-                                    URI url = new URI(target.getUrl());
-                                    URI targetURL = url.resolve(r.getMetricsPath());
-                                    String content = HttpClient.builder().url(targetURL.toString()).caFilePath(target.getSslCaFilePath()).build().request();
-                                    List<Metric> result = new ArrayList<>();
-                                    try (InputStream targetStream = new ByteArrayInputStream(content.getBytes(Charsets.UTF_8))) {
-                                        Parser p = Parsers.text(targetStream);
-                                        MetricFamily mf;
-                                        while ((mf = p.parse(now)) != null) {
-                                            mf.getMetrics().forEach(metric -> {
-                                                if (Objects.isNull(sc.getLabels())) {
-                                                    return;
-                                                }
-                                                Map<String, String> extraLabels = Maps.newHashMap(sc.getLabels());
-                                                extraLabels.put("instance", target.getUrl());
-                                                extraLabels.forEach((key, value) -> {
-                                                    if (metric.getLabels().containsKey(key)) {
-                                                        metric.getLabels().put("exported_" + key, metric.getLabels().get(key));
-                                                    }
-                                                    metric.getLabels().put(key, value);
-                                                });
-                                            });
-                                            result.addAll(mf.getMetrics());
-                                        }
-                                    }
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Fetch metrics from prometheus: {}", result);
-                                    }
-                                    return result;
-                                }))
-                                .flatMap(tryIt -> MetricConvert.log(tryIt, "Load metric"))
-                                .flatMap(Collection::stream));
+                        // Fetch and convert the targets in parallel, then analyze their samples together.
+                        List<Future<ImmutableMap<String, SampleFamily>>> futures = new ArrayList<>();
+                        for (Target target : sc.getTargets()) {
+                            futures.add(convertWorkers.submit(
+                                () -> converter.convertPromMetricToSampleFamily(fetch(r, target, now).stream())));
+                        }
+                        List<ImmutableMap<String, SampleFamily>> sampleFamilies = new ArrayList<>(futures.size());
+                        for (Future<ImmutableMap<String, SampleFamily>> future : futures) {
+                            try {
+                                sampleFamilies.add(future.get());
+                            } catch (InterruptedException e) {
+                                futures.forEach(f -> f.cancel(true));
+                                Thread.currentThread().interrupt();
+                                return;
+                            } catch (ExecutionException e) {
+                                log.debug("Load metric failed", e.getCause());
+                            }
+                        }
+                        if (!sampleFamilies.isEmpty()) {
+                            converter.toMeter(sampleFamilies);
+                        }
                     } catch (Exception e) {
                         errorCounter.inc();
                         log.error(e.getMessage(), e);
@@ -174,6 +177,38 @@ public class PrometheusFetcherProvider extends ModuleProvider {
         });
     }
 
+    private List<Metric> fetch(Rule rule, Target target, long now) throws Exception {
+        StaticConfig sc = rule.getStaticConfig();
+        URI url = new URI(target.getUrl());
+        URI targetURL = url.resolve(rule.getMetricsPath());
+        String content = HttpClient.builder().url(targetURL.toString()).caFilePath(target.getSslCaFilePath()).build().request();
+        List<Metric> result = new ArrayList<>();
+        try (InputStream targetStream = new ByteArrayInputStream(content.getBytes(Charsets.UTF_8))) {
+            Parser p = Parsers.text(targetStream);
+            MetricFamily mf;
+            while ((mf = p.parse(now)) != null) {
+                mf.getMetrics().forEach(metric -> {
+                    if (Objects.isNull(sc.getLabels())) {
+                        return;
+                    }
+                    Map<String, String> extraLabels = Maps.newHashMap(sc.getLabels());
+                    extraLabels.put("instance", target.getUrl());
+                    extraLabels.forEach((key, value) -> {
+                        if (metric.getLabels().containsKey(key)) {
+                            metric.getLabels().put("exported_" + key, metric.getLabels().get(key));
+                        }
+                        metric.getLabels().put(key, value);
+                    });
+                });
+                result.addAll(mf.getMetrics());
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Fetch metrics from prometheus: {}", result);
+        }
+        return result;
+    }
+
     @Override
     public String[] requiredModules() {
         return new String[] {
@@ -46,6 +46,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Counter;
 import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Gauge;
 import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Histogram;
+import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Metric;
 import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Summary;
 import org.apache.skywalking.oap.server.receiver.otel.Handler;
 
@@ -76,7 +77,8 @@ public class OCMetricHandler extends MetricsServiceGrpc.MetricsServiceImplBase i
                         }
                     }
                 }
-                metrics.forEach(m -> m.toMeter(request.getMetricsList().stream()
+                // Convert the request once, then share the result with the converters of all the rules.
+                List<Metric> converted = request.getMetricsList().stream()
                     .flatMap(metric -> metric.getTimeseriesList().stream().map(timeSeries ->
                         Tuple.of(metric.getMetricDescriptor(),
                                  buildLabelsFromNodeInfo(
@@ -109,7 +111,9 @@ public class OCMetricHandler extends MetricsServiceGrpc.MetricsServiceImplBase i
                                 throw new UnsupportedOperationException("Unsupported OC type:" + t._1.getType());
                         }
                     }))
-                    .flatMap(tryIt -> MetricConvert.log(tryIt, "Convert OC metric to prometheus metric"))));
+                    .flatMap(tryIt -> MetricConvert.log(tryIt, "Convert OC metric to prometheus metric"))
+                    .collect(toList());
+                metrics.forEach(m -> m.toMeter(converted.stream()));
             }
 
             @Override public void onError(Throwable throwable) {
@@ -42,16 +42,33 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
         this.param = param;
     }
 
+    public String getSql() {
+        return sql;
+    }
+
     public void invoke(Connection connection) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            setParameters(preparedStatement);
 
-        for (int i = 0; i < param.size(); i++) {
-            preparedStatement.setObject(i + 1, param.get(i));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("execute sql in batch: {}, parameters: {}", sql, param);
+            }
+            preparedStatement.execute();
         }
+    }
 
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("execute sql in batch: {}, parameters: {}", sql, param);
+    /**
+     * Bind the parameters to the given statement and add them as one row of the JDBC batch. The statement must be
+     * prepared by the same {@link #getSql()}.
+     */
+    public void addBatch(PreparedStatement preparedStatement) throws SQLException {
+        setParameters(preparedStatement);
+        preparedStatement.addBatch();
+    }
+
+    private void setParameters(PreparedStatement preparedStatement) throws SQLException {
+        for (int i = 0; i < param.size(); i++) {
+            preparedStatement.setObject(i + 1, param.get(i));
         }
-        preparedStatement.execute();
     }
 }
@@ -59,4 +59,17 @@ public class H2StorageConfig extends ModuleConfig {
      * @since 8.2.0
      */
     private int numOfSearchableValuesPerTag = 2;
+    /**
+     * The max number of rows of the same model and operation executed by one JDBC batch.
+     *
+     * @since 8.7.0
+     */
+    private int maxSizeOfBatchSql = 100;
+    /**
+     * The number of threads executing the batches of different models in parallel. Each thread holds one connection
+     * from the pool while executing.
+     *
+     * @since 8.7.0
+     */
+    private int asyncBatchPersistentPoolSize = 1;
 }
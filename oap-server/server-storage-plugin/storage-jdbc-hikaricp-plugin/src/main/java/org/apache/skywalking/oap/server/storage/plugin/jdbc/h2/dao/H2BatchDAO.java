@@ -18,9 +18,17 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
@@ -35,13 +43,21 @@ import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
 
+/**
+ * The requests of one flush are grouped by their SQL statement, which is the same for all rows of one model and
+ * operation. Each group is executed through a JDBC batch of at most {@link #maxSizeOfBatchSql} rows, and the groups
+ * are spread over asyncBatchPersistentPoolSize threads, each one holds its own connection of the pool.
+ */
 @Slf4j
 public class H2BatchDAO implements IBatchDAO {
     private JDBCHikariCPClient h2Client;
     private final DataCarrier<PrepareRequest> dataCarrier;
+    private final int maxSizeOfBatchSql;
+    private final ExecutorService executorService;
 
-    public H2BatchDAO(JDBCHikariCPClient h2Client) {
+    public H2BatchDAO(JDBCHikariCPClient h2Client, int maxSizeOfBatchSql, int asyncBatchPersistentPoolSize) {
         this.h2Client = h2Client;
+        this.maxSizeOfBatchSql = Math.max(1, maxSizeOfBatchSql);
 
         String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
         BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, 1, 20);
@@ -51,6 +67,15 @@ public class H2BatchDAO implements IBatchDAO {
             throw new UnexpectedException(e.getMessage(), e);
         }
 
+        if (asyncBatchPersistentPoolSize > 1) {
+            this.executorService = Executors.newFixedThreadPool(
+                asyncBatchPersistentPoolSize,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("H2-BATCH-PERSISTENT-%d").build()
+            );
+        } else {
+            this.executorService = null;
+        }
+
         this.dataCarrier = new DataCarrier<>(1, 10000);
         this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new H2BatchDAO.H2BatchConsumer(this));
     }
@@ -65,21 +90,72 @@ public class H2BatchDAO implements IBatchDAO {
             log.debug("batch sql statements execute, data size: {}", prepareRequests.size());
         }
 
+        final Map<String, List<SQLExecutor>> groups = new LinkedHashMap<>();
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            SQLExecutor sqlExecutor = (SQLExecutor) prepareRequest;
+            groups.computeIfAbsent(sqlExecutor.getSql(), sql -> new ArrayList<>()).add(sqlExecutor);
+        }
+
+        if (executorService == null || groups.size() == 1) {
+            groups.forEach(this::executeGroup);
+            return;
+        }
+
+        CompletableFuture<?>[] futures = groups.entrySet().stream().map(
+            group -> CompletableFuture.runAsync(() -> executeGroup(group.getKey(), group.getValue()), executorService)
+        ).toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void executeGroup(String sql, List<SQLExecutor> sqlExecutors) {
         try (Connection connection = h2Client.getConnection()) {
-            for (PrepareRequest prepareRequest : prepareRequests) {
-                try {
-                    SQLExecutor sqlExecutor = (SQLExecutor) prepareRequest;
-                    sqlExecutor.invoke(connection);
-                } catch (SQLException e) {
-                    // Just avoid one execution failure makes the rest of batch failure.
-                    log.error(e.getMessage(), e);
-                }
+            for (int from = 0; from < sqlExecutors.size(); from += maxSizeOfBatchSql) {
+                final int to = Math.min(sqlExecutors.size(), from + maxSizeOfBatchSql);
+                executeBatch(connection, sql, sqlExecutors.subList(from, to));
             }
         } catch (SQLException | JDBCClientException e) {
             log.error(e.getMessage(), e);
         }
     }
 
+    private void executeBatch(Connection connection, String sql, List<SQLExecutor> sqlExecutors) throws SQLException {
+        if (sqlExecutors.size() > 1) {
+            boolean succeeded = false;
+            connection.setAutoCommit(false);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                for (SQLExecutor sqlExecutor : sqlExecutors) {
+                    sqlExecutor.addBatch(preparedStatement);
+                }
+                preparedStatement.executeBatch();
+                connection.commit();
+                succeeded = true;
+            } catch (SQLException e) {
+                connection.rollback();
+                log.warn("Fail to execute the batch of {} statements, execute them one by one. {}",
+                         sqlExecutors.size(), e.getMessage()
+                );
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            if (succeeded) {
+                return;
+            }
+        }
+
+        for (SQLExecutor sqlExecutor : sqlExecutors) {
+            try {
+                sqlExecutor.invoke(connection);
+            } catch (SQLException e) {
+                // Just avoid one execution failure makes the rest of batch failure.
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
     @Override
     public void insert(InsertRequest insertRequest) {
         this.dataCarrier.produce(insertRequest);
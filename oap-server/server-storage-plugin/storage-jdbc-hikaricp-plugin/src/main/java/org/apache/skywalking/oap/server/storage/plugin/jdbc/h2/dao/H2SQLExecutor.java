@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
@@ -40,6 +41,13 @@ import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
 
 @Slf4j
 public class H2SQLExecutor {
+    /**
+     * The SQL statements only depend on the model columns, cache them by the model name rather than building the same
+     * text for every row.
+     */
+    private final Map<String, String> insertSQLCache = new ConcurrentHashMap<>();
+    private final Map<String, String> updateSQLCache = new ConcurrentHashMap<>();
+
     protected <T extends StorageData> List<StorageData> getByIDs(JDBCHikariCPClient h2Client,
                                                                  String modelName,
                                                                  String[] ids,
@@ -113,30 +121,53 @@ public class H2SQLExecutor {
                                                                     int maxSizeOfArrayColumn) throws IOException {
         Map<String, Object> objectMap = storageBuilder.entity2Storage(metrics);
 
-        SQLBuilder sqlBuilder = new SQLBuilder("INSERT INTO " + modelName + " VALUES");
         List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
         List<Object> param = new ArrayList<>();
-        sqlBuilder.append("(?,");
         param.add(metrics.id());
+        for (ModelColumn column : columns) {
+            if (List.class.isAssignableFrom(column.getType())) {
+                for (int physicalColumnIdx = 0; physicalColumnIdx < maxSizeOfArrayColumn; physicalColumnIdx++) {
+                    param.add(objectMap.get(column.getColumnName().getName() + "_" + physicalColumnIdx));
+                }
+            } else {
+                param.add(toParam(objectMap.get(column.getColumnName().getName())));
+            }
+        }
+
+        String sql = insertSQLCache.computeIfAbsent(modelName, name -> buildInsertSQL(name, maxSizeOfArrayColumn));
+        return new SQLExecutor(sql, param);
+    }
+
+    protected <T extends StorageData> SQLExecutor getUpdateExecutor(String modelName, T metrics,
+                                                                    StorageHashMapBuilder<T> storageBuilder) throws IOException {
+        Map<String, Object> objectMap = storageBuilder.entity2Storage(metrics);
+
+        List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
+        List<Object> param = new ArrayList<>();
+        for (ModelColumn column : columns) {
+            param.add(toParam(objectMap.get(column.getColumnName().getName())));
+        }
+        param.add(metrics.id());
+
+        String sql = updateSQLCache.computeIfAbsent(modelName, this::buildUpdateSQL);
+        return new SQLExecutor(sql, param);
+    }
+
+    private String buildInsertSQL(String modelName, int maxSizeOfArrayColumn) {
+        SQLBuilder sqlBuilder = new SQLBuilder("INSERT INTO " + modelName + " VALUES");
+        List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
+        sqlBuilder.append("(?,");
         for (int i = 0; i < columns.size(); i++) {
             ModelColumn column = columns.get(i);
             if (List.class.isAssignableFrom(column.getType())) {
                 for (int physicalColumnIdx = 0; physicalColumnIdx < maxSizeOfArrayColumn; physicalColumnIdx++) {
                     sqlBuilder.append("?");
-                    param.add(objectMap.get(column.getColumnName().getName() + "_" + physicalColumnIdx));
                     if (physicalColumnIdx != maxSizeOfArrayColumn - 1) {
                         sqlBuilder.append(",");
                     }
                 }
             } else {
                 sqlBuilder.append("?");
-
-                Object value = objectMap.get(column.getColumnName().getName());
-                if (value instanceof StorageDataComplexObject) {
-                    param.add(((StorageDataComplexObject) value).toStorageData());
-                } else {
-                    param.add(value);
-                }
             }
 
             if (i != columns.size() - 1) {
@@ -144,34 +175,27 @@ public class H2SQLExecutor {
             }
         }
         sqlBuilder.append(")");
-
-        return new SQLExecutor(sqlBuilder.toString(), param);
+        return sqlBuilder.toString();
     }
 
-    protected <T extends StorageData> SQLExecutor getUpdateExecutor(String modelName, T metrics,
-                                                                    StorageHashMapBuilder<T> storageBuilder) throws IOException {
-        Map<String, Object> objectMap = storageBuilder.entity2Storage(metrics);
-
+    private String buildUpdateSQL(String modelName) {
         SQLBuilder sqlBuilder = new SQLBuilder("UPDATE " + modelName + " SET ");
         List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
-        List<Object> param = new ArrayList<>();
         for (int i = 0; i < columns.size(); i++) {
             ModelColumn column = columns.get(i);
             sqlBuilder.append(column.getColumnName().getStorageName() + "= ?");
             if (i != columns.size() - 1) {
                 sqlBuilder.append(",");
             }
-
-            Object value = objectMap.get(column.getColumnName().getName());
-            if (value instanceof StorageDataComplexObject) {
-                param.add(((StorageDataComplexObject) value).toStorageData());
-            } else {
-                param.add(value);
-            }
         }
         sqlBuilder.append(" WHERE id = ?");
-        param.add(metrics.id());
+        return sqlBuilder.toString();
+    }
 
-        return new SQLExecutor(sqlBuilder.toString(), param);
+    private static Object toParam(Object value) {
+        if (value instanceof StorageDataComplexObject) {
+            return ((StorageDataComplexObject) value).toStorageData();
+        }
+        return value;
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class H2BatchDAOTest {
+    private static final String INSERT_SQL = "INSERT INTO batch_test VALUES(?,?)";
+    private static final String UPDATE_SQL = "UPDATE batch_test SET amount= ? WHERE id = ?";
+
+    private CountingClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:batch-dao-test;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "sa");
+        client = new CountingClient(settings);
+        client.connect();
+
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "DROP TABLE IF EXISTS batch_test");
+            client.execute(connection, "CREATE TABLE batch_test (id VARCHAR(64) PRIMARY KEY, amount BIGINT)");
+        }
+        client.executions.set(0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "DROP TABLE IF EXISTS batch_test");
+        }
+    }
+
+    @Test
+    public void testRoundTripReduction() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 100, 2);
+
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            requests.add(new SQLExecutor(INSERT_SQL, Arrays.asList("id-" + i, (long) i)));
+        }
+        batchDAO.flush(requests);
+
+        // 1000 rows in the batches of 100 rows, rather than 1000 executions.
+        Assert.assertEquals(10, client.executions.get());
+        Assert.assertEquals(1000, count("SELECT COUNT(*) FROM batch_test"));
+
+        client.executions.set(0);
+        requests.clear();
+        for (int i = 0; i < 250; i++) {
+            requests.add(new SQLExecutor(UPDATE_SQL, Arrays.asList(0L, "id-" + i)));
+        }
+        for (int i = 1000; i < 1050; i++) {
+            requests.add(new SQLExecutor(INSERT_SQL, Arrays.asList("id-" + i, (long) i)));
+        }
+        batchDAO.flush(requests);
+
+        // The updates and inserts are grouped separately, 3 batches for updates and 1 batch for inserts.
+        Assert.assertEquals(4, client.executions.get());
+        Assert.assertEquals(1050, count("SELECT COUNT(*) FROM batch_test"));
+        Assert.assertEquals(250, count("SELECT COUNT(*) FROM batch_test WHERE amount = 0"));
+    }
+
+    @Test
+    public void testFailedBatchFallback() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 100, 1);
+        batchDAO.flush(Collections.singletonList(new SQLExecutor(INSERT_SQL, Arrays.asList("id-5", 5L))));
+
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(new SQLExecutor(INSERT_SQL, Arrays.asList("id-" + i, (long) i)));
+        }
+        batchDAO.flush(requests);
+
+        // The duplicate id-5 fails the batch, the rest of rows should still be inserted one by one.
+        Assert.assertEquals(10, count("SELECT COUNT(*) FROM batch_test"));
+    }
+
+    private long count(String sql) throws Exception {
+        try (Connection connection = client.getConnection();
+             ResultSet resultSet = client.executeQuery(connection, sql)) {
+            Assert.assertTrue(resultSet.next());
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Count the statements sent to the database, one executeBatch call is one round trip.
+     */
+    private static class CountingClient extends JDBCHikariCPClient {
+        private final AtomicInteger executions = new AtomicInteger();
+
+        private CountingClient(Properties properties) {
+            super(properties);
+        }
+
+        @Override
+        public Connection getConnection(boolean autoCommit) throws JDBCClientException {
+            Connection connection = super.getConnection(autoCommit);
+            return (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class[] {Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement) {
+                        return countingStatement((PreparedStatement) result);
+                    }
+                    return result;
+                });
+        }
+
+        private PreparedStatement countingStatement(PreparedStatement statement) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        executions.incrementAndGet();
+                    }
+                    return invoke(statement, method, args);
+                });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
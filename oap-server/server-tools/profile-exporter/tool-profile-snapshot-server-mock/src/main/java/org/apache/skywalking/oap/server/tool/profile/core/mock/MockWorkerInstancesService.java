@@ -34,6 +34,16 @@ public class MockWorkerInstancesService implements IWorkerInstanceSetter, IWorke
         return null;
     }
 
+    @Override
+    public RemoteHandleWorker get(int nextWorkerId) {
+        return null;
+    }
+
+    @Override
+    public int getWorkerId(String nextWorkerName) {
+        return 0;
+    }
+
     @Override
     public void put(String remoteReceiverWorkName, AbstractWorker instance, Class<? extends StreamData> streamDataClass) {
     }